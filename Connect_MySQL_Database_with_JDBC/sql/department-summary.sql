@@ -0,0 +1,32 @@
+--
+-- INCREMENTALLY MAINTAINED DEPARTMENT SUMMARY
+--
+-- Maintained by AbteilungsZusammenfassung: every insert, update, delete and
+-- salary raise issued through it applies a delta to this table in the same
+-- transaction, so per-department counts and salary totals are a primary-key
+-- lookup instead of a scan of employees. Writes that bypass the class
+-- (the demo classes, a direct call of increase_salaries_for_department, ...)
+-- are not reflected; AbteilungsZusammenfassung modus=pruefen finds the drift
+-- and modus=aufbauen rebuilds the table.
+--
+-- salary_count counts the rows with a non-NULL salary, because a raise of
+-- NULL + x stays NULL and SUM(salary) ignores them. Employees without a
+-- department are summarised under the empty string.
+--
+
+use demo;
+
+CREATE TABLE IF NOT EXISTS `department_summary` (
+  `department` varchar(64) NOT NULL,
+  `employee_count` int(11) NOT NULL DEFAULT 0,
+  `salary_count` int(11) NOT NULL DEFAULT 0,
+  `salary_total` DECIMAL(18,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`department`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+DELETE FROM department_summary;
+
+INSERT INTO department_summary (department, employee_count, salary_count, salary_total)
+SELECT COALESCE(department, ''), COUNT(*), COUNT(salary), COALESCE(SUM(salary), 0)
+FROM employees
+GROUP BY COALESCE(department, '');
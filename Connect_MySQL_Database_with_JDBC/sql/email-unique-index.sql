@@ -0,0 +1,14 @@
+--
+-- UNIQUE INDEX ON EMAIL
+--
+-- Required by MitarbeiterAbgleich with key EMAIL: INSERT ... ON DUPLICATE KEY UPDATE
+-- can only detect an existing employee by email if email is unique.
+--
+
+use demo;
+
+-- Remove duplicates first (e.g. from repeated runs of JdbcInsertDemo), keeping the lowest id
+DELETE e1 FROM employees e1
+JOIN employees e2 ON e1.email = e2.email AND e1.id > e2.id;
+
+ALTER TABLE employees ADD UNIQUE KEY `uq_employees_email` (`email`);
@@ -0,0 +1,18 @@
+--
+-- CHECKPOINT TABLE FOR BACKGROUND JOBS
+--
+-- Used by AuftragsPlaner: after every step of a job its position is stored in
+-- the same transaction as the step itself, so an interrupted job resumes after
+-- the last committed step instead of starting over.
+--
+
+use demo;
+
+CREATE TABLE IF NOT EXISTS `job_checkpoints` (
+  `job_key` varchar(191) NOT NULL,
+  `position` varchar(255) DEFAULT NULL,
+  `finished` tinyint(1) NOT NULL DEFAULT 0,
+  `steps` int(11) NOT NULL DEFAULT 0,
+  `updated_at` TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`job_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
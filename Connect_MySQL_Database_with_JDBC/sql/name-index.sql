@@ -0,0 +1,10 @@
+--
+-- INDEX ON (LAST_NAME, FIRST_NAME)
+--
+-- Supports the lookups in JdbcUpdateDemo, JdbcDeleteDemo and the fallback path
+-- of NamensSuche, which otherwise scan the whole employees table.
+--
+
+use demo;
+
+ALTER TABLE employees ADD KEY `idx_employees_name` (`last_name`, `first_name`);
@@ -0,0 +1,14 @@
+--
+-- CHANGE TIMESTAMP ON EMPLOYEES
+--
+-- Required by MitarbeiterSpiegel to catch up on changed rows after loading a
+-- local snapshot. Without this column only new rows (id above the high-water
+-- mark) and deletions are picked up.
+--
+
+use demo;
+
+ALTER TABLE employees
+  ADD COLUMN `updated_at` TIMESTAMP(3) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_employees_updated_at` (`updated_at`);
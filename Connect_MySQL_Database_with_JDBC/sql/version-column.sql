@@ -0,0 +1,25 @@
+--
+-- ROW VERSION ON EMPLOYEES
+--
+-- Required by OptimistischerSchreiber: every update checks the version it read
+-- and increments it, so concurrent writers detect conflicts without holding
+-- row locks between read and write.
+--
+
+use demo;
+
+ALTER TABLE employees ADD COLUMN `version` int(11) NOT NULL DEFAULT 0;
+
+-- Writers that know nothing about versions (JdbcUpdateDemo,
+-- increase_salaries_for_department, ...) must still increment it
+DELIMITER $$
+DROP TRIGGER IF EXISTS `employees_version`$$
+
+CREATE TRIGGER `employees_version` BEFORE UPDATE ON `employees`
+FOR EACH ROW
+BEGIN
+
+	SET NEW.version = OLD.version + 1;
+
+END$$
+DELIMITER ;
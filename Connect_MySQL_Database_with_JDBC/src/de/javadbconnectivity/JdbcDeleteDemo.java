@@ -7,6 +7,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
 /**
  * Demonstriert das Löschen von Datensätzen aus einer MySQL-Datenbank mit JDBC.
  * 
@@ -41,8 +43,11 @@ public class JdbcDeleteDemo {
         ResultSet ergebnisSet = null;
         
         try {
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
             // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
             
             // Statement für SQL-Operationen erstellen
             statement = verbindung.createStatement();
@@ -127,14 +132,20 @@ public class JdbcDeleteDemo {
      */
     private static void ressourcenSchliessen(Connection verbindung, Statement statement,
                                            ResultSet ergebnisSet) throws SQLException {
-        if (ergebnisSet != null) {
-            ergebnisSet.close();
-        }
-        if (statement != null) {
-            statement.close();
-        }
-        if (verbindung != null) {
-            verbindung.close();
+        try {
+            if (ergebnisSet != null) {
+                ergebnisSet.close();
+            }
+        } finally {
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+            } finally {
+                if (verbindung != null) {
+                    verbindung.close();
+                }
+            }
         }
     }
     
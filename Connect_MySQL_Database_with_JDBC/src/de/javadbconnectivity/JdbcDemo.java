@@ -6,6 +6,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+
 /**
  * Grundlegende JDBC-Demo-Klasse für einfache Datenbankverbindung und Abfragen.
  * 
@@ -40,8 +44,11 @@ public class JdbcDemo {
         ResultSet ergebnisSet = null;
         
         try {
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
             // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
             
             System.out.println("Datenbankverbindung erfolgreich hergestellt!\n");
             
@@ -49,7 +56,7 @@ public class JdbcDemo {
             statement = verbindung.createStatement();
             
             // SQL-Abfrage ausführen - alle Mitarbeiter abrufen
-            ergebnisSet = statement.executeQuery("SELECT * FROM employees");
+            ergebnisSet = statement.executeQuery(AbfrageBauer.fuer(Anzeigepfad.NAMENSLISTE).bauen());
             
             // Ergebnisse verarbeiten und anzeigen
             System.out.println("Mitarbeiterliste:");
@@ -81,14 +88,20 @@ public class JdbcDemo {
     private static void ressourcenSchliessen(ResultSet ergebnisSet, Statement statement, 
                                            Connection verbindung) {
         try {
-            if (ergebnisSet != null) {
-                ergebnisSet.close();
-            }
-            if (statement != null) {
-                statement.close();
-            }
-            if (verbindung != null) {
-                verbindung.close();
+            try {
+                if (ergebnisSet != null) {
+                    ergebnisSet.close();
+                }
+            } finally {
+                try {
+                    if (statement != null) {
+                        statement.close();
+                    }
+                } finally {
+                    if (verbindung != null) {
+                        verbindung.close();
+                    }
+                }
             }
         } catch (SQLException e) {
             System.err.println("Fehler beim Schließen der Datenbankressourcen:");
@@ -6,6 +6,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+import de.javadbconnectivity.projektion.Spalte;
+
 /**
  * Demonstriert das Einfügen neuer Datensätze in eine MySQL-Datenbank mit JDBC.
  * 
@@ -40,8 +45,11 @@ public class JdbcInsertDemo {
         ResultSet ergebnisSet = null;
         
         try {
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
             // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
             
             System.out.println("Datenbankverbindung erfolgreich hergestellt!\n");
             
@@ -64,7 +72,8 @@ public class JdbcInsertDemo {
             System.out.println("Nachname, Vorname");
             System.out.println("------------------");
             
-            ergebnisSet = statement.executeQuery("SELECT * FROM employees ORDER BY last_name");
+            ergebnisSet = statement.executeQuery(
+                AbfrageBauer.fuer(Anzeigepfad.NAMENSLISTE).sortiertNach(Spalte.NACHNAME).bauen());
             
             // Ergebnisse verarbeiten und anzeigen
             while (ergebnisSet.next()) {
@@ -92,14 +101,20 @@ public class JdbcInsertDemo {
     private static void ressourcenSchliessen(ResultSet ergebnisSet, Statement statement, 
                                            Connection verbindung) {
         try {
-            if (ergebnisSet != null) {
-                ergebnisSet.close();
-            }
-            if (statement != null) {
-                statement.close();
-            }
-            if (verbindung != null) {
-                verbindung.close();
+            try {
+                if (ergebnisSet != null) {
+                    ergebnisSet.close();
+                }
+            } finally {
+                try {
+                    if (statement != null) {
+                        statement.close();
+                    }
+                } finally {
+                    if (verbindung != null) {
+                        verbindung.close();
+                    }
+                }
             }
         } catch (SQLException e) {
             System.err.println("Fehler beim Schließen der Datenbankressourcen:");
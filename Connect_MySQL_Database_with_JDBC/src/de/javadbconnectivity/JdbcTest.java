@@ -6,6 +6,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+
 /**
  * Einfache JDBC-Testklasse zur Überprüfung der Datenbankverbindung.
  * 
@@ -39,8 +43,11 @@ public class JdbcTest {
         ResultSet ergebnisSet = null;
         
         try {
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
             // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
             
             System.out.println("Datenbankverbindung erfolgreich!\n");
             
@@ -48,7 +55,7 @@ public class JdbcTest {
             statement = verbindung.createStatement();
             
             // SQL-Abfrage ausführen - alle Mitarbeiter abrufen
-            ergebnisSet = statement.executeQuery("SELECT * FROM employees");
+            ergebnisSet = statement.executeQuery(AbfrageBauer.fuer(Anzeigepfad.NAMENSLISTE).bauen());
             
             // Ergebnisse verarbeiten und anzeigen
             System.out.println("Mitarbeiterliste aus der Datenbank:");
@@ -80,14 +87,20 @@ public class JdbcTest {
     private static void ressourcenSchliessen(ResultSet ergebnisSet, Statement statement, 
                                            Connection verbindung) {
         try {
-            if (ergebnisSet != null) {
-                ergebnisSet.close();
-            }
-            if (statement != null) {
-                statement.close();
-            }
-            if (verbindung != null) {
-                verbindung.close();
+            try {
+                if (ergebnisSet != null) {
+                    ergebnisSet.close();
+                }
+            } finally {
+                try {
+                    if (statement != null) {
+                        statement.close();
+                    }
+                } finally {
+                    if (verbindung != null) {
+                        verbindung.close();
+                    }
+                }
             }
         } catch (SQLException e) {
             System.err.println("Fehler beim Schließen der Datenbankressourcen:");
@@ -7,6 +7,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
 /**
  * Demonstriert das Aktualisieren bestehender Datensätze in einer MySQL-Datenbank mit JDBC.
  * 
@@ -42,8 +44,11 @@ public class JdbcUpdateDemo {
         ResultSet ergebnisSet = null;
         
         try {
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
             // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
             
             System.out.println("Datenbankverbindung erfolgreich hergestellt!\n");
             
@@ -141,14 +146,20 @@ public class JdbcUpdateDemo {
     private static void close(Connection verbindung, Statement statement,
                                            ResultSet ergebnisSet) throws SQLException {
         // Ressourcen in umgekehrter Reihenfolge der Erstellung schließen
-        if (ergebnisSet != null) {
-            ergebnisSet.close();
-        }
-        if (statement != null) {
-            statement.close();
-        }
-        if (verbindung != null) {
-            verbindung.close();
+        try {
+            if (ergebnisSet != null) {
+                ergebnisSet.close();
+            }
+        } finally {
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+            } finally {
+                if (verbindung != null) {
+                    verbindung.close();
+                }
+            }
         }
     }
     
@@ -0,0 +1,66 @@
+package de.javadbconnectivity.abgleich;
+
+import de.javadbconnectivity.mitarbeiter.Kollation;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+
+/**
+ * Legt fest, woran {@link MitarbeiterAbgleich} einen bereits vorhandenen
+ * Mitarbeiter erkennt.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum AbgleichSchluessel {
+
+    /** Der Primärschlüssel {@code id}; jeder Datensatz muss eine Id tragen */
+    ID,
+
+    /**
+     * Die E-Mail-Adresse; erfordert den eindeutigen Index aus
+     * {@code sql/email-unique-index.sql}. Neue Mitarbeiter erhalten ihre Id
+     * von der Datenbank.
+     */
+    EMAIL;
+
+    /**
+     * Liefert den Schlüssel eines Datensatzes. E-Mail-Adressen werden nach der
+     * Sortierfolge der Tabelle verglichen (siehe {@link Kollation}), damit zwei
+     * Adressen genau dann derselbe Schlüssel sind, wenn der eindeutige Index sie
+     * als dieselbe Zeile behandelt.
+     *
+     * @param mitarbeiter der Datensatz
+     * @return der Schlüsselwert
+     * @throws IllegalArgumentException wenn der Schlüssel fehlt
+     */
+    public Object wert(Mitarbeiter mitarbeiter) {
+        return switch (this) {
+            case ID -> {
+                if (mitarbeiter.id() <= 0) {
+                    throw new IllegalArgumentException("Datensatz ohne Id: " + mitarbeiter);
+                }
+                yield mitarbeiter.id();
+            }
+            case EMAIL -> {
+                if (mitarbeiter.email() == null) {
+                    throw new IllegalArgumentException("Datensatz ohne E-Mail: " + mitarbeiter);
+                }
+                yield Kollation.schluessel(mitarbeiter.email());
+            }
+        };
+    }
+
+    /**
+     * @param mitarbeiter der Datensatz
+     * @return der unveränderte Wert für die Suche in {@link #spalte()}
+     */
+    Object suchwert(Mitarbeiter mitarbeiter) {
+        return this == ID ? mitarbeiter.id() : mitarbeiter.email();
+    }
+
+    /**
+     * @return die Spalte, nach der in der Tabelle gesucht wird
+     */
+    String spalte() {
+        return this == ID ? "id" : "email";
+    }
+}
@@ -0,0 +1,270 @@
+package de.javadbconnectivity.abgleich;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Gleicht einen externen Mitarbeiterbestand (z.B. einen HR-Export) idempotent
+ * mit der Tabelle {@code employees} ab.
+ *
+ * Statt pro Datensatz erst zu lesen und dann einzufügen oder zu ändern
+ * (wie {@code JdbcInsertDemo} und {@code JdbcUpdateDemo}), arbeitet diese
+ * Klasse in Stapeln:
+ * - die Vergleichswerte werden mit einer einzigen {@code SELECT ... IN (...) FOR UPDATE}
+ *   pro Stapel geladen
+ * - unveränderte Datensätze werden anhand eines clientseitigen Hashwerts erkannt
+ *   und gar nicht erst geschrieben
+ * - alle übrigen gehen als ein mehrzeiliges
+ *   {@code INSERT ... ON DUPLICATE KEY UPDATE} an die Datenbank
+ *
+ * Lesen und Schreiben eines Stapels laufen in derselben Transaktion, und die
+ * gelesenen Zeilen bleiben bis zum Commit gesperrt. Überspringen und Zählen
+ * beruhen damit immer auf dem aktuellen Stand der Tabelle, auch wenn andere
+ * Programme sie zwischen zwei Abgleichen ändern.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class MitarbeiterAbgleich {
+
+    /** Standardgröße eines Stapels */
+    public static final int STANDARD_STAPEL = 500;
+
+    /**
+     * Ergebnis eines Abgleichs.
+     *
+     * @param eingefuegt die Anzahl neu eingefügter Mitarbeiter
+     * @param aktualisiert die Anzahl geänderter Mitarbeiter
+     * @param unveraendert die Anzahl übersprungener, unveränderter Datensätze
+     * @param anweisungen die Anzahl ausgeführter {@code INSERT ... ON DUPLICATE KEY UPDATE}
+     * @param dauerNs die Dauer in Nanosekunden
+     */
+    public record Ergebnis(int eingefuegt, int aktualisiert, int unveraendert, int anweisungen, long dauerNs) {
+    }
+
+    private final VerbindungsPool pool;
+    private final AbgleichSchluessel schluessel;
+    private final int stapelGroesse;
+
+    /**
+     * @param pool der Verbindungspool
+     * @param schluessel woran vorhandene Mitarbeiter erkannt werden
+     * @param stapelGroesse die Anzahl Datensätze pro Anweisung
+     */
+    public MitarbeiterAbgleich(VerbindungsPool pool, AbgleichSchluessel schluessel, int stapelGroesse) {
+        if (stapelGroesse < 1) {
+            throw new IllegalArgumentException("Stapelgröße muss mindestens 1 sein: " + stapelGroesse);
+        }
+        this.pool = pool;
+        this.schluessel = schluessel;
+        this.stapelGroesse = stapelGroesse;
+    }
+
+    /**
+     * Fügt fehlende Mitarbeiter ein und ändert abweichende. Kommt ein Schlüssel
+     * mehrfach vor, gilt der letzte Datensatz. Jeder Stapel wird in einer eigenen
+     * Transaktion gelesen, geschrieben und bestätigt; gezählt werden nur
+     * bestätigte Stapel.
+     *
+     * @param bestand die abzugleichenden Datensätze
+     * @return die Anzahl eingefügter, geänderter und übersprungener Datensätze
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public Ergebnis abgleichen(Collection<Mitarbeiter> bestand) throws SQLException {
+        long start = System.nanoTime();
+        Map<Object, Mitarbeiter> eindeutig = new LinkedHashMap<>();
+        for (Mitarbeiter mitarbeiter : bestand) {
+            eindeutig.put(schluessel.wert(mitarbeiter), mitarbeiter);
+        }
+        List<Mitarbeiter> liste = new ArrayList<>(eindeutig.values());
+
+        int eingefuegt = 0;
+        int aktualisiert = 0;
+        int unveraendert = 0;
+        int anweisungen = 0;
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            for (int von = 0; von < liste.size(); von += stapelGroesse) {
+                List<Mitarbeiter> stapel = liste.subList(von, Math.min(liste.size(), von + stapelGroesse));
+                Map<Object, Long> vorhanden = vergleichswerteLaden(verbindung, stapel);
+
+                List<Mitarbeiter> geaendert = new ArrayList<>();
+                int neu = 0;
+                int gleich = 0;
+                for (Mitarbeiter mitarbeiter : stapel) {
+                    Long bekannt = vorhanden.get(schluessel.wert(mitarbeiter));
+                    if (bekannt == null) {
+                        neu++;
+                        geaendert.add(mitarbeiter);
+                    } else if (bekannt != hash(mitarbeiter)) {
+                        geaendert.add(mitarbeiter);
+                    } else {
+                        gleich++;
+                    }
+                }
+                if (!geaendert.isEmpty()) {
+                    schreiben(verbindung, geaendert);
+                    anweisungen++;
+                }
+                verbindung.commit();
+                eingefuegt += neu;
+                aktualisiert += geaendert.size() - neu;
+                unveraendert += gleich;
+            }
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+        return new Ergebnis(eingefuegt, aktualisiert, unveraendert, anweisungen, System.nanoTime() - start);
+    }
+
+    /**
+     * Berechnet einen 64-Bit-Hash über alle fachlichen Spalten außer der Id.
+     * Gehälter werden ohne nachlaufende Nullen verglichen, damit 55000 und
+     * 55000.00 als gleich gelten.
+     *
+     * @param mitarbeiter der Datensatz
+     * @return der Hashwert
+     */
+    static long hash(Mitarbeiter mitarbeiter) {
+        BigDecimal gehalt = mitarbeiter.gehalt();
+        long h = 0xcbf29ce484222325L;
+        h = mischen(h, mitarbeiter.nachname());
+        h = mischen(h, mitarbeiter.vorname());
+        h = mischen(h, mitarbeiter.email());
+        h = mischen(h, mitarbeiter.abteilung());
+        h = mischen(h, gehalt == null ? null : gehalt.stripTrailingZeros().toPlainString());
+        return h;
+    }
+
+    private static long mischen(long h, String wert) {
+        if (wert == null) {
+            return (h ^ 0xff) * 0x100000001b3L;
+        }
+        for (int i = 0; i < wert.length(); i++) {
+            h = (h ^ wert.charAt(i)) * 0x100000001b3L;
+        }
+        // Trennzeichen, damit ("ab", "c") und ("a", "bc") verschieden bleiben
+        return (h ^ 0x1f) * 0x100000001b3L;
+    }
+
+    /**
+     * Lädt und sperrt die vorhandenen Zeilen eines Stapels. {@code FOR UPDATE}
+     * sperrt auch die Lücken fehlender Schlüssel, sodass bis zum Commit niemand
+     * die Zeilen ändert oder einfügt, nach denen gezählt wird.
+     *
+     * @return die Hashwerte der vorhandenen Zeilen nach Schlüssel
+     */
+    private Map<Object, Long> vergleichswerteLaden(Connection verbindung, List<Mitarbeiter> stapel)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(Mitarbeiter.SPALTEN)
+            .append(" FROM employees WHERE ").append(schluessel.spalte()).append(" IN (");
+        platzhalter(sql, stapel.size());
+        sql.append(") FOR UPDATE");
+
+        Map<Object, Long> vorhanden = new HashMap<>();
+        try (PreparedStatement statement = verbindung.prepareStatement(sql.toString())) {
+            for (int i = 0; i < stapel.size(); i++) {
+                statement.setObject(i + 1, schluessel.suchwert(stapel.get(i)));
+            }
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                while (ergebnisSet.next()) {
+                    Mitarbeiter zeile = Mitarbeiter.ausZeile(ergebnisSet);
+                    vorhanden.put(schluessel.wert(zeile), hash(zeile));
+                }
+            }
+        }
+        return vorhanden;
+    }
+
+    private void schreiben(Connection verbindung, List<Mitarbeiter> zeilen) throws SQLException {
+        boolean mitId = schluessel == AbgleichSchluessel.ID;
+        int spalten = mitId ? 6 : 5;
+        StringBuilder sql = new StringBuilder("INSERT INTO employees (")
+            .append(mitId ? Mitarbeiter.SPALTEN : "last_name, first_name, email, department, salary")
+            .append(") VALUES ");
+        for (int i = 0; i < zeilen.size(); i++) {
+            sql.append(i == 0 ? "(" : ", (");
+            platzhalter(sql, spalten);
+            sql.append(')');
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE last_name=VALUES(last_name), first_name=VALUES(first_name), ")
+            .append("email=VALUES(email), department=VALUES(department), salary=VALUES(salary)");
+
+        try (PreparedStatement statement = verbindung.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Mitarbeiter m : zeilen) {
+                if (mitId) {
+                    statement.setInt(index++, m.id());
+                }
+                statement.setString(index++, m.nachname());
+                statement.setString(index++, m.vorname());
+                statement.setString(index++, m.email());
+                statement.setString(index++, m.abteilung());
+                statement.setBigDecimal(index++, m.gehalt());
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void platzhalter(StringBuilder sql, int anzahl) {
+        for (int i = 0; i < anzahl; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+    }
+
+    /**
+     * Gleicht die Demo-Mitarbeiter zweimal ab: beim ersten Lauf wird ein Gehalt
+     * geändert und ein Mitarbeiter neu angelegt, beim zweiten Lauf wird nichts
+     * geschrieben. Aufruf optional mit {@code id} oder {@code email} (Standard).
+     *
+     * @param args optional der Abgleichschlüssel
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        AbgleichSchluessel schluessel = args.length > 0
+            ? AbgleichSchluessel.valueOf(args[0].toUpperCase()) : AbgleichSchluessel.EMAIL;
+
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 1)) {
+            List<Mitarbeiter> bestand = new ArrayList<>();
+            Connection verbindung = pool.ausleihen();
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT " + Mitarbeiter.SPALTEN + " FROM employees ORDER BY id");
+                 ResultSet ergebnisSet = statement.executeQuery()) {
+                while (ergebnisSet.next()) {
+                    bestand.add(Mitarbeiter.ausZeile(ergebnisSet));
+                }
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+            if (!bestand.isEmpty()) {
+                Mitarbeiter erster = bestand.get(0);
+                bestand.set(0, new Mitarbeiter(erster.id(), erster.nachname(), erster.vorname(), erster.email(),
+                    erster.abteilung(), erster.gehalt() == null ? BigDecimal.ONE : erster.gehalt().add(BigDecimal.ONE)));
+            }
+            int neueId = bestand.stream().mapToInt(Mitarbeiter::id).max().orElse(0) + 1;
+            bestand.add(new Mitarbeiter(neueId, "Abgleich", "Anna", "anna.abgleich@foo.com",
+                "HR", new BigDecimal("61000.00")));
+
+            MitarbeiterAbgleich abgleich = new MitarbeiterAbgleich(pool, schluessel, STANDARD_STAPEL);
+            System.out.println("1. Lauf: " + abgleich.abgleichen(bestand));
+            System.out.println("2. Lauf: " + abgleich.abgleichen(bestand));
+        }
+    }
+}
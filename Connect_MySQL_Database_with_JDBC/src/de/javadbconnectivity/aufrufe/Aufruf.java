@@ -0,0 +1,42 @@
+package de.javadbconnectivity.aufrufe;
+
+import java.util.List;
+
+/**
+ * Ein Aufruf einer gespeicherten Prozedur mit seinen Parametern.
+ *
+ * @param prozedur der Name der Prozedur, z.B. {@code get_count_for_department}
+ * @param parameter die Parameter in Reihenfolge der Prozedurdefinition
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Aufruf(String prozedur, List<ProzedurParameter> parameter) {
+
+    /**
+     * Kopiert die Parameterliste.
+     */
+    public Aufruf {
+        parameter = List.copyOf(parameter);
+    }
+
+    /**
+     * @param prozedur der Name der Prozedur
+     * @param parameter die Parameter
+     * @return der Aufruf
+     */
+    public static Aufruf von(String prozedur, ProzedurParameter... parameter) {
+        return new Aufruf(prozedur, List.of(parameter));
+    }
+
+    /**
+     * @return die JDBC-Escape-Syntax, z.B. {@code {call get_count_for_department(?, ?)}}
+     */
+    public String sql() {
+        StringBuilder sql = new StringBuilder("{call ").append(prozedur).append('(');
+        for (int i = 0; i < parameter.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(")}").toString();
+    }
+}
@@ -0,0 +1,38 @@
+package de.javadbconnectivity.aufrufe;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import de.javadbconnectivity.cache.MaterialisiertesErgebnis;
+
+/**
+ * Das Ergebnis eines einzelnen {@link Aufruf}s.
+ *
+ * @param aufruf der Aufruf
+ * @param ausgaben die Werte der OUT- und INOUT-Parameter nach Position (ab 1)
+ * @param ergebnisse die gelieferten Ergebnismengen in Reihenfolge
+ * @param dauerNs die Dauer des Aufrufs einschließlich Warten auf eine Verbindung
+ * @param fehler der aufgetretene Fehler oder null
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record AufrufErgebnis(Aufruf aufruf, Map<Integer, Object> ausgaben,
+                             List<MaterialisiertesErgebnis> ergebnisse, long dauerNs, SQLException fehler) {
+
+    /**
+     * @return true, wenn der Aufruf ohne Fehler lief
+     */
+    public boolean erfolgreich() {
+        return fehler == null;
+    }
+
+    /**
+     * @param position die Parameterposition (ab 1)
+     * @return der Wert des Ausgabeparameters
+     */
+    public Object ausgabe(int position) {
+        return ausgaben.get(position);
+    }
+}
@@ -0,0 +1,232 @@
+package de.javadbconnectivity.aufrufe;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import de.javadbconnectivity.cache.MaterialisiertesErgebnis;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Führt voneinander unabhängige Prozeduraufrufe parallel über mehrere
+ * Poolverbindungen aus und sammelt die Ergebnisse in Eingabereihenfolge.
+ *
+ * Nacheinander ausgeführt addieren sich die Laufzeiten aller Aufrufe; parallel
+ * nähert sich die Gesamtdauer dem langsamsten Einzelaufruf, solange genug
+ * Verbindungen vorhanden sind. Mehr Aufrufe als Verbindungen laufen in Wellen.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - je Aufruf einen virtuellen Thread startet und die Parallelität auf die Poolgröße begrenzt
+ * - OUT- und INOUT-Parameter sowie alle Ergebnismengen eines Aufrufs einsammelt
+ * - Fehler einzelner Aufrufe meldet, ohne die übrigen abzubrechen
+ *
+ * Die Aufrufe laufen in getrennten Transaktionen auf verschiedenen
+ * Verbindungen; sie sehen also nicht zwingend denselben Datenstand. Für
+ * schreibende Prozeduren, die voneinander abhängen, ist das ungeeignet.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ParallelerAufrufer {
+
+    private final VerbindungsPool pool;
+    private final Semaphore plaetze;
+
+    /**
+     * @param pool der Verbindungspool; seine Größe bestimmt die Parallelität
+     */
+    public ParallelerAufrufer(VerbindungsPool pool) {
+        this.pool = pool;
+        this.plaetze = new Semaphore(pool.getGroesse(), true);
+    }
+
+    /**
+     * Führt alle Aufrufe parallel aus und wartet auf den letzten.
+     *
+     * @param aufrufe die Aufrufe
+     * @return die Ergebnisse in derselben Reihenfolge wie die Aufrufe
+     */
+    public List<AufrufErgebnis> ausfuehren(List<Aufruf> aufrufe) {
+        List<Future<AufrufErgebnis>> laeufe = new ArrayList<>(aufrufe.size());
+        try (ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Aufruf aufruf : aufrufe) {
+                laeufe.add(ausfuehrer.submit(() -> begrenztAusfuehren(aufruf)));
+            }
+        }
+        List<AufrufErgebnis> ergebnisse = new ArrayList<>(laeufe.size());
+        for (Future<AufrufErgebnis> lauf : laeufe) {
+            // close() hat auf alle Aufgaben gewartet; Fehler stecken bereits im Ergebnis
+            ergebnisse.add(lauf.resultNow());
+        }
+        return ergebnisse;
+    }
+
+    /**
+     * Führt alle Aufrufe nacheinander auf einer Verbindung aus; zum Vergleich.
+     *
+     * @param aufrufe die Aufrufe
+     * @return die Ergebnisse in derselben Reihenfolge wie die Aufrufe
+     */
+    public List<AufrufErgebnis> nacheinanderAusfuehren(List<Aufruf> aufrufe) {
+        List<AufrufErgebnis> ergebnisse = new ArrayList<>(aufrufe.size());
+        for (Aufruf aufruf : aufrufe) {
+            ergebnisse.add(einzeln(aufruf));
+        }
+        return ergebnisse;
+    }
+
+    private AufrufErgebnis begrenztAusfuehren(Aufruf aufruf) {
+        long start = System.nanoTime();
+        try {
+            plaetze.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new AufrufErgebnis(aufruf, Map.of(), List.of(), System.nanoTime() - start,
+                new SQLException("Unterbrochen beim Warten auf eine Verbindung"));
+        }
+        try {
+            AufrufErgebnis ergebnis = einzeln(aufruf);
+            return new AufrufErgebnis(aufruf, ergebnis.ausgaben(), ergebnis.ergebnisse(),
+                System.nanoTime() - start, ergebnis.fehler());
+        } finally {
+            plaetze.release();
+        }
+    }
+
+    private AufrufErgebnis einzeln(Aufruf aufruf) {
+        long start = System.nanoTime();
+        try {
+            Connection verbindung = pool.ausleihen();
+            try (CallableStatement statement = verbindung.prepareCall(aufruf.sql())) {
+                List<ProzedurParameter> parameter = aufruf.parameter();
+                for (int i = 0; i < parameter.size(); i++) {
+                    ProzedurParameter p = parameter.get(i);
+                    if (p.richtung() != ProzedurParameter.Richtung.AUS) {
+                        statement.setObject(i + 1, p.wert());
+                    }
+                    if (p.istAusgabe()) {
+                        statement.registerOutParameter(i + 1, p.sqlTyp());
+                    }
+                }
+
+                boolean istMenge = statement.execute();
+
+                // Connector/J holt die Ausgabeparameter schon in execute() ab; die
+                // eingebettete Testdatenbank liest sie aus der ersten Ergebniszeile
+                Map<Integer, Object> ausgaben = new LinkedHashMap<>();
+                for (int i = 0; i < parameter.size(); i++) {
+                    if (parameter.get(i).istAusgabe()) {
+                        ausgaben.put(i + 1, statement.getObject(i + 1));
+                    }
+                }
+
+                List<MaterialisiertesErgebnis> mengen = new ArrayList<>();
+                // Ergebnismengen und Zeilenzahlen wechseln sich ab, bis beides erschöpft ist
+                while (istMenge || statement.getUpdateCount() != -1) {
+                    if (istMenge) {
+                        try (ResultSet ergebnisSet = statement.getResultSet()) {
+                            mengen.add(MaterialisiertesErgebnis.einlesen(ergebnisSet));
+                        }
+                    }
+                    istMenge = statement.getMoreResults(Statement.CLOSE_CURRENT_RESULT);
+                }
+
+                return new AufrufErgebnis(aufruf, ausgaben, mengen, System.nanoTime() - start, null);
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+        } catch (SQLException e) {
+            return new AufrufErgebnis(aufruf, Map.of(), List.of(), System.nanoTime() - start, e);
+        }
+    }
+
+    /**
+     * Vergleicht nacheinander und parallel ausgeführte Prozeduraufrufe für alle
+     * Abteilungen.
+     *
+     * Aufruf: {@code ParallelerAufrufer [verbindungen=8] [runden=5]}
+     *
+     * @param args {@code verbindungen=} und {@code runden=}
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws SQLException {
+        int verbindungen = 8;
+        int runden = 5;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "verbindungen" -> verbindungen = Integer.parseInt(teile[1]);
+                case "runden" -> runden = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), verbindungen)) {
+            List<Aufruf> aufrufe = new ArrayList<>();
+            for (String abteilung : abteilungen(pool)) {
+                aufrufe.add(Aufruf.von("get_count_for_department",
+                    ProzedurParameter.ein(abteilung), ProzedurParameter.aus(Types.INTEGER)));
+                aufrufe.add(Aufruf.von("get_employees_for_department", ProzedurParameter.ein(abteilung)));
+                aufrufe.add(Aufruf.von("greet_the_department",
+                    ProzedurParameter.einAus(abteilung, Types.VARCHAR)));
+            }
+            ParallelerAufrufer aufrufer = new ParallelerAufrufer(pool);
+
+            List<AufrufErgebnis> ergebnisse = aufrufer.ausfuehren(aufrufe);
+            for (AufrufErgebnis ergebnis : ergebnisse) {
+                String inhalt = !ergebnis.erfolgreich() ? "Fehler: " + ergebnis.fehler().getMessage()
+                    : ergebnis.ergebnisse().isEmpty() ? String.valueOf(ergebnis.ausgaben().values())
+                    : ergebnis.ergebnisse().get(0).getAnzahlZeilen() + " Zeilen";
+                System.out.printf("%-30s %-18s %s%n", ergebnis.aufruf().prozedur(),
+                    ergebnis.aufruf().parameter().get(0).wert(), inhalt);
+            }
+
+            System.out.printf("%n%d Aufrufe, %d Verbindungen%n", aufrufe.size(), verbindungen);
+            for (boolean parallel : new boolean[] {false, true}) {
+                long summeNs = 0;
+                long langsamsterNs = 0;
+                for (int runde = 0; runde < runden; runde++) {
+                    long start = System.nanoTime();
+                    List<AufrufErgebnis> lauf = parallel
+                        ? aufrufer.ausfuehren(aufrufe) : aufrufer.nacheinanderAusfuehren(aufrufe);
+                    summeNs += System.nanoTime() - start;
+                    for (AufrufErgebnis ergebnis : lauf) {
+                        langsamsterNs = Math.max(langsamsterNs, ergebnis.dauerNs());
+                    }
+                }
+                System.out.printf("%-12s %8.2f ms je Runde (langsamster Einzelaufruf %.2f ms)%n",
+                    parallel ? "parallel" : "nacheinander", summeNs / 1e6 / runden, langsamsterNs / 1e6);
+            }
+        }
+    }
+
+    private static List<String> abteilungen(VerbindungsPool pool) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (Statement statement = verbindung.createStatement();
+             ResultSet ergebnisSet = statement.executeQuery(
+                 "SELECT DISTINCT department FROM employees ORDER BY department")) {
+            List<String> abteilungen = new ArrayList<>();
+            while (ergebnisSet.next()) {
+                abteilungen.add(ergebnisSet.getString(1));
+            }
+            return abteilungen;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+}
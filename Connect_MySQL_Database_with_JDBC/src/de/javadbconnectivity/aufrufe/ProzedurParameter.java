@@ -0,0 +1,58 @@
+package de.javadbconnectivity.aufrufe;
+
+import java.sql.Types;
+
+/**
+ * Ein Parameter eines Prozeduraufrufs.
+ *
+ * @param richtung IN, OUT oder INOUT
+ * @param wert der Eingabewert (bei OUT ungenutzt)
+ * @param sqlTyp der {@link Types}-Wert des Ausgabeparameters (bei IN ungenutzt)
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record ProzedurParameter(Richtung richtung, Object wert, int sqlTyp) {
+
+    /** Die Richtung eines Parameters. */
+    public enum Richtung {
+        /** nur Eingabe */
+        EIN,
+        /** nur Ausgabe */
+        AUS,
+        /** Eingabe, die von der Prozedur überschrieben wird */
+        EIN_AUS
+    }
+
+    /**
+     * @param wert der Eingabewert
+     * @return ein IN-Parameter
+     */
+    public static ProzedurParameter ein(Object wert) {
+        return new ProzedurParameter(Richtung.EIN, wert, Types.OTHER);
+    }
+
+    /**
+     * @param sqlTyp der {@link Types}-Wert, z.B. {@link Types#INTEGER}
+     * @return ein OUT-Parameter
+     */
+    public static ProzedurParameter aus(int sqlTyp) {
+        return new ProzedurParameter(Richtung.AUS, null, sqlTyp);
+    }
+
+    /**
+     * @param wert der Eingabewert
+     * @param sqlTyp der {@link Types}-Wert der Ausgabe
+     * @return ein INOUT-Parameter
+     */
+    public static ProzedurParameter einAus(Object wert, int sqlTyp) {
+        return new ProzedurParameter(Richtung.EIN_AUS, wert, sqlTyp);
+    }
+
+    /**
+     * @return true bei OUT und INOUT
+     */
+    public boolean istAusgabe() {
+        return richtung != Richtung.EIN;
+    }
+}
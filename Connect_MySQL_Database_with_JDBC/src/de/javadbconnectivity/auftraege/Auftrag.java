@@ -0,0 +1,29 @@
+package de.javadbconnectivity.auftraege;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ein Hintergrundauftrag, der in Schritten arbeitet.
+ *
+ * Jeder Schritt setzt an der zuletzt bestätigten Position an und liefert die
+ * neue Position. Der {@link AuftragsPlaner} bestätigt Schritt und Position in
+ * einer gemeinsamen Transaktion; ein Schritt darf daher selbst kein
+ * {@code commit()} aufrufen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface Auftrag {
+
+    /**
+     * Führt den nächsten Schritt aus.
+     *
+     * @param verbindung die Verbindung mit abgeschaltetem Auto-Commit
+     * @param position die Position nach dem letzten Schritt, null beim ersten Schritt
+     * @return die neue Position oder null, wenn der Auftrag fertig ist
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    String schritt(Connection verbindung, String position) throws SQLException;
+}
@@ -0,0 +1,366 @@
+package de.javadbconnectivity.auftraege;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+import de.javadbconnectivity.ueberwachung.StatementBeobachter;
+import de.javadbconnectivity.ueberwachung.TokenEimer;
+
+/**
+ * Führt einmalige und wiederkehrende {@link Auftrag}-Läufe im Hintergrund aus.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - wartende Aufträge nach {@link Prioritaet} und Einreichungsreihenfolge startet
+ * - pro {@link Auftragsart} höchstens {@code maxParallel} Aufträge gleichzeitig laufen lässt
+ * - die Anweisungen pro Sekunde einer Auftragsart mit einem {@link TokenEimer} begrenzt
+ * - jeden Schritt zusammen mit seinem Wiederaufsetzpunkt in einer Transaktion bestätigt,
+ *   sodass ein unterbrochener Auftrag nach dem letzten bestätigten Schritt fortfährt
+ *
+ * Ein {@link StatementBeobachter} an den Verbindungen des eigenen Pools zählt die
+ * Anweisungen jedes Schritts. Vor dem nächsten Schritt, wenn die Transaktion des
+ * vorigen bereits bestätigt ist, erwirbt der Arbeiter so viele Token seiner
+ * Auftragsart, wie dieser ausgeführt hat (vor dem ersten Schritt eines). So
+ * wartet kein Auftrag mit offener Transaktion und gehaltenen Zeilensperren
+ * auf die Drosselung. Die Tabelle
+ * {@code job_checkpoints} muss vorhanden sein (siehe {@code sql/job-checkpoints.sql}).
+ *
+ * Metriken: {@code auftraege.gestartet[art]}, {@code auftraege.fortgesetzt[art]},
+ * {@code auftraege.schritte[art]}, {@code auftraege.abgeschlossen[art]},
+ * {@code auftraege.fehler[art]} und {@code auftraege.laufend[art]}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class AuftragsPlaner implements AutoCloseable {
+
+    /** Die Anweisungen des Schritts, der gerade auf diesem Thread läuft */
+    private static final ThreadLocal<AtomicInteger> ANWEISUNGEN_IM_SCHRITT = new ThreadLocal<>();
+
+    /** Zählt jede Anweisung eines Schritts, ohne zu warten */
+    private static final StatementBeobachter ANWEISUNGSZAEHLER = ausfuehrung -> {
+        AtomicInteger anweisungen = ANWEISUNGEN_IM_SCHRITT.get();
+        if (anweisungen != null) {
+            anweisungen.incrementAndGet();
+        }
+    };
+
+    private static final Comparator<Eintrag> REIHENFOLGE = Comparator
+        .comparing((Eintrag e) -> e.art.prioritaet())
+        .thenComparingLong(e -> e.nummer);
+
+    private final VerbindungsPool pool;
+    private final Metriken metriken;
+    private final ReentrantLock sperre = new ReentrantLock();
+    private final Condition geaendert = sperre.newCondition();
+    private final TreeSet<Eintrag> wartend = new TreeSet<>(REIHENFOLGE);
+    private final Map<String, Eintrag> aktiv = new HashMap<>();
+    private final Map<String, Integer> laufend = new HashMap<>();
+    private final Map<String, TokenEimer> drosseln = new ConcurrentHashMap<>();
+    private final AtomicLong naechsteNummer = new AtomicLong();
+    private final List<Thread> arbeiter = new ArrayList<>();
+    private final ScheduledExecutorService takt = Executors.newSingleThreadScheduledExecutor();
+    private boolean beendet;
+
+    /** Ein eingereichter Auftrag. */
+    private static final class Eintrag {
+        final Auftragsart art;
+        final String schluessel;
+        final Auftrag auftrag;
+        final long nummer;
+        final CompletableFuture<Void> ergebnis = new CompletableFuture<>();
+
+        Eintrag(Auftragsart art, String schluessel, Auftrag auftrag, long nummer) {
+            this.art = art;
+            this.schluessel = schluessel;
+            this.auftrag = auftrag;
+            this.nummer = nummer;
+        }
+    }
+
+    /**
+     * @param konfiguration die Verbindungsdaten
+     * @param arbeiterAnzahl wie viele Aufträge insgesamt gleichzeitig laufen
+     * @param metriken das Ziel für Zähler und Messwerte
+     */
+    public AuftragsPlaner(DatenbankKonfiguration konfiguration, int arbeiterAnzahl, Metriken metriken) {
+        this.pool = new VerbindungsPool(konfiguration, arbeiterAnzahl, List.of(ANWEISUNGSZAEHLER));
+        this.metriken = metriken;
+        for (int i = 0; i < arbeiterAnzahl; i++) {
+            arbeiter.add(Thread.ofVirtual().name("auftrag-" + i).start(this::arbeiten));
+        }
+    }
+
+    /**
+     * Reiht einen Auftrag ein. Ist ein Auftrag mit gleicher Art und gleichem
+     * Schlüssel bereits eingereiht oder aktiv, wird dessen Ergebnis geliefert.
+     *
+     * @param art die Auftragsart
+     * @param schluessel unterscheidet Aufträge einer Art, z.B. die Abteilung
+     * @param auftrag die Arbeit
+     * @return wird erfüllt, wenn der Auftrag fertig ist
+     */
+    public CompletableFuture<Void> einreichen(Auftragsart art, String schluessel, Auftrag auftrag) {
+        String name = art.name() + "/" + schluessel;
+        sperre.lock();
+        try {
+            if (beendet) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Planer ist beendet"));
+            }
+            Eintrag vorhanden = aktiv.get(name);
+            if (vorhanden != null) {
+                return vorhanden.ergebnis;
+            }
+            Eintrag eintrag = new Eintrag(art, schluessel, auftrag, naechsteNummer.getAndIncrement());
+            aktiv.put(name, eintrag);
+            wartend.add(eintrag);
+            geaendert.signalAll();
+            return eintrag.ergebnis;
+        } finally {
+            sperre.unlock();
+        }
+    }
+
+    /**
+     * Reiht einen Auftrag sofort und danach in festem Abstand ein. Läuft der
+     * vorige Lauf noch, entfällt der fällige Lauf.
+     *
+     * @param art die Auftragsart
+     * @param schluessel unterscheidet Aufträge einer Art
+     * @param intervall der Abstand zwischen zwei Einreichungen
+     * @param auftrag die Arbeit
+     */
+    public void wiederholen(Auftragsart art, String schluessel, Duration intervall, Auftrag auftrag) {
+        takt.scheduleAtFixedRate(() -> einreichen(art, schluessel, auftrag),
+            0, intervall.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Startet keine neuen Aufträge mehr, lässt laufende ihren aktuellen Schritt
+     * beenden und schließt den Pool. Abgebrochene Aufträge setzen beim nächsten
+     * Einreichen an ihrem Wiederaufsetzpunkt fort.
+     */
+    @Override
+    public void close() {
+        takt.shutdownNow();
+        sperre.lock();
+        try {
+            beendet = true;
+            for (Eintrag eintrag : wartend) {
+                eintrag.ergebnis.cancel(false);
+            }
+            wartend.clear();
+            geaendert.signalAll();
+        } finally {
+            sperre.unlock();
+        }
+        for (Thread thread : arbeiter) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        pool.close();
+    }
+
+    private void arbeiten() {
+        while (true) {
+            Eintrag eintrag;
+            sperre.lock();
+            try {
+                while ((eintrag = naechster()) == null) {
+                    if (beendet) {
+                        return;
+                    }
+                    geaendert.awaitUninterruptibly();
+                }
+                wartend.remove(eintrag);
+                laufend.merge(eintrag.art.name(), 1, Integer::sum);
+                metriken.messwert("auftraege.laufend[" + eintrag.art.name() + "]").incrementAndGet();
+            } finally {
+                sperre.unlock();
+            }
+
+            try {
+                if (ausfuehren(eintrag)) {
+                    eintrag.ergebnis.complete(null);
+                } else {
+                    eintrag.ergebnis.cancel(false);
+                }
+            } catch (SQLException | RuntimeException e) {
+                metriken.zaehler("auftraege.fehler[" + eintrag.art.name() + "]").increment();
+                eintrag.ergebnis.completeExceptionally(e);
+            } finally {
+                sperre.lock();
+                try {
+                    laufend.merge(eintrag.art.name(), -1, Integer::sum);
+                    aktiv.remove(eintrag.art.name() + "/" + eintrag.schluessel);
+                    metriken.messwert("auftraege.laufend[" + eintrag.art.name() + "]").decrementAndGet();
+                    geaendert.signalAll();
+                } finally {
+                    sperre.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return der dringendste wartende Auftrag, dessen Art noch Kapazität hat
+     */
+    private Eintrag naechster() {
+        if (beendet) {
+            return null;
+        }
+        for (Eintrag eintrag : wartend) {
+            if (laufend.getOrDefault(eintrag.art.name(), 0) < eintrag.art.maxParallel()) {
+                return eintrag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Führt Schritte aus, bis der Auftrag fertig ist oder der Planer beendet wird.
+     *
+     * @return true, wenn der Auftrag vollständig ausgeführt wurde
+     */
+    private boolean ausfuehren(Eintrag eintrag) throws SQLException {
+        String art = eintrag.art.name();
+        String name = art + "/" + eintrag.schluessel;
+        TokenEimer drossel = eintrag.art.anweisungenProSekunde() > 0
+            ? drosseln.computeIfAbsent(art, a -> new TokenEimer(
+                eintrag.art.anweisungenProSekunde(), Math.max(1, eintrag.art.anweisungenProSekunde())))
+            : null;
+
+        Connection verbindung = pool.ausleihen();
+        boolean defekt = false;
+        try {
+            verbindung.setAutoCommit(false);
+            Wiederaufsetzpunkte.Stand stand = Wiederaufsetzpunkte.lesen(verbindung, name);
+            verbindung.commit();
+            if (stand == null || stand.abgeschlossen()) {
+                stand = new Wiederaufsetzpunkte.Stand(null, false, 0);
+                metriken.zaehler("auftraege.gestartet[" + art + "]").increment();
+            } else {
+                metriken.zaehler("auftraege.fortgesetzt[" + art + "]").increment();
+            }
+
+            int offeneToken = 1;
+            while (!istBeendet()) {
+                // Außerhalb jeder Transaktion warten, damit keine Sperren gehalten werden
+                if (drossel != null && !tokenErwerben(drossel, offeneToken)) {
+                    return false;
+                }
+                String position;
+                AtomicInteger anweisungen = new AtomicInteger();
+                ANWEISUNGEN_IM_SCHRITT.set(anweisungen);
+                try {
+                    position = eintrag.auftrag.schritt(verbindung, stand.position());
+                } finally {
+                    ANWEISUNGEN_IM_SCHRITT.remove();
+                }
+                offeneToken = anweisungen.get();
+                stand = new Wiederaufsetzpunkte.Stand(position, position == null, stand.schritte() + 1);
+                Wiederaufsetzpunkte.schreiben(verbindung, name, stand);
+                verbindung.commit();
+                metriken.zaehler("auftraege.schritte[" + art + "]").increment();
+                if (stand.abgeschlossen()) {
+                    metriken.zaehler("auftraege.abgeschlossen[" + art + "]").increment();
+                    return true;
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            try {
+                verbindung.rollback();
+            } catch (SQLException rollbackFehler) {
+                defekt = true;
+                e.addSuppressed(rollbackFehler);
+            }
+            throw e;
+        } finally {
+            if (defekt) {
+                pool.verwerfen(verbindung);
+            } else {
+                pool.zurueckgeben(verbindung);
+            }
+        }
+    }
+
+    /**
+     * @return false, wenn das Warten unterbrochen wurde; der Auftrag setzt dann
+     *         beim nächsten Einreichen am letzten Wiederaufsetzpunkt fort
+     */
+    private static boolean tokenErwerben(TokenEimer drossel, int anzahl) {
+        try {
+            for (int i = 0; i < anzahl; i++) {
+                drossel.erwerben();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean istBeendet() {
+        sperre.lock();
+        try {
+            return beendet;
+        } finally {
+            sperre.unlock();
+        }
+    }
+
+    /**
+     * Demonstriert Prioritäten, Drosselung und Wiederaufsetzen.
+     *
+     * Aufruf: {@code AuftragsPlaner [laufzeitS=10]}. Wird das Programm während
+     * der Gehaltserhöhung beendet, setzt der nächste Start nach dem letzten
+     * bestätigten Stapel fort.
+     *
+     * @param args optional {@code laufzeitS=}
+     * @throws InterruptedException wenn das Warten unterbrochen wird
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long laufzeitS = args.length > 0 && args[0].startsWith("laufzeitS=")
+            ? Long.parseLong(args[0].substring("laufzeitS=".length())) : 10;
+        Metriken metriken = new Metriken();
+
+        try (AuftragsPlaner planer = new AuftragsPlaner(DatenbankKonfiguration.standard(), 2, metriken)) {
+            planer.wiederholen(Wartung.PFLEGE, "statistik-employees", Duration.ofSeconds(5),
+                Wartung.statistikAktualisieren("employees"));
+            planer.einreichen(Wartung.BEREINIGUNG, "ohne-email",
+                Wartung.bereinigen("employees", "email IS NULL", 100));
+            for (String abteilung : List.of("Engineering", "Legal")) {
+                planer.einreichen(Wartung.GEHALT, abteilung,
+                    Wartung.gehaltserhoehung(abteilung, new BigDecimal("1000.00"), 2))
+                    .whenComplete((ergebnis, fehler) -> System.out.println("Gehaltserhöhung " + abteilung
+                        + (fehler == null ? " abgeschlossen" : " nicht abgeschlossen: " + fehler)));
+            }
+            Thread.sleep(laufzeitS * 1000);
+        }
+        metriken.ausgeben(System.out);
+    }
+}
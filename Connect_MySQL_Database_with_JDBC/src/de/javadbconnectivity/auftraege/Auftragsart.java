@@ -0,0 +1,28 @@
+package de.javadbconnectivity.auftraege;
+
+/**
+ * Gemeinsame Grenzen für alle Aufträge einer Art.
+ *
+ * @param name der Name, z.B. {@code "gehaltserhoehung"}
+ * @param prioritaet die Priorität beim Start wartender Aufträge
+ * @param maxParallel wie viele Aufträge dieser Art höchstens gleichzeitig laufen
+ * @param anweisungenProSekunde gemeinsames Ratenlimit aller Aufträge dieser Art
+ *                              (0 = unbegrenzt)
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Auftragsart(String name, Prioritaet prioritaet, int maxParallel, double anweisungenProSekunde) {
+
+    /**
+     * Prüft die Grenzen.
+     */
+    public Auftragsart {
+        if (maxParallel < 1) {
+            throw new IllegalArgumentException("maxParallel muss mindestens 1 sein: " + maxParallel);
+        }
+        if (anweisungenProSekunde < 0) {
+            throw new IllegalArgumentException("Ratenlimit darf nicht negativ sein: " + anweisungenProSekunde);
+        }
+    }
+}
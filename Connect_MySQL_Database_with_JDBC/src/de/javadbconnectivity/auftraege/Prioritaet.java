@@ -0,0 +1,18 @@
+package de.javadbconnectivity.auftraege;
+
+/**
+ * Die Dringlichkeit einer {@link Auftragsart}; wartende Aufträge höherer
+ * Priorität werden zuerst gestartet.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum Prioritaet {
+
+    /** z.B. Gehaltserhöhungen, die zu einem Stichtag fertig sein müssen */
+    HOCH,
+    /** gewöhnliche Aufträge */
+    NORMAL,
+    /** Wartung, die nur freie Kapazität nutzen soll */
+    NIEDRIG
+}
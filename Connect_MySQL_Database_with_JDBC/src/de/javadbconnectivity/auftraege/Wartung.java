@@ -0,0 +1,133 @@
+package de.javadbconnectivity.auftraege;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Fertige {@link Auftrag}-Implementierungen für Gehaltserhöhungen und Wartung.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class Wartung {
+
+    /** Gehaltserhöhungen: höchste Priorität, eine Abteilung nach der anderen */
+    public static final Auftragsart GEHALT = new Auftragsart("gehaltserhoehung", Prioritaet.HOCH, 1, 50);
+    /** Löschläufe: parallel, aber gedrosselt */
+    public static final Auftragsart BEREINIGUNG = new Auftragsart("bereinigung", Prioritaet.NORMAL, 2, 20);
+    /** Statistiken und Neuaufbau von Indizes: nur nebenbei */
+    public static final Auftragsart PFLEGE = new Auftragsart("pflege", Prioritaet.NIEDRIG, 1, 1);
+
+    private Wartung() {
+    }
+
+    /**
+     * Erhöht die Gehälter einer Abteilung in Stapeln nach Id. Die Position ist die
+     * letzte bearbeitete Id, sodass ein unterbrochener Lauf niemanden doppelt erhöht.
+     *
+     * @param abteilung die Abteilung
+     * @param betrag der Erhöhungsbetrag
+     * @param stapelGroesse Mitarbeiter pro Schritt
+     * @return der Auftrag
+     */
+    public static Auftrag gehaltserhoehung(String abteilung, BigDecimal betrag, int stapelGroesse) {
+        return (verbindung, position) -> {
+            int abId = position == null ? 0 : Integer.parseInt(position);
+            int bisId;
+            int anzahl;
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT MAX(id), COUNT(*) FROM (SELECT id FROM employees "
+                        + "WHERE department = ? AND id > ? ORDER BY id LIMIT ?) stapel")) {
+                statement.setString(1, abteilung);
+                statement.setInt(2, abId);
+                statement.setInt(3, stapelGroesse);
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    ergebnisSet.next();
+                    bisId = ergebnisSet.getInt(1);
+                    anzahl = ergebnisSet.getInt(2);
+                }
+            }
+            if (anzahl == 0) {
+                return null;
+            }
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "UPDATE employees SET salary = salary + ? WHERE department = ? AND id > ? AND id <= ?")) {
+                statement.setBigDecimal(1, betrag);
+                statement.setString(2, abteilung);
+                statement.setInt(3, abId);
+                statement.setInt(4, bisId);
+                statement.executeUpdate();
+            }
+            return anzahl < stapelGroesse ? null : String.valueOf(bisId);
+        };
+    }
+
+    /**
+     * Ruft {@code increase_salaries_for_department} in einem einzigen Schritt auf,
+     * wie {@code IncreaseSalariesForDepartment}.
+     *
+     * @param abteilung die Abteilung
+     * @param betrag der Erhöhungsbetrag
+     * @return der Auftrag
+     */
+    public static Auftrag gehaltserhoehungPerProzedur(String abteilung, BigDecimal betrag) {
+        return (verbindung, position) -> {
+            try (CallableStatement statement =
+                     verbindung.prepareCall("{call increase_salaries_for_department(?, ?)}")) {
+                statement.setString(1, abteilung);
+                statement.setBigDecimal(2, betrag);
+                statement.execute();
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Löscht Zeilen in kleinen Stapeln, damit Sperren kurz bleiben. Die Position
+     * zählt die bisher gelöschten Zeilen.
+     *
+     * @param tabelle die Tabelle
+     * @param bedingung die {@code WHERE}-Bedingung ohne Platzhalter
+     * @param stapelGroesse Zeilen pro Schritt
+     * @return der Auftrag
+     */
+    public static Auftrag bereinigen(String tabelle, String bedingung, int stapelGroesse) {
+        return (verbindung, position) -> {
+            long bisher = position == null ? 0 : Long.parseLong(position);
+            int geloescht;
+            try (Statement statement = verbindung.createStatement()) {
+                geloescht = statement.executeUpdate(
+                    "DELETE FROM " + tabelle + " WHERE " + bedingung + " LIMIT " + stapelGroesse);
+            }
+            return geloescht < stapelGroesse ? null : String.valueOf(bisher + geloescht);
+        };
+    }
+
+    /**
+     * @param tabelle die Tabelle
+     * @return ein Auftrag, der die Index-Statistiken neu berechnet
+     */
+    public static Auftrag statistikAktualisieren(String tabelle) {
+        return einzelneAnweisung("ANALYZE TABLE " + tabelle);
+    }
+
+    /**
+     * @param tabelle die Tabelle
+     * @return ein Auftrag, der Tabelle und Indizes neu aufbaut
+     */
+    public static Auftrag neuIndizieren(String tabelle) {
+        return einzelneAnweisung("OPTIMIZE TABLE " + tabelle);
+    }
+
+    private static Auftrag einzelneAnweisung(String sql) {
+        return (verbindung, position) -> {
+            try (Statement statement = verbindung.createStatement()) {
+                statement.execute(sql);
+            }
+            return null;
+        };
+    }
+}
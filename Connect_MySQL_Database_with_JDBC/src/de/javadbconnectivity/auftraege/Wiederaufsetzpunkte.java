@@ -0,0 +1,68 @@
+package de.javadbconnectivity.auftraege;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Liest und schreibt den Fortschritt von Aufträgen in der Tabelle
+ * {@code job_checkpoints} (siehe {@code sql/job-checkpoints.sql}).
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+final class Wiederaufsetzpunkte {
+
+    /**
+     * Der gespeicherte Fortschritt eines Auftrags.
+     *
+     * @param position die Position nach dem letzten bestätigten Schritt
+     * @param abgeschlossen ob der letzte Lauf vollständig war
+     * @param schritte die Anzahl bestätigter Schritte des letzten Laufs
+     */
+    record Stand(String position, boolean abgeschlossen, int schritte) {
+    }
+
+    private Wiederaufsetzpunkte() {
+    }
+
+    /**
+     * @param verbindung die Verbindung
+     * @param schluessel der Auftragsschlüssel
+     * @return der Stand oder null, wenn der Auftrag noch nie lief
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    static Stand lesen(Connection verbindung, String schluessel) throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "SELECT position, finished, steps FROM job_checkpoints WHERE job_key = ?")) {
+            statement.setString(1, schluessel);
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                return ergebnisSet.next()
+                    ? new Stand(ergebnisSet.getString(1), ergebnisSet.getBoolean(2), ergebnisSet.getInt(3))
+                    : null;
+            }
+        }
+    }
+
+    /**
+     * Speichert den Stand; wird in der Transaktion des Schritts ausgeführt.
+     *
+     * @param verbindung die Verbindung
+     * @param schluessel der Auftragsschlüssel
+     * @param stand der neue Stand
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    static void schreiben(Connection verbindung, String schluessel, Stand stand) throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "INSERT INTO job_checkpoints (job_key, position, finished, steps) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE position = VALUES(position), finished = VALUES(finished), "
+                    + "steps = VALUES(steps)")) {
+            statement.setString(1, schluessel);
+            statement.setString(2, stand.position());
+            statement.setBoolean(3, stand.abgeschlossen());
+            statement.setInt(4, stand.schritte());
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package de.javadbconnectivity.bericht;
+
+/**
+ * Ausgabeformate des {@link BerichtsSchreiber}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum BerichtsFormat {
+
+    /** Werte durch ", " getrennt, wie die bisherige Ausgabe der Demo-Klassen; Beträge mit dem Dezimaltrenner der Standard-Locale */
+    LISTE,
+
+    /** CSV nach RFC 4180 mit Kopfzeile; Werte mit Komma, Anführungszeichen oder Zeilenumbruch werden maskiert */
+    CSV,
+
+    /** Spalten fester Breite mit Kopfzeile; Text linksbündig, Zahlen rechtsbündig */
+    FESTE_BREITE,
+
+    /** Ein JSON-Objekt pro Zeile (JSON Lines) */
+    JSON_LINES
+}
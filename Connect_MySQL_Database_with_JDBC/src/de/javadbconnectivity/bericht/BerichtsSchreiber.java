@@ -0,0 +1,522 @@
+package de.javadbconnectivity.bericht;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Schreibt Berichtszeilen ohne Objekterzeugung pro Zeile in einen Kanal.
+ *
+ * Anders als {@code System.out.printf} wird kein Formatstring geparst, kein
+ * {@code Formatter} erzeugt und nicht pro Zeile auf {@code System.out}
+ * synchronisiert. Zeichen werden direkt als UTF-8 in einen wiederverwendeten
+ * Puffer kodiert, Beträge mit zwei Nachkommastellen werden von Hand formatiert,
+ * und der Puffer wird erst geleert, wenn er voll ist oder der Bericht endet.
+ * Verlangt das Ziel einen anderen Zeichensatz, wird beim Leeren einmal pro
+ * Puffer umkodiert.
+ *
+ * Verwendung pro Zeile:
+ * {@code schreiber.text(nachname).text(vorname).betrag(gehalt).zeileBeenden();}
+ *
+ * Eine Instanz ist nicht threadsicher.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class BerichtsSchreiber implements AutoCloseable {
+
+    /** Standardgröße des Puffers in Bytes */
+    public static final int STANDARD_PUFFER = 64 * 1024;
+    /** Breite von Spalten ohne angegebene Breite im Format {@link BerichtsFormat#FESTE_BREITE} */
+    public static final int STANDARD_BREITE = 16;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    /** Ab diesem Betrag passen die Cent nicht mehr sicher in einen long */
+    private static final double GROESSTER_BETRAG = 9.0e16;
+
+    private final WritableByteChannel kanal;
+    private final boolean kanalSchliessen;
+    /** Zeichensatz des Ziels; null, wenn der UTF-8-Puffer unverändert geschrieben wird */
+    private final Charset zeichensatz;
+    private final BerichtsFormat format;
+    private final String[] spalten;
+    private final int[] breiten;
+    private final byte[][] jsonSchluessel;
+    /** Dezimaltrenner als UTF-8; '.' außer bei {@link BerichtsFormat#LISTE} */
+    private final byte[] dezimalTrenner;
+
+    private final byte[] puffer;
+    private final ByteBuffer pufferHuelle;
+    private final byte[] ziffern = new byte[24];
+    private int position;
+    private int spalte;
+    private long zeilen;
+
+    /**
+     * @param kanal der Zielkanal
+     * @param kanalSchliessen ob {@link #close()} den Kanal schließt
+     * @param format das Ausgabeformat
+     * @param spalten die Spaltennamen (Kopfzeile bzw. JSON-Schlüssel)
+     * @param breiten die Spaltenbreiten für {@link BerichtsFormat#FESTE_BREITE} (kann null sein)
+     * @param pufferGroesse die Puffergröße in Bytes
+     */
+    public BerichtsSchreiber(WritableByteChannel kanal, boolean kanalSchliessen, BerichtsFormat format,
+                             String[] spalten, int[] breiten, int pufferGroesse) {
+        this(kanal, kanalSchliessen, format, spalten, breiten, pufferGroesse, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param kanal der Zielkanal
+     * @param kanalSchliessen ob {@link #close()} den Kanal schließt
+     * @param format das Ausgabeformat
+     * @param spalten die Spaltennamen (Kopfzeile bzw. JSON-Schlüssel)
+     * @param breiten die Spaltenbreiten für {@link BerichtsFormat#FESTE_BREITE} (kann null sein)
+     * @param pufferGroesse die Puffergröße in Bytes
+     * @param zeichensatz der Zeichensatz, den das Ziel erwartet; nicht darstellbare Zeichen werden zu '?'
+     */
+    public BerichtsSchreiber(WritableByteChannel kanal, boolean kanalSchliessen, BerichtsFormat format,
+                             String[] spalten, int[] breiten, int pufferGroesse, Charset zeichensatz) {
+        this.kanal = kanal;
+        this.kanalSchliessen = kanalSchliessen;
+        this.zeichensatz = zeichensatz.equals(StandardCharsets.UTF_8) ? null : zeichensatz;
+        this.format = format;
+        this.spalten = spalten.clone();
+        this.breiten = new int[spalten.length];
+        for (int i = 0; i < spalten.length; i++) {
+            this.breiten[i] = breiten != null && i < breiten.length ? breiten[i] : STANDARD_BREITE;
+        }
+        this.puffer = new byte[Math.max(256, pufferGroesse)];
+        this.pufferHuelle = ByteBuffer.wrap(puffer);
+
+        this.jsonSchluessel = new byte[spalten.length][];
+        for (int i = 0; i < spalten.length; i++) {
+            jsonSchluessel[i] = ('"' + spalten[i] + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+        char trenner = format == BerichtsFormat.LISTE
+            ? DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator()
+            : '.';
+        this.dezimalTrenner = String.valueOf(trenner).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Erstellt einen Schreiber auf {@code System.out}, wie es beim Aufruf
+     * gesetzt ist, im Zeichensatz von {@link PrintStream#charset()}. Ein mit
+     * {@code System.setOut} umgelenkter Strom und {@code -Dstdout.encoding}
+     * gelten also wie bei {@code printf}. {@link #close()} schließt die
+     * Standardausgabe nicht.
+     *
+     * @param format das Ausgabeformat
+     * @param spalten die Spaltennamen
+     * @return der Schreiber
+     */
+    public static BerichtsSchreiber stdout(BerichtsFormat format, String... spalten) {
+        PrintStream ausgabe = System.out;
+        return new BerichtsSchreiber(Channels.newChannel(ausgabe), false, format, spalten, null,
+                                     STANDARD_PUFFER, ausgabe.charset());
+    }
+
+    /**
+     * Erstellt einen Schreiber in eine Datei, die neu angelegt oder überschrieben wird.
+     *
+     * @param datei die Zieldatei
+     * @param format das Ausgabeformat
+     * @param spalten die Spaltennamen
+     * @return der Schreiber
+     * @throws IOException wenn die Datei nicht geöffnet werden kann
+     */
+    public static BerichtsSchreiber datei(Path datei, BerichtsFormat format, String... spalten) throws IOException {
+        FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                             StandardOpenOption.TRUNCATE_EXISTING);
+        return new BerichtsSchreiber(kanal, true, format, spalten, null, 1024 * 1024);
+    }
+
+    /**
+     * Schreibt die Kopfzeile mit den Spaltennamen. Bei {@link BerichtsFormat#JSON_LINES}
+     * und {@link BerichtsFormat#LISTE} wird nichts geschrieben.
+     *
+     * @return dieser Schreiber
+     */
+    public BerichtsSchreiber kopfzeile() {
+        if (format == BerichtsFormat.CSV || format == BerichtsFormat.FESTE_BREITE) {
+            for (String name : spalten) {
+                text(name);
+            }
+            zeileBeenden();
+            zeilen--;
+        }
+        return this;
+    }
+
+    /**
+     * Schreibt einen Textwert in die nächste Spalte.
+     *
+     * @param wert der Text (kann null sein)
+     * @return dieser Schreiber
+     */
+    public BerichtsSchreiber text(CharSequence wert) {
+        int breite = spalteBeginnen();
+        switch (format) {
+            case LISTE -> zeichen(wert == null ? "null" : wert, 0, laenge(wert == null ? "null" : wert));
+            case CSV -> csvText(wert);
+            case FESTE_BREITE -> {
+                int anzahl = Math.min(laenge(wert), breite);
+                if (wert != null) {
+                    zeichen(wert, 0, anzahl);
+                }
+                leerzeichen(breite - anzahl);
+            }
+            case JSON_LINES -> jsonText(wert);
+        }
+        return this;
+    }
+
+    /**
+     * Schreibt einen Betrag mit genau zwei Nachkommastellen, z.B. ein Gehalt.
+     * Gerundet wird kaufmännisch auf ganze Cent. Im Format
+     * {@link BerichtsFormat#LISTE} steht wie bei {@code printf("%.2f")} der
+     * Dezimaltrenner der Standard-Locale, in allen anderen Formaten ein Punkt.
+     * {@code NaN} und unendliche Werte erscheinen wie bei {@code printf} als
+     * {@code NaN}, {@code Infinity} und {@code -Infinity}, in JSON als {@code null}.
+     *
+     * @param wert der Betrag
+     * @return dieser Schreiber
+     * @throws IllegalArgumentException wenn der Betrag zu groß für ganze Cent ist
+     */
+    public BerichtsSchreiber betrag(double wert) {
+        if (!Double.isFinite(wert)) {
+            return nichtEndlich(wert);
+        }
+        if (Math.abs(wert) >= GROESSTER_BETRAG) {
+            throw new IllegalArgumentException("Betrag zu groß für zwei Nachkommastellen: " + wert);
+        }
+        long cent = Math.round(wert * 100.0);
+        boolean negativ = cent < 0;
+        // Negativ rechnen, damit auch Long.MIN_VALUE funktioniert
+        long rest = negativ ? cent : -cent;
+
+        int start = ziffern.length;
+        ziffern[--start] = (byte) ('0' - rest % 10);
+        rest /= 10;
+        ziffern[--start] = (byte) ('0' - rest % 10);
+        rest /= 10;
+        for (int i = dezimalTrenner.length - 1; i >= 0; i--) {
+            ziffern[--start] = dezimalTrenner[i];
+        }
+        start = ganzzahlZiffern(rest, start);
+        if (negativ) {
+            ziffern[--start] = '-';
+        }
+        zahlSchreiben(start);
+        return this;
+    }
+
+    /**
+     * Schreibt eine Ganzzahl.
+     *
+     * @param wert die Zahl
+     * @return dieser Schreiber
+     */
+    public BerichtsSchreiber ganzzahl(long wert) {
+        boolean negativ = wert < 0;
+        int start = ganzzahlZiffern(negativ ? wert : -wert, ziffern.length);
+        if (negativ) {
+            ziffern[--start] = '-';
+        }
+        zahlSchreiben(start);
+        return this;
+    }
+
+    /**
+     * Schließt die aktuelle Zeile ab.
+     */
+    public void zeileBeenden() {
+        platz(2);
+        if (format == BerichtsFormat.JSON_LINES) {
+            if (spalte == 0) {
+                puffer[position++] = '{';
+            }
+            puffer[position++] = '}';
+            platz(1);
+        }
+        puffer[position++] = '\n';
+        spalte = 0;
+        zeilen++;
+    }
+
+    /**
+     * @return die Anzahl geschriebener Datenzeilen (ohne Kopfzeile)
+     */
+    public long getZeilen() {
+        return zeilen;
+    }
+
+    /**
+     * Schreibt den Pufferinhalt in den Kanal.
+     */
+    public void flush() {
+        pufferHuelle.clear().limit(position);
+        // Der Puffer endet nie mitten in einem Zeichen, siehe platz()
+        ByteBuffer ausgabe = zeichensatz == null ? pufferHuelle
+            : zeichensatz.encode(StandardCharsets.UTF_8.decode(pufferHuelle));
+        try {
+            while (ausgabe.hasRemaining()) {
+                kanal.write(ausgabe);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fehler beim Schreiben des Berichts", e);
+        }
+        position = 0;
+    }
+
+    /**
+     * Leert den Puffer und schließt den Kanal, sofern er diesem Schreiber gehört.
+     *
+     * @throws IOException wenn das Schließen fehlschlägt
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (kanalSchliessen) {
+            kanal.close();
+        }
+    }
+
+    /**
+     * Schreibt Trennzeichen bzw. JSON-Schlüssel und liefert die Breite der Spalte.
+     */
+    private int spalteBeginnen() {
+        int index = spalte++;
+        if (index >= spalten.length) {
+            throw new IllegalStateException("Mehr Werte als Spalten: " + Arrays.toString(spalten));
+        }
+        switch (format) {
+            case LISTE -> {
+                if (index > 0) {
+                    platz(2);
+                    puffer[position++] = ',';
+                    puffer[position++] = ' ';
+                }
+            }
+            case CSV -> {
+                if (index > 0) {
+                    platz(1);
+                    puffer[position++] = ',';
+                }
+            }
+            case FESTE_BREITE -> {
+                if (index > 0) {
+                    platz(1);
+                    puffer[position++] = ' ';
+                }
+            }
+            case JSON_LINES -> {
+                byte[] schluessel = jsonSchluessel[index];
+                platz(schluessel.length + 1);
+                puffer[position++] = (byte) (index == 0 ? '{' : ',');
+                System.arraycopy(schluessel, 0, puffer, position, schluessel.length);
+                position += schluessel.length;
+            }
+        }
+        return breiten[index];
+    }
+
+    private BerichtsSchreiber nichtEndlich(double wert) {
+        String text = format == BerichtsFormat.JSON_LINES ? "null"
+            : Double.isNaN(wert) ? "NaN" : wert > 0 ? "Infinity" : "-Infinity";
+        int start = ziffern.length - text.length();
+        for (int i = 0; i < text.length(); i++) {
+            ziffern[start + i] = (byte) text.charAt(i);
+        }
+        zahlSchreiben(start);
+        return this;
+    }
+
+    private void zahlSchreiben(int start) {
+        int breite = spalteBeginnen();
+        int laenge = ziffern.length - start;
+        if (format == BerichtsFormat.FESTE_BREITE) {
+            leerzeichen(breite - laenge);
+        }
+        platz(laenge);
+        System.arraycopy(ziffern, start, puffer, position, laenge);
+        position += laenge;
+    }
+
+    /**
+     * Schreibt die Ziffern einer nicht positiven Zahl rückwärts in {@link #ziffern}.
+     */
+    private int ganzzahlZiffern(long negativerWert, int start) {
+        long rest = negativerWert;
+        do {
+            ziffern[--start] = (byte) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        return start;
+    }
+
+    private void csvText(CharSequence wert) {
+        if (wert == null) {
+            return;
+        }
+        boolean maskieren = false;
+        for (int i = 0; i < wert.length() && !maskieren; i++) {
+            char zeichen = wert.charAt(i);
+            maskieren = zeichen == ',' || zeichen == '"' || zeichen == '\n' || zeichen == '\r';
+        }
+        if (!maskieren) {
+            zeichen(wert, 0, wert.length());
+            return;
+        }
+        platz(1);
+        puffer[position++] = '"';
+        for (int i = 0; i < wert.length(); i++) {
+            char zeichen = wert.charAt(i);
+            if (zeichen == '"') {
+                platz(1);
+                puffer[position++] = '"';
+            }
+            zeichen(zeichen);
+        }
+        platz(1);
+        puffer[position++] = '"';
+    }
+
+    private void jsonText(CharSequence wert) {
+        if (wert == null) {
+            platz(4);
+            puffer[position++] = 'n';
+            puffer[position++] = 'u';
+            puffer[position++] = 'l';
+            puffer[position++] = 'l';
+            return;
+        }
+        platz(1);
+        puffer[position++] = '"';
+        for (int i = 0; i < wert.length(); i++) {
+            char zeichen = wert.charAt(i);
+            if (zeichen == '"' || zeichen == '\\') {
+                platz(2);
+                puffer[position++] = '\\';
+                puffer[position++] = (byte) zeichen;
+            } else if (zeichen < 0x20) {
+                platz(6);
+                puffer[position++] = '\\';
+                puffer[position++] = 'u';
+                puffer[position++] = '0';
+                puffer[position++] = '0';
+                puffer[position++] = HEX[zeichen >> 4];
+                puffer[position++] = HEX[zeichen & 0xF];
+            } else if (Character.isHighSurrogate(zeichen) && i + 1 < wert.length()) {
+                ersatzpaar(zeichen, wert.charAt(++i));
+            } else {
+                zeichen(zeichen);
+            }
+        }
+        platz(1);
+        puffer[position++] = '"';
+    }
+
+    /**
+     * Kodiert Zeichen als UTF-8 direkt in den Puffer.
+     */
+    private void zeichen(CharSequence wert, int von, int bis) {
+        for (int i = von; i < bis; i++) {
+            char zeichen = wert.charAt(i);
+            if (Character.isHighSurrogate(zeichen) && i + 1 < bis) {
+                ersatzpaar(zeichen, wert.charAt(++i));
+            } else {
+                zeichen(zeichen);
+            }
+        }
+    }
+
+    private void zeichen(char zeichen) {
+        platz(3);
+        if (zeichen < 0x80) {
+            puffer[position++] = (byte) zeichen;
+        } else if (zeichen < 0x800) {
+            puffer[position++] = (byte) (0xC0 | zeichen >> 6);
+            puffer[position++] = (byte) (0x80 | zeichen & 0x3F);
+        } else if (Character.isSurrogate(zeichen)) {
+            // Einzelnes Ersatzzeichen ist kein gültiges UTF-8
+            puffer[position++] = '?';
+        } else {
+            puffer[position++] = (byte) (0xE0 | zeichen >> 12);
+            puffer[position++] = (byte) (0x80 | zeichen >> 6 & 0x3F);
+            puffer[position++] = (byte) (0x80 | zeichen & 0x3F);
+        }
+    }
+
+    private void ersatzpaar(char hoch, char tief) {
+        if (!Character.isLowSurrogate(tief)) {
+            zeichen(hoch);
+            zeichen(tief);
+            return;
+        }
+        int codepunkt = Character.toCodePoint(hoch, tief);
+        platz(4);
+        puffer[position++] = (byte) (0xF0 | codepunkt >> 18);
+        puffer[position++] = (byte) (0x80 | codepunkt >> 12 & 0x3F);
+        puffer[position++] = (byte) (0x80 | codepunkt >> 6 & 0x3F);
+        puffer[position++] = (byte) (0x80 | codepunkt & 0x3F);
+    }
+
+    private void leerzeichen(int anzahl) {
+        for (int i = 0; i < anzahl; i++) {
+            platz(1);
+            puffer[position++] = ' ';
+        }
+    }
+
+    private void platz(int bytes) {
+        if (puffer.length - position < bytes) {
+            flush();
+        }
+    }
+
+    private static int laenge(CharSequence wert) {
+        return wert == null ? 0 : wert.length();
+    }
+
+    /**
+     * Misst den Durchsatz mit synthetischen Mitarbeiterzeilen.
+     *
+     * @param args optional: Format, Zeilenanzahl und Zieldatei (Standard: CSV, 5.000.000, /dev/null)
+     * @throws Exception wenn ein Fehler auftritt
+     */
+    public static void main(String[] args) throws Exception {
+        BerichtsFormat format = args.length > 0 ? BerichtsFormat.valueOf(args[0]) : BerichtsFormat.CSV;
+        long anzahl = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000L;
+        Path ziel = Path.of(args.length > 2 ? args[2] : "/dev/null");
+        String[] nachnamen = {"Doe", "Public", "Queue", "Williams", "Johnson", "Smith"};
+        String[] vornamen = {"John", "Mary", "Susan", "David", "Lisa", "Paul"};
+        String[] abteilungen = {"HR", "Engineering", "Legal"};
+
+        long start = System.nanoTime();
+        try (BerichtsSchreiber schreiber = datei(ziel, format, "last_name", "first_name", "department", "salary")) {
+            schreiber.kopfzeile();
+            for (long i = 0; i < anzahl; i++) {
+                int index = (int) (i % nachnamen.length);
+                schreiber.text(nachnamen[index])
+                         .text(vornamen[index])
+                         .text(abteilungen[(int) (i % abteilungen.length)])
+                         .betrag(30000 + (i % 100_000) + 0.5)
+                         .zeileBeenden();
+            }
+        }
+        double sekunden = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d Zeilen im Format %s in %.2f s (%.0f Zeilen/s)%n",
+                          anzahl, format, sekunden, anzahl / sekunden);
+    }
+}
@@ -0,0 +1,306 @@
+package de.javadbconnectivity.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Zwischenspeicher für materialisierte Abfrageergebnisse mit größenabhängiger
+ * Verdrängung und Invalidierung pro Tabelle.
+ *
+ * Der Schlüssel besteht aus der normalisierten {@link SqlFingerabdruck Vorlage},
+ * ihrer {@link SqlFingerabdruck#getBelegung() Belegung}, den Literalwerten und
+ * den gebundenen Parametern. Die Verdrängung arbeitet in
+ * LRU-Reihenfolge; ein neuer Eintrag wird jedoch nur zugelassen, wenn er laut
+ * einer Häufigkeitsskizze öfter angefragt wurde als die Einträge, die für ihn
+ * weichen müssten (TinyLFU-Zulassung). Selten gelesene Ergebnisse verdrängen
+ * so keine häufig gelesenen.
+ *
+ * Für jede Tabelle wird ein Änderungszähler geführt. Ein Ergebnis, dessen
+ * Tabellen sich während der Abfrage geändert haben, wird nicht abgelegt.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class AbfrageCache {
+
+    /**
+     * Schlüssel eines Cache-Eintrags.
+     *
+     * @param vorlage die normalisierte SQL-Vorlage
+     * @param belegung Herkunft und IN-Listen-Zugehörigkeit jedes Werts
+     * @param werte Literalwerte gefolgt von den gebundenen Parametern
+     */
+    public record Schluessel(String vorlage, String belegung, List<Object> werte) {
+    }
+
+    /**
+     * Momentaufnahme der Cache-Statistik.
+     *
+     * @param eintraege Anzahl der Einträge
+     * @param belegteBytes geschätzter belegter Speicher
+     * @param treffer Anzahl der Treffer
+     * @param fehlschlaege Anzahl der Fehlschläge
+     * @param verdraengt Anzahl verdrängter Einträge
+     * @param abgelehnt Anzahl nicht zugelassener Einträge
+     * @param invalidiert Anzahl invalidierter Einträge
+     */
+    public record Statistik(int eintraege, long belegteBytes, long treffer, long fehlschlaege,
+                            long verdraengt, long abgelehnt, long invalidiert) {
+
+        /**
+         * @return die Trefferquote zwischen 0 und 1
+         */
+        public double trefferquote() {
+            long gesamt = treffer + fehlschlaege;
+            return gesamt == 0 ? 0.0 : (double) treffer / gesamt;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Schluessel, Eintrag> eintraege = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Set<Schluessel>> nachTabelle = new HashMap<>();
+    private final Map<String, Long> aenderungen = new HashMap<>();
+    private final HaeufigkeitsSkizze skizze = new HaeufigkeitsSkizze(4096);
+    private long globaleAenderungen;
+    private long belegteBytes;
+
+    private long treffer;
+    private long fehlschlaege;
+    private long verdraengt;
+    private long abgelehnt;
+    private long invalidiert;
+
+    /**
+     * Erstellt einen Cache mit der angegebenen Obergrenze.
+     *
+     * @param maxBytes die maximale geschätzte Größe aller Einträge in Bytes
+     */
+    public AbfrageCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cachegröße muss positiv sein: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Bildet den Cache-Schlüssel aus Fingerabdruck und gebundenen Parametern.
+     *
+     * @param fingerabdruck der Fingerabdruck der Abfrage
+     * @param parameter die gebundenen Parameter
+     * @return der Schlüssel
+     */
+    public static Schluessel schluessel(SqlFingerabdruck fingerabdruck, List<?> parameter) {
+        List<Object> werte = new ArrayList<>(fingerabdruck.getLiterale().size() + parameter.size());
+        werte.addAll(fingerabdruck.getLiterale());
+        werte.addAll(parameter);
+        return new Schluessel(fingerabdruck.getVorlage(), fingerabdruck.getBelegung(), werte);
+    }
+
+    /**
+     * Liefert ein zwischengespeichertes Ergebnis.
+     *
+     * @param schluessel der Schlüssel
+     * @return das Ergebnis oder null bei einem Fehlschlag
+     */
+    public synchronized MaterialisiertesErgebnis holen(Schluessel schluessel) {
+        skizze.erhoehen(schluessel);
+        Eintrag eintrag = eintraege.get(schluessel);
+        if (eintrag == null) {
+            fehlschlaege++;
+            return null;
+        }
+        treffer++;
+        return eintrag.ergebnis;
+    }
+
+    /**
+     * Liefert den aktuellen Änderungsstand der Tabellen. Der Wert muss vor der
+     * Abfrage gelesen und an {@link #ablegen} übergeben werden.
+     *
+     * @param tabellen die von der Abfrage gelesenen Tabellen
+     * @return der Änderungsstand
+     */
+    public synchronized long stand(Set<String> tabellen) {
+        long stand = globaleAenderungen;
+        for (String tabelle : tabellen) {
+            stand += aenderungen.getOrDefault(tabelle, 0L);
+        }
+        return stand;
+    }
+
+    /**
+     * Legt ein Ergebnis ab, sofern sich die Tabellen seit {@code stand} nicht
+     * geändert haben und der Eintrag zugelassen wird.
+     *
+     * @param schluessel der Schlüssel
+     * @param tabellen die von der Abfrage gelesenen Tabellen
+     * @param ergebnis das Ergebnis
+     * @param stand der vor der Abfrage gelesene Änderungsstand
+     * @return true, wenn das Ergebnis abgelegt wurde
+     */
+    public synchronized boolean ablegen(Schluessel schluessel, Set<String> tabellen,
+                                        MaterialisiertesErgebnis ergebnis, long stand) {
+        if (stand != stand(tabellen) || ergebnis.getGeschaetzteBytes() > maxBytes) {
+            abgelehnt++;
+            return false;
+        }
+
+        entfernen(schluessel);
+
+        // Opfer in LRU-Reihenfolge bestimmen, bis genug Platz frei wäre
+        List<Schluessel> opfer = new ArrayList<>();
+        long frei = maxBytes - belegteBytes;
+        int haeufigkeit = skizze.schaetzen(schluessel);
+        Iterator<Map.Entry<Schluessel, Eintrag>> iterator = eintraege.entrySet().iterator();
+        while (frei < ergebnis.getGeschaetzteBytes() && iterator.hasNext()) {
+            Map.Entry<Schluessel, Eintrag> aeltester = iterator.next();
+            if (skizze.schaetzen(aeltester.getKey()) >= haeufigkeit) {
+                abgelehnt++;
+                return false;
+            }
+            opfer.add(aeltester.getKey());
+            frei += aeltester.getValue().ergebnis.getGeschaetzteBytes();
+        }
+
+        for (Schluessel verdraengterSchluessel : opfer) {
+            entfernen(verdraengterSchluessel);
+            verdraengt++;
+        }
+
+        eintraege.put(schluessel, new Eintrag(ergebnis, Set.copyOf(tabellen)));
+        belegteBytes += ergebnis.getGeschaetzteBytes();
+        for (String tabelle : tabellen) {
+            nachTabelle.computeIfAbsent(tabelle, t -> new HashSet<>()).add(schluessel);
+        }
+        return true;
+    }
+
+    /**
+     * Entfernt alle Einträge, die eine der Tabellen lesen.
+     *
+     * @param tabellen die geänderten Tabellen
+     */
+    public synchronized void invalidieren(Collection<String> tabellen) {
+        for (String tabelle : tabellen) {
+            aenderungen.merge(tabelle, 1L, Long::sum);
+            Set<Schluessel> betroffen = nachTabelle.remove(tabelle);
+            if (betroffen != null) {
+                for (Schluessel schluessel : betroffen) {
+                    if (entfernen(schluessel)) {
+                        invalidiert++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Entfernt alle Einträge, z.B. nach einer Anweisung mit unbekannten Tabellen.
+     */
+    public synchronized void allesInvalidieren() {
+        globaleAenderungen++;
+        invalidiert += eintraege.size();
+        eintraege.clear();
+        nachTabelle.clear();
+        belegteBytes = 0;
+    }
+
+    /**
+     * @return eine Momentaufnahme der Statistik
+     */
+    public synchronized Statistik statistik() {
+        return new Statistik(eintraege.size(), belegteBytes, treffer, fehlschlaege,
+                             verdraengt, abgelehnt, invalidiert);
+    }
+
+    private boolean entfernen(Schluessel schluessel) {
+        Eintrag eintrag = eintraege.remove(schluessel);
+        if (eintrag == null) {
+            return false;
+        }
+        belegteBytes -= eintrag.ergebnis.getGeschaetzteBytes();
+        for (String tabelle : eintrag.tabellen) {
+            Set<Schluessel> schluesselDerTabelle = nachTabelle.get(tabelle);
+            if (schluesselDerTabelle != null) {
+                schluesselDerTabelle.remove(schluessel);
+            }
+        }
+        return true;
+    }
+
+    /** Ein abgelegtes Ergebnis mit den Tabellen, die es liest. */
+    private record Eintrag(MaterialisiertesErgebnis ergebnis, Set<String> tabellen) {
+    }
+
+    /**
+     * Count-Min-Skizze mit vier Zeilen gesättigter 4-Bit-Zähler. Nach einer festen
+     * Anzahl von Erhöhungen werden alle Zähler halbiert, damit veraltete
+     * Häufigkeiten abklingen.
+     */
+    private static final class HaeufigkeitsSkizze {
+        private static final int TIEFE = 4;
+        private static final int MAX_ZAEHLER = 15;
+        private static final int[] SAATEN = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] zaehler;
+        private final int maske;
+        private final int alterungsIntervall;
+        private int erhoehungen;
+
+        HaeufigkeitsSkizze(int breite) {
+            int potenz = Integer.highestOneBit(Math.max(16, breite - 1) << 1);
+            this.zaehler = new byte[TIEFE][potenz];
+            this.maske = potenz - 1;
+            this.alterungsIntervall = potenz * 10;
+        }
+
+        void erhoehen(Object schluessel) {
+            int hash = streuen(schluessel.hashCode());
+            for (int zeile = 0; zeile < TIEFE; zeile++) {
+                int index = index(hash, zeile);
+                if (zaehler[zeile][index] < MAX_ZAEHLER) {
+                    zaehler[zeile][index]++;
+                }
+            }
+            if (++erhoehungen >= alterungsIntervall) {
+                altern();
+            }
+        }
+
+        int schaetzen(Object schluessel) {
+            int hash = streuen(schluessel.hashCode());
+            int minimum = MAX_ZAEHLER;
+            for (int zeile = 0; zeile < TIEFE; zeile++) {
+                minimum = Math.min(minimum, zaehler[zeile][index(hash, zeile)]);
+            }
+            return minimum;
+        }
+
+        private void altern() {
+            for (byte[] zeile : zaehler) {
+                for (int i = 0; i < zeile.length; i++) {
+                    zeile[i] >>= 1;
+                }
+            }
+            erhoehungen /= 2;
+        }
+
+        private int index(int hash, int zeile) {
+            int h = (hash ^ SAATEN[zeile]) * SAATEN[(zeile + 1) % TIEFE];
+            return (h ^ (h >>> 16)) & maske;
+        }
+
+        private static int streuen(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x45D9F3B;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package de.javadbconnectivity.cache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Führt Abfragen über den {@link AbfrageCache} und Schreibzugriffe mit
+ * anschließender Invalidierung aus.
+ *
+ * Lesende Abfragen wie {@code SELECT * FROM employees} in {@code JdbcTest},
+ * {@code JdbcDemo} und {@code JdbcInsertDemo} werden nur beim ersten Mal an die
+ * Datenbank gesendet. Jede schreibende Anweisung, die über diese Klasse läuft,
+ * invalidiert die Einträge der geschriebenen Tabellen. Aufrufe gespeicherter
+ * Prozeduren und Anweisungen ohne erkennbare Tabelle leeren den gesamten Cache,
+ * da ihre Schreibzugriffe von außen nicht sichtbar sind. Abfragen ohne
+ * erkennbare Tabelle werden aus demselben Grund nie zwischengespeichert.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class CachenderAusfuehrer {
+
+    private final VerbindungsPool pool;
+    private final AbfrageCache cache;
+
+    /**
+     * @param pool der Pool für Datenbankzugriffe
+     * @param cache der zu verwendende Cache
+     */
+    public CachenderAusfuehrer(VerbindungsPool pool, AbfrageCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    /**
+     * Führt eine lesende Abfrage aus oder liefert das zwischengespeicherte Ergebnis.
+     *
+     * @param sql die SQL-Abfrage mit Platzhaltern
+     * @param parameter die Parameterwerte
+     * @return das materialisierte Ergebnis
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public MaterialisiertesErgebnis abfragen(String sql, Object... parameter) throws SQLException {
+        SqlFingerabdruck fingerabdruck = SqlFingerabdruck.von(sql);
+        if (fingerabdruck.getArt() != SqlFingerabdruck.Art.LESEND) {
+            throw new IllegalArgumentException("Keine lesende Abfrage: " + sql);
+        }
+        if (fingerabdruck.getTabellen().isEmpty()) {
+            // Ohne Tabellen könnte keine Invalidierung den Eintrag je treffen
+            return direktAbfragen(sql, parameter);
+        }
+
+        List<Object> parameterListe = Arrays.asList(parameter);
+        AbfrageCache.Schluessel schluessel = AbfrageCache.schluessel(fingerabdruck, parameterListe);
+        MaterialisiertesErgebnis ergebnis = cache.holen(schluessel);
+        if (ergebnis != null) {
+            return ergebnis;
+        }
+
+        long stand = cache.stand(fingerabdruck.getTabellen());
+        ergebnis = direktAbfragen(sql, parameter);
+        cache.ablegen(schluessel, fingerabdruck.getTabellen(), ergebnis, stand);
+        return ergebnis;
+    }
+
+    /**
+     * Führt eine schreibende Anweisung oder einen Prozeduraufruf aus und
+     * invalidiert die betroffenen Cache-Einträge.
+     *
+     * @param sql die SQL-Anweisung mit Platzhaltern
+     * @param parameter die Parameterwerte
+     * @return die Anzahl betroffener Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int aktualisieren(String sql, Object... parameter) throws SQLException {
+        SqlFingerabdruck fingerabdruck = SqlFingerabdruck.von(sql);
+
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = vorbereiten(verbindung, sql, parameter)) {
+            return statement.executeUpdate();
+        } finally {
+            pool.zurueckgeben(verbindung);
+            // Auch nach einem Fehler invalidieren, die Änderung kann teilweise erfolgt sein
+            if (fingerabdruck.getArt() == SqlFingerabdruck.Art.SCHREIBEND
+                    && !fingerabdruck.getTabellen().isEmpty()) {
+                cache.invalidieren(fingerabdruck.getTabellen());
+            } else {
+                cache.allesInvalidieren();
+            }
+        }
+    }
+
+    /**
+     * @return der verwendete Cache
+     */
+    public AbfrageCache getCache() {
+        return cache;
+    }
+
+    private MaterialisiertesErgebnis direktAbfragen(String sql, Object... parameter) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = vorbereiten(verbindung, sql, parameter);
+             ResultSet ergebnisSet = statement.executeQuery()) {
+            return MaterialisiertesErgebnis.einlesen(ergebnisSet);
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private static PreparedStatement vorbereiten(Connection verbindung, String sql, Object... parameter)
+            throws SQLException {
+        PreparedStatement statement = sql.trim().startsWith("{")
+            ? verbindung.prepareCall(sql)
+            : verbindung.prepareStatement(sql);
+        for (int i = 0; i < parameter.length; i++) {
+            statement.setObject(i + 1, parameter[i]);
+        }
+        return statement;
+    }
+
+    /**
+     * Demonstriert den Cache: wiederholte Mitarbeiterlisten werden aus dem Cache
+     * bedient, bis ein INSERT die Tabelle invalidiert.
+     *
+     * @param args Kommandozeilenargumente (werden nicht verwendet)
+     * @throws Exception wenn ein Fehler auftritt
+     */
+    public static void main(String[] args) throws Exception {
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 2)) {
+            CachenderAusfuehrer ausfuehrer = new CachenderAusfuehrer(pool, new AbfrageCache(8 * 1024 * 1024));
+
+            for (int i = 0; i < 3; i++) {
+                MaterialisiertesErgebnis ergebnis = ausfuehrer.abfragen("SELECT * FROM employees ORDER BY last_name");
+                System.out.println("Durchlauf " + (i + 1) + ": " + ergebnis.getAnzahlZeilen() + " Mitarbeiter");
+            }
+
+            System.out.println("\nFüge neuen Mitarbeiter ein...");
+            ausfuehrer.aktualisieren(
+                "INSERT INTO employees (last_name, first_name, email, department, salary) VALUES (?, ?, ?, ?, ?)",
+                "Wright", "Eric", "eric.wright@foo.com", "HR", 33000.00);
+
+            MaterialisiertesErgebnis ergebnis = ausfuehrer.abfragen("select * from employees order by last_name");
+            System.out.println("Nach dem Einfügen: " + ergebnis.getAnzahlZeilen() + " Mitarbeiter");
+            System.out.println("\n" + ausfuehrer.getCache().statistik());
+        }
+    }
+}
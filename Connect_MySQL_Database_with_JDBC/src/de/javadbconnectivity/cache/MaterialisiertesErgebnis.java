@@ -0,0 +1,133 @@
+package de.javadbconnectivity.cache;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Vollständig eingelesenes, unveränderliches Abfrageergebnis.
+ *
+ * Im Gegensatz zu einem {@link ResultSet} hält es keine Datenbankressourcen und
+ * kann daher zwischengespeichert und von mehreren Threads gelesen werden.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class MaterialisiertesErgebnis {
+
+    /** Geschätzter Grundaufwand pro Objekt in Bytes */
+    private static final int OBJEKT_KOPF = 16;
+
+    private final List<String> spalten;
+    private final List<Object[]> zeilen;
+    private final long geschaetzteBytes;
+
+    private MaterialisiertesErgebnis(List<String> spalten, List<Object[]> zeilen) {
+        this.spalten = Collections.unmodifiableList(spalten);
+        this.zeilen = Collections.unmodifiableList(zeilen);
+        this.geschaetzteBytes = groesseSchaetzen(zeilen);
+    }
+
+    /**
+     * Liest alle verbleibenden Zeilen eines ResultSets ein.
+     *
+     * @param ergebnisSet das zu lesende ResultSet
+     * @return das materialisierte Ergebnis
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static MaterialisiertesErgebnis einlesen(ResultSet ergebnisSet) throws SQLException {
+        ResultSetMetaData metaDaten = ergebnisSet.getMetaData();
+        int anzahlSpalten = metaDaten.getColumnCount();
+
+        List<String> spalten = new ArrayList<>(anzahlSpalten);
+        for (int i = 1; i <= anzahlSpalten; i++) {
+            spalten.add(metaDaten.getColumnLabel(i));
+        }
+
+        List<Object[]> zeilen = new ArrayList<>();
+        while (ergebnisSet.next()) {
+            Object[] zeile = new Object[anzahlSpalten];
+            for (int i = 0; i < anzahlSpalten; i++) {
+                zeile[i] = ergebnisSet.getObject(i + 1);
+            }
+            zeilen.add(zeile);
+        }
+        return new MaterialisiertesErgebnis(spalten, zeilen);
+    }
+
+    /**
+     * @return die Spaltenbezeichnungen in Abfragereihenfolge
+     */
+    public List<String> getSpalten() {
+        return spalten;
+    }
+
+    /**
+     * @return die Anzahl der Zeilen
+     */
+    public int getAnzahlZeilen() {
+        return zeilen.size();
+    }
+
+    /**
+     * Liefert einen Wert über den Spaltennamen, wie {@link ResultSet#getObject(String)}.
+     *
+     * @param zeile der Zeilenindex (ab 0)
+     * @param spalte der Spaltenname (ohne Beachtung der Groß-/Kleinschreibung)
+     * @return der Wert (kann null sein)
+     */
+    public Object wert(int zeile, String spalte) {
+        return zeilen.get(zeile)[spaltenIndex(spalte)];
+    }
+
+    /**
+     * Liefert einen Wert als Zeichenkette, wie {@link ResultSet#getString(String)}.
+     *
+     * @param zeile der Zeilenindex (ab 0)
+     * @param spalte der Spaltenname
+     * @return der Wert als Zeichenkette (kann null sein)
+     */
+    public String text(int zeile, String spalte) {
+        Object wert = wert(zeile, spalte);
+        return wert == null ? null : wert.toString();
+    }
+
+    /**
+     * @return die geschätzte Größe im Speicher in Bytes
+     */
+    public long getGeschaetzteBytes() {
+        return geschaetzteBytes;
+    }
+
+    private int spaltenIndex(String spalte) {
+        for (int i = 0; i < spalten.size(); i++) {
+            if (spalten.get(i).equalsIgnoreCase(spalte)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannte Spalte: " + spalte);
+    }
+
+    private static long groesseSchaetzen(List<Object[]> zeilen) {
+        long bytes = OBJEKT_KOPF;
+        for (Object[] zeile : zeilen) {
+            bytes += OBJEKT_KOPF + 4L * zeile.length;
+            for (Object wert : zeile) {
+                if (wert instanceof String text) {
+                    bytes += OBJEKT_KOPF + text.length();
+                } else if (wert instanceof BigDecimal) {
+                    bytes += 2 * OBJEKT_KOPF;
+                } else if (wert instanceof byte[] daten) {
+                    bytes += OBJEKT_KOPF + daten.length;
+                } else if (wert != null) {
+                    bytes += OBJEKT_KOPF;
+                }
+            }
+        }
+        return bytes;
+    }
+}
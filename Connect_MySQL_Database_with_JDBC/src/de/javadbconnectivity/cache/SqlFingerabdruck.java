@@ -0,0 +1,277 @@
+package de.javadbconnectivity.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisierte Form einer SQL-Anweisung.
+ *
+ * Groß-/Kleinschreibung, Leerraum und Kommentare werden vereinheitlicht und alle
+ * Literale durch {@code ?} ersetzt. So haben
+ * {@code SELECT * FROM employees WHERE id=1} und
+ * {@code select *  from employees where id = 2} dieselbe {@link #getVorlage() Vorlage};
+ * die Literalwerte bleiben über {@link #getLiterale()} erhalten.
+ * Listen in {@code IN (...)} werden unabhängig von ihrer Länge zusammengefasst.
+ * Was dabei an Unterscheidung verloren geht, hält die {@link #getBelegung() Belegung}
+ * fest.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class SqlFingerabdruck {
+
+    /** Tabellenlisten nach FROM, JOIN, INTO und UPDATE, auch {@code from a x,b y} */
+    private static final Pattern TABELLEN = Pattern.compile(
+        "\\b(?:from|join|into|update)\\s+(`?[a-z0-9_$.]+`?(?:\\s(?:as\\s)?[a-z0-9_$]+)?"
+            + "(?:,`?[a-z0-9_$.]+`?(?:\\s(?:as\\s)?[a-z0-9_$]+)?)*)");
+    /** IN-Listen aus Platzhaltern oder Platzhalter-Tupeln */
+    private static final Pattern IN_LISTE =
+        Pattern.compile("\\bin\\((?:\\((?:\\?,)*\\?\\)|\\?)(?:,(?:\\((?:\\?,)*\\?\\)|\\?))*\\)");
+
+    /** Art der Anweisung, abgeleitet aus dem ersten Schlüsselwort. */
+    public enum Art {
+        /** SELECT, SHOW, EXPLAIN, WITH */
+        LESEND,
+        /** INSERT, UPDATE, DELETE, REPLACE und DDL */
+        SCHREIBEND,
+        /** Aufruf einer gespeicherten Prozedur */
+        AUFRUF
+    }
+
+    private final String vorlage;
+    private final String belegung;
+    private final List<String> literale;
+    private final Set<String> tabellen;
+    private final Art art;
+
+    private SqlFingerabdruck(String vorlage, String belegung, List<String> literale) {
+        this.vorlage = vorlage;
+        this.belegung = belegung;
+        this.literale = Collections.unmodifiableList(literale);
+        this.art = artBestimmen(vorlage);
+
+        Set<String> gefunden = new LinkedHashSet<>();
+        Matcher matcher = TABELLEN.matcher(vorlage);
+        while (matcher.find()) {
+            for (String eintrag : matcher.group(1).split(",")) {
+                gefunden.add(eintrag.split(" ", 2)[0].replace("`", ""));
+            }
+        }
+        this.tabellen = Collections.unmodifiableSet(gefunden);
+    }
+
+    /**
+     * Berechnet den Fingerabdruck einer SQL-Anweisung.
+     *
+     * @param sql die SQL-Anweisung
+     * @return der Fingerabdruck
+     */
+    public static SqlFingerabdruck von(String sql) {
+        List<String> literale = new ArrayList<>();
+        StringBuilder vorlage = new StringBuilder(sql.length());
+        StringBuilder belegung = new StringBuilder();
+        boolean leerraumOffen = false;
+        int laenge = sql.length();
+        int i = 0;
+
+        while (i < laenge) {
+            char zeichen = sql.charAt(i);
+
+            if (Character.isWhitespace(zeichen)) {
+                leerraumOffen = true;
+                i++;
+            } else if (zeichen == '-' && i + 1 < laenge && sql.charAt(i + 1) == '-' || zeichen == '#') {
+                // Zeilenkommentar
+                while (i < laenge && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                leerraumOffen = true;
+            } else if (zeichen == '/' && i + 1 < laenge && sql.charAt(i + 1) == '*') {
+                // Blockkommentar
+                int ende = sql.indexOf("*/", i + 2);
+                i = ende < 0 ? laenge : ende + 2;
+                leerraumOffen = true;
+            } else if (zeichen == '\'' || zeichen == '"') {
+                StringBuilder literal = new StringBuilder();
+                i = zeichenketteLesen(sql, i, literal);
+                literale.add(literal.toString());
+                belegung.append('L');
+                leerraumOffen = anhaengen(vorlage, '?', leerraumOffen);
+            } else if (Character.isDigit(zeichen) && (leerraumOffen || !istWortzeichen(letztes(vorlage)))) {
+                int start = i;
+                while (i < laenge && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                literale.add(sql.substring(start, i));
+                belegung.append('L');
+                leerraumOffen = anhaengen(vorlage, '?', leerraumOffen);
+            } else {
+                if (zeichen == '?') {
+                    belegung.append('P');
+                }
+                leerraumOffen = anhaengen(vorlage, Character.toLowerCase(zeichen), leerraumOffen);
+                i++;
+            }
+        }
+
+        String ergebnis = vorlage.toString();
+        if (ergebnis.endsWith(";")) {
+            ergebnis = ergebnis.substring(0, ergebnis.length() - 1);
+        }
+        return inListenZusammenfassen(ergebnis, belegung.toString(), literale);
+    }
+
+    /**
+     * @return die normalisierte Anweisung mit {@code ?} anstelle aller Literale
+     */
+    public String getVorlage() {
+        return vorlage;
+    }
+
+    /**
+     * Beschreibt für jedes {@code ?} der ursprünglichen Anweisung, ob es ein
+     * Literal ({@code L}) oder ein Platzhalter ({@code P}) war; zusammengefasste
+     * IN-Listen stehen in Klammern. {@code a IN (1,2) AND b IN (3)} ergibt
+     * {@code (LL)(L)}, {@code a IN (1) AND b IN (2,3)} dagegen {@code (L)(LL)}.
+     * Zusammen mit Vorlage, Literalen und Parametern bestimmt sie eine Anweisung
+     * eindeutig.
+     *
+     * @return die Belegung der Platzhalter
+     */
+    public String getBelegung() {
+        return belegung;
+    }
+
+    /**
+     * @return die aus der Anweisung entfernten Literalwerte in Reihenfolge
+     */
+    public List<String> getLiterale() {
+        return literale;
+    }
+
+    /**
+     * @return die in der Anweisung referenzierten Tabellen (klein geschrieben)
+     */
+    public Set<String> getTabellen() {
+        return tabellen;
+    }
+
+    /**
+     * @return die Art der Anweisung
+     */
+    public Art getArt() {
+        return art;
+    }
+
+    @Override
+    public boolean equals(Object anderes) {
+        return anderes instanceof SqlFingerabdruck fingerabdruck && vorlage.equals(fingerabdruck.vorlage);
+    }
+
+    @Override
+    public int hashCode() {
+        return vorlage.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return vorlage;
+    }
+
+    /**
+     * Ersetzt jede IN-Liste durch {@code in(...)} und klammert in der Belegung
+     * die {@code ?} der Liste ein.
+     */
+    private static SqlFingerabdruck inListenZusammenfassen(String vorlage, String belegung,
+                                                           List<String> literale) {
+        StringBuilder zusammengefasst = new StringBuilder(vorlage.length());
+        StringBuilder geklammert = new StringBuilder(belegung.length() + 8);
+        Matcher matcher = IN_LISTE.matcher(vorlage);
+        int position = 0;
+        int naechstes = 0;
+        while (matcher.find()) {
+            int davor = platzhalterZaehlen(vorlage, position, matcher.start());
+            int inListe = platzhalterZaehlen(vorlage, matcher.start(), matcher.end());
+            geklammert.append(belegung, naechstes, naechstes + davor).append('(')
+                .append(belegung, naechstes + davor, naechstes + davor + inListe).append(')');
+            naechstes += davor + inListe;
+            zusammengefasst.append(vorlage, position, matcher.start()).append("in(...)");
+            position = matcher.end();
+        }
+        zusammengefasst.append(vorlage, position, vorlage.length());
+        geklammert.append(belegung, naechstes, belegung.length());
+        return new SqlFingerabdruck(zusammengefasst.toString(), geklammert.toString(), literale);
+    }
+
+    private static int platzhalterZaehlen(String text, int von, int bis) {
+        int anzahl = 0;
+        for (int i = von; i < bis; i++) {
+            if (text.charAt(i) == '?') {
+                anzahl++;
+            }
+        }
+        return anzahl;
+    }
+
+    private static Art artBestimmen(String vorlage) {
+        String anfang = vorlage.startsWith("{") ? vorlage.substring(1) : vorlage;
+        if (anfang.startsWith("select") || anfang.startsWith("show")
+                || anfang.startsWith("explain") || anfang.startsWith("with")
+                || anfang.startsWith("(select")) {
+            return Art.LESEND;
+        }
+        if (anfang.startsWith("call") || anfang.startsWith("?=call")) {
+            return Art.AUFRUF;
+        }
+        return Art.SCHREIBEND;
+    }
+
+    /**
+     * Hängt ein Zeichen an und setzt offenen Leerraum nur zwischen zwei Wortzeichen,
+     * damit {@code id=1} und {@code id = 1} identisch normalisiert werden.
+     */
+    private static boolean anhaengen(StringBuilder vorlage, char zeichen, boolean leerraumOffen) {
+        if (leerraumOffen && istWortzeichen(letztes(vorlage)) && istWortzeichen(zeichen)) {
+            vorlage.append(' ');
+        }
+        vorlage.append(zeichen);
+        return false;
+    }
+
+    private static int zeichenketteLesen(String sql, int start, StringBuilder literal) {
+        char quote = sql.charAt(start);
+        int i = start + 1;
+        while (i < sql.length()) {
+            char zeichen = sql.charAt(i);
+            if (zeichen == '\\' && i + 1 < sql.length()) {
+                literal.append(sql.charAt(i + 1));
+                i += 2;
+            } else if (zeichen == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    literal.append(quote);
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                literal.append(zeichen);
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static char letztes(StringBuilder vorlage) {
+        return vorlage.length() == 0 ? ' ' : vorlage.charAt(vorlage.length() - 1);
+    }
+
+    private static boolean istWortzeichen(char zeichen) {
+        return Character.isLetterOrDigit(zeichen) || zeichen == '_' || zeichen == '?'
+            || zeichen == '`' || zeichen == '$' || zeichen == '*';
+    }
+}
@@ -0,0 +1,308 @@
+package de.javadbconnectivity.entitaet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+import de.javadbconnectivity.projektion.Spalte;
+
+/**
+ * Lädt {@link MitarbeiterEntitaet}en mit wenigen Spalten und lädt fehlende
+ * Spalten gebündelt nach.
+ *
+ * Der Kontext merkt sich jede geladene Entität unter ihrer Id; dieselbe Id
+ * ergibt innerhalb eines Kontexts immer dasselbe Objekt. Fehlt beim Zugriff
+ * eine Spalte, wird sie für den Auslöser und alle anderen Entitäten des
+ * Kontexts ohne diese Spalte in einer Abfrage je {@code blockGroesse} Ids
+ * gelesen. Aus N+1 Abfragen für eine Liste werden so 1 + N / blockGroesse.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - nur die Spalten eines {@link Anzeigepfad}s überträgt und den Rest bei Bedarf liest
+ * - Nachladezugriffe über {@code id IN (...)} bündelt
+ * - die IN-Liste auf eine feste Länge auffüllt, damit nur ein SQL-Text entsteht
+ *
+ * Ein Kontext ist nicht threadsicher und für eine Arbeitseinheit gedacht,
+ * etwa eine Anzeige; danach wird er verworfen oder {@link #leeren() geleert}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class Ladekontext {
+
+    /** Ids je Nachladeabfrage */
+    public static final int STANDARD_BLOCK = 100;
+    /** Höchstens so viele Entitäten werden bei einem Zugriff nachgeladen */
+    public static final int STANDARD_HOECHSTENS = 1_000;
+
+    private final VerbindungsPool pool;
+    private final Metriken metriken;
+    private final int blockGroesse;
+    private final int hoechstens;
+    private final Map<Integer, MitarbeiterEntitaet> entitaeten = new LinkedHashMap<>();
+
+    /**
+     * @param pool der Verbindungspool
+     * @param metriken das Ziel für Abfrage- und Zeilenzähler
+     */
+    public Ladekontext(VerbindungsPool pool, Metriken metriken) {
+        this(pool, metriken, STANDARD_BLOCK, STANDARD_HOECHSTENS);
+    }
+
+    /**
+     * @param pool der Verbindungspool
+     * @param metriken das Ziel für Abfrage- und Zeilenzähler
+     * @param blockGroesse die Anzahl der Ids je Nachladeabfrage
+     * @param hoechstens die Anzahl der Entitäten, die ein Zugriff höchstens nachlädt
+     */
+    public Ladekontext(VerbindungsPool pool, Metriken metriken, int blockGroesse, int hoechstens) {
+        if (blockGroesse < 1 || hoechstens < 1) {
+            throw new IllegalArgumentException("Blockgröße und Höchstzahl müssen mindestens 1 sein");
+        }
+        this.pool = pool;
+        this.metriken = metriken;
+        this.blockGroesse = blockGroesse;
+        this.hoechstens = hoechstens;
+    }
+
+    /**
+     * Lädt Mitarbeiter mit den Spalten eines Anzeigepfads.
+     *
+     * @param pfad der Anzeigepfad
+     * @param bedingung die Bedingung mit Platzhaltern oder null für alle Mitarbeiter
+     * @param parameter die Werte der Platzhalter
+     * @return die Entitäten nach Id sortiert
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<MitarbeiterEntitaet> laden(Anzeigepfad pfad, String bedingung, Object... parameter)
+            throws SQLException {
+        return laden(EnumSet.copyOf(pfad.getSpalten()), bedingung, parameter);
+    }
+
+    /**
+     * Lädt Mitarbeiter mit den angegebenen Spalten; die Id wird immer gelesen.
+     * Bereits bekannte Entitäten werden wiederverwendet und erhalten die
+     * gelesenen Werte.
+     *
+     * @param spalten die zu lesenden Spalten
+     * @param bedingung die Bedingung mit Platzhaltern oder null für alle Mitarbeiter
+     * @param parameter die Werte der Platzhalter
+     * @return die Entitäten nach Id sortiert
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<MitarbeiterEntitaet> laden(Set<Spalte> spalten, String bedingung, Object... parameter)
+            throws SQLException {
+        List<Spalte> gelesen = new ArrayList<>(spalten);
+        gelesen.remove(Spalte.ID);
+        AbfrageBauer bauer = AbfrageBauer.spalten(Spalte.ID).mit(gelesen.toArray(Spalte[]::new));
+        if (bedingung != null) {
+            bauer.wo(bedingung);
+        }
+        String sql = bauer.sortiertNach(Spalte.ID).bauen();
+
+        List<MitarbeiterEntitaet> ergebnis = new ArrayList<>();
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+            for (int i = 0; i < parameter.length; i++) {
+                statement.setObject(i + 1, parameter[i]);
+            }
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                while (ergebnisSet.next()) {
+                    MitarbeiterEntitaet entitaet = referenz(ergebnisSet.getInt(1));
+                    werteSetzen(entitaet, ergebnisSet, gelesen);
+                    ergebnis.add(entitaet);
+                }
+            }
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+        metriken.zaehler("entitaet.ladeAbfragen").increment();
+        metriken.zaehler("entitaet.geladeneZeilen").add(ergebnis.size());
+        return ergebnis;
+    }
+
+    /**
+     * Liefert die Entität zu einer Id ohne Datenbankzugriff. Unbekannte Ids
+     * ergeben eine Entität ohne geladene Spalten, die beim ersten Zugriff
+     * zusammen mit allen anderen nachgeladen wird.
+     *
+     * @param id die Id
+     * @return die Entität dieses Kontexts
+     */
+    public MitarbeiterEntitaet referenz(int id) {
+        return entitaeten.computeIfAbsent(id, schluessel -> new MitarbeiterEntitaet(schluessel, this));
+    }
+
+    /**
+     * @return alle Entitäten dieses Kontexts in der Reihenfolge ihres ersten Auftretens
+     */
+    public List<MitarbeiterEntitaet> getEntitaeten() {
+        return Collections.unmodifiableList(new ArrayList<>(entitaeten.values()));
+    }
+
+    /**
+     * Vergisst alle Entitäten. Bereits ausgegebene Entitäten laden danach nur
+     * noch für sich selbst nach.
+     */
+    public void leeren() {
+        entitaeten.clear();
+    }
+
+    /**
+     * Lädt die Spalten für den Auslöser und alle anderen Entitäten, denen
+     * mindestens eine davon fehlt.
+     *
+     * @throws SQLException wenn der Auslöser nicht mehr existiert oder ein Datenbankzugriffsfehler auftritt
+     */
+    void nachladen(MitarbeiterEntitaet ausloeser, Set<Spalte> spalten) throws SQLException {
+        if (ausloeser.istEntfernt()) {
+            throw new SQLException("Mitarbeiter " + ausloeser.getId() + " existiert nicht mehr");
+        }
+        List<MitarbeiterEntitaet> kandidaten = new ArrayList<>();
+        kandidaten.add(ausloeser);
+        for (MitarbeiterEntitaet entitaet : entitaeten.values()) {
+            if (kandidaten.size() >= hoechstens) {
+                break;
+            }
+            if (entitaet != ausloeser && !entitaet.istEntfernt() && fehltEine(entitaet, spalten)) {
+                kandidaten.add(entitaet);
+            }
+        }
+
+        List<Spalte> gelesen = new ArrayList<>(spalten);
+        String sql = AbfrageBauer.spalten(Spalte.ID).mit(gelesen.toArray(Spalte[]::new))
+            .wo("id IN (" + "?, ".repeat(blockGroesse - 1) + "?)").bauen();
+
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+            for (int start = 0; start < kandidaten.size(); start += blockGroesse) {
+                List<MitarbeiterEntitaet> block =
+                    kandidaten.subList(start, Math.min(start + blockGroesse, kandidaten.size()));
+                blockLaden(statement, block, gelesen);
+            }
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+
+        if (ausloeser.istEntfernt()) {
+            throw new SQLException("Mitarbeiter " + ausloeser.getId() + " existiert nicht mehr");
+        }
+    }
+
+    private void blockLaden(PreparedStatement statement, List<MitarbeiterEntitaet> block, List<Spalte> gelesen)
+            throws SQLException {
+        Map<Integer, MitarbeiterEntitaet> offen = new LinkedHashMap<>();
+        for (MitarbeiterEntitaet entitaet : block) {
+            offen.put(entitaet.getId(), entitaet);
+        }
+        // Mit der letzten Id auffüllen: ein SQL-Text für alle Blöcke
+        int letzte = block.get(block.size() - 1).getId();
+        for (int i = 0; i < blockGroesse; i++) {
+            statement.setInt(i + 1, i < block.size() ? block.get(i).getId() : letzte);
+        }
+        Set<Integer> gefunden = new HashSet<>();
+        try (ResultSet ergebnisSet = statement.executeQuery()) {
+            while (ergebnisSet.next()) {
+                int id = ergebnisSet.getInt(1);
+                MitarbeiterEntitaet entitaet = offen.get(id);
+                if (entitaet != null && gefunden.add(id)) {
+                    werteSetzen(entitaet, ergebnisSet, gelesen);
+                }
+            }
+        }
+        for (MitarbeiterEntitaet entitaet : block) {
+            if (!gefunden.contains(entitaet.getId())) {
+                entitaet.entfernen();
+            }
+        }
+        metriken.zaehler("entitaet.nachladeAbfragen").increment();
+        metriken.zaehler("entitaet.nachgeladeneZeilen").add(gefunden.size());
+    }
+
+    private static boolean fehltEine(MitarbeiterEntitaet entitaet, Set<Spalte> spalten) {
+        for (Spalte spalte : spalten) {
+            if (!entitaet.istGeladen(spalte)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Übernimmt die Spalten ab Index 2; Index 1 ist die Id.
+     */
+    private static void werteSetzen(MitarbeiterEntitaet entitaet, ResultSet ergebnisSet, List<Spalte> gelesen)
+            throws SQLException {
+        for (int i = 0; i < gelesen.size(); i++) {
+            Spalte spalte = gelesen.get(i);
+            int index = i + 2;
+            entitaet.setzen(spalte, switch (spalte) {
+                case ID -> ergebnisSet.getInt(index);
+                case GEHALT -> ergebnisSet.getBigDecimal(index);
+                case NACHNAME, VORNAME, EMAIL, ABTEILUNG -> ergebnisSet.getString(index);
+            });
+        }
+    }
+
+    /**
+     * Lädt die Namensliste einer Abteilung, gibt danach die E-Mail-Adressen
+     * aus und zeigt, wie viele Abfragen das Nachladen gekostet hat.
+     *
+     * Aufruf: {@code Ladekontext [abteilung=Engineering] [block=100]}
+     *
+     * @param args {@code abteilung=} und {@code block=}
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static void main(String[] args) throws SQLException {
+        String abteilung = "Engineering";
+        int block = STANDARD_BLOCK;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "abteilung" -> abteilung = teile[1];
+                case "block" -> block = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        Metriken metriken = new Metriken();
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 1)) {
+            Ladekontext kontext = new Ladekontext(pool, metriken, block, STANDARD_HOECHSTENS);
+            List<MitarbeiterEntitaet> liste = kontext.laden(Anzeigepfad.NAMENSLISTE, "department = ?", abteilung);
+
+            System.out.println("Namensliste " + abteilung + " (" + liste.size() + " Mitarbeiter):");
+            for (MitarbeiterEntitaet mitarbeiter : liste) {
+                System.out.println(mitarbeiter.getNachname() + ", " + mitarbeiter.getVorname());
+            }
+
+            // Der erste Zugriff lädt die E-Mail aller Mitarbeiter der Liste nach
+            System.out.println("\nKontakte:");
+            for (MitarbeiterEntitaet mitarbeiter : liste) {
+                System.out.println(mitarbeiter.getNachname() + ": " + mitarbeiter.getEmail());
+            }
+
+            if (!liste.isEmpty()) {
+                System.out.println("\nVollständig: " + liste.get(0).alsMitarbeiter());
+            }
+
+            System.out.println("\nOhne Bündelung wären es " + (2 + liste.size()) + " Abfragen gewesen.");
+            metriken.ausgeben(System.out);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package de.javadbconnectivity.entitaet;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.projektion.Spalte;
+
+/**
+ * Ein Mitarbeiter, von dem nur ein Teil der Spalten geladen ist.
+ *
+ * Der erste Zugriff auf eine fehlende Spalte lädt sie über den
+ * {@link Ladekontext} nach – nicht nur für diesen Mitarbeiter, sondern für alle
+ * Mitarbeiter des Kontexts, denen sie ebenfalls fehlt. Eine Schleife über
+ * hundert Mitarbeiter, die jeweils {@link #getEmail()} aufruft, kostet so eine
+ * Abfrage statt hundert.
+ *
+ * Die Id ist immer geladen. Nachgeladene Spalten stammen aus einer späteren
+ * Abfrage als die übrigen und können daher einen neueren Stand zeigen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class MitarbeiterEntitaet {
+
+    private final int id;
+    private final Ladekontext kontext;
+    private final Map<Spalte, Object> werte = new EnumMap<>(Spalte.class);
+    private boolean entfernt;
+
+    MitarbeiterEntitaet(int id, Ladekontext kontext) {
+        this.id = id;
+        this.kontext = kontext;
+    }
+
+    /**
+     * @return der Primärschlüssel
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return die Spalte {@code last_name}
+     * @throws SQLException wenn das Nachladen fehlschlägt
+     */
+    public String getNachname() throws SQLException {
+        return (String) wert(Spalte.NACHNAME);
+    }
+
+    /**
+     * @return die Spalte {@code first_name}
+     * @throws SQLException wenn das Nachladen fehlschlägt
+     */
+    public String getVorname() throws SQLException {
+        return (String) wert(Spalte.VORNAME);
+    }
+
+    /**
+     * @return die Spalte {@code email}
+     * @throws SQLException wenn das Nachladen fehlschlägt
+     */
+    public String getEmail() throws SQLException {
+        return (String) wert(Spalte.EMAIL);
+    }
+
+    /**
+     * @return die Spalte {@code department}
+     * @throws SQLException wenn das Nachladen fehlschlägt
+     */
+    public String getAbteilung() throws SQLException {
+        return (String) wert(Spalte.ABTEILUNG);
+    }
+
+    /**
+     * @return die Spalte {@code salary}
+     * @throws SQLException wenn das Nachladen fehlschlägt
+     */
+    public BigDecimal getGehalt() throws SQLException {
+        return (BigDecimal) wert(Spalte.GEHALT);
+    }
+
+    /**
+     * @param spalte die Spalte
+     * @return ob die Spalte ohne Datenbankzugriff verfügbar ist
+     */
+    public boolean istGeladen(Spalte spalte) {
+        return spalte == Spalte.ID || werte.containsKey(spalte);
+    }
+
+    /**
+     * @return die geladenen Spalten, immer einschließlich {@link Spalte#ID}
+     */
+    public Set<Spalte> getGeladen() {
+        Set<Spalte> geladen = EnumSet.of(Spalte.ID);
+        geladen.addAll(werte.keySet());
+        return geladen;
+    }
+
+    /**
+     * Lädt alle fehlenden Spalten und liefert den vollständigen Mitarbeiter.
+     *
+     * @return der Mitarbeiter mit allen Spalten
+     * @throws SQLException wenn das Nachladen fehlschlägt
+     */
+    public Mitarbeiter alsMitarbeiter() throws SQLException {
+        Set<Spalte> fehlend = EnumSet.complementOf(EnumSet.copyOf(getGeladen()));
+        if (!fehlend.isEmpty()) {
+            kontext.nachladen(this, fehlend);
+        }
+        return new Mitarbeiter(id, getNachname(), getVorname(), getEmail(), getAbteilung(), getGehalt());
+    }
+
+    private Object wert(Spalte spalte) throws SQLException {
+        if (!werte.containsKey(spalte)) {
+            kontext.nachladen(this, EnumSet.of(spalte));
+        }
+        return werte.get(spalte);
+    }
+
+    void setzen(Spalte spalte, Object wert) {
+        werte.put(spalte, wert);
+    }
+
+    void entfernen() {
+        entfernt = true;
+    }
+
+    boolean istEntfernt() {
+        return entfernt;
+    }
+
+    @Override
+    public String toString() {
+        return "MitarbeiterEntitaet[id=" + id + ", " + werte + (entfernt ? ", entfernt" : "") + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package de.javadbconnectivity.flugschreiber;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ein Block gelesener Zeilen eines ResultSets.
+ *
+ * Ein Block umfasst so viele Zeilen wie die Abrufgröße des ResultSets
+ * ({@link Flugschreiber#STANDARD_BLOCK}, wenn keine gesetzt ist). Die Dauer
+ * reicht vom ersten {@code next()} des Blocks bis zum letzten und enthält
+ * damit auch die Verarbeitung durch die Anwendung; die Zeit im Treiber steht
+ * getrennt in {@code treiberzeit}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@Name("de.javadbconnectivity.jdbc.Abruf")
+@Label("Zeilenabruf")
+@Category({"JDBC", "ResultSet"})
+@StackTrace(false)
+final class AbrufEreignis extends Event {
+
+    @Label("Fingerabdruck")
+    @Description("Normalisierte Anweisung ohne Literale")
+    String fingerabdruck;
+
+    @Label("Block")
+    @Description("Laufende Nummer des Blocks, beginnend bei 0")
+    int block;
+
+    @Label("Zeilen")
+    int zeilen;
+
+    @Label("Treiberzeit")
+    @Description("Summe der Zeit in next()")
+    @Timespan(Timespan.NANOSECONDS)
+    long treiberzeit;
+
+    @Label("Ende erreicht")
+    boolean ende;
+}
@@ -0,0 +1,26 @@
+package de.javadbconnectivity.flugschreiber;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Ein {@code commit()} oder {@code rollback()} einer Transaktion.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@Name("de.javadbconnectivity.jdbc.Abschluss")
+@Label("Transaktionsabschluss")
+@Category({"JDBC", "Transaktion"})
+@StackTrace(false)
+final class AbschlussEreignis extends Event {
+
+    @Label("Zurückgerollt")
+    boolean rollback;
+
+    @Label("Fehler")
+    String fehler;
+}
@@ -0,0 +1,34 @@
+package de.javadbconnectivity.flugschreiber;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Die Ausführung eines Prozeduraufrufs, über {@code prepareCall} oder als
+ * {@code CALL} in einem einfachen Statement.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@Name("de.javadbconnectivity.jdbc.Aufruf")
+@Label("Prozeduraufruf")
+@Category({"JDBC", "Statement"})
+final class AufrufEreignis extends Event {
+
+    @Label("Prozedur")
+    String prozedur;
+
+    @Label("Fingerabdruck")
+    @Description("Normalisierte Anweisung ohne Literale")
+    String fingerabdruck;
+
+    @Label("Zeilen")
+    @Description("Geänderte Zeilen; -1, wenn der Aufruf ein ResultSet liefert oder die Anzahl unbekannt ist")
+    long zeilen;
+
+    @Label("Fehler")
+    String fehler;
+}
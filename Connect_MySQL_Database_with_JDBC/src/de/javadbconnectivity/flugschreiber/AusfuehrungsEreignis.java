@@ -0,0 +1,40 @@
+package de.javadbconnectivity.flugschreiber;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Ein {@code execute...} eines Statements, ohne Prozeduraufrufe
+ * (siehe {@link AufrufEreignis}).
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@Name("de.javadbconnectivity.jdbc.Ausfuehrung")
+@Label("Anweisung ausführen")
+@Category({"JDBC", "Statement"})
+@StackTrace(false)
+final class AusfuehrungsEreignis extends Event {
+
+    @Label("Fingerabdruck")
+    @Description("Normalisierte Anweisung ohne Literale")
+    String fingerabdruck;
+
+    @Label("Methode")
+    String methode;
+
+    @Label("Zeilen")
+    @Description("Geänderte Zeilen; -1 bei Abfragen, deren Zeilen die Abruf-Ereignisse zählen")
+    long zeilen;
+
+    @Label("Stapelgröße")
+    @Description("Anzahl der Anweisungen bei executeBatch, sonst 1")
+    int stapel;
+
+    @Label("Fehler")
+    String fehler;
+}
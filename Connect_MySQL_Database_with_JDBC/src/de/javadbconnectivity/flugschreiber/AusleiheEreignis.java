@@ -0,0 +1,87 @@
+package de.javadbconnectivity.flugschreiber;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Eine Ausleihe aus dem {@link de.javadbconnectivity.pool.VerbindungsPool}.
+ *
+ * Das Ereignis beginnt mit der Anfrage und endet mit der Rückgabe; seine Dauer
+ * ist also Wartezeit plus Haltedauer. Mit einer Schwelle in den
+ * Aufzeichnungseinstellungen bleiben nur lange gehaltene Verbindungen übrig.
+ * Der Stacktrace zeigt die ausleihende Stelle.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@Name("de.javadbconnectivity.jdbc.Ausleihe")
+@Label("Verbindungsausleihe")
+@Category({"JDBC", "Pool"})
+@Description("Ausleihe einer Poolverbindung von der Anfrage bis zur Rückgabe")
+public final class AusleiheEreignis extends Event {
+
+    @Label("Wartezeit")
+    @Description("Zeit bis zur Vergabe einer Verbindung")
+    @Timespan(Timespan.NANOSECONDS)
+    long wartezeit;
+
+    @Label("Poolgröße")
+    int poolGroesse;
+
+    @Label("Geöffnet")
+    @Description("Geöffnete Verbindungen bei der Vergabe")
+    int geoeffnet;
+
+    @Label("Frei")
+    @Description("Freie Verbindungen bei der Vergabe")
+    int frei;
+
+    @Label("Verworfen")
+    @Description("Die Verbindung wurde bei der Rückgabe geschlossen statt wiederverwendet")
+    boolean verworfen;
+
+    // transient: kein Feld des Ereignisses
+    private transient long startNs;
+
+    /**
+     * @return ein begonnenes Ereignis oder null, wenn keine Aufzeichnung es erfasst
+     */
+    public static AusleiheEreignis beginnen() {
+        AusleiheEreignis ereignis = new AusleiheEreignis();
+        if (!ereignis.isEnabled()) {
+            return null;
+        }
+        ereignis.startNs = System.nanoTime();
+        ereignis.begin();
+        return ereignis;
+    }
+
+    /**
+     * @param poolGroesse die Obergrenze des Pools
+     * @param geoeffnet die Anzahl geöffneter Verbindungen
+     * @param frei die Anzahl freier Verbindungen
+     */
+    public void ausgeliehen(int poolGroesse, int geoeffnet, int frei) {
+        this.wartezeit = System.nanoTime() - startNs;
+        this.poolGroesse = poolGroesse;
+        this.geoeffnet = geoeffnet;
+        this.frei = frei;
+    }
+
+    /**
+     * Beendet und schreibt das Ereignis.
+     *
+     * @param verworfen ob der Pool die Verbindung geschlossen hat
+     */
+    public void zurueckgegeben(boolean verworfen) {
+        end();
+        if (shouldCommit()) {
+            this.verworfen = verworfen;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,582 @@
+package de.javadbconnectivity.flugschreiber;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Umhüllt eine {@link Connection}, sodass Vorbereitung, Ausführung,
+ * Prozeduraufrufe, Zeilenabruf und Transaktionsabschluss als Ereignisse im
+ * Java Flight Recorder erscheinen. Ausleihen aus dem
+ * {@link VerbindungsPool} meldet der Pool selbst als {@link AusleiheEreignis}.
+ *
+ * Die Ereignisse lassen sich mit den Werkzeugen des JDK aufzeichnen und
+ * auswerten, zum Beispiel:
+ * <pre>
+ * java -XX:StartFlightRecording=filename=jdbc.jfr,settings=profile ...
+ * jcmd &lt;pid&gt; JFR.start name=jdbc duration=60s filename=jdbc.jfr
+ * jfr print --events de.javadbconnectivity.jdbc.Ausfuehrung jdbc.jfr
+ * jfr summary jdbc.jfr
+ * </pre>
+ * Schwellen und Stacktraces je Ereignis stellt man wie für JDK-Ereignisse in
+ * einer {@code .jfc}-Datei ein ({@code jfr configure}).
+ *
+ * Jedes Ereignis trägt den {@link SqlFingerabdruck}, damit sich Ausführungen
+ * derselben Anweisung mit verschiedenen Literalen gruppieren lassen. Den
+ * ausführenden Thread, auch virtuelle Threads, zeichnet JFR selbst auf.
+ *
+ * Läuft keine Aufzeichnung, kostet die Hülle einen Proxy-Aufruf je
+ * JDBC-Methode: Fingerabdrücke werden erst berechnet, wenn ein Ereignis
+ * tatsächlich geschrieben wird, und ResultSets werden nur umhüllt, solange
+ * das {@link AbrufEreignis} aktiviert ist. Mit {@code -Djfr.ereignisse=false}
+ * entfällt auch die Hülle.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - eigene JFR-Ereignisse mit {@code begin()}, {@code end()} und {@code shouldCommit()} schreibt
+ * - Felder erst befüllt, wenn die Aufzeichnung das Ereignis wirklich haben will
+ * - eine Aufzeichnung aus dem Programm startet und die Datei wieder einliest
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class Flugschreiber {
+
+    /** Ob {@link #umhuellen(Connection)} umhüllt; Systemeigenschaft {@code jfr.ereignisse} */
+    public static final boolean AKTIV = Boolean.parseBoolean(System.getProperty("jfr.ereignisse", "true"));
+
+    /** Zeilen je {@link AbrufEreignis}, wenn das ResultSet keine Abrufgröße hat */
+    public static final int STANDARD_BLOCK = 1_000;
+
+    /** Methoden, die als Ausführung gemessen werden */
+    private static final Set<String> AUSFUEHRUNGEN = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    /** {@code {call name(...)}}, {@code {? = call name(...)}} oder {@code CALL name(...)} */
+    private static final Pattern AUFRUF =
+        Pattern.compile("\\s*\\{?\\s*(?:\\?\\s*=\\s*)?call\\s+([^\\s(}]+)", Pattern.CASE_INSENSITIVE);
+    private static final EventType ABRUF = EventType.getEventType(AbrufEreignis.class);
+    /** Obergrenze des Fingerabdruck-Caches; danach wird er geleert */
+    private static final int MAX_FINGERABDRUECKE = 1_024;
+    private static final Map<String, String> FINGERABDRUECKE = new ConcurrentHashMap<>();
+
+    private Flugschreiber() {
+    }
+
+    /**
+     * Umhüllt eine Verbindung. Ist {@link #AKTIV} false, wird sie unverändert
+     * zurückgegeben.
+     *
+     * @param verbindung die zu umhüllende Verbindung
+     * @return die umhüllte Verbindung
+     */
+    public static Connection umhuellen(Connection verbindung) {
+        if (!AKTIV) {
+            return verbindung;
+        }
+        VerbindungsHandler handler = new VerbindungsHandler(verbindung);
+        Connection huelle = (Connection) proxy(Connection.class, handler);
+        handler.huelle = huelle;
+        return huelle;
+    }
+
+    /**
+     * Der Fingerabdruck, zwischengespeichert, weil dieselben Anweisungen immer
+     * wieder vorbereitet werden.
+     */
+    static String fingerabdruck(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String vorlage = FINGERABDRUECKE.get(sql);
+        if (vorlage == null) {
+            if (FINGERABDRUECKE.size() >= MAX_FINGERABDRUECKE) {
+                FINGERABDRUECKE.clear();
+            }
+            vorlage = SqlFingerabdruck.von(sql).getVorlage();
+            FINGERABDRUECKE.put(sql, vorlage);
+        }
+        return vorlage;
+    }
+
+    /**
+     * @return der Name der aufgerufenen Prozedur oder null, wenn {@code sql} kein Aufruf ist
+     */
+    static String prozedur(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher matcher = AUFRUF.matcher(sql);
+        return matcher.lookingAt() ? matcher.group(1) : null;
+    }
+
+    private static String fehler(Throwable fehler) {
+        return fehler == null ? null : fehler.getClass().getSimpleName() + ": " + fehler.getMessage();
+    }
+
+    /**
+     * Die Anzahl geänderter Zeilen aus dem Rückgabewert einer Ausführung;
+     * -1, wenn sie nicht bekannt ist.
+     */
+    private static long zeilen(Object ergebnis) {
+        long summe = 0;
+        switch (ergebnis) {
+            case Integer anzahl -> {
+                return anzahl;
+            }
+            case Long anzahl -> {
+                return anzahl;
+            }
+            case int[] anzahlen -> {
+                for (int anzahl : anzahlen) {
+                    if (anzahl < 0) {
+                        return -1;
+                    }
+                    summe += anzahl;
+                }
+                return summe;
+            }
+            case long[] anzahlen -> {
+                for (long anzahl : anzahlen) {
+                    if (anzahl < 0) {
+                        return -1;
+                    }
+                    summe += anzahl;
+                }
+                return summe;
+            }
+            case null, default -> {
+                return -1;
+            }
+        }
+    }
+
+    private static int stapel(Object ergebnis) {
+        return switch (ergebnis) {
+            case int[] anzahlen -> anzahlen.length;
+            case long[] anzahlen -> anzahlen.length;
+            case null, default -> 1;
+        };
+    }
+
+    private static Object proxy(Class<?> schnittstelle, InvocationHandler handler) {
+        return Proxy.newProxyInstance(
+            Flugschreiber.class.getClassLoader(), new Class<?>[] {schnittstelle}, handler);
+    }
+
+    private static Object weiterreichen(Object ziel, Method methode, Object[] argumente) throws Throwable {
+        try {
+            return methode.invoke(ziel, argumente);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * equals und hashCode über die Identität der Hülle, wie in
+     * {@link de.javadbconnectivity.ueberwachung.UeberwachteVerbindung}.
+     */
+    private static Object objektMethode(Object huelle, Method methode, Object[] argumente) {
+        if (methode.getName().equals("equals") && methode.getParameterCount() == 1) {
+            return huelle == argumente[0];
+        }
+        if (methode.getName().equals("hashCode") && methode.getParameterCount() == 0) {
+            return System.identityHashCode(huelle);
+        }
+        return null;
+    }
+
+    /** Handler für die Verbindung: Vorbereitung und Transaktionsabschluss. */
+    private static final class VerbindungsHandler implements InvocationHandler {
+        private final Connection ziel;
+        private Connection huelle;
+
+        VerbindungsHandler(Connection ziel) {
+            this.ziel = ziel;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            Object objekt = objektMethode(proxy, methode, argumente);
+            if (objekt != null) {
+                return objekt;
+            }
+            return switch (methode.getName()) {
+                case "createStatement" ->
+                    statement(Statement.class, (Statement) weiterreichen(ziel, methode, argumente), null, false);
+                case "prepareStatement", "prepareCall" -> vorbereiten(methode, argumente);
+                case "commit", "rollback" -> abschliessen(methode, argumente);
+                default -> weiterreichen(ziel, methode, argumente);
+            };
+        }
+
+        private Object vorbereiten(Method methode, Object[] argumente) throws Throwable {
+            String sql = (String) argumente[0];
+            boolean aufruf = methode.getName().equals("prepareCall");
+            VorbereitungsEreignis ereignis = new VorbereitungsEreignis();
+            ereignis.begin();
+            Throwable fehler = null;
+            Statement statement;
+            try {
+                statement = (Statement) weiterreichen(ziel, methode, argumente);
+            } catch (Throwable t) {
+                fehler = t;
+                throw t;
+            } finally {
+                ereignis.end();
+                if (ereignis.shouldCommit()) {
+                    ereignis.fingerabdruck = fingerabdruck(sql);
+                    ereignis.aufruf = aufruf;
+                    ereignis.fehler = fehler(fehler);
+                    ereignis.commit();
+                }
+            }
+            return statement(methode.getReturnType(), statement, sql, aufruf || prozedur(sql) != null);
+        }
+
+        private Statement statement(Class<?> schnittstelle, Statement statement, String sql, boolean aufruf) {
+            StatementHandler handler = new StatementHandler(statement, sql, aufruf, this);
+            handler.huelle = (Statement) proxy(schnittstelle, handler);
+            return handler.huelle;
+        }
+
+        private Object abschliessen(Method methode, Object[] argumente) throws Throwable {
+            AbschlussEreignis ereignis = new AbschlussEreignis();
+            ereignis.begin();
+            Throwable fehler = null;
+            try {
+                return weiterreichen(ziel, methode, argumente);
+            } catch (Throwable t) {
+                fehler = t;
+                throw t;
+            } finally {
+                ereignis.end();
+                if (ereignis.shouldCommit()) {
+                    ereignis.rollback = methode.getName().equals("rollback");
+                    ereignis.fehler = fehler(fehler);
+                    ereignis.commit();
+                }
+            }
+        }
+    }
+
+    /** Handler für Statements: Ausführungen und Prozeduraufrufe. */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement ziel;
+        private final String sql;
+        private final boolean aufruf;
+        private final VerbindungsHandler verbindung;
+        private Statement huelle;
+        /** Das SQL der letzten Ausführung; bei einfachen Statements erst dort bekannt */
+        private String aktuellesSql;
+        /** Das zuletzt umhüllte ResultSet; getResultSet() liefert wiederholt dasselbe */
+        private ResultSet letztesZiel;
+        private ResultSet letzteHuelle;
+
+        StatementHandler(Statement ziel, String sql, boolean aufruf, VerbindungsHandler verbindung) {
+            this.ziel = ziel;
+            this.sql = sql;
+            this.aufruf = aufruf;
+            this.verbindung = verbindung;
+            this.aktuellesSql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            Object objekt = objektMethode(proxy, methode, argumente);
+            if (objekt != null) {
+                return objekt;
+            }
+            String name = methode.getName();
+            if (name.equals("getConnection")) {
+                return verbindung.huelle;
+            }
+            Object ergebnis;
+            if (!AUSFUEHRUNGEN.contains(name)) {
+                ergebnis = weiterreichen(ziel, methode, argumente);
+            } else if (argumente != null && argumente.length > 0 && argumente[0] instanceof String text) {
+                // Statement.execute(sql): erst hier steht fest, ob es ein Aufruf ist
+                aktuellesSql = text;
+                String prozedur = prozedur(text);
+                ergebnis = prozedur != null ? aufrufen(methode, argumente, text, prozedur)
+                    : ausfuehren(methode, argumente, text);
+            } else {
+                ergebnis = aufruf ? aufrufen(methode, argumente, sql, prozedur(sql))
+                    : ausfuehren(methode, argumente, sql);
+            }
+            return ergebnis instanceof ResultSet ergebnisSet ? ergebnis(ergebnisSet) : ergebnis;
+        }
+
+        private Object ausfuehren(Method methode, Object[] argumente, String text) throws Throwable {
+            AusfuehrungsEreignis ereignis = new AusfuehrungsEreignis();
+            ereignis.begin();
+            Object ergebnis = null;
+            Throwable fehler = null;
+            try {
+                ergebnis = weiterreichen(ziel, methode, argumente);
+                return ergebnis;
+            } catch (Throwable t) {
+                fehler = t;
+                throw t;
+            } finally {
+                ereignis.end();
+                if (ereignis.shouldCommit()) {
+                    ereignis.fingerabdruck = fingerabdruck(text);
+                    ereignis.methode = methode.getName();
+                    ereignis.zeilen = zeilen(ergebnis);
+                    ereignis.stapel = stapel(ergebnis);
+                    ereignis.fehler = fehler(fehler);
+                    ereignis.commit();
+                }
+            }
+        }
+
+        private Object aufrufen(Method methode, Object[] argumente, String text, String prozedur) throws Throwable {
+            AufrufEreignis ereignis = new AufrufEreignis();
+            ereignis.begin();
+            Object ergebnis = null;
+            Throwable fehler = null;
+            try {
+                ergebnis = weiterreichen(ziel, methode, argumente);
+                return ergebnis;
+            } catch (Throwable t) {
+                fehler = t;
+                throw t;
+            } finally {
+                ereignis.end();
+                if (ereignis.shouldCommit()) {
+                    ereignis.prozedur = prozedur;
+                    ereignis.fingerabdruck = fingerabdruck(text);
+                    ereignis.zeilen = zeilen(ergebnis);
+                    ereignis.fehler = fehler(fehler);
+                    ereignis.commit();
+                }
+            }
+        }
+
+        private ResultSet ergebnis(ResultSet ergebnisSet) throws SQLException {
+            if (ergebnisSet == letztesZiel) {
+                return letzteHuelle;
+            }
+            if (!ABRUF.isEnabled()) {
+                return ergebnisSet;
+            }
+            int block = ergebnisSet.getFetchSize() > 0 ? ergebnisSet.getFetchSize() : STANDARD_BLOCK;
+            ErgebnisHandler handler = new ErgebnisHandler(ergebnisSet, this, block);
+            letztesZiel = ergebnisSet;
+            letzteHuelle = (ResultSet) proxy(ResultSet.class, handler);
+            return letzteHuelle;
+        }
+    }
+
+    /** Handler für ResultSets: fasst je {@code block} Zeilen zu einem Ereignis zusammen. */
+    private static final class ErgebnisHandler implements InvocationHandler {
+        private final ResultSet ziel;
+        private final StatementHandler statement;
+        private final int blockGroesse;
+        private AbrufEreignis ereignis;
+        private int block;
+        private int zeilen;
+        private long treiberNs;
+
+        ErgebnisHandler(ResultSet ziel, StatementHandler statement, int blockGroesse) {
+            this.ziel = ziel;
+            this.statement = statement;
+            this.blockGroesse = blockGroesse;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            Object objekt = objektMethode(proxy, methode, argumente);
+            if (objekt != null) {
+                return objekt;
+            }
+            switch (methode.getName()) {
+                case "getStatement" -> {
+                    return statement.huelle;
+                }
+                case "next" -> {
+                    if (ereignis == null) {
+                        ereignis = new AbrufEreignis();
+                        ereignis.begin();
+                    }
+                    long start = System.nanoTime();
+                    boolean weiter = (Boolean) weiterreichen(ziel, methode, argumente);
+                    treiberNs += System.nanoTime() - start;
+                    if (weiter) {
+                        zeilen++;
+                    }
+                    if (!weiter || zeilen == blockGroesse) {
+                        blockAbschliessen(!weiter);
+                    }
+                    return weiter;
+                }
+                case "close" -> {
+                    try {
+                        return weiterreichen(ziel, methode, argumente);
+                    } finally {
+                        if (ereignis != null) {
+                            blockAbschliessen(false);
+                        }
+                    }
+                }
+                default -> {
+                    return weiterreichen(ziel, methode, argumente);
+                }
+            }
+        }
+
+        private void blockAbschliessen(boolean ende) {
+            ereignis.end();
+            if (ereignis.shouldCommit()) {
+                ereignis.fingerabdruck = fingerabdruck(statement.aktuellesSql);
+                ereignis.block = block;
+                ereignis.zeilen = zeilen;
+                ereignis.treiberzeit = treiberNs;
+                ereignis.ende = ende;
+                ereignis.commit();
+            }
+            ereignis = null;
+            block++;
+            zeilen = 0;
+            treiberNs = 0;
+        }
+    }
+
+    /**
+     * Zeichnet eine kurze Last auf virtuellen Threads auf – Abfragen mit
+     * Abrufblöcken, Prozeduraufrufe und Transaktionen – und fasst die
+     * geschriebene Datei je Ereignistyp zusammen.
+     *
+     * Aufruf: {@code Flugschreiber [datei=jdbc.jfr] [threads=8] [runden=50]}
+     *
+     * @param args {@code datei=}, {@code threads=} und {@code runden=}
+     * @throws Exception bei Datenbank- oder Dateifehlern
+     */
+    public static void main(String[] args) throws Exception {
+        Path datei = Path.of("jdbc.jfr");
+        int threads = 8;
+        int runden = 50;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "datei" -> datei = Path.of(teile[1]);
+                case "threads" -> threads = Integer.parseInt(teile[1]);
+                case "runden" -> runden = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        try (Recording aufzeichnung = new Recording();
+             VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), threads)) {
+            aufzeichnung.enable(AusleiheEreignis.class);
+            aufzeichnung.enable(VorbereitungsEreignis.class);
+            aufzeichnung.enable(AusfuehrungsEreignis.class);
+            aufzeichnung.enable(AufrufEreignis.class);
+            aufzeichnung.enable(AbrufEreignis.class);
+            aufzeichnung.enable(AbschlussEreignis.class);
+            aufzeichnung.start();
+
+            int rundenJeThread = runden;
+            try (ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int t = 0; t < threads; t++) {
+                    ausfuehrer.submit(() -> {
+                        for (int i = 0; i < rundenJeThread; i++) {
+                            last(pool);
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            aufzeichnung.stop();
+            aufzeichnung.dump(datei);
+        }
+
+        Map<String, LatenzHistogramm> dauern = new TreeMap<>();
+        Map<String, Long> zeilen = new TreeMap<>();
+        for (RecordedEvent ereignis : RecordingFile.readAllEvents(datei)) {
+            String typ = ereignis.getEventType().getName();
+            dauern.computeIfAbsent(typ, k -> new LatenzHistogramm()).erfassen(ereignis.getDuration().toNanos());
+            if (ereignis.hasField("zeilen")) {
+                zeilen.merge(typ, Math.max(0, ereignis.getLong("zeilen")), Long::sum);
+            }
+        }
+        System.out.println("Aufzeichnung: " + datei.toAbsolutePath());
+        dauern.forEach((typ, histogramm) -> System.out.printf("%-40s %s%s%n", typ, histogramm.zusammenfassung(),
+            zeilen.containsKey(typ) ? ", zeilen=" + zeilen.get(typ) : ""));
+        System.out.println("Weiter mit: jfr print --events de.javadbconnectivity.jdbc.Ausfuehrung " + datei);
+    }
+
+    private static void last(VerbindungsPool pool) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT id, last_name, salary FROM employees WHERE department = ?")) {
+                statement.setFetchSize(100);
+                statement.setString(1, "Engineering");
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    while (ergebnisSet.next()) {
+                        ergebnisSet.getInt(1);
+                    }
+                }
+            }
+
+            try (CallableStatement statement = verbindung.prepareCall("{call get_count_for_department(?, ?)}")) {
+                statement.setString(1, "HR");
+                statement.registerOutParameter(2, Types.INTEGER);
+                statement.execute();
+                statement.getInt(2);
+            }
+
+            verbindung.setAutoCommit(false);
+            List<Integer> ids = new ArrayList<>();
+            try (Statement statement = verbindung.createStatement();
+                 ResultSet ergebnisSet = statement.executeQuery("SELECT id FROM employees ORDER BY id LIMIT 5")) {
+                while (ergebnisSet.next()) {
+                    ids.add(ergebnisSet.getInt(1));
+                }
+            }
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "UPDATE employees SET salary = salary WHERE id = ?")) {
+                for (int id : ids) {
+                    statement.setInt(1, id);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            verbindung.rollback();
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+}
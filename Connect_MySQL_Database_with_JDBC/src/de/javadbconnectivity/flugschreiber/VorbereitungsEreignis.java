@@ -0,0 +1,33 @@
+package de.javadbconnectivity.flugschreiber;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Ein {@code prepareStatement} oder {@code prepareCall}. Bei serverseitig
+ * vorbereiteten Anweisungen ist das ein Roundtrip, sonst fast kostenlos.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@Name("de.javadbconnectivity.jdbc.Vorbereitung")
+@Label("Anweisung vorbereiten")
+@Category({"JDBC", "Statement"})
+@StackTrace(false)
+final class VorbereitungsEreignis extends Event {
+
+    @Label("Fingerabdruck")
+    @Description("Normalisierte Anweisung ohne Literale")
+    String fingerabdruck;
+
+    @Label("Aufruf")
+    @Description("prepareCall statt prepareStatement")
+    boolean aufruf;
+
+    @Label("Fehler")
+    String fehler;
+}
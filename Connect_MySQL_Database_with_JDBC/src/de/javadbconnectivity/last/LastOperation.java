@@ -0,0 +1,191 @@
+package de.javadbconnectivity.last;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.random.RandomGenerator;
+
+/**
+ * Die vom {@link Lastgenerator} abgespielten Operationen, jeweils nachgebildet
+ * nach einer der Demo-Klassen.
+ *
+ * Einfügen, Aktualisieren und Löschen arbeiten nur auf Datensätzen mit dem
+ * Nachnamen {@value #NACHNAME}, damit die Ausgangsdaten aus
+ * {@code sql/table-setup.sql} erhalten bleiben. Die Gehaltserhöhung betrifft
+ * ganze Abteilungen und wechselt daher zufällig das Vorzeichen, damit die
+ * Gehälter bei langen Läufen nicht unbegrenzt wachsen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum LastOperation {
+
+    /** Vollständige Mitarbeiterliste wie in {@code JdbcTest} */
+    SCAN {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (Statement statement = verbindung.createStatement();
+                 ResultSet ergebnisSet = statement.executeQuery("SELECT * FROM employees")) {
+                leeren(ergebnisSet);
+            }
+        }
+    },
+
+    /** Gehalts- und Abteilungssuche wie in {@code Driver} */
+    SUCHE {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT * FROM employees WHERE salary > ? AND department = ?")) {
+                statement.setDouble(1, 25000 + zufall.nextInt(100_000));
+                statement.setString(2, abteilung(zufall));
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    leeren(ergebnisSet);
+                }
+            }
+        }
+    },
+
+    /** Namenssuche wie in {@code JdbcUpdateDemo.mitarbeiterAnzeigen} */
+    NAMENSSUCHE {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            String[] name = NAMEN[zufall.nextInt(NAMEN.length)];
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT last_name, first_name, email FROM employees WHERE last_name=? AND first_name=?")) {
+                statement.setString(1, name[1]);
+                statement.setString(2, name[0]);
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    leeren(ergebnisSet);
+                }
+            }
+        }
+    },
+
+    /** Einfügen wie in {@code JdbcInsertDemo} */
+    EINFUEGEN {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "INSERT INTO employees (last_name, first_name, email, department, salary) VALUES (?, ?, ?, ?, ?)")) {
+                String vorname = "Client" + zufall.nextInt(1_000_000);
+                statement.setString(1, NACHNAME);
+                statement.setString(2, vorname);
+                statement.setString(3, vorname.toLowerCase() + "@last.example");
+                statement.setString(4, abteilung(zufall));
+                statement.setDouble(5, 30000 + zufall.nextInt(70_000));
+                statement.executeUpdate();
+            }
+        }
+    },
+
+    /** E-Mail-Aktualisierung wie in {@code JdbcUpdateDemo} */
+    AKTUALISIEREN {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "UPDATE employees SET email=? WHERE last_name=? ORDER BY id LIMIT 1")) {
+                statement.setString(1, "update" + zufall.nextInt(1_000_000) + "@last.example");
+                statement.setString(2, NACHNAME);
+                statement.executeUpdate();
+            }
+        }
+    },
+
+    /** Löschen wie in {@code JdbcDeleteDemo} */
+    LOESCHEN {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "DELETE FROM employees WHERE last_name=? ORDER BY id LIMIT 1")) {
+                statement.setString(1, NACHNAME);
+                statement.executeUpdate();
+            }
+        }
+    },
+
+    /** Prozedur mit OUT-Parameter wie in {@code GetCountForDepartment} */
+    ANZAHL_PRO_ABTEILUNG {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (CallableStatement statement = verbindung.prepareCall("{call get_count_for_department(?, ?)}")) {
+                statement.setString(1, abteilung(zufall));
+                statement.registerOutParameter(2, Types.INTEGER);
+                statement.execute();
+                statement.getInt(2);
+            }
+        }
+    },
+
+    /** Prozedur mit ResultSet wie in {@code GetEmployeesForDepartment} */
+    MITARBEITER_PRO_ABTEILUNG {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (CallableStatement statement = verbindung.prepareCall("{call get_employees_for_department(?)}")) {
+                statement.setString(1, abteilung(zufall));
+                statement.execute();
+                try (ResultSet ergebnisSet = statement.getResultSet()) {
+                    leeren(ergebnisSet);
+                }
+            }
+        }
+    },
+
+    /** Prozedur mit INOUT-Parameter wie in {@code GreetTheDepartment} */
+    BEGRUESSUNG {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (CallableStatement statement = verbindung.prepareCall("{call greet_the_department(?)}")) {
+                statement.registerOutParameter(1, Types.VARCHAR);
+                statement.setString(1, abteilung(zufall));
+                statement.execute();
+                statement.getString(1);
+            }
+        }
+    },
+
+    /** Schreibende Prozedur wie in {@code IncreaseSalariesForDepartment} */
+    GEHALTSERHOEHUNG {
+        @Override
+        void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException {
+            try (CallableStatement statement = verbindung.prepareCall(
+                    "{call increase_salaries_for_department(?, ?)}")) {
+                statement.setString(1, abteilung(zufall));
+                statement.setDouble(2, zufall.nextBoolean() ? 100 : -100);
+                statement.execute();
+            }
+        }
+    };
+
+    /** Nachname der vom Lastgenerator angelegten Datensätze */
+    public static final String NACHNAME = "Lastgenerator";
+
+    private static final String[] ABTEILUNGEN = {"HR", "Engineering", "Legal"};
+    private static final String[][] NAMEN = {
+        {"John", "Doe"}, {"Mary", "Public"}, {"Susan", "Queue"}, {"David", "Williams"},
+        {"Lisa", "Johnson"}, {"Paul", "Smith"}, {"Carl", "Adams"}, {"Bill", "Brown"}
+    };
+
+    /**
+     * Führt die Operation einmal aus.
+     *
+     * @param verbindung die zu verwendende Verbindung
+     * @param zufall die Zufallsquelle des Clients
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    abstract void ausfuehren(Connection verbindung, RandomGenerator zufall) throws SQLException;
+
+    private static String abteilung(RandomGenerator zufall) {
+        return ABTEILUNGEN[zufall.nextInt(ABTEILUNGEN.length)];
+    }
+
+    private static void leeren(ResultSet ergebnisSet) throws SQLException {
+        while (ergebnisSet.next()) {
+            ergebnisSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package de.javadbconnectivity.last;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Lastgenerator und Dauertest für die Workloads der Demo-Klassen.
+ *
+ * Eine konfigurierbare Anzahl virtueller Threads spielt für eine feste Dauer
+ * eine gewichtete Mischung von {@link LastOperation}en über einen gemeinsamen
+ * {@link VerbindungsPool} ab. Pro Operation werden Durchsatz, Fehlerrate und ein
+ * {@link LatenzHistogramm} erfasst; die Latenz enthält die Wartezeit auf eine
+ * Verbindung, damit ein zu kleiner Pool sichtbar wird. Bei langen Läufen wird
+ * in festen Abständen ein Zwischenstand ausgegeben.
+ *
+ * Aufruf mit optionalen Schlüssel-Wert-Argumenten, z.B.:
+ * {@code clients=64 pool=16 dauer=300 intervall=30 saat=42 gewichte=SCAN:1,SUCHE:10,NAMENSSUCHE:20}
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class Lastgenerator {
+
+    /**
+     * Konfiguration eines Laufs.
+     *
+     * @param clients die Anzahl gleichzeitiger Clients (virtuelle Threads)
+     * @param poolGroesse die Anzahl der Datenbankverbindungen
+     * @param dauer die Laufzeit
+     * @param berichtsIntervall der Abstand der Zwischenstände
+     * @param saat der Startwert für die Zufallsquellen
+     * @param gewichte die relativen Gewichte der Operationen
+     */
+    public record Lastprofil(int clients, int poolGroesse, Duration dauer, Duration berichtsIntervall,
+                             long saat, Map<LastOperation, Integer> gewichte) {
+
+        /**
+         * Liest ein Profil aus Argumenten der Form {@code schluessel=wert}.
+         * Fehlende Werte werden durch eine Mischung nach dem Vorbild der Demos ergänzt.
+         *
+         * @param args die Kommandozeilenargumente
+         * @return das Profil
+         */
+        public static Lastprofil ausArgumenten(String[] args) {
+            int clients = 32;
+            int poolGroesse = 8;
+            long dauerSekunden = 60;
+            long intervallSekunden = 10;
+            long saat = 42;
+            Map<LastOperation, Integer> gewichte = standardGewichte();
+
+            for (String argument : args) {
+                String[] teile = argument.split("=", 2);
+                if (teile.length != 2) {
+                    throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+                }
+                switch (teile[0]) {
+                    case "clients" -> clients = Integer.parseInt(teile[1]);
+                    case "pool" -> poolGroesse = Integer.parseInt(teile[1]);
+                    case "dauer" -> dauerSekunden = Long.parseLong(teile[1]);
+                    case "intervall" -> intervallSekunden = Long.parseLong(teile[1]);
+                    case "saat" -> saat = Long.parseLong(teile[1]);
+                    case "gewichte" -> gewichte = gewichteLesen(teile[1]);
+                    default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+                }
+            }
+            return new Lastprofil(clients, poolGroesse, Duration.ofSeconds(dauerSekunden),
+                                  Duration.ofSeconds(intervallSekunden), saat, gewichte);
+        }
+
+        private static Map<LastOperation, Integer> standardGewichte() {
+            Map<LastOperation, Integer> gewichte = new EnumMap<>(LastOperation.class);
+            gewichte.put(LastOperation.SCAN, 2);
+            gewichte.put(LastOperation.SUCHE, 20);
+            gewichte.put(LastOperation.NAMENSSUCHE, 40);
+            gewichte.put(LastOperation.EINFUEGEN, 5);
+            gewichte.put(LastOperation.AKTUALISIEREN, 5);
+            gewichte.put(LastOperation.LOESCHEN, 5);
+            gewichte.put(LastOperation.ANZAHL_PRO_ABTEILUNG, 10);
+            gewichte.put(LastOperation.MITARBEITER_PRO_ABTEILUNG, 8);
+            gewichte.put(LastOperation.BEGRUESSUNG, 4);
+            gewichte.put(LastOperation.GEHALTSERHOEHUNG, 1);
+            return gewichte;
+        }
+
+        private static Map<LastOperation, Integer> gewichteLesen(String text) {
+            Map<LastOperation, Integer> gewichte = new EnumMap<>(LastOperation.class);
+            for (String eintrag : text.split(",")) {
+                String[] teile = eintrag.split(":", 2);
+                gewichte.put(LastOperation.valueOf(teile[0].trim()), Integer.parseInt(teile[1].trim()));
+            }
+            return gewichte;
+        }
+    }
+
+    /** Messwerte einer Operation. */
+    private static final class Messung {
+        final LatenzHistogramm latenz = new LatenzHistogramm();
+        final LongAdder fehler = new LongAdder();
+    }
+
+    private final Lastprofil profil;
+    private final LastOperation[] auswahl;
+    private final Map<LastOperation, Messung> messungen = new EnumMap<>(LastOperation.class);
+
+    /**
+     * @param profil die Konfiguration des Laufs
+     */
+    public Lastgenerator(Lastprofil profil) {
+        this.profil = profil;
+
+        // Auswahltabelle: jede Operation so oft wie ihr Gewicht
+        int summe = profil.gewichte().values().stream().mapToInt(Integer::intValue).sum();
+        if (summe <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Gewicht muss positiv sein");
+        }
+        this.auswahl = new LastOperation[summe];
+        int position = 0;
+        for (Map.Entry<LastOperation, Integer> eintrag : profil.gewichte().entrySet()) {
+            for (int i = 0; i < eintrag.getValue(); i++) {
+                auswahl[position++] = eintrag.getKey();
+            }
+            messungen.put(eintrag.getKey(), new Messung());
+        }
+    }
+
+    /**
+     * Führt den Lauf aus und gibt Zwischenstände sowie den Abschlussbericht aus.
+     *
+     * @param konfiguration die Verbindungsdaten
+     * @throws InterruptedException wenn der aufrufende Thread unterbrochen wird
+     */
+    public void ausfuehren(DatenbankKonfiguration konfiguration) throws InterruptedException {
+        long start = System.nanoTime();
+        long ende = start + profil.dauer().toNanos();
+        SplittableRandom saatQuelle = new SplittableRandom(profil.saat());
+
+        try (VerbindungsPool pool = new VerbindungsPool(konfiguration, profil.poolGroesse());
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (int i = 0; i < profil.clients(); i++) {
+                SplittableRandom zufall = saatQuelle.split();
+                clients.submit(() -> clientAusfuehren(pool, zufall, ende));
+            }
+            clients.shutdown();
+
+            long intervallMs = Math.max(1, profil.berichtsIntervall().toMillis());
+            while (!clients.awaitTermination(intervallMs, TimeUnit.MILLISECONDS)) {
+                berichten("ZWISCHENSTAND", System.nanoTime() - start);
+            }
+        }
+        berichten("ERGEBNIS", System.nanoTime() - start);
+    }
+
+    private void clientAusfuehren(VerbindungsPool pool, SplittableRandom zufall, long ende) {
+        while (System.nanoTime() < ende && !Thread.currentThread().isInterrupted()) {
+            LastOperation operation = auswahl[zufall.nextInt(auswahl.length)];
+            Messung messung = messungen.get(operation);
+
+            long vorher = System.nanoTime();
+            Connection verbindung = null;
+            try {
+                verbindung = pool.ausleihen();
+                operation.ausfuehren(verbindung, zufall);
+            } catch (SQLException | RuntimeException e) {
+                messung.fehler.increment();
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+            messung.latenz.erfassen(System.nanoTime() - vorher);
+        }
+    }
+
+    private void berichten(String titel, long laufzeitNs) {
+        double sekunden = laufzeitNs / 1e9;
+        long gesamt = 0;
+        long gesamtFehler = 0;
+        LatenzHistogramm alle = new LatenzHistogramm();
+
+        System.out.printf("%n=== %s nach %.1f s (%d Clients, %d Verbindungen) ===%n",
+                          titel, sekunden, profil.clients(), profil.poolGroesse());
+        for (Map.Entry<LastOperation, Messung> eintrag : messungen.entrySet()) {
+            Messung messung = eintrag.getValue();
+            long anzahl = messung.latenz.getAnzahl();
+            long fehler = messung.fehler.sum();
+            gesamt += anzahl;
+            gesamtFehler += fehler;
+            alle.hinzufuegen(messung.latenz);
+
+            System.out.printf("%-26s %9.1f/s  Fehler %6.2f%%  %s%n", eintrag.getKey(), anzahl / sekunden,
+                              anzahl == 0 ? 0.0 : 100.0 * fehler / anzahl, messung.latenz.zusammenfassung());
+        }
+        System.out.printf("%-26s %9.1f/s  Fehler %6.2f%%  %s%n", "GESAMT", gesamt / sekunden,
+                          gesamt == 0 ? 0.0 : 100.0 * gesamtFehler / gesamt, alle.zusammenfassung());
+    }
+
+    /**
+     * Startet einen Lauf gegen die lokale Datenbank.
+     *
+     * @param args Schlüssel-Wert-Argumente, siehe Klassenbeschreibung
+     * @throws Exception wenn ein Fehler auftritt
+     */
+    public static void main(String[] args) throws Exception {
+        new Lastgenerator(Lastprofil.ausArgumenten(args)).ausfuehren(DatenbankKonfiguration.standard());
+    }
+}
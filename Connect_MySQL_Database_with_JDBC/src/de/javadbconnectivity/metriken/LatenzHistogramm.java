@@ -0,0 +1,158 @@
+package de.javadbconnectivity.metriken;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramm für Latenzen mit logarithmisch-linearen Klassen nach dem Vorbild
+ * von HdrHistogram.
+ *
+ * Jede Zweierpotenz wird in {@value #UNTERKLASSEN} gleich breite Unterklassen
+ * geteilt, der relative Fehler eines Perzentils liegt damit unter 1 %.
+ * Werte von 1 ns bis zu mehreren Stunden werden mit festem Speicherbedarf
+ * erfasst. Das Erfassen ist sperrfrei und kann von beliebig vielen Threads
+ * gleichzeitig erfolgen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class LatenzHistogramm {
+
+    /** Bits für die Unterklassen pro Zweierpotenz */
+    private static final int UNTERKLASSEN_BITS = 7;
+    /** Anzahl der Unterklassen pro Zweierpotenz */
+    public static final int UNTERKLASSEN = 1 << UNTERKLASSEN_BITS;
+    /** Größter erfassbarer Exponent (2^44 ns sind rund 4,9 Stunden) */
+    private static final int MAX_EXPONENT = 44;
+
+    private final AtomicLongArray klassen =
+        new AtomicLongArray((MAX_EXPONENT - UNTERKLASSEN_BITS + 2) * UNTERKLASSEN);
+    private final AtomicLong anzahl = new AtomicLong();
+    private final AtomicLong summe = new AtomicLong();
+    private final AtomicLong maximum = new AtomicLong();
+
+    /**
+     * Erfasst einen Wert in Nanosekunden. Zu große Werte werden in der
+     * obersten Klasse gezählt.
+     *
+     * @param nanosekunden der zu erfassende Wert
+     */
+    public void erfassen(long nanosekunden) {
+        long wert = Math.max(0, nanosekunden);
+        klassen.incrementAndGet(Math.min(klassen.length() - 1, klassenIndex(wert)));
+        anzahl.incrementAndGet();
+        summe.addAndGet(wert);
+        maximum.accumulateAndGet(wert, Math::max);
+    }
+
+    /**
+     * Addiert alle Werte eines anderen Histogramms zu diesem.
+     *
+     * @param anderes das hinzuzufügende Histogramm
+     */
+    public void hinzufuegen(LatenzHistogramm anderes) {
+        for (int i = 0; i < klassen.length(); i++) {
+            long wert = anderes.klassen.get(i);
+            if (wert != 0) {
+                klassen.addAndGet(i, wert);
+            }
+        }
+        anzahl.addAndGet(anderes.anzahl.get());
+        summe.addAndGet(anderes.summe.get());
+        maximum.accumulateAndGet(anderes.maximum.get(), Math::max);
+    }
+
+    /**
+     * @return die Anzahl erfasster Werte
+     */
+    public long getAnzahl() {
+        return anzahl.get();
+    }
+
+    /**
+     * @return der größte erfasste Wert in Nanosekunden
+     */
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    /**
+     * @return der Mittelwert in Nanosekunden
+     */
+    public double getMittelwert() {
+        long n = anzahl.get();
+        return n == 0 ? 0.0 : (double) summe.get() / n;
+    }
+
+    /**
+     * Liefert das Perzentil, z.B. {@code perzentil(99.0)} für p99.
+     *
+     * @param prozent das Perzentil zwischen 0 und 100
+     * @return die Obergrenze der Klasse, die das Perzentil enthält, in Nanosekunden
+     */
+    public long perzentil(double prozent) {
+        long n = anzahl.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(prozent / 100.0 * n));
+        long kumuliert = 0;
+        for (int i = 0; i < klassen.length(); i++) {
+            kumuliert += klassen.get(i);
+            if (kumuliert >= rang) {
+                return Math.min(obergrenze(i), maximum.get());
+            }
+        }
+        return maximum.get();
+    }
+
+    /**
+     * Setzt alle Werte zurück. Gleichzeitig erfasste Werte können verloren gehen.
+     */
+    public void zuruecksetzen() {
+        for (int i = 0; i < klassen.length(); i++) {
+            klassen.set(i, 0);
+        }
+        anzahl.set(0);
+        summe.set(0);
+        maximum.set(0);
+    }
+
+    /**
+     * @return Anzahl, Mittelwert und die wichtigsten Perzentile in Millisekunden
+     */
+    public String zusammenfassung() {
+        return String.format("n=%d mittel=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f ms",
+            getAnzahl(), getMittelwert() / 1e6, ms(perzentil(50)), ms(perzentil(90)),
+            ms(perzentil(99)), ms(perzentil(99.9)), ms(getMaximum()));
+    }
+
+    private static double ms(long nanosekunden) {
+        return nanosekunden / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Werte unter {@link #UNTERKLASSEN} liegen exakt in Klasse 0 bis 127; darüber
+     * bestimmt der Exponent den Block und die folgenden Bits die Unterklasse.
+     */
+    private static int klassenIndex(long wert) {
+        if (wert < UNTERKLASSEN) {
+            return (int) wert;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(wert);
+        int block = exponent - UNTERKLASSEN_BITS + 1;
+        int unterklasse = (int) (wert >>> (exponent - UNTERKLASSEN_BITS)) & (UNTERKLASSEN - 1);
+        return block * UNTERKLASSEN + unterklasse;
+    }
+
+    private static long obergrenze(int index) {
+        int block = index / UNTERKLASSEN;
+        int unterklasse = index % UNTERKLASSEN;
+        if (block == 0) {
+            return unterklasse;
+        }
+        int verschiebung = block - 1;
+        return (((long) UNTERKLASSEN + unterklasse + 1) << verschiebung) - 1;
+    }
+}
@@ -0,0 +1,65 @@
+package de.javadbconnectivity.metriken;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Einfaches Register für benannte Zähler und Messwerte.
+ *
+ * Zähler steigen nur an (z.B. Anzahl Abfragen), Messwerte geben einen aktuellen
+ * Zustand wieder (z.B. gewählte Fetch-Größe). Namen folgen dem Schema
+ * {@code bereich.name} mit optionalem Zusatz in eckigen Klammern,
+ * z.B. {@code tuner.fetchGroesse[select * from employees]}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class Metriken {
+
+    private final Map<String, LongAdder> zaehler = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> messwerte = new ConcurrentHashMap<>();
+
+    /**
+     * Liefert den Zähler mit dem angegebenen Namen und legt ihn bei Bedarf an.
+     *
+     * @param name der Name des Zählers
+     * @return der Zähler
+     */
+    public LongAdder zaehler(String name) {
+        return zaehler.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Liefert den Messwert mit dem angegebenen Namen und legt ihn bei Bedarf an.
+     *
+     * @param name der Name des Messwerts
+     * @return der Messwert
+     */
+    public AtomicLong messwert(String name) {
+        return messwerte.computeIfAbsent(name, n -> new AtomicLong());
+    }
+
+    /**
+     * @return alle Zähler und Messwerte, nach Namen sortiert
+     */
+    public SortedMap<String, Long> schnappschuss() {
+        SortedMap<String, Long> werte = new TreeMap<>();
+        zaehler.forEach((name, wert) -> werte.put(name, wert.sum()));
+        messwerte.forEach((name, wert) -> werte.put(name, wert.get()));
+        return werte;
+    }
+
+    /**
+     * Gibt alle Werte zeilenweise aus.
+     *
+     * @param ausgabe der Zielstrom, z.B. {@code System.out}
+     */
+    public void ausgeben(PrintStream ausgabe) {
+        schnappschuss().forEach((name, wert) -> ausgabe.println(name + " = " + wert));
+    }
+}
@@ -0,0 +1,84 @@
+package de.javadbconnectivity.mitarbeiter;
+
+import java.util.Comparator;
+
+/**
+ * Vergleicht Zeichenketten so, wie MySQL die Textspalten der Tabelle
+ * {@code employees} vergleicht.
+ *
+ * Die Tabelle ist mit {@code DEFAULT CHARSET=latin1} angelegt und verwendet damit
+ * die Sortierung {@code latin1_swedish_ci}: Groß-/Kleinschreibung wird ignoriert,
+ * Leerzeichen am Ende zählen nicht, und die meisten Akzente fallen weg
+ * ({@code 'José' = 'Jose'}). Nach schwedischer Regel bleiben Å, Ä/Æ und Ö/Ø
+ * eigene Buchstaben, Ü wird dagegen wie Y behandelt. Wer Zeilen aus einer
+ * Abfrage wieder den angefragten Werten zuordnet, muss denselben Schlüssel
+ * verwenden, sonst fehlen Zeilen, die MySQL als gleich betrachtet hat.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Die Gewichtstabelle einer MySQL-Sortierung in Java nachbildet
+ * - Einen Vergleichsschlüssel für HashMaps und einen Comparator daraus ableitet
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class Kollation {
+
+    /** Vergleicht zwei Werte nach {@code latin1_swedish_ci}, null zuerst */
+    public static final Comparator<String> VERGLEICH =
+        Comparator.nullsFirst(Comparator.comparing(Kollation::schluessel));
+
+    /**
+     * Gewichte für die Zeichen 0xC0 bis 0xFF aus der Sortiertabelle von
+     * {@code latin1_swedish_ci}; alle anderen Latin-1-Zeichen werden nur in
+     * Großbuchstaben umgewandelt.
+     */
+    private static final String GEWICHTE_AB_C0 =
+        "AAAA\\[\\CEEEEIIII" + "DNOOOO]×]UUUYYÞß"
+        + "AAAA\\[\\CEEEEIIII" + "DNOOOO]÷]UUUYYÞÿ";
+
+    private Kollation() {
+    }
+
+    /**
+     * Liefert den Vergleichsschlüssel eines Wertes: zwei Werte sind nach
+     * {@code latin1_swedish_ci} genau dann gleich, wenn ihre Schlüssel gleich sind.
+     * Zeichen außerhalb von Latin-1 werden wie beim Speichern und beim Binden
+     * eines Parameters zu {@code '?'}.
+     *
+     * @param wert der Wert, darf null sein
+     * @return der Schlüssel oder null, wenn der Wert null ist
+     */
+    public static String schluessel(String wert) {
+        if (wert == null) {
+            return null;
+        }
+        int laenge = wert.length();
+        while (laenge > 0 && wert.charAt(laenge - 1) == ' ') {
+            laenge--;
+        }
+        StringBuilder schluessel = new StringBuilder(laenge);
+        for (int i = 0; i < laenge; i += Character.charCount(wert.codePointAt(i))) {
+            schluessel.append(gewicht(wert.codePointAt(i)));
+        }
+        return schluessel.toString();
+    }
+
+    /**
+     * @param erster der erste Wert
+     * @param zweiter der zweite Wert
+     * @return true, wenn MySQL beide Werte als gleich betrachtet
+     */
+    public static boolean gleich(String erster, String zweiter) {
+        return VERGLEICH.compare(erster, zweiter) == 0;
+    }
+
+    private static char gewicht(int zeichen) {
+        if (zeichen >= 'a' && zeichen <= 'z') {
+            return (char) (zeichen - 'a' + 'A');
+        }
+        if (zeichen >= 'À' && zeichen <= 'ÿ') {
+            return GEWICHTE_AB_C0.charAt(zeichen - 'À');
+        }
+        return zeichen > 'ÿ' ? '?' : (char) zeichen;
+    }
+}
@@ -0,0 +1,43 @@
+package de.javadbconnectivity.mitarbeiter;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Unveränderliche Darstellung einer Zeile der Tabelle {@code employees}.
+ *
+ * @param id der Primärschlüssel
+ * @param nachname die Spalte {@code last_name}
+ * @param vorname die Spalte {@code first_name}
+ * @param email die Spalte {@code email}
+ * @param abteilung die Spalte {@code department}
+ * @param gehalt die Spalte {@code salary}
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Mitarbeiter(int id, String nachname, String vorname, String email,
+                          String abteilung, BigDecimal gehalt) {
+
+    /** Alle Spalten in Tabellenreihenfolge, passend zu {@link #ausZeile(ResultSet)} */
+    public static final String SPALTEN = "id, last_name, first_name, email, department, salary";
+
+    /**
+     * Liest einen Mitarbeiter aus der aktuellen Zeile eines ResultSets.
+     * Das ResultSet muss alle Spalten aus {@link #SPALTEN} enthalten.
+     *
+     * @param ergebnisSet das ResultSet, positioniert auf einer Zeile
+     * @return der gelesene Mitarbeiter
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static Mitarbeiter ausZeile(ResultSet ergebnisSet) throws SQLException {
+        return new Mitarbeiter(
+            ergebnisSet.getInt("id"),
+            ergebnisSet.getString("last_name"),
+            ergebnisSet.getString("first_name"),
+            ergebnisSet.getString("email"),
+            ergebnisSet.getString("department"),
+            ergebnisSet.getBigDecimal("salary"));
+    }
+}
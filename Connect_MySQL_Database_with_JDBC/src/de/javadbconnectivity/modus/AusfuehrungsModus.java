@@ -0,0 +1,43 @@
+package de.javadbconnectivity.modus;
+
+/**
+ * Die Art, wie Connector/J eine parametrisierte Anweisung an den Server schickt.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum AusfuehrungsModus {
+
+    /**
+     * Standard von Connector/J: der Treiber setzt die Parameter selbst in den
+     * SQL-Text ein und schickt ihn als Textabfrage. Kein zusätzlicher Roundtrip,
+     * der Server parst die Anweisung aber bei jeder Ausführung neu.
+     */
+    CLIENTSEITIG("useServerPrepStmts=false&cachePrepStmts=true&prepStmtCacheSize=256"),
+
+    /**
+     * Echte serverseitige Vorbereitung ({@code COM_STMT_PREPARE}): einmal pro
+     * Verbindung ein zusätzlicher Roundtrip, danach Binärprotokoll ohne erneutes
+     * Parsen. Lohnt sich erst bei häufiger Wiederverwendung.
+     */
+    SERVERSEITIG("useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=256"),
+
+    /**
+     * Einfaches {@link java.sql.Statement} mit eingesetzten Literalen, ohne
+     * {@link java.sql.PreparedStatement}-Objekt und dessen Verwaltung.
+     */
+    TEXT("useServerPrepStmts=false");
+
+    private final String urlParameter;
+
+    AusfuehrungsModus(String urlParameter) {
+        this.urlParameter = urlParameter;
+    }
+
+    /**
+     * @return die Connector/J-Parameter für Verbindungen dieses Modus
+     */
+    public String getUrlParameter() {
+        return urlParameter;
+    }
+}
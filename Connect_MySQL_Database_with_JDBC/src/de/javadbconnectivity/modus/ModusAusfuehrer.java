@@ -0,0 +1,268 @@
+package de.javadbconnectivity.modus;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pipeline.ErgebnisLeser;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Führt Anweisungen je nach {@link AusfuehrungsModus} clientseitig vorbereitet,
+ * serverseitig vorbereitet oder als reinen Text aus.
+ *
+ * Connector/J entscheidet über {@code useServerPrepStmts} pro Verbindung und
+ * nicht pro Anweisung. Deshalb hält diese Klasse für jeden Modus einen eigenen,
+ * erst bei Bedarf angelegten {@link VerbindungsPool} und wählt pro Anweisung den
+ * Pool, den die {@link ModusRichtlinie} für deren {@link SqlFingerabdruck} vorsieht.
+ *
+ * Im Modus {@link AusfuehrungsModus#TEXT} werden die Parameter als Literale in
+ * den SQL-Text eingesetzt und maskiert. Das setzt voraus, dass der Server nicht
+ * im SQL-Modus {@code NO_BACKSLASH_ESCAPES} läuft.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ModusAusfuehrer implements AutoCloseable {
+
+    private final DatenbankKonfiguration konfiguration;
+    private final int poolGroesse;
+    private final ModusRichtlinie richtlinie;
+    private final Map<AusfuehrungsModus, VerbindungsPool> pools = new EnumMap<>(AusfuehrungsModus.class);
+
+    /**
+     * @param konfiguration die Verbindungsdaten; die Modus-Parameter werden angehängt
+     * @param poolGroesse die Poolgröße pro Modus
+     * @param richtlinie die Richtlinie zur Wahl des Modus
+     */
+    public ModusAusfuehrer(DatenbankKonfiguration konfiguration, int poolGroesse, ModusRichtlinie richtlinie) {
+        this.konfiguration = konfiguration;
+        this.poolGroesse = poolGroesse;
+        this.richtlinie = richtlinie;
+    }
+
+    /**
+     * @param konfiguration die Verbindungsdaten
+     * @param poolGroesse die Poolgröße pro Modus
+     * @param metriken das Register für {@code modus.*}
+     * @return ein Ausführer mit automatischer Wahl (Schwelle 3 Ausführungen pro Verbindung,
+     *         Erkundung bei jeder 50. Ausführung)
+     */
+    public static ModusAusfuehrer automatisch(DatenbankKonfiguration konfiguration, int poolGroesse,
+                                              Metriken metriken) {
+        return new ModusAusfuehrer(konfiguration, poolGroesse,
+            new ModusRichtlinie(3, 50, poolGroesse, metriken));
+    }
+
+    /**
+     * @return die Richtlinie, z.B. um einen Modus fest vorzugeben
+     */
+    public ModusRichtlinie getRichtlinie() {
+        return richtlinie;
+    }
+
+    /**
+     * Führt eine Abfrage im gewählten Modus aus.
+     *
+     * @param <T> der Ergebnistyp
+     * @param sql die Abfrage mit Platzhaltern
+     * @param parameter die Werte für die Platzhalter
+     * @param leser wandelt das ResultSet in das Ergebnis um
+     * @return das Ergebnis
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public <T> T abfragen(String sql, List<?> parameter, ErgebnisLeser<T> leser) throws SQLException {
+        SqlFingerabdruck fingerabdruck = SqlFingerabdruck.von(sql);
+        AusfuehrungsModus modus = richtlinie.waehlen(fingerabdruck, !parameter.isEmpty());
+        return abfragen(modus, fingerabdruck, sql, parameter, leser);
+    }
+
+    /**
+     * Führt eine Abfrage in einem vorgegebenen Modus aus, z.B. für Vergleichsmessungen.
+     *
+     * @param <T> der Ergebnistyp
+     * @param modus der zu verwendende Modus
+     * @param sql die Abfrage mit Platzhaltern
+     * @param parameter die Werte für die Platzhalter
+     * @param leser wandelt das ResultSet in das Ergebnis um
+     * @return das Ergebnis
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public <T> T abfragen(AusfuehrungsModus modus, String sql, List<?> parameter, ErgebnisLeser<T> leser)
+            throws SQLException {
+        return abfragen(modus, SqlFingerabdruck.von(sql), sql, parameter, leser);
+    }
+
+    /**
+     * Führt eine ändernde Anweisung im gewählten Modus aus.
+     *
+     * @param sql die Anweisung mit Platzhaltern
+     * @param parameter die Werte für die Platzhalter
+     * @return die Anzahl betroffener Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int aktualisieren(String sql, List<?> parameter) throws SQLException {
+        SqlFingerabdruck fingerabdruck = SqlFingerabdruck.von(sql);
+        return aktualisieren(richtlinie.waehlen(fingerabdruck, !parameter.isEmpty()), fingerabdruck, sql, parameter);
+    }
+
+    /**
+     * Führt eine ändernde Anweisung in einem vorgegebenen Modus aus.
+     *
+     * @param modus der zu verwendende Modus
+     * @param sql die Anweisung mit Platzhaltern
+     * @param parameter die Werte für die Platzhalter
+     * @return die Anzahl betroffener Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int aktualisieren(AusfuehrungsModus modus, String sql, List<?> parameter) throws SQLException {
+        return aktualisieren(modus, SqlFingerabdruck.von(sql), sql, parameter);
+    }
+
+    /**
+     * Schließt die Pools aller Modi.
+     */
+    @Override
+    public synchronized void close() {
+        pools.values().forEach(VerbindungsPool::close);
+        pools.clear();
+    }
+
+    private <T> T abfragen(AusfuehrungsModus modus, SqlFingerabdruck fingerabdruck, String sql,
+                           List<?> parameter, ErgebnisLeser<T> leser) throws SQLException {
+        VerbindungsPool pool = pool(modus);
+        Connection verbindung = pool.ausleihen();
+        long start = System.nanoTime();
+        try {
+            T ergebnis;
+            if (modus == AusfuehrungsModus.TEXT) {
+                try (Statement statement = verbindung.createStatement();
+                     ResultSet ergebnisSet = statement.executeQuery(einsetzen(sql, parameter))) {
+                    ergebnis = leser.lesen(ergebnisSet);
+                }
+            } else {
+                try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+                    binden(statement, parameter);
+                    try (ResultSet ergebnisSet = statement.executeQuery()) {
+                        ergebnis = leser.lesen(ergebnisSet);
+                    }
+                }
+            }
+            richtlinie.beobachten(fingerabdruck, modus, System.nanoTime() - start);
+            return ergebnis;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private int aktualisieren(AusfuehrungsModus modus, SqlFingerabdruck fingerabdruck, String sql,
+                              List<?> parameter) throws SQLException {
+        VerbindungsPool pool = pool(modus);
+        Connection verbindung = pool.ausleihen();
+        long start = System.nanoTime();
+        try {
+            int anzahl;
+            if (modus == AusfuehrungsModus.TEXT) {
+                try (Statement statement = verbindung.createStatement()) {
+                    anzahl = statement.executeUpdate(einsetzen(sql, parameter));
+                }
+            } else {
+                try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+                    binden(statement, parameter);
+                    anzahl = statement.executeUpdate();
+                }
+            }
+            richtlinie.beobachten(fingerabdruck, modus, System.nanoTime() - start);
+            return anzahl;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private synchronized VerbindungsPool pool(AusfuehrungsModus modus) {
+        return pools.computeIfAbsent(modus, m ->
+            new VerbindungsPool(konfiguration.mitUrlParametern(m.getUrlParameter()), poolGroesse));
+    }
+
+    private static void binden(PreparedStatement statement, List<?> parameter) throws SQLException {
+        for (int i = 0; i < parameter.size(); i++) {
+            statement.setObject(i + 1, parameter.get(i));
+        }
+    }
+
+    /**
+     * Ersetzt die Platzhalter außerhalb von Zeichenketten und Bezeichnern
+     * durch maskierte Literale.
+     *
+     * @param sql die Anweisung mit Platzhaltern
+     * @param parameter die einzusetzenden Werte
+     * @return die Anweisung mit Literalen
+     */
+    static String einsetzen(String sql, List<?> parameter) {
+        StringBuilder ergebnis = new StringBuilder(sql.length() + 16 * parameter.size());
+        int naechster = 0;
+        char inZeichenkette = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (inZeichenkette != 0) {
+                ergebnis.append(c);
+                if (c == '\\' && i + 1 < sql.length()) {
+                    ergebnis.append(sql.charAt(++i));
+                } else if (c == inZeichenkette) {
+                    inZeichenkette = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                inZeichenkette = c;
+                ergebnis.append(c);
+            } else if (c == '?') {
+                if (naechster == parameter.size()) {
+                    throw new IllegalArgumentException("Zu wenige Parameter für: " + sql);
+                }
+                literal(ergebnis, parameter.get(naechster++));
+            } else {
+                ergebnis.append(c);
+            }
+        }
+        if (naechster != parameter.size()) {
+            throw new IllegalArgumentException("Zu viele Parameter für: " + sql);
+        }
+        return ergebnis.toString();
+    }
+
+    private static void literal(StringBuilder ziel, Object wert) {
+        if (wert == null) {
+            ziel.append("NULL");
+        } else if (wert instanceof BigDecimal zahl) {
+            ziel.append(zahl.toPlainString());
+        } else if (wert instanceof Number) {
+            ziel.append(wert);
+        } else if (wert instanceof Boolean wahr) {
+            ziel.append(wahr ? '1' : '0');
+        } else {
+            String text = wert.toString();
+            ziel.append('\'');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '\0' -> ziel.append("\\0");
+                    case '\n' -> ziel.append("\\n");
+                    case '\r' -> ziel.append("\\r");
+                    case '\u001a' -> ziel.append("\\Z");
+                    case '\'' -> ziel.append("\\'");
+                    case '\\' -> ziel.append("\\\\");
+                    default -> ziel.append(c);
+                }
+            }
+            ziel.append('\'');
+        }
+    }
+}
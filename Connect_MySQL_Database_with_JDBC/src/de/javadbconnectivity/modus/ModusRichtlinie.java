@@ -0,0 +1,154 @@
+package de.javadbconnectivity.modus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.metriken.Metriken;
+
+/**
+ * Wählt pro {@link SqlFingerabdruck} den {@link AusfuehrungsModus}.
+ *
+ * Grundlage ist die beobachtete Wiederverwendung pro Verbindung: Serverseitige
+ * Vorbereitung kostet pro Verbindung einen zusätzlichen Roundtrip und lohnt
+ * sich erst, wenn dieselbe Anweisung dort mehrfach ausgeführt wird.
+ * - Anweisungen ohne Parameter laufen als {@link AusfuehrungsModus#TEXT}
+ * - unterhalb der Wiederverwendungsschwelle {@link AusfuehrungsModus#CLIENTSEITIG}
+ * - darüber {@link AusfuehrungsModus#SERVERSEITIG}
+ *
+ * Ab der Schwelle wird jede {@code erkundungsIntervall}-te Ausführung im jeweils
+ * anderen der beiden vorbereiteten Modi gemessen. Liegen für beide genug
+ * Messungen vor, entscheidet der geglättete Mittelwert der Laufzeit. Feste
+ * Vorgaben über {@link #festlegen} haben immer Vorrang.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ModusRichtlinie {
+
+    /** Glättungsfaktor für die Laufzeitmittelwerte */
+    private static final double ALPHA = 0.2;
+    /** Mindestanzahl Messungen je Modus für einen Laufzeitvergleich */
+    private static final int MIN_MESSUNGEN = 5;
+
+    private final int wiederverwendungsSchwelle;
+    private final int erkundungsIntervall;
+    private final int verbindungenProModus;
+    private final Metriken metriken;
+    private final Map<SqlFingerabdruck, Profil> profile = new ConcurrentHashMap<>();
+
+    /** Beobachtungen zu einem Fingerabdruck; Zugriffe sind über das Profil synchronisiert */
+    private static final class Profil {
+        private final double[] mittelNs = new double[AusfuehrungsModus.values().length];
+        private final int[] messungen = new int[AusfuehrungsModus.values().length];
+        private long ausfuehrungen;
+        private AusfuehrungsModus festgelegt;
+    }
+
+    /**
+     * @param wiederverwendungsSchwelle Ausführungen pro Verbindung, ab denen serverseitig vorbereitet wird
+     * @param erkundungsIntervall jede wievielte Ausführung den anderen Modus misst
+     * @param verbindungenProModus die Poolgröße pro Modus
+     * @param metriken das Register für {@code modus.*}
+     */
+    public ModusRichtlinie(int wiederverwendungsSchwelle, int erkundungsIntervall,
+                           int verbindungenProModus, Metriken metriken) {
+        this.wiederverwendungsSchwelle = wiederverwendungsSchwelle;
+        this.erkundungsIntervall = erkundungsIntervall;
+        this.verbindungenProModus = verbindungenProModus;
+        this.metriken = metriken;
+    }
+
+    /**
+     * Legt den Modus für einen Fingerabdruck fest oder hebt die Festlegung auf.
+     *
+     * @param fingerabdruck der Fingerabdruck
+     * @param modus der feste Modus oder null für die automatische Wahl
+     */
+    public void festlegen(SqlFingerabdruck fingerabdruck, AusfuehrungsModus modus) {
+        Profil profil = profil(fingerabdruck);
+        synchronized (profil) {
+            profil.festgelegt = modus;
+        }
+    }
+
+    /**
+     * Wählt den Modus für die nächste Ausführung und zählt sie.
+     *
+     * @param fingerabdruck der Fingerabdruck der Anweisung
+     * @param mitParametern ob die Anweisung Platzhalter enthält
+     * @return der zu verwendende Modus
+     */
+    public AusfuehrungsModus waehlen(SqlFingerabdruck fingerabdruck, boolean mitParametern) {
+        Profil profil = profil(fingerabdruck);
+        AusfuehrungsModus modus;
+        synchronized (profil) {
+            long nummer = ++profil.ausfuehrungen;
+            if (profil.festgelegt != null) {
+                modus = profil.festgelegt;
+            } else if (!mitParametern) {
+                modus = AusfuehrungsModus.TEXT;
+            } else if (nummer / verbindungenProModus < wiederverwendungsSchwelle) {
+                modus = AusfuehrungsModus.CLIENTSEITIG;
+            } else {
+                modus = schnellerer(profil);
+                if (nummer % erkundungsIntervall == 0) {
+                    modus = modus == AusfuehrungsModus.SERVERSEITIG
+                        ? AusfuehrungsModus.CLIENTSEITIG : AusfuehrungsModus.SERVERSEITIG;
+                    metriken.zaehler("modus.erkundet").increment();
+                }
+            }
+        }
+        metriken.zaehler("modus.ausfuehrungen[" + modus + "]").increment();
+        return modus;
+    }
+
+    /**
+     * Meldet die gemessene Laufzeit einer Ausführung.
+     *
+     * @param fingerabdruck der Fingerabdruck der Anweisung
+     * @param modus der verwendete Modus
+     * @param dauerNs die Laufzeit in Nanosekunden
+     */
+    public void beobachten(SqlFingerabdruck fingerabdruck, AusfuehrungsModus modus, long dauerNs) {
+        Profil profil = profil(fingerabdruck);
+        synchronized (profil) {
+            int i = modus.ordinal();
+            profil.mittelNs[i] = profil.messungen[i]++ == 0
+                ? dauerNs
+                : ALPHA * dauerNs + (1 - ALPHA) * profil.mittelNs[i];
+            metriken.messwert("modus.mittelUs[" + fingerabdruck.getVorlage() + "][" + modus + "]")
+                .set((long) (profil.mittelNs[i] / 1_000));
+        }
+    }
+
+    /**
+     * @param fingerabdruck der Fingerabdruck
+     * @return der Modus, den die Richtlinie ohne Erkundung aktuell wählen würde
+     */
+    public AusfuehrungsModus aktuell(SqlFingerabdruck fingerabdruck) {
+        Profil profil = profil(fingerabdruck);
+        synchronized (profil) {
+            if (profil.festgelegt != null) {
+                return profil.festgelegt;
+            }
+            return profil.ausfuehrungen / verbindungenProModus < wiederverwendungsSchwelle
+                ? AusfuehrungsModus.CLIENTSEITIG : schnellerer(profil);
+        }
+    }
+
+    /** Serverseitig, solange keine Messung das Gegenteil zeigt */
+    private static AusfuehrungsModus schnellerer(Profil profil) {
+        int client = AusfuehrungsModus.CLIENTSEITIG.ordinal();
+        int server = AusfuehrungsModus.SERVERSEITIG.ordinal();
+        if (profil.messungen[client] >= MIN_MESSUNGEN && profil.messungen[server] >= MIN_MESSUNGEN
+                && profil.mittelNs[client] < profil.mittelNs[server]) {
+            return AusfuehrungsModus.CLIENTSEITIG;
+        }
+        return AusfuehrungsModus.SERVERSEITIG;
+    }
+
+    private Profil profil(SqlFingerabdruck fingerabdruck) {
+        return profile.computeIfAbsent(fingerabdruck, f -> new Profil());
+    }
+}
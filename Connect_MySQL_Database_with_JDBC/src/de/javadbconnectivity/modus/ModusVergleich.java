@@ -0,0 +1,152 @@
+package de.javadbconnectivity.modus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
+/**
+ * Vergleicht die {@link AusfuehrungsModus Ausführungsmodi} an den Anweisungen aus
+ * {@code Driver} und {@code JdbcUpdateDemo}.
+ *
+ * Der Aufbau folgt JMH (Aufwärmphase, mehrere Messrunden, abwechselnde
+ * Reihenfolge der Varianten), ohne dessen Abhängigkeit: pro Szenario und Modus
+ * werden Durchsatz sowie p50/p99 der Latenz ausgegeben. Als zusätzliche Variante
+ * läuft die automatische Wahl der {@link ModusRichtlinie} mit.
+ *
+ * Aufruf: {@code ModusVergleich [iterationen=2000] [aufwaermen=500] [runden=5]}
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ModusVergleich {
+
+    /**
+     * Eine gemessene Anweisung.
+     *
+     * @param name der Anzeigename
+     * @param sql die Anweisung mit Platzhaltern
+     * @param parameter die Parameterwerte
+     * @param abfrage true für SELECT, false für UPDATE
+     */
+    record Szenario(String name, String sql, List<Object> parameter, boolean abfrage) {
+    }
+
+    /** Die Suchen aus {@code Driver} und {@code JdbcUpdateDemo} sowie dessen Aktualisierung */
+    static final List<Szenario> SZENARIEN = List.of(
+        new Szenario("Driver.suche",
+            "SELECT * FROM employees WHERE salary > ? AND department = ?",
+            List.of(80000, "Legal"), true),
+        new Szenario("JdbcUpdateDemo.suche",
+            "SELECT last_name, first_name, email FROM employees WHERE last_name=? AND first_name=?",
+            List.of("Doe", "John"), true),
+        new Szenario("JdbcUpdateDemo.aktualisierung",
+            "UPDATE employees SET email=? WHERE last_name=? AND first_name=?",
+            List.of("john.doe@gmx.com", "Doe", "John"), false));
+
+    private ModusVergleich() {
+    }
+
+    /**
+     * @param args {@code iterationen=}, {@code aufwaermen=} und {@code runden=}
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        int iterationen = 2000;
+        int aufwaermen = 500;
+        int runden = 5;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "iterationen" -> iterationen = Integer.parseInt(teile[1]);
+                case "aufwaermen" -> aufwaermen = Integer.parseInt(teile[1]);
+                case "runden" -> runden = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard();
+        Metriken metriken = new Metriken();
+        // Varianten: die drei festen Modi und die automatische Wahl (null)
+        List<AusfuehrungsModus> varianten = new ArrayList<>(List.of(AusfuehrungsModus.values()));
+        varianten.add(null);
+
+        try (ModusAusfuehrer ausfuehrer = ModusAusfuehrer.automatisch(konfiguration, 1, metriken)) {
+            for (Szenario szenario : SZENARIEN) {
+                Map<String, LatenzHistogramm> histogramme = new LinkedHashMap<>();
+                Map<String, Long> dauerNs = new LinkedHashMap<>();
+                for (AusfuehrungsModus modus : varianten) {
+                    histogramme.put(name(modus), new LatenzHistogramm());
+                    dauerNs.put(name(modus), 0L);
+                    for (int i = 0; i < aufwaermen; i++) {
+                        ausfuehren(ausfuehrer, szenario, modus);
+                    }
+                }
+
+                for (int runde = 0; runde < runden; runde++) {
+                    // Reihenfolge pro Runde verschieben, damit keine Variante immer zuerst läuft
+                    for (int v = 0; v < varianten.size(); v++) {
+                        AusfuehrungsModus modus = varianten.get((v + runde) % varianten.size());
+                        LatenzHistogramm histogramm = histogramme.get(name(modus));
+                        long rundenStart = System.nanoTime();
+                        for (int i = 0; i < iterationen; i++) {
+                            long start = System.nanoTime();
+                            ausfuehren(ausfuehrer, szenario, modus);
+                            histogramm.erfassen(System.nanoTime() - start);
+                        }
+                        dauerNs.merge(name(modus), System.nanoTime() - rundenStart, Long::sum);
+                    }
+                }
+
+                System.out.println(szenario.name() + ": " + szenario.sql());
+                System.out.printf("  %-13s %12s %10s %10s%n", "Modus", "Ops/s", "p50 µs", "p99 µs");
+                for (Map.Entry<String, LatenzHistogramm> eintrag : histogramme.entrySet()) {
+                    LatenzHistogramm h = eintrag.getValue();
+                    double opsProSekunde = h.getAnzahl() * 1e9 / dauerNs.get(eintrag.getKey());
+                    System.out.printf("  %-13s %12.0f %10.1f %10.1f%n", eintrag.getKey(), opsProSekunde,
+                        h.perzentil(50) / 1e3, h.perzentil(99) / 1e3);
+                }
+                System.out.println("  automatisch gewählt: "
+                    + ausfuehrer.getRichtlinie().aktuell(SqlFingerabdruck.von(szenario.sql())));
+            }
+        }
+        metriken.ausgeben(System.out);
+    }
+
+    private static void ausfuehren(ModusAusfuehrer ausfuehrer, Szenario szenario, AusfuehrungsModus modus)
+            throws Exception {
+        if (szenario.abfrage()) {
+            if (modus == null) {
+                ausfuehrer.abfragen(szenario.sql(), szenario.parameter(), ModusVergleich::zeilenZaehlen);
+            } else {
+                ausfuehrer.abfragen(modus, szenario.sql(), szenario.parameter(), ModusVergleich::zeilenZaehlen);
+            }
+        } else if (modus == null) {
+            ausfuehrer.aktualisieren(szenario.sql(), szenario.parameter());
+        } else {
+            ausfuehrer.aktualisieren(modus, szenario.sql(), szenario.parameter());
+        }
+    }
+
+    private static int zeilenZaehlen(ResultSet ergebnisSet) throws SQLException {
+        int zeilen = 0;
+        while (ergebnisSet.next()) {
+            zeilen++;
+        }
+        return zeilen;
+    }
+
+    private static String name(AusfuehrungsModus modus) {
+        return modus == null ? "AUTOMATISCH" : modus.name();
+    }
+}
@@ -0,0 +1,206 @@
+package de.javadbconnectivity.namensindex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.javadbconnectivity.mitarbeiter.Kollation;
+
+/**
+ * Kompakter Index von (Nachname, Vorname) auf Mitarbeiter-Ids.
+ *
+ * Der Index verwendet offene Adressierung mit linearer Sondierung in drei
+ * parallelen Feldern statt einer {@code HashMap<Schluessel, List<Integer>>}:
+ * pro Eintrag fallen nur zwei Referenzen und ein {@code int} an, ohne
+ * Eintrags-, Schlüssel- oder Listenobjekte. Namen werden interniert, sodass
+ * häufige Vor- und Nachnamen nur einmal im Speicher liegen. Gleichnamige
+ * Mitarbeiter belegen je einen eigenen Platz. Gelöscht wird durch Rückverschieben
+ * der Folgeeinträge, daher entstehen keine Grabsteine.
+ *
+ * Namen werden als Schlüssel nach {@link Kollation} abgelegt: wie die Spalten
+ * ({@code latin1_swedish_ci}) unterscheidet der Index weder Groß- und
+ * Kleinschreibung noch die meisten Akzente und ignoriert Leerzeichen am Ende.
+ *
+ * Die Klasse ist nicht threadsicher; {@link NamensSuche} synchronisiert den Zugriff.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class NamensIndex {
+
+    private static final int MIN_KAPAZITAET = 16;
+
+    private final Map<String, String> internierte = new HashMap<>();
+    private String[] nachnamen;
+    private String[] vornamen;
+    private int[] ids;
+    private int anzahl;
+
+    /**
+     * @param erwarteteAnzahl die erwartete Anzahl an Einträgen
+     */
+    public NamensIndex(int erwarteteAnzahl) {
+        int kapazitaet = Integer.highestOneBit(Math.max(MIN_KAPAZITAET, erwarteteAnzahl * 2 - 1)) << 1;
+        nachnamen = new String[kapazitaet];
+        vornamen = new String[kapazitaet];
+        ids = new int[kapazitaet];
+    }
+
+    /**
+     * Nimmt einen Mitarbeiter auf; ist die Id unter diesem Namen schon vorhanden,
+     * bleibt der Index unverändert.
+     *
+     * @param id die Id
+     * @param nachname der Nachname (null wird wie ein leerer Name behandelt)
+     * @param vorname der Vorname (null wird wie ein leerer Name behandelt)
+     */
+    public void eintragen(int id, String nachname, String vorname) {
+        if (platzVon(id, nachname, vorname) >= 0) {
+            return;
+        }
+        if ((anzahl + 1) * 4 > ids.length * 3) {
+            vergroessern();
+        }
+        einfuegen(id, interniert(nachname), interniert(vorname));
+        anzahl++;
+    }
+
+    /**
+     * @param id die Id
+     * @param nachname der Nachname, unter dem die Id eingetragen ist
+     * @param vorname der Vorname, unter dem die Id eingetragen ist
+     * @return true, wenn ein Eintrag entfernt wurde
+     */
+    public boolean entfernen(int id, String nachname, String vorname) {
+        int platz = platzVon(id, nachname, vorname);
+        if (platz < 0) {
+            return false;
+        }
+        rueckverschieben(platz);
+        anzahl--;
+        return true;
+    }
+
+    /**
+     * @param nachname der Nachname
+     * @param vorname der Vorname
+     * @return alle Ids unter diesem Namen, aufsteigend sortiert (leer, wenn keine)
+     */
+    public int[] ids(String nachname, String vorname) {
+        String nach = normal(nachname);
+        String vor = normal(vorname);
+        int maske = ids.length - 1;
+        int[] treffer = new int[4];
+        int gefunden = 0;
+        for (int platz = position(nach, vor); nachnamen[platz] != null; platz = (platz + 1) & maske) {
+            if (nachnamen[platz].equals(nach) && vornamen[platz].equals(vor)) {
+                if (gefunden == treffer.length) {
+                    treffer = Arrays.copyOf(treffer, gefunden * 2);
+                }
+                treffer[gefunden++] = ids[platz];
+            }
+        }
+        int[] ergebnis = Arrays.copyOf(treffer, gefunden);
+        Arrays.sort(ergebnis);
+        return ergebnis;
+    }
+
+    /**
+     * @return die Anzahl der Einträge
+     */
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * @return die Anzahl verschiedener internierter Namen
+     */
+    public int getInterniert() {
+        return internierte.size();
+    }
+
+    private int platzVon(int id, String nachname, String vorname) {
+        String nach = normal(nachname);
+        String vor = normal(vorname);
+        int maske = ids.length - 1;
+        for (int platz = position(nach, vor); nachnamen[platz] != null; platz = (platz + 1) & maske) {
+            if (ids[platz] == id && nachnamen[platz].equals(nach) && vornamen[platz].equals(vor)) {
+                return platz;
+            }
+        }
+        return -1;
+    }
+
+    private void einfuegen(int id, String nachname, String vorname) {
+        int maske = ids.length - 1;
+        int platz = position(nachname, vorname);
+        while (nachnamen[platz] != null) {
+            platz = (platz + 1) & maske;
+        }
+        nachnamen[platz] = nachname;
+        vornamen[platz] = vorname;
+        ids[platz] = id;
+    }
+
+    /**
+     * Leert einen Platz und zieht nachfolgende Einträge derselben Sondierungskette
+     * nach, damit spätere Suchen nicht vorzeitig an einer Lücke enden.
+     */
+    private void rueckverschieben(int luecke) {
+        int maske = ids.length - 1;
+        int platz = luecke;
+        while (true) {
+            platz = (platz + 1) & maske;
+            if (nachnamen[platz] == null) {
+                break;
+            }
+            int heimat = position(nachnamen[platz], vornamen[platz]);
+            // Nur verschieben, wenn die Heimat nicht zwischen Lücke und Platz liegt
+            boolean verschieben = luecke <= platz
+                ? heimat <= luecke || heimat > platz
+                : heimat <= luecke && heimat > platz;
+            if (verschieben) {
+                nachnamen[luecke] = nachnamen[platz];
+                vornamen[luecke] = vornamen[platz];
+                ids[luecke] = ids[platz];
+                luecke = platz;
+            }
+        }
+        nachnamen[luecke] = null;
+        vornamen[luecke] = null;
+        ids[luecke] = 0;
+    }
+
+    private void vergroessern() {
+        String[] alteNachnamen = nachnamen;
+        String[] alteVornamen = vornamen;
+        int[] alteIds = ids;
+        nachnamen = new String[alteIds.length * 2];
+        vornamen = new String[alteIds.length * 2];
+        ids = new int[alteIds.length * 2];
+        for (int i = 0; i < alteIds.length; i++) {
+            if (alteNachnamen[i] != null) {
+                einfuegen(alteIds[i], alteNachnamen[i], alteVornamen[i]);
+            }
+        }
+    }
+
+    private int position(String nachname, String vorname) {
+        int hash = nachname.hashCode() * 31 + vorname.hashCode();
+        // Obere Bits einmischen, da die Maske nur die unteren verwendet
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & (ids.length - 1);
+    }
+
+    private String interniert(String name) {
+        String normal = normal(name);
+        String vorhanden = internierte.putIfAbsent(normal, normal);
+        return vorhanden != null ? vorhanden : normal;
+    }
+
+    private static String normal(String name) {
+        return name == null ? "" : Kollation.schluessel(name);
+    }
+}
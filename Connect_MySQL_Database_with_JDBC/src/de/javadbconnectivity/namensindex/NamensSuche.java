@@ -0,0 +1,362 @@
+package de.javadbconnectivity.namensindex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.mitarbeiter.Kollation;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+import de.javadbconnectivity.ueberwachung.Ausfuehrung;
+import de.javadbconnectivity.ueberwachung.StatementBeobachter;
+
+/**
+ * Schneller Weg für die Suche nach {@code last_name=? AND first_name=?}, wie in
+ * {@code JdbcUpdateDemo.mitarbeiterAnzeigen} und {@code JdbcDeleteDemo.mitarbeiterAnzeigen}.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Namen über einen {@link NamensIndex} ohne Roundtrip in Ids auflöst
+ * - die Zeilen danach über den Primärschlüssel lädt statt die Tabelle zu durchsuchen
+ * - bei veraltetem Index auf die Namensabfrage zurückfällt und ihn im Hintergrund neu aufbaut
+ * - den Index über einen {@link StatementBeobachter} mit Schreibzugriffen konsistent hält
+ *
+ * Ein aktueller Index ist vollständig: ein Name ohne Eintrag existiert nicht, und
+ * die Antwort kommt ohne Datenbankzugriff. Namen werden dazu mit {@link Kollation}
+ * verglichen, also genau wie MySQL ({@code 'José' = 'jose '}). Jede Anweisung,
+ * die Namen in {@code employees} ändern kann und über einen beobachteten Pool
+ * läuft, markiert den Index als veraltet, ebenso jede dort bestätigte
+ * Transaktion: ein Neuaufbau zwischen Anweisung und Commit konnte deren Zeilen
+ * noch nicht sehen. Schreibzugriffe an diesen Pools vorbei bleiben unsichtbar;
+ * die Primärschlüsselabfrage prüft deshalb die Namen und fällt bei Abweichungen
+ * auf die Namensabfrage zurück.
+ *
+ * Metriken: {@code namensindex.treffer}, {@code namensindex.fehlanzeige},
+ * {@code namensindex.rueckfall}, {@code namensindex.neuaufbau} und
+ * {@code namensindex.eintraege}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class NamensSuche implements StatementBeobachter, AutoCloseable {
+
+    /** Prozeduren aus {@code sql/table-setup.sql}, die keine Namen ändern */
+    private static final Set<String> NAMENSNEUTRALE_PROZEDUREN = Set.of(
+        "get_count_for_department", "get_employees_for_department",
+        "greet_the_department", "increase_salaries_for_department");
+
+    private static final Pattern PROZEDUR = Pattern.compile("call\\s*([a-z0-9_$.]+)");
+    private static final Pattern ZUWEISUNGEN = Pattern.compile("\\bset\\b(.*?)(?:\\bwhere\\b|$)");
+
+    private static final String NAMENSABFRAGE =
+        "SELECT " + Mitarbeiter.SPALTEN + " FROM employees WHERE last_name=? AND first_name=? ORDER BY id";
+
+    private final VerbindungsPool pool;
+    private final Metriken metriken;
+    private final AtomicLong generation = new AtomicLong(1);
+    private final AtomicBoolean neuaufbauLaeuft = new AtomicBoolean();
+    private volatile NamensIndex index;
+    private volatile long indexGeneration;
+
+    /**
+     * Erstellt die Suche mit einem eigenen Pool, dessen Anweisungen beobachtet werden.
+     * Schreibzugriffe über {@link #getPool()} halten den Index damit aktuell.
+     *
+     * @param konfiguration die Verbindungsdaten
+     * @param poolGroesse die Größe des Pools
+     * @param metriken das Ziel für Zähler und Messwerte
+     */
+    public NamensSuche(DatenbankKonfiguration konfiguration, int poolGroesse, Metriken metriken) {
+        this.pool = new VerbindungsPool(konfiguration, poolGroesse, List.of(this));
+        this.metriken = metriken;
+    }
+
+    /**
+     * Meldet Schreibzugriffe an {@code employees}. Kann zusätzlich an weiteren
+     * Pools registriert werden, über die Mitarbeiter geändert werden.
+     * Ausführungen ohne oder mit nicht auswertbarem SQL, etwa ein
+     * {@code Statement.executeBatch()}, gelten als Namensänderung.
+     *
+     * @param ausfuehrung die beobachtete Ausführung
+     */
+    @Override
+    public void ausgefuehrt(Ausfuehrung ausfuehrung) {
+        String sql = ausfuehrung.sql();
+        if (sql == null || aendertNamen(sql)) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Markiert den Index als veraltet, sobald eine Transaktion bestätigt wird.
+     * Ihre Anweisungen haben ihn zwar schon beim Ausführen markiert, ein
+     * Neuaufbau bis zum Commit sieht ihre Zeilen aber noch nicht.
+     */
+    @Override
+    public void bestaetigt() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Lädt den Index vollständig; danach beantwortet er Suchen ohne Roundtrip.
+     *
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public void aufbauen() throws SQLException {
+        long stand = generation.get();
+        Connection verbindung = pool.ausleihen();
+        try (Statement statement = verbindung.createStatement()) {
+            int anzahl;
+            try (ResultSet ergebnisSet = statement.executeQuery("SELECT COUNT(*) FROM employees")) {
+                ergebnisSet.next();
+                anzahl = ergebnisSet.getInt(1);
+            }
+            NamensIndex neu = new NamensIndex(anzahl);
+            try (ResultSet ergebnisSet = statement.executeQuery(
+                    "SELECT id, last_name, first_name FROM employees")) {
+                while (ergebnisSet.next()) {
+                    neu.eintragen(ergebnisSet.getInt(1), ergebnisSet.getString(2), ergebnisSet.getString(3));
+                }
+            }
+            synchronized (this) {
+                index = neu;
+                indexGeneration = stand;
+            }
+            metriken.zaehler("namensindex.neuaufbau").increment();
+            metriken.messwert("namensindex.eintraege").set(neu.getAnzahl());
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * @param nachname der Nachname
+     * @param vorname der Vorname
+     * @return die Ids, ohne Roundtrip bei aktuellem Index
+     * @throws SQLException wenn der Rückfall auf die Datenbank fehlschlägt
+     */
+    public int[] ids(String nachname, String vorname) throws SQLException {
+        int[] ids = ausIndex(nachname, vorname);
+        if (ids != null) {
+            return ids;
+        }
+        return mitarbeiter(nachname, vorname).stream().mapToInt(Mitarbeiter::id).toArray();
+    }
+
+    /**
+     * @param nachname der Nachname
+     * @param vorname der Vorname
+     * @return die Mitarbeiter mit diesem Namen, nach Id sortiert
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<Mitarbeiter> mitarbeiter(String nachname, String vorname) throws SQLException {
+        int[] ids = ausIndex(nachname, vorname);
+        if (ids != null && ids.length == 0) {
+            metriken.zaehler("namensindex.fehlanzeige").increment();
+            return List.of();
+        }
+        if (ids != null) {
+            List<Mitarbeiter> gefunden = nachIds(ids);
+            if (gefunden.size() == ids.length && gefunden.stream().allMatch(
+                    m -> gleicherName(m.nachname(), nachname) && gleicherName(m.vorname(), vorname))) {
+                metriken.zaehler("namensindex.treffer").increment();
+                return gefunden;
+            }
+            // Der Index ist trotz aktueller Generation veraltet
+            generation.incrementAndGet();
+        }
+        metriken.zaehler("namensindex.rueckfall").increment();
+        neuaufbauAnstossen();
+        return nachNamen(nachname, vorname);
+    }
+
+    /**
+     * @return der Pool, dessen Schreibzugriffe den Index aktuell halten
+     */
+    public VerbindungsPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Schließt den eigenen Pool.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * @return null, wenn der Index fehlt oder veraltet ist
+     */
+    private int[] ausIndex(String nachname, String vorname) {
+        synchronized (this) {
+            if (index == null || indexGeneration != generation.get()) {
+                return null;
+            }
+            return index.ids(nachname, vorname);
+        }
+    }
+
+    private List<Mitarbeiter> nachIds(int[] ids) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT " + Mitarbeiter.SPALTEN + " FROM employees WHERE id IN (");
+        for (int i = 0; i < ids.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY id");
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.length; i++) {
+                statement.setInt(i + 1, ids[i]);
+            }
+            return lesen(statement);
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private List<Mitarbeiter> nachNamen(String nachname, String vorname) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(NAMENSABFRAGE)) {
+            statement.setString(1, nachname);
+            statement.setString(2, vorname);
+            return lesen(statement);
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private static List<Mitarbeiter> lesen(PreparedStatement statement) throws SQLException {
+        List<Mitarbeiter> ergebnis = new ArrayList<>();
+        try (ResultSet ergebnisSet = statement.executeQuery()) {
+            while (ergebnisSet.next()) {
+                ergebnis.add(Mitarbeiter.ausZeile(ergebnisSet));
+            }
+        }
+        return ergebnis;
+    }
+
+    /**
+     * Baut den Index auf einem virtuellen Thread neu auf; bis dahin beantwortet
+     * die Namensabfrage alle Suchen.
+     */
+    private void neuaufbauAnstossen() {
+        if (!neuaufbauLaeuft.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("namensindex-neuaufbau").start(() -> {
+            try {
+                aufbauen();
+            } catch (SQLException e) {
+                System.err.println("Neuaufbau des Namensindex fehlgeschlagen: " + e.getMessage());
+            } finally {
+                neuaufbauLaeuft.set(false);
+            }
+        });
+    }
+
+    /**
+     * Schreibzugriffe auf {@code employees} ändern Namen, außer UPDATEs ohne
+     * Zuweisung an {@code last_name}/{@code first_name} und bekannte Prozeduren.
+     */
+    private static boolean aendertNamen(String sql) {
+        SqlFingerabdruck fingerabdruck;
+        try {
+            fingerabdruck = SqlFingerabdruck.von(sql);
+        } catch (RuntimeException e) {
+            return true;
+        }
+        String vorlage = fingerabdruck.getVorlage();
+        return switch (fingerabdruck.getArt()) {
+            case LESEND -> false;
+            case AUFRUF -> {
+                Matcher matcher = PROZEDUR.matcher(vorlage);
+                yield !matcher.find() || !NAMENSNEUTRALE_PROZEDUREN.contains(matcher.group(1));
+            }
+            case SCHREIBEND -> {
+                if (!fingerabdruck.getTabellen().isEmpty() && !fingerabdruck.getTabellen().contains("employees")) {
+                    yield false;
+                }
+                if (vorlage.startsWith("update")) {
+                    Matcher matcher = ZUWEISUNGEN.matcher(vorlage);
+                    yield !matcher.find() || matcher.group(1).contains("last_name")
+                        || matcher.group(1).contains("first_name");
+                }
+                yield true;
+            }
+        };
+    }
+
+    private static boolean gleicherName(String gespeichert, String gesucht) {
+        return normal(gespeichert).equals(normal(gesucht));
+    }
+
+    private static String normal(String name) {
+        return name == null ? "" : Kollation.schluessel(name);
+    }
+
+    /**
+     * Vergleicht Index und Namensabfrage.
+     *
+     * Aufruf: {@code NamensSuche [nachname=Doe] [vorname=John] [wiederholungen=1000]}
+     *
+     * @param args optional {@code nachname=}, {@code vorname=} und {@code wiederholungen=}
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws SQLException {
+        String nachname = "Doe";
+        String vorname = "John";
+        int wiederholungen = 1000;
+        for (String arg : args) {
+            String[] teile = arg.split("=", 2);
+            switch (teile[0]) {
+                case "nachname" -> nachname = teile[1];
+                case "vorname" -> vorname = teile[1];
+                case "wiederholungen" -> wiederholungen = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Parameter: " + arg);
+            }
+        }
+
+        Metriken metriken = new Metriken();
+        try (NamensSuche suche = new NamensSuche(DatenbankKonfiguration.standard(), 2, metriken)) {
+            long start = System.nanoTime();
+            suche.aufbauen();
+            System.out.printf("Index aufgebaut in %.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            for (int i = 0; i < wiederholungen; i++) {
+                suche.nachNamen(nachname, vorname);
+            }
+            long namensabfrageNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < wiederholungen; i++) {
+                suche.mitarbeiter(nachname, vorname);
+            }
+            long indexNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < wiederholungen; i++) {
+                suche.ids(nachname, vorname);
+            }
+            long nurIdsNs = System.nanoTime() - start;
+
+            System.out.println("Gefunden: " + Arrays.toString(suche.ids(nachname, vorname)));
+            System.out.printf("Namensabfrage:              %8.1f µs%n", namensabfrageNs / 1e3 / wiederholungen);
+            System.out.printf("Index + Primärschlüssel:    %8.1f µs%n", indexNs / 1e3 / wiederholungen);
+            System.out.printf("Nur Index (Ids):            %8.1f µs%n", nurIdsNs / 1e3 / wiederholungen);
+        }
+        metriken.ausgeben(System.out);
+    }
+}
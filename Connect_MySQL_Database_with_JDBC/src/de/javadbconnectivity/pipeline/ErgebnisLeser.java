@@ -0,0 +1,28 @@
+package de.javadbconnectivity.pipeline;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Wandelt ein vollständiges ResultSet in ein Ergebnisobjekt um.
+ *
+ * Der Leser läuft auf dem Arbeiter-Thread, der die Verbindung hält, und muss
+ * das ResultSet vollständig verarbeiten, bevor er zurückkehrt.
+ *
+ * @param <T> der Typ des Ergebnisses
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ErgebnisLeser<T> {
+
+    /**
+     * Liest das ResultSet und liefert das Ergebnis.
+     *
+     * @param ergebnisSet das zu lesende ResultSet
+     * @return das Ergebnis
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    T lesen(ResultSet ergebnisSet) throws SQLException;
+}
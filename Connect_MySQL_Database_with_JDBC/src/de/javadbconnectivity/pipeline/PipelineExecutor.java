@@ -0,0 +1,448 @@
+package de.javadbconnectivity.pipeline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.javadbconnectivity.mitarbeiter.Kollation;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Führt Abfragen vieler Aufrufer über eine Warteschlange auf einer festen Anzahl
+ * von Verbindungen aus.
+ *
+ * Jeder Arbeiter-Thread hält eine eigene Verbindung aus dem {@link VerbindungsPool}
+ * und entnimmt der Warteschlange jeweils ein ganzes Bündel wartender Anfragen.
+ * Namenssuchen nach {@code (last_name, first_name)} – wie in
+ * {@code JdbcUpdateDemo.mitarbeiterAnzeigen} – werden dabei zu einer einzigen
+ * {@code IN (...)}-Abfrage zusammengefasst und die Zeilen anschließend den
+ * einzelnen Aufrufern zugeordnet. Unter hoher Last sinkt so die Anzahl der
+ * Roundtrips zur Datenbank.
+ *
+ * Ein SQL-Fehler betrifft nur die Anfrage, die ihn ausgelöst hat – bei der
+ * gebündelten Namenssuche also alle Namen des Bündels, die Einzelabfragen
+ * daneben laufen weiter. Nur Verbindungsfehler (SQLState-Klasse 08) lassen das
+ * ganze Bündel fehlschlagen, weil danach keine Anfrage mehr ausgeführt werden kann.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Anfragen über eine {@link BlockingQueue} an Arbeiter verteilt
+ * - Gleichartige Punktabfragen bündelt und die Ergebnisse wieder aufteilt
+ * - Ergebnisse asynchron über {@link CompletableFuture} zurückliefert
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class PipelineExecutor implements AutoCloseable {
+
+    /** Abfrage für gebündelte Namenssuchen, die Platzhalter werden angehängt */
+    private static final String NAMENS_ABFRAGE =
+        "SELECT " + Mitarbeiter.SPALTEN + " FROM employees WHERE (last_name, first_name) IN (";
+
+    private final VerbindungsPool pool;
+    private final int maxBuendelGroesse;
+    private final BlockingQueue<Anfrage> warteschlange = new LinkedBlockingQueue<>();
+    private final List<Thread> arbeiter = new ArrayList<>();
+    private volatile boolean beendet;
+
+    private final LongAdder namensAnfragen = new LongAdder();
+    private final LongAdder einzelAnfragen = new LongAdder();
+    private final LongAdder datenbankAbfragen = new LongAdder();
+
+    /**
+     * Startet {@code anzahlArbeiter} Arbeiter-Threads, die je eine Verbindung aus
+     * dem Pool verwenden.
+     *
+     * @param pool der Pool, aus dem die Arbeiter ihre Verbindungen beziehen
+     * @param anzahlArbeiter die Anzahl der Arbeiter (höchstens die Poolgröße)
+     * @param maxBuendelGroesse die maximale Anzahl Anfragen pro Bündel
+     */
+    public PipelineExecutor(VerbindungsPool pool, int anzahlArbeiter, int maxBuendelGroesse) {
+        if (anzahlArbeiter < 1 || anzahlArbeiter > pool.getGroesse()) {
+            throw new IllegalArgumentException(
+                "Anzahl Arbeiter muss zwischen 1 und " + pool.getGroesse() + " liegen: " + anzahlArbeiter);
+        }
+        if (maxBuendelGroesse < 1) {
+            throw new IllegalArgumentException("Bündelgröße muss mindestens 1 sein: " + maxBuendelGroesse);
+        }
+        this.pool = pool;
+        this.maxBuendelGroesse = maxBuendelGroesse;
+
+        for (int i = 0; i < anzahlArbeiter; i++) {
+            Thread thread = new Thread(this::arbeiten, "pipeline-arbeiter-" + i);
+            thread.setDaemon(true);
+            arbeiter.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Sucht alle Mitarbeiter mit dem angegebenen Namen. Gleichzeitige Suchen
+     * werden zu einer Abfrage gebündelt.
+     *
+     * @param vorname der Vorname
+     * @param nachname der Nachname
+     * @return die gefundenen Mitarbeiter (leer, wenn keiner gefunden wurde)
+     */
+    public CompletableFuture<List<Mitarbeiter>> mitarbeiterSuchen(String vorname, String nachname) {
+        NamensAnfrage anfrage = new NamensAnfrage(new NamensSchluessel(nachname, vorname));
+        namensAnfragen.increment();
+        return einreihen(anfrage, anfrage.ergebnis);
+    }
+
+    /**
+     * Führt eine beliebige parametrisierte Abfrage auf einem Arbeiter aus.
+     *
+     * @param <T> der Typ des Ergebnisses
+     * @param sql die SQL-Abfrage mit Platzhaltern
+     * @param parameter die Parameterwerte in Platzhalter-Reihenfolge
+     * @param leser wandelt das ResultSet in das Ergebnis um
+     * @return das Ergebnis der Abfrage
+     */
+    public <T> CompletableFuture<T> abfrage(String sql, List<?> parameter, ErgebnisLeser<T> leser) {
+        EinzelAnfrage<T> anfrage = new EinzelAnfrage<>(sql, List.copyOf(parameter), leser);
+        einzelAnfragen.increment();
+        return einreihen(anfrage, anfrage.ergebnis);
+    }
+
+    /**
+     * @return die Anzahl eingereichter Namenssuchen
+     */
+    public long getNamensAnfragen() {
+        return namensAnfragen.sum();
+    }
+
+    /**
+     * @return die Anzahl eingereichter Einzelabfragen
+     */
+    public long getEinzelAnfragen() {
+        return einzelAnfragen.sum();
+    }
+
+    /**
+     * @return die Anzahl tatsächlich an die Datenbank gesendeter Abfragen
+     */
+    public long getDatenbankAbfragen() {
+        return datenbankAbfragen.sum();
+    }
+
+    /**
+     * Arbeitet alle eingereihten Anfragen ab und beendet die Arbeiter.
+     * Der Pool selbst wird nicht geschlossen.
+     */
+    @Override
+    public void close() {
+        beendet = true;
+        for (Thread thread : arbeiter) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Anfragen, die nach dem Beenden noch eingereiht wurden, schlagen fehl
+        List<Anfrage> rest = new ArrayList<>();
+        warteschlange.drainTo(rest);
+        fehlschlagen(rest, new SQLException("PipelineExecutor ist geschlossen"));
+    }
+
+    private <T> CompletableFuture<T> einreihen(Anfrage anfrage, CompletableFuture<T> ergebnis) {
+        if (beendet) {
+            return CompletableFuture.failedFuture(new SQLException("PipelineExecutor ist geschlossen"));
+        }
+        warteschlange.add(anfrage);
+        return ergebnis;
+    }
+
+    /**
+     * Schleife eines Arbeiters: ein Bündel entnehmen, ausführen, wiederholen.
+     */
+    private void arbeiten() {
+        Connection verbindung = null;
+        List<Anfrage> buendel = new ArrayList<>(maxBuendelGroesse);
+
+        try {
+            while (!beendet || !warteschlange.isEmpty()) {
+                Anfrage erste = warteschlange.poll(100, TimeUnit.MILLISECONDS);
+                if (erste == null) {
+                    continue;
+                }
+                buendel.add(erste);
+                warteschlange.drainTo(buendel, maxBuendelGroesse - 1);
+
+                try {
+                    if (verbindung == null) {
+                        verbindung = pool.ausleihen();
+                    }
+                    verbindung = buendelAusfuehren(verbindung, buendel);
+                } catch (SQLException | RuntimeException e) {
+                    // Der Arbeiter muss weiterlaufen, sonst warten spätere Aufrufer ewig
+                    fehlschlagen(buendel, e);
+                }
+                buendel.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Führt ein Bündel aus. Liefert die weiter nutzbare Verbindung oder null,
+     * wenn die Verbindung nach einem Verbindungsfehler verworfen wurde.
+     */
+    private Connection buendelAusfuehren(Connection verbindung, List<Anfrage> buendel) {
+        Map<NamensSchluessel, List<NamensAnfrage>> namen = new LinkedHashMap<>();
+        List<EinzelAnfrage<?>> einzelne = new ArrayList<>();
+
+        for (Anfrage anfrage : buendel) {
+            if (anfrage instanceof NamensAnfrage namensAnfrage) {
+                namen.computeIfAbsent(namensAnfrage.schluessel, s -> new ArrayList<>()).add(namensAnfrage);
+            } else {
+                einzelne.add((EinzelAnfrage<?>) anfrage);
+            }
+        }
+
+        try {
+            if (!namen.isEmpty()) {
+                try {
+                    namenAusfuehren(verbindung, namen);
+                } catch (SQLException e) {
+                    if (istVerbindungsfehler(e)) {
+                        throw e;
+                    }
+                    for (List<NamensAnfrage> anfragen : namen.values()) {
+                        fehlschlagen(anfragen, e);
+                    }
+                }
+            }
+            for (EinzelAnfrage<?> anfrage : einzelne) {
+                try {
+                    einzelAusfuehren(verbindung, anfrage);
+                } catch (SQLException e) {
+                    if (istVerbindungsfehler(e)) {
+                        throw e;
+                    }
+                    anfrage.fehlschlagen(e);
+                }
+            }
+            return verbindung;
+        } catch (SQLException e) {
+            // Bereits beantwortete Anfragen bleiben unverändert
+            fehlschlagen(buendel, e);
+            return pruefeVerbindung(verbindung);
+        }
+    }
+
+    /**
+     * Führt alle Namenssuchen eines Bündels als eine {@code IN (...)}-Abfrage aus
+     * und ordnet die Zeilen den wartenden Anfragen zu.
+     */
+    private void namenAusfuehren(Connection verbindung, Map<NamensSchluessel, List<NamensAnfrage>> namen)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(NAMENS_ABFRAGE);
+        for (int i = 0; i < namen.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+        }
+        sql.append(')');
+
+        Map<NamensSchluessel, List<Mitarbeiter>> treffer = new LinkedHashMap<>();
+        for (NamensSchluessel schluessel : namen.keySet()) {
+            treffer.put(schluessel, new ArrayList<>());
+        }
+
+        try (PreparedStatement statement = verbindung.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (NamensSchluessel schluessel : namen.keySet()) {
+                statement.setString(index++, schluessel.nachname);
+                statement.setString(index++, schluessel.vorname);
+            }
+            datenbankAbfragen.increment();
+
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                while (ergebnisSet.next()) {
+                    Mitarbeiter mitarbeiter = Mitarbeiter.ausZeile(ergebnisSet);
+                    List<Mitarbeiter> liste =
+                        treffer.get(new NamensSchluessel(mitarbeiter.nachname(), mitarbeiter.vorname()));
+                    if (liste != null) {
+                        liste.add(mitarbeiter);
+                    }
+                }
+            }
+        }
+
+        // Ergebnisse an alle Aufrufer mit demselben Namen verteilen
+        for (Map.Entry<NamensSchluessel, List<NamensAnfrage>> eintrag : namen.entrySet()) {
+            List<Mitarbeiter> ergebnis = List.copyOf(treffer.get(eintrag.getKey()));
+            for (NamensAnfrage anfrage : eintrag.getValue()) {
+                anfrage.ergebnis.complete(ergebnis);
+            }
+        }
+    }
+
+    private <T> void einzelAusfuehren(Connection verbindung, EinzelAnfrage<T> anfrage) throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(anfrage.sql)) {
+            for (int i = 0; i < anfrage.parameter.size(); i++) {
+                statement.setObject(i + 1, anfrage.parameter.get(i));
+            }
+            datenbankAbfragen.increment();
+
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                T ergebnis;
+                try {
+                    ergebnis = anfrage.leser.lesen(ergebnisSet);
+                } catch (RuntimeException e) {
+                    // Ein Fehler im Leser des Aufrufers betrifft nur dessen Anfrage
+                    anfrage.fehlschlagen(e);
+                    return;
+                }
+                anfrage.ergebnis.complete(ergebnis);
+            }
+        }
+    }
+
+    /**
+     * Prüft nach einem Fehler, ob die Verbindung noch nutzbar ist, und verwirft sie sonst.
+     */
+    private Connection pruefeVerbindung(Connection verbindung) {
+        try {
+            if (verbindung.isValid(2)) {
+                return verbindung;
+            }
+        } catch (SQLException e) {
+            // Verbindung gilt als defekt
+        }
+        pool.verwerfen(verbindung);
+        return null;
+    }
+
+    /** Nach einem Verbindungsfehler (SQLState-Klasse 08) ist keine weitere Anfrage auf der Verbindung möglich */
+    private static boolean istVerbindungsfehler(SQLException e) {
+        return e instanceof SQLTransientConnectionException
+            || e instanceof SQLNonTransientConnectionException
+            || e instanceof SQLRecoverableException
+            || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+    }
+
+    private static void fehlschlagen(List<? extends Anfrage> anfragen, Throwable fehler) {
+        for (Anfrage anfrage : anfragen) {
+            anfrage.fehlschlagen(fehler);
+        }
+    }
+
+    /** Gemeinsame Schnittstelle aller eingereihten Anfragen. */
+    private interface Anfrage {
+        void fehlschlagen(Throwable fehler);
+    }
+
+    /** Suche nach {@code (last_name, first_name)}, bündelbar. */
+    private static final class NamensAnfrage implements Anfrage {
+        final NamensSchluessel schluessel;
+        final CompletableFuture<List<Mitarbeiter>> ergebnis = new CompletableFuture<>();
+
+        NamensAnfrage(NamensSchluessel schluessel) {
+            this.schluessel = schluessel;
+        }
+
+        @Override
+        public void fehlschlagen(Throwable fehler) {
+            ergebnis.completeExceptionally(fehler);
+        }
+    }
+
+    /** Beliebige Abfrage, wird einzeln ausgeführt. */
+    private static final class EinzelAnfrage<T> implements Anfrage {
+        final String sql;
+        final List<?> parameter;
+        final ErgebnisLeser<T> leser;
+        final CompletableFuture<T> ergebnis = new CompletableFuture<>();
+
+        EinzelAnfrage(String sql, List<?> parameter, ErgebnisLeser<T> leser) {
+            this.sql = sql;
+            this.parameter = parameter;
+            this.leser = leser;
+        }
+
+        @Override
+        public void fehlschlagen(Throwable fehler) {
+            ergebnis.completeExceptionally(fehler);
+        }
+    }
+
+    /**
+     * Schlüssel einer Namenssuche. MySQL vergleicht die Namen nach
+     * {@code latin1_swedish_ci} ('José' trifft auch 'Jose' und 'JOSE '), daher wird
+     * der Schlüssel mit {@link Kollation} gebildet, damit jede zurückgelieferte
+     * Zeile derselben Anfrage zugeordnet wird, für die MySQL sie gefunden hat.
+     */
+    private static final class NamensSchluessel {
+        final String nachname;
+        final String vorname;
+        private final String normalisiert;
+
+        NamensSchluessel(String nachname, String vorname) {
+            this.nachname = nachname;
+            this.vorname = vorname;
+            this.normalisiert = Kollation.schluessel(String.valueOf(nachname))
+                + '\u0000' + Kollation.schluessel(String.valueOf(vorname));
+        }
+
+        @Override
+        public boolean equals(Object anderes) {
+            return anderes instanceof NamensSchluessel schluessel && normalisiert.equals(schluessel.normalisiert);
+        }
+
+        @Override
+        public int hashCode() {
+            return normalisiert.hashCode();
+        }
+    }
+
+    /**
+     * Demonstriert die Bündelung: viele gleichzeitige Namenssuchen werden mit
+     * wenigen Datenbankabfragen beantwortet.
+     *
+     * @param args Kommandozeilenargumente (werden nicht verwendet)
+     * @throws Exception wenn ein Fehler auftritt
+     */
+    public static void main(String[] args) throws Exception {
+        String[][] namen = {
+            {"John", "Doe"}, {"Mary", "Public"}, {"Susan", "Queue"}, {"David", "Williams"},
+            {"Lisa", "Johnson"}, {"Paul", "Smith"}, {"Eric", "Wright"}
+        };
+
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 4);
+             PipelineExecutor executor = new PipelineExecutor(pool, 4, 64)) {
+
+            List<CompletableFuture<List<Mitarbeiter>>> ergebnisse = new ArrayList<>();
+            for (int runde = 0; runde < 100; runde++) {
+                for (String[] name : namen) {
+                    ergebnisse.add(executor.mitarbeiterSuchen(name[0], name[1]));
+                }
+            }
+            CompletableFuture.allOf(ergebnisse.toArray(new CompletableFuture<?>[0])).join();
+
+            for (int i = 0; i < namen.length; i++) {
+                System.out.println(namen[i][0] + " " + namen[i][1] + ": " + ergebnisse.get(i).join());
+            }
+            System.out.println("\nNamenssuchen: " + executor.getNamensAnfragen()
+                             + ", Datenbankabfragen: " + executor.getDatenbankAbfragen());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.javadbconnectivity.pool;
+
+/**
+ * Bündelt die Verbindungsdaten zur MySQL-Datenbank.
+ *
+ * Die Demo-Klassen halten URL, Benutzer und Passwort jeweils als Konstanten
+ * und übergeben sie an {@link #standard(String, String, String)}. Die
+ * Bibliotheksklassen verwenden {@link #standard()}. In beiden Fällen haben die
+ * Systemeigenschaften ({@code -Ddb.url=...}, {@code -Ddb.user=...},
+ * {@code -Ddb.password=...}) Vorrang.
+ *
+ * @param url die JDBC-URL der Datenbank
+ * @param benutzer der Datenbank-Benutzername
+ * @param passwort das Datenbank-Passwort
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record DatenbankKonfiguration(String url, String benutzer, String passwort) {
+
+    /** Standard-URL, identisch mit den Demo-Klassen */
+    public static final String STANDARD_URL = "jdbc:mysql://localhost:3306/demo";
+    /** Standard-Benutzer, identisch mit dem DEFINER in sql/table-setup.sql */
+    public static final String STANDARD_BENUTZER = "student";
+    /** Standard-Passwort */
+    public static final String STANDARD_PASSWORT = "student";
+
+    /**
+     * Liefert die Konfiguration aus den Systemeigenschaften oder die Standardwerte.
+     *
+     * @return die aktuelle Datenbankkonfiguration
+     */
+    public static DatenbankKonfiguration standard() {
+        return standard(STANDARD_URL, STANDARD_BENUTZER, STANDARD_PASSWORT);
+    }
+
+    /**
+     * Liefert die Konfiguration aus den Systemeigenschaften oder die übergebenen
+     * Werte, z.B. die Konstanten einer Demo-Klasse.
+     *
+     * @param url die URL ohne {@code db.url}
+     * @param benutzer der Benutzer ohne {@code db.user}
+     * @param passwort das Passwort ohne {@code db.password}
+     * @return die aktuelle Datenbankkonfiguration
+     */
+    public static DatenbankKonfiguration standard(String url, String benutzer, String passwort) {
+        return new DatenbankKonfiguration(
+            System.getProperty("db.url", url),
+            System.getProperty("db.user", benutzer),
+            System.getProperty("db.password", passwort));
+    }
+
+    /**
+     * Liefert eine Kopie dieser Konfiguration mit einer anderen URL,
+     * z.B. für eine Replik oder einen weiteren Shard.
+     *
+     * @param andereUrl die neue JDBC-URL
+     * @return die geänderte Konfiguration
+     */
+    public DatenbankKonfiguration mitUrl(String andereUrl) {
+        return new DatenbankKonfiguration(andereUrl, benutzer, passwort);
+    }
+
+    /**
+     * Liefert eine Kopie dieser Konfiguration, deren URL um weitere
+     * Connector/J-Parameter ergänzt ist.
+     *
+     * @param parameter die Parameter, z.B. {@code "cachePrepStmts=true&useServerPrepStmts=true"}
+     * @return die geänderte Konfiguration
+     */
+    public DatenbankKonfiguration mitUrlParametern(String parameter) {
+        if (parameter == null || parameter.isEmpty()) {
+            return this;
+        }
+        return mitUrl(url + (url.indexOf('?') < 0 ? '?' : '&') + parameter);
+    }
+
+    /** Das Passwort wird bewusst nicht ausgegeben. */
+    @Override
+    public String toString() {
+        return "DatenbankKonfiguration[url=" + url + ", benutzer=" + benutzer + "]";
+    }
+}
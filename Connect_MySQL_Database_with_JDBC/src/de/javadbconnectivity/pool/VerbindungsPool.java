@@ -0,0 +1,274 @@
+package de.javadbconnectivity.pool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.javadbconnectivity.flugschreiber.AusleiheEreignis;
+import de.javadbconnectivity.flugschreiber.Flugschreiber;
+import de.javadbconnectivity.ueberwachung.RessourcenVerfolgung;
+import de.javadbconnectivity.ueberwachung.StatementBeobachter;
+import de.javadbconnectivity.ueberwachung.UeberwachteVerbindung;
+
+/**
+ * Ein einfacher Verbindungspool mit einer festen Obergrenze an Verbindungen.
+ *
+ * Statt für jede Abfrage eine neue Verbindung per {@link DriverManager} aufzubauen
+ * (wie in den Demo-Klassen), werden Verbindungen bei Bedarf bis zur Poolgröße
+ * geöffnet und nach der Rückgabe wiederverwendet.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Verbindungen verzögert bis zu einer festen Obergrenze öffnet
+ * - Ausleihen mit Zeitüberschreitung über eine {@link BlockingQueue} realisiert
+ * - Defekte Verbindungen verwirft, statt sie erneut auszugeben
+ * - Alle Anweisungen über {@link StatementBeobachter} überwacht
+ * - Haltedauern und Lecks über eine {@link RessourcenVerfolgung} findet
+ * - Ausleihen und alle Anweisungen als JFR-Ereignisse meldet (siehe {@link Flugschreiber})
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class VerbindungsPool implements AutoCloseable {
+
+    /** Standard-Wartezeit beim Ausleihen in Millisekunden */
+    public static final long STANDARD_WARTEZEIT_MS = 30_000;
+
+    private final DatenbankKonfiguration konfiguration;
+    private final int groesse;
+    private final List<StatementBeobachter> beobachter;
+    private final RessourcenVerfolgung verfolgung;
+    private final BlockingQueue<Connection> freieVerbindungen;
+    private final Set<Connection> alleVerbindungen = ConcurrentHashMap.newKeySet();
+    /** Laufende {@link AusleiheEreignis}se; nur während einer JFR-Aufzeichnung gefüllt */
+    private final Map<Connection, AusleiheEreignis> ausleihEreignisse = new ConcurrentHashMap<>();
+    private final AtomicInteger geoeffnet = new AtomicInteger();
+    private volatile boolean geschlossen;
+
+    /**
+     * Erstellt einen Pool, der höchstens {@code groesse} Verbindungen öffnet.
+     *
+     * @param konfiguration die Verbindungsdaten
+     * @param groesse die maximale Anzahl gleichzeitig offener Verbindungen
+     */
+    public VerbindungsPool(DatenbankKonfiguration konfiguration, int groesse) {
+        this(konfiguration, groesse, List.of());
+    }
+
+    /**
+     * Erstellt einen Pool, dessen Verbindungen jede Anweisung an die Beobachter melden.
+     *
+     * @param konfiguration die Verbindungsdaten
+     * @param groesse die maximale Anzahl gleichzeitig offener Verbindungen
+     * @param beobachter die zu benachrichtigenden Beobachter (leer für keine Überwachung)
+     */
+    public VerbindungsPool(DatenbankKonfiguration konfiguration, int groesse,
+                           List<StatementBeobachter> beobachter) {
+        this(konfiguration, groesse, beobachter, null);
+    }
+
+    /**
+     * Erstellt einen Pool, dessen Verbindungen zusätzlich verfolgt werden: jede
+     * Ausleihe, jedes Statement und jedes ResultSet mit Haltedauer und Herkunft.
+     *
+     * @param konfiguration die Verbindungsdaten
+     * @param groesse die maximale Anzahl gleichzeitig offener Verbindungen
+     * @param beobachter die zu benachrichtigenden Beobachter (leer für keine Überwachung)
+     * @param verfolgung die Verfolgung oder null
+     */
+    public VerbindungsPool(DatenbankKonfiguration konfiguration, int groesse,
+                           List<StatementBeobachter> beobachter, RessourcenVerfolgung verfolgung) {
+        if (groesse < 1) {
+            throw new IllegalArgumentException("Poolgröße muss mindestens 1 sein: " + groesse);
+        }
+        this.konfiguration = konfiguration;
+        this.groesse = groesse;
+        this.beobachter = List.copyOf(beobachter);
+        this.verfolgung = verfolgung;
+        this.freieVerbindungen = new ArrayBlockingQueue<>(groesse);
+    }
+
+    /**
+     * Leiht eine Verbindung mit der Standard-Wartezeit aus.
+     *
+     * @return eine offene Verbindung
+     * @throws SQLException wenn keine Verbindung verfügbar ist oder der Aufbau fehlschlägt
+     */
+    public Connection ausleihen() throws SQLException {
+        return ausleihen(STANDARD_WARTEZEIT_MS);
+    }
+
+    /**
+     * Leiht eine Verbindung aus. Ist keine frei und die Obergrenze noch nicht erreicht,
+     * wird eine neue geöffnet, andernfalls wird bis zu {@code wartezeitMs} gewartet.
+     *
+     * @param wartezeitMs maximale Wartezeit in Millisekunden
+     * @return eine offene Verbindung
+     * @throws SQLException wenn keine Verbindung verfügbar ist oder der Aufbau fehlschlägt
+     */
+    public Connection ausleihen(long wartezeitMs) throws SQLException {
+        AusleiheEreignis ereignis = AusleiheEreignis.beginnen();
+        Connection verbindung = beschaffen(wartezeitMs);
+        if (ereignis != null) {
+            ereignis.ausgeliehen(groesse, geoeffnet.get(), freieVerbindungen.size());
+            ausleihEreignisse.put(verbindung, ereignis);
+        }
+        if (verfolgung != null) {
+            verfolgung.ausgeliehen(verbindung);
+        }
+        return verbindung;
+    }
+
+    private Connection beschaffen(long wartezeitMs) throws SQLException {
+        pruefeOffen();
+
+        Connection verbindung = freieVerbindungen.poll();
+        if (verbindung != null) {
+            return verbindung;
+        }
+
+        // Neue Verbindung nur öffnen, solange die Obergrenze nicht erreicht ist
+        int anzahl;
+        while ((anzahl = geoeffnet.get()) < groesse) {
+            if (geoeffnet.compareAndSet(anzahl, anzahl + 1)) {
+                return oeffnen();
+            }
+        }
+
+        try {
+            verbindung = freieVerbindungen.poll(wartezeitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf Verbindung unterbrochen", e);
+        }
+        if (verbindung == null) {
+            throw new SQLTimeoutException(
+                "Keine freie Verbindung nach " + wartezeitMs + " ms (Poolgröße " + groesse + ")");
+        }
+        return verbindung;
+    }
+
+    /**
+     * Gibt eine ausgeliehene Verbindung an den Pool zurück. Offene Transaktionen
+     * werden zurückgerollt und Auto-Commit wieder eingeschaltet.
+     *
+     * @param verbindung die zurückzugebende Verbindung (kann null sein)
+     */
+    public void zurueckgeben(Connection verbindung) {
+        if (verbindung == null) {
+            return;
+        }
+        if (verfolgung != null) {
+            verfolgung.zurueckgegeben(verbindung);
+        }
+        try {
+            if (geschlossen || verbindung.isClosed()) {
+                verwerfen(verbindung);
+                return;
+            }
+            if (!verbindung.getAutoCommit()) {
+                verbindung.rollback();
+                verbindung.setAutoCommit(true);
+            }
+            if (!freieVerbindungen.offer(verbindung)) {
+                verwerfen(verbindung);
+            }
+        } catch (SQLException e) {
+            verwerfen(verbindung);
+        } finally {
+            AusleiheEreignis ereignis = ausleihEreignisse.remove(verbindung);
+            if (ereignis != null) {
+                ereignis.zurueckgegeben(!alleVerbindungen.contains(verbindung));
+            }
+        }
+    }
+
+    /**
+     * Schließt eine defekte Verbindung und gibt ihren Platz im Pool frei.
+     *
+     * @param verbindung die zu verwerfende Verbindung (kann null sein)
+     */
+    public void verwerfen(Connection verbindung) {
+        if (verbindung == null || !alleVerbindungen.remove(verbindung)) {
+            return;
+        }
+        geoeffnet.decrementAndGet();
+        try {
+            verbindung.close();
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Schließen einer verworfenen Verbindung:");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return die maximale Anzahl an Verbindungen
+     */
+    public int getGroesse() {
+        return groesse;
+    }
+
+    /**
+     * @return die Anzahl aktuell geöffneter Verbindungen
+     */
+    public int getGeoeffnet() {
+        return geoeffnet.get();
+    }
+
+    /**
+     * @return die Anzahl aktuell freier Verbindungen
+     */
+    public int getFrei() {
+        return freieVerbindungen.size();
+    }
+
+    /**
+     * @return die Verbindungsdaten dieses Pools
+     */
+    public DatenbankKonfiguration getKonfiguration() {
+        return konfiguration;
+    }
+
+    /**
+     * Schließt alle Verbindungen. Ausgeliehene Verbindungen werden bei ihrer
+     * Rückgabe geschlossen.
+     */
+    @Override
+    public void close() {
+        geschlossen = true;
+        Connection verbindung;
+        while ((verbindung = freieVerbindungen.poll()) != null) {
+            verwerfen(verbindung);
+        }
+    }
+
+    private Connection oeffnen() throws SQLException {
+        try {
+            Connection verbindung = Flugschreiber.umhuellen(DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort()));
+            verbindung = UeberwachteVerbindung.umhuellen(verbindung, beobachter);
+            if (verfolgung != null) {
+                verbindung = verfolgung.umhuellen(verbindung, true);
+            }
+            alleVerbindungen.add(verbindung);
+            return verbindung;
+        } catch (SQLException | RuntimeException e) {
+            geoeffnet.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void pruefeOffen() throws SQLException {
+        if (geschlossen) {
+            throw new SQLException("Verbindungspool ist geschlossen");
+        }
+    }
+}
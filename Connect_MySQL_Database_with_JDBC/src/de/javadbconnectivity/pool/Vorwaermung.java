@@ -0,0 +1,212 @@
+package de.javadbconnectivity.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+import de.javadbconnectivity.ueberwachung.ErsteAbfrageMessung;
+
+/**
+ * Wärmt einen {@link VerbindungsPool} vor der ersten echten Anfrage auf.
+ *
+ * Ohne Aufwärmen bezahlt die erste Anfrage eines Programms den Verbindungsaufbau
+ * (TCP, TLS, Authentifizierung), das serverseitige Vorbereiten der Anweisung und
+ * das Laden der Treiberklassen. Diese Klasse verlagert diese Kosten in die
+ * Startphase:
+ * - die Mindestanzahl an Verbindungen wird parallel auf virtuellen Threads geöffnet
+ * - jede Verbindung wird mit {@link Connection#isValid(int)} geprüft
+ * - die bekannten {@link #HEISSE_ANWEISUNGEN} werden auf jeder Verbindung vorbereitet
+ *
+ * Damit die vorbereiteten Anweisungen erhalten bleiben, muss die URL die
+ * {@link #CACHE_PARAMETER} enthalten; Connector/J legt geschlossene
+ * {@link PreparedStatement}s und die Metadaten von Prozeduraufrufen dann im
+ * Cache der Verbindung ab, statt sie zu verwerfen. Mit {@code useServerPrepStmts=true}
+ * prüft der Server außerdem jede Anweisung (Syntax, Tabellen, Prozeduren), sodass
+ * ein Fehler bereits beim Start statt bei der ersten Anfrage auffällt.
+ *
+ * Für einen zusätzlich schnelleren JVM-Start eignet sich Class Data Sharing:
+ * einmal mit {@code -XX:ArchiveClassesAtExit=vorwaermung.jsa} starten und danach
+ * mit {@code -XX:SharedArchiveFile=vorwaermung.jsa}. Weil das Aufwärmen alle
+ * benötigten Treiberklassen lädt, landen sie dabei im Archiv.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class Vorwaermung {
+
+    /** Connector/J-Parameter, damit vorbereitete Anweisungen pro Verbindung erhalten bleiben */
+    public static final String CACHE_PARAMETER =
+        "useServerPrepStmts=true&cachePrepStmts=true&cacheCallableStmts=true&prepStmtCacheSize=64";
+
+    /** Die Suche aus {@code Driver} */
+    public static final String GEHALTSSUCHE =
+        AbfrageBauer.fuer(Anzeigepfad.GEHALTSLISTE).wo("salary > ? AND department = ?").bauen();
+    /** Die Namenssuche aus {@code JdbcUpdateDemo} und {@code JdbcDeleteDemo} */
+    public static final String NAMENSSUCHE =
+        "SELECT last_name, first_name, email FROM employees WHERE last_name=? AND first_name=?";
+
+    /**
+     * Die Anweisungen der Demo-Klassen, wortgleich übernommen, da der
+     * Statement-Cache von Connector/J den SQL-Text als Schlüssel verwendet.
+     */
+    public static final List<String> HEISSE_ANWEISUNGEN = List.of(
+        GEHALTSSUCHE,
+        NAMENSSUCHE,
+        "{call get_count_for_department(?, ?)}",
+        "{call get_employees_for_department(?)}",
+        "{call greet_the_department(?)}",
+        "{call increase_salaries_for_department(?, ?)}");
+
+    /** Wartezeit für {@link Connection#isValid(int)} in Sekunden */
+    private static final int PRUEF_ZEIT_S = 5;
+
+    /**
+     * Ergebnis eines Aufwärmvorgangs.
+     *
+     * @param verbindungen die Anzahl geprüfter und vorbereiteter Verbindungen
+     * @param anweisungen die Anzahl vorbereiteter Anweisungen pro Verbindung
+     * @param dauerNs die Gesamtdauer in Nanosekunden
+     */
+    public record Ergebnis(int verbindungen, int anweisungen, long dauerNs) {
+    }
+
+    private Vorwaermung() {
+    }
+
+    /**
+     * Öffnet bis zu {@code mindestAnzahl} Verbindungen, prüft sie und bereitet
+     * auf jeder die angegebenen Anweisungen vor. Schlägt eine Verbindung oder
+     * Anweisung fehl, werden alle Verbindungen zurückgegeben und der erste
+     * Fehler geworfen.
+     *
+     * @param pool der aufzuwärmende Pool
+     * @param mindestAnzahl die Anzahl zu öffnender Verbindungen (höchstens die Poolgröße)
+     * @param anweisungen die vorzubereitenden Anweisungen; {@code {call ...}} wird
+     *                    als Prozeduraufruf vorbereitet
+     * @param metriken das Register für {@code start.vorwaermen*}
+     * @return das Ergebnis des Aufwärmens
+     * @throws SQLException wenn eine Verbindung oder Anweisung fehlschlägt
+     */
+    public static Ergebnis vorwaermen(VerbindungsPool pool, int mindestAnzahl,
+                                      Collection<String> anweisungen, Metriken metriken)
+            throws SQLException {
+        long start = System.nanoTime();
+        int anzahl = Math.min(mindestAnzahl, pool.getGroesse());
+        List<String> liste = List.copyOf(anweisungen);
+
+        // Jede Aufgabe behält ihre Verbindung bis zum Ende, damit der Pool
+        // tatsächlich 'anzahl' verschiedene Verbindungen öffnet
+        List<Future<Connection>> aufgaben = new ArrayList<>(anzahl);
+        try (ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < anzahl; i++) {
+                aufgaben.add(ausfuehrer.submit(() -> vorbereiten(pool, liste)));
+            }
+        }
+
+        SQLException fehler = null;
+        for (Future<Connection> aufgabe : aufgaben) {
+            try {
+                pool.zurueckgeben(aufgabe.get());
+            } catch (ExecutionException e) {
+                if (fehler == null) {
+                    fehler = e.getCause() instanceof SQLException sqlFehler
+                        ? sqlFehler
+                        : new SQLException("Aufwärmen fehlgeschlagen", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Aufwärmen unterbrochen", e);
+            }
+        }
+        if (fehler != null) {
+            metriken.zaehler("start.vorwaermenFehler").increment();
+            throw fehler;
+        }
+
+        long dauerNs = System.nanoTime() - start;
+        metriken.messwert("start.vorwaermenMs").set(dauerNs / 1_000_000);
+        metriken.messwert("start.vorgewaermteVerbindungen").set(anzahl);
+        metriken.messwert("start.vorbereiteteAnweisungen").set((long) anzahl * liste.size());
+        return new Ergebnis(anzahl, liste.size(), dauerNs);
+    }
+
+    private static Connection vorbereiten(VerbindungsPool pool, List<String> anweisungen)
+            throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            if (!verbindung.isValid(PRUEF_ZEIT_S)) {
+                throw new SQLException("Verbindung antwortet nicht: " + pool.getKonfiguration());
+            }
+            for (String sql : anweisungen) {
+                // Schließen legt die Anweisung in den Cache der Verbindung
+                try (PreparedStatement statement = sql.startsWith("{")
+                        ? verbindung.prepareCall(sql)
+                        : verbindung.prepareStatement(sql)) {
+                    // Lädt die Parameter-Metadaten; auch clientseitig vorbereitete
+                    // Anweisungen werden dabei vom Server geprüft
+                    statement.getParameterMetaData();
+                }
+            }
+            return verbindung;
+        } catch (SQLException | RuntimeException e) {
+            pool.verwerfen(verbindung);
+            throw e;
+        }
+    }
+
+    /**
+     * Vergleicht den Start mit und ohne Aufwärmen. Aufruf mit {@code kalt} oder
+     * {@code warm} (Standard); gemessen wird die Suche aus {@code Driver} als erste
+     * echte Anfrage.
+     *
+     * @param args optional {@code kalt} oder {@code warm}
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        boolean warm = args.length == 0 || !"kalt".equalsIgnoreCase(args[0]);
+        Metriken metriken = new Metriken();
+        ErsteAbfrageMessung messung = new ErsteAbfrageMessung(metriken);
+        DatenbankKonfiguration konfiguration =
+            DatenbankKonfiguration.standard().mitUrlParametern(CACHE_PARAMETER);
+
+        try (VerbindungsPool pool = new VerbindungsPool(konfiguration, 4, List.of(messung))) {
+            if (warm) {
+                Ergebnis ergebnis = vorwaermen(pool, pool.getGroesse(), HEISSE_ANWEISUNGEN, metriken);
+                System.out.printf("Aufgewärmt: %d Verbindungen, je %d Anweisungen in %d ms%n",
+                    ergebnis.verbindungen(), ergebnis.anweisungen(), ergebnis.dauerNs() / 1_000_000);
+            }
+
+            // Erste echte Anfrage inklusive Ausleihen messen
+            long start = System.nanoTime();
+            int zeilen = 0;
+            Connection verbindung = pool.ausleihen();
+            try (PreparedStatement statement = verbindung.prepareStatement(GEHALTSSUCHE)) {
+                statement.setDouble(1, 80000);
+                statement.setString(2, "Legal");
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    while (ergebnisSet.next()) {
+                        zeilen++;
+                    }
+                }
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+            metriken.messwert("start.ersteAnfrageGesamtUs").set((System.nanoTime() - start) / 1_000);
+            System.out.printf("Modus %s: %d Zeilen, erste Anfrage %d µs, Zeit bis zur ersten Abfrage %d ms%n",
+                warm ? "warm" : "kalt", zeilen, messung.getErsteAbfrageUs(),
+                messung.getZeitBisErsteAbfrageMs());
+        }
+        metriken.ausgeben(System.out);
+    }
+}
@@ -0,0 +1,103 @@
+package de.javadbconnectivity.projektion;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Erzeugt {@code SELECT}-Anweisungen auf {@code employees}, die nur die Spalten
+ * eines {@link Anzeigepfad}s übertragen statt {@code SELECT *}.
+ *
+ * Verwendung:
+ * {@code AbfrageBauer.fuer(Anzeigepfad.GEHALTSLISTE).wo("salary > ? AND department = ?").bauen()}
+ *
+ * Gleiche Eingaben ergeben stets denselben SQL-Text, sodass Statement-Caches
+ * und {@link de.javadbconnectivity.cache.SqlFingerabdruck} greifen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class AbfrageBauer {
+
+    private final Set<Spalte> spalten = new LinkedHashSet<>();
+    private final List<String> bedingungen = new ArrayList<>();
+    private Spalte sortierung;
+
+    private AbfrageBauer() {
+    }
+
+    /**
+     * @param pfad der Anzeigepfad
+     * @return ein Bauer mit den Spalten des Anzeigepfads
+     */
+    public static AbfrageBauer fuer(Anzeigepfad pfad) {
+        return new AbfrageBauer().mit(pfad.getSpalten().toArray(Spalte[]::new));
+    }
+
+    /**
+     * @param spalten die zu lesenden Spalten
+     * @return ein Bauer mit genau diesen Spalten
+     */
+    public static AbfrageBauer spalten(Spalte... spalten) {
+        return new AbfrageBauer().mit(spalten);
+    }
+
+    /**
+     * Ergänzt weitere Spalten; bereits enthaltene werden ignoriert.
+     *
+     * @param weitere die zusätzlichen Spalten
+     * @return dieser Bauer
+     */
+    public AbfrageBauer mit(Spalte... weitere) {
+        spalten.addAll(List.of(weitere));
+        return this;
+    }
+
+    /**
+     * Ergänzt eine Bedingung; mehrere Bedingungen werden mit {@code AND} verknüpft.
+     *
+     * @param bedingung die Bedingung mit Platzhaltern, z.B. {@code "department = ?"}
+     * @return dieser Bauer
+     */
+    public AbfrageBauer wo(String bedingung) {
+        bedingungen.add(bedingung);
+        return this;
+    }
+
+    /**
+     * @param spalte die Spalte für {@code ORDER BY}
+     * @return dieser Bauer
+     */
+    public AbfrageBauer sortiertNach(Spalte spalte) {
+        this.sortierung = spalte;
+        return this;
+    }
+
+    /**
+     * @return die SQL-Anweisung
+     * @throws IllegalStateException wenn keine Spalte gewählt wurde
+     */
+    public String bauen() {
+        if (spalten.isEmpty()) {
+            throw new IllegalStateException("Keine Spalten gewählt");
+        }
+        StringBuilder sql = new StringBuilder("SELECT ");
+        boolean erste = true;
+        for (Spalte spalte : spalten) {
+            if (!erste) {
+                sql.append(", ");
+            }
+            sql.append(spalte.getName());
+            erste = false;
+        }
+        sql.append(" FROM employees");
+        for (int i = 0; i < bedingungen.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(bedingungen.get(i));
+        }
+        if (sortierung != null) {
+            sql.append(" ORDER BY ").append(sortierung.getName());
+        }
+        return sql.toString();
+    }
+}
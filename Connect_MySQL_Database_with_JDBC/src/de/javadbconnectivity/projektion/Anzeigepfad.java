@@ -0,0 +1,37 @@
+package de.javadbconnectivity.projektion;
+
+import java.util.List;
+
+/**
+ * Die Ausgaben der Demo-Klassen mit den Spalten, die sie tatsächlich lesen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum Anzeigepfad {
+
+    /** Namensliste in {@code JdbcTest}, {@code JdbcDemo} und {@code JdbcInsertDemo} */
+    NAMENSLISTE(Spalte.NACHNAME, Spalte.VORNAME),
+
+    /** {@code anzeigen} in beiden {@code Driver}-Klassen */
+    GEHALTSLISTE(Spalte.NACHNAME, Spalte.VORNAME, Spalte.GEHALT, Spalte.ABTEILUNG),
+
+    /** {@code gehaelterAnzeigen} in {@code IncreaseSalariesForDepartment} */
+    ABTEILUNGSLISTE(Spalte.NACHNAME, Spalte.VORNAME, Spalte.ABTEILUNG, Spalte.GEHALT),
+
+    /** {@code mitarbeiterAnzeigen} in {@code JdbcUpdateDemo} und {@code JdbcDeleteDemo} */
+    KONTAKT(Spalte.NACHNAME, Spalte.VORNAME, Spalte.EMAIL);
+
+    private final List<Spalte> spalten;
+
+    Anzeigepfad(Spalte... spalten) {
+        this.spalten = List.of(spalten);
+    }
+
+    /**
+     * @return die gelesenen Spalten in Ausgabereihenfolge
+     */
+    public List<Spalte> getSpalten() {
+        return spalten;
+    }
+}
@@ -0,0 +1,36 @@
+package de.javadbconnectivity.projektion;
+
+/**
+ * Die Spalten der Tabelle {@code employees}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum Spalte {
+
+    /** Primärschlüssel */
+    ID("id"),
+    /** Nachname */
+    NACHNAME("last_name"),
+    /** Vorname */
+    VORNAME("first_name"),
+    /** E-Mail-Adresse */
+    EMAIL("email"),
+    /** Abteilung */
+    ABTEILUNG("department"),
+    /** Gehalt */
+    GEHALT("salary");
+
+    private final String name;
+
+    Spalte(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return der Spaltenname in der Datenbank
+     */
+    public String getName() {
+        return name;
+    }
+}
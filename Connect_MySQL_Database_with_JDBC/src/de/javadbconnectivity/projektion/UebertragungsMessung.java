@@ -0,0 +1,89 @@
+package de.javadbconnectivity.projektion;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
+/**
+ * Misst die übertragenen Bytes pro Abfrage vor und nach der Projektion sowie
+ * mit und ohne Protokollkompression.
+ *
+ * Grundlage ist die Sitzungsvariable {@code Bytes_sent} des Servers, also die
+ * Bytes, die der Server für diese Verbindung tatsächlich auf den Socket
+ * geschrieben hat. Der Anteil der Messabfrage selbst wird herausgerechnet.
+ *
+ * Aufruf: {@code UebertragungsMessung [wiederholungen=200]}. Die Demo-Tabelle ist
+ * klein; aussagekräftige Werte liefert eine mit synthetischen Daten gefüllte Tabelle.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class UebertragungsMessung {
+
+    private static final String BYTES_GESENDET = "SHOW SESSION STATUS LIKE 'Bytes_sent'";
+
+    private UebertragungsMessung() {
+    }
+
+    /**
+     * @param args optional {@code wiederholungen=}
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws SQLException {
+        int wiederholungen = args.length > 0 && args[0].startsWith("wiederholungen=")
+            ? Integer.parseInt(args[0].substring("wiederholungen=".length())) : 200;
+        DatenbankKonfiguration basis = DatenbankKonfiguration.standard();
+        List<String> abfragen = List.of(
+            "SELECT * FROM employees",
+            AbfrageBauer.fuer(Anzeigepfad.NAMENSLISTE).bauen());
+
+        System.out.printf("%-10s %-45s %14s %12s%n", "Optionen", "Abfrage", "Bytes/Abfrage", "µs/Abfrage");
+        for (UebertragungsOptionen optionen
+                : List.of(UebertragungsOptionen.standard(), UebertragungsOptionen.breiteErgebnisse())) {
+            DatenbankKonfiguration konfiguration = optionen.anwenden(basis);
+            try (Connection verbindung = DriverManager.getConnection(
+                     konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
+                 Statement statement = verbindung.createStatement()) {
+
+                // Zwei Messabfragen direkt hintereinander ergeben deren eigenen Anteil
+                long eigenanteil = -bytesGesendet(statement) + bytesGesendet(statement);
+
+                for (String sql : abfragen) {
+                    // Einmal vorab ausführen, damit Metadaten-Caches nicht mitgemessen werden
+                    zeilenLesen(statement, sql);
+
+                    long vorher = bytesGesendet(statement);
+                    long start = System.nanoTime();
+                    for (int i = 0; i < wiederholungen; i++) {
+                        zeilenLesen(statement, sql);
+                    }
+                    long dauerNs = System.nanoTime() - start;
+                    long bytes = bytesGesendet(statement) - vorher - eigenanteil;
+
+                    System.out.printf("%-10s %-45s %14d %12.1f%n",
+                        optionen.komprimierung() ? "komprim." : "standard", sql,
+                        bytes / wiederholungen, dauerNs / 1e3 / wiederholungen);
+                }
+            }
+        }
+    }
+
+    private static long bytesGesendet(Statement statement) throws SQLException {
+        try (ResultSet ergebnisSet = statement.executeQuery(BYTES_GESENDET)) {
+            return ergebnisSet.next() ? ergebnisSet.getLong(2) : 0;
+        }
+    }
+
+    private static void zeilenLesen(Statement statement, String sql) throws SQLException {
+        try (ResultSet ergebnisSet = statement.executeQuery(sql)) {
+            while (ergebnisSet.next()) {
+                ergebnisSet.getString(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.javadbconnectivity.projektion;
+
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
+/**
+ * Protokolloptionen von Connector/J für große oder breite Ergebnisse.
+ *
+ * Die Kompression ({@code useCompression}) spart Bytes auf der Leitung, kostet
+ * aber auf beiden Seiten CPU; sie lohnt sich bei langsamen Netzen und großen,
+ * textlastigen Ergebnissen. Größere Socketpuffer ({@code tcpRcvBuf},
+ * {@code tcpSndBuf}) lassen den Server mehr Daten ohne Warten auf den Client
+ * senden. Welche Variante gewinnt, zeigt {@link UebertragungsMessung}.
+ *
+ * @param komprimierung ob das MySQL-Protokoll komprimiert wird
+ * @param empfangsPufferBytes Größe des Empfangspuffers (0 = Vorgabe des Betriebssystems)
+ * @param sendePufferBytes Größe des Sendepuffers (0 = Vorgabe des Betriebssystems)
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record UebertragungsOptionen(boolean komprimierung, int empfangsPufferBytes, int sendePufferBytes) {
+
+    /**
+     * @return die Vorgaben des Treibers: unkomprimiert, Standardpuffer
+     */
+    public static UebertragungsOptionen standard() {
+        return new UebertragungsOptionen(false, 0, 0);
+    }
+
+    /**
+     * @return komprimiert mit 1 MiB Empfangs- und 64 KiB Sendepuffer
+     */
+    public static UebertragungsOptionen breiteErgebnisse() {
+        return new UebertragungsOptionen(true, 1024 * 1024, 64 * 1024);
+    }
+
+    /**
+     * @return die Connector/J-Parameter dieser Optionen
+     */
+    public String urlParameter() {
+        StringBuilder parameter = new StringBuilder("useCompression=").append(komprimierung);
+        if (empfangsPufferBytes > 0) {
+            parameter.append("&tcpRcvBuf=").append(empfangsPufferBytes);
+        }
+        if (sendePufferBytes > 0) {
+            parameter.append("&tcpSndBuf=").append(sendePufferBytes);
+        }
+        return parameter.toString();
+    }
+
+    /**
+     * @param konfiguration die Ausgangskonfiguration
+     * @return die Konfiguration mit diesen Optionen in der URL
+     */
+    public DatenbankKonfiguration anwenden(DatenbankKonfiguration konfiguration) {
+        return konfiguration.mitUrlParametern(urlParameter());
+    }
+}
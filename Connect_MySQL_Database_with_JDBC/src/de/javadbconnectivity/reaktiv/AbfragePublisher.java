@@ -0,0 +1,238 @@
+package de.javadbconnectivity.reaktiv;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Stellt eine Abfrage als {@link Flow.Publisher} bereit, statt das Ergebnis in
+ * einer blockierenden {@code while (ergebnisSet.next())}-Schleife zu lesen.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Zeilen nur so schnell liest, wie der Abonnent sie mit {@code request(n)} anfordert
+ * - das Lesen bei fehlender Nachfrage anhält, statt das Ergebnis zu puffern
+ * - jedes Abonnement auf einem eigenen virtuellen Thread ausführt
+ * - die Verbindung erst bei der ersten Nachfrage ausleiht und am Ende zurückgibt
+ *
+ * Der Publisher ist kalt: jedes Abonnement führt die Abfrage neu aus. Alle Signale
+ * an einen Abonnenten kommen vom selben virtuellen Thread und damit nacheinander.
+ *
+ * Hinweis: Connector/J holt Zeilen nur mit {@code useCursorFetch=true} in der
+ * JDBC-URL tatsächlich in Stapeln der Fetch-Größe vom Server. Ohne diese Option,
+ * und bei Ergebnissen gespeicherter Prozeduren generell, liest der Treiber das
+ * Ergebnis vollständig; angehalten werden dann nur Abbildung und Auslieferung.
+ *
+ * @param <T> der Typ der Elemente
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class AbfragePublisher<T> implements Flow.Publisher<T> {
+
+    /** Vorgabe für Fetch-Größe und maximale Zeilen pro Auslieferungsrunde */
+    public static final int STANDARD_STAPEL = 100;
+
+    private static final AtomicInteger ZAEHLER = new AtomicInteger();
+
+    private final VerbindungsPool pool;
+    private final String sql;
+    private final List<?> parameter;
+    private final ZeilenAbbildung<T> abbildung;
+    private final int stapelGroesse;
+
+    /**
+     * @param pool der Pool, aus dem jedes Abonnement eine Verbindung leiht
+     * @param sql die Abfrage; {@code {call ...}} wird als gespeicherte Prozedur ausgeführt
+     * @param parameter die Parameter in Platzhalter-Reihenfolge
+     * @param abbildung bildet eine Zeile auf ein Element ab
+     * @param stapelGroesse Fetch-Größe und maximale Zeilen pro Auslieferungsrunde
+     */
+    public AbfragePublisher(VerbindungsPool pool, String sql, List<?> parameter,
+                            ZeilenAbbildung<T> abbildung, int stapelGroesse) {
+        if (stapelGroesse < 1) {
+            throw new IllegalArgumentException("Stapelgröße muss mindestens 1 sein: " + stapelGroesse);
+        }
+        this.pool = pool;
+        this.sql = sql;
+        this.parameter = List.copyOf(parameter);
+        this.abbildung = abbildung;
+        this.stapelGroesse = stapelGroesse;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> abonnent) {
+        if (abonnent == null) {
+            throw new NullPointerException("Abonnent darf nicht null sein");
+        }
+        Thread.ofVirtual()
+            .name("abfrage-publisher-" + ZAEHLER.incrementAndGet())
+            .start(new Abonnement(abonnent));
+    }
+
+    /**
+     * Ein Abonnement: führt die Abfrage aus und liefert Zeilen gemäß der Nachfrage.
+     */
+    private final class Abonnement implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super T> abonnent;
+        private final ReentrantLock sperre = new ReentrantLock();
+        private final Condition nachfrageGeaendert = sperre.newCondition();
+        private long nachfrage;
+        private volatile boolean abgebrochen;
+        private volatile IllegalArgumentException ungueltigeAnforderung;
+
+        Abonnement(Flow.Subscriber<? super T> abonnent) {
+            this.abonnent = abonnent;
+        }
+
+        @Override
+        public void request(long n) {
+            sperre.lock();
+            try {
+                if (n <= 0) {
+                    // Regel 3.9 der Reactive-Streams-Spezifikation
+                    ungueltigeAnforderung = new IllegalArgumentException(
+                        "request(n) verlangt n > 0, war " + n);
+                } else {
+                    nachfrage = nachfrage + n < 0 ? Long.MAX_VALUE : nachfrage + n;
+                }
+                nachfrageGeaendert.signalAll();
+            } finally {
+                sperre.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            sperre.lock();
+            try {
+                abgebrochen = true;
+                nachfrageGeaendert.signalAll();
+            } finally {
+                sperre.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            abonnent.onSubscribe(this);
+
+            Connection verbindung = null;
+            boolean defekt = false;
+            try {
+                // Ohne Nachfrage keine Verbindung belegen
+                if (warteAufNachfrage() == 0) {
+                    return;
+                }
+                verbindung = pool.ausleihen();
+                try (PreparedStatement statement = vorbereiten(verbindung)) {
+                    statement.setFetchSize(stapelGroesse);
+                    for (int i = 0; i < parameter.size(); i++) {
+                        statement.setObject(i + 1, parameter.get(i));
+                    }
+                    try (ResultSet ergebnisSet = statement.executeQuery()) {
+                        if (ausliefern(ergebnisSet)) {
+                            abonnent.onComplete();
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                defekt = verbindung != null && istVerbindungsfehler(e);
+                fehlerMelden(e);
+            } catch (RuntimeException e) {
+                // Ungültige Anforderung oder Fehler der Abbildung; Regel 1.4 verlangt ein onError
+                fehlerMelden(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fehlerMelden(new SQLException("Abonnement wurde unterbrochen", e));
+            } finally {
+                if (defekt) {
+                    pool.verwerfen(verbindung);
+                } else {
+                    pool.zurueckgeben(verbindung);
+                }
+            }
+        }
+
+        /**
+         * Liefert Zeilen in Runden von höchstens {@code stapelGroesse} Zeilen,
+         * solange Nachfrage besteht.
+         *
+         * @return true, wenn das Ergebnis vollständig ausgeliefert wurde
+         */
+        private boolean ausliefern(ResultSet ergebnisSet) throws SQLException, InterruptedException {
+            while (true) {
+                long zugeteilt = Math.min(warteAufNachfrage(), stapelGroesse);
+                if (zugeteilt == 0) {
+                    return false;
+                }
+                long geliefert = 0;
+                while (geliefert < zugeteilt) {
+                    if (abgebrochen) {
+                        return false;
+                    }
+                    if (ungueltigeAnforderung != null) {
+                        throw ungueltigeAnforderung;
+                    }
+                    if (!ergebnisSet.next()) {
+                        return true;
+                    }
+                    T element = abbildung.abbilden(ergebnisSet);
+                    geliefert++;
+                    abonnent.onNext(element);
+                }
+                sperre.lock();
+                try {
+                    nachfrage -= geliefert;
+                } finally {
+                    sperre.unlock();
+                }
+            }
+        }
+
+        /**
+         * Blockiert den virtuellen Thread, bis Nachfrage besteht. Währenddessen
+         * ruft der Publisher {@code next()} nicht auf und holt keine weiteren Zeilen.
+         *
+         * @return die offene Nachfrage oder 0 nach einem Abbruch
+         * @throws IllegalArgumentException nach einer ungültigen Anforderung
+         */
+        private long warteAufNachfrage() throws InterruptedException {
+            sperre.lock();
+            try {
+                while (nachfrage == 0 && !abgebrochen && ungueltigeAnforderung == null) {
+                    nachfrageGeaendert.await();
+                }
+                if (ungueltigeAnforderung != null) {
+                    throw ungueltigeAnforderung;
+                }
+                return abgebrochen ? 0 : nachfrage;
+            } finally {
+                sperre.unlock();
+            }
+        }
+
+        private PreparedStatement vorbereiten(Connection verbindung) throws SQLException {
+            return sql.startsWith("{") ? verbindung.prepareCall(sql) : verbindung.prepareStatement(sql);
+        }
+
+        private void fehlerMelden(Throwable fehler) {
+            if (!abgebrochen) {
+                abgebrochen = true;
+                abonnent.onError(fehler);
+            }
+        }
+
+        private boolean istVerbindungsfehler(SQLException e) {
+            return e.getSQLState() != null && e.getSQLState().startsWith("08");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.javadbconnectivity.reaktiv;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Publisher für Mitarbeiter-Scans und die Ergebnisse von
+ * {@code get_employees_for_department}.
+ *
+ * Aufruf der Demo: {@code MitarbeiterStrom [abteilung=Engineering] [stapel=10] [pauseMs=50]}.
+ * Der Abonnent fordert jeweils einen Stapel an und verarbeitet ihn langsam;
+ * der Publisher liest in dieser Zeit keine weiteren Zeilen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class MitarbeiterStrom {
+
+    /** Parameter, mit dem Connector/J Zeilen stapelweise vom Server holt */
+    public static final String CURSOR_PARAMETER = "useCursorFetch=true";
+
+    private MitarbeiterStrom() {
+    }
+
+    /**
+     * @param pool der Verbindungspool, idealerweise mit {@link #CURSOR_PARAMETER}
+     * @param stapelGroesse Fetch-Größe und maximale Zeilen pro Auslieferungsrunde
+     * @return alle Mitarbeiter, nach Id sortiert
+     */
+    public static Flow.Publisher<Mitarbeiter> alle(VerbindungsPool pool, int stapelGroesse) {
+        return new AbfragePublisher<>(pool,
+            "SELECT " + Mitarbeiter.SPALTEN + " FROM employees ORDER BY id",
+            List.of(), Mitarbeiter::ausZeile, stapelGroesse);
+    }
+
+    /**
+     * @param pool der Verbindungspool
+     * @param abteilung der Abteilungsname
+     * @param stapelGroesse maximale Zeilen pro Auslieferungsrunde
+     * @return die Mitarbeiter der Abteilung laut {@code get_employees_for_department}
+     */
+    public static Flow.Publisher<Mitarbeiter> fuerAbteilung(VerbindungsPool pool, String abteilung,
+                                                           int stapelGroesse) {
+        return new AbfragePublisher<>(pool, "{call get_employees_for_department(?)}",
+            List.of(abteilung), Mitarbeiter::ausZeile, stapelGroesse);
+    }
+
+    /**
+     * @param args optional {@code abteilung=}, {@code stapel=} und {@code pauseMs=}
+     * @throws InterruptedException wenn das Warten auf das Ende unterbrochen wird
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String abteilung = "Engineering";
+        int stapel = 10;
+        long pauseMs = 50;
+        for (String arg : args) {
+            String[] teile = arg.split("=", 2);
+            switch (teile[0]) {
+                case "abteilung" -> abteilung = teile[1];
+                case "stapel" -> stapel = Integer.parseInt(teile[1]);
+                case "pauseMs" -> pauseMs = Long.parseLong(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Parameter: " + arg);
+            }
+        }
+
+        DatenbankKonfiguration konfiguration =
+            DatenbankKonfiguration.standard().mitUrlParametern(CURSOR_PARAMETER);
+        try (VerbindungsPool pool = new VerbindungsPool(konfiguration, 2)) {
+            System.out.println("Alle Mitarbeiter:");
+            abonnieren(alle(pool, stapel), stapel, pauseMs);
+            System.out.println();
+            System.out.println("Abteilung " + abteilung + ":");
+            abonnieren(fuerAbteilung(pool, abteilung, stapel), stapel, pauseMs);
+        }
+    }
+
+    private static void abonnieren(Flow.Publisher<Mitarbeiter> publisher, int stapel, long pauseMs)
+            throws InterruptedException {
+        CountDownLatch fertig = new CountDownLatch(1);
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription abonnement;
+            private int imStapel;
+            private int gesamt;
+
+            @Override
+            public void onSubscribe(Flow.Subscription abonnement) {
+                this.abonnement = abonnement;
+                abonnement.request(stapel);
+            }
+
+            @Override
+            public void onNext(Mitarbeiter mitarbeiter) {
+                gesamt++;
+                System.out.println(mitarbeiter.nachname() + ", " + mitarbeiter.vorname()
+                    + ", " + mitarbeiter.abteilung());
+                if (++imStapel == stapel) {
+                    // Langsamer Verbraucher: erst nach der Verarbeitung nachfordern
+                    imStapel = 0;
+                    try {
+                        Thread.sleep(pauseMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        abonnement.cancel();
+                        fertig.countDown();
+                        return;
+                    }
+                    abonnement.request(stapel);
+                }
+            }
+
+            @Override
+            public void onError(Throwable fehler) {
+                System.err.println("Fehler im Strom: " + fehler.getMessage());
+                fertig.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                System.out.println("(" + gesamt + " Mitarbeiter)");
+                fertig.countDown();
+            }
+        });
+        fertig.await();
+    }
+}
@@ -0,0 +1,26 @@
+package de.javadbconnectivity.reaktiv;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Bildet die aktuelle Zeile eines ResultSets auf ein Element ab,
+ * z.B. {@code Mitarbeiter::ausZeile}.
+ *
+ * @param <T> der Typ der Elemente
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ZeilenAbbildung<T> {
+
+    /**
+     * Liest die aktuelle Zeile. {@code next()} darf nicht aufgerufen werden.
+     *
+     * @param ergebnisSet das ResultSet, positioniert auf der aktuellen Zeile
+     * @return das Element zu dieser Zeile
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    T abbilden(ResultSet ergebnisSet) throws SQLException;
+}
@@ -0,0 +1,17 @@
+package de.javadbconnectivity.resilienz;
+
+/**
+ * Arbeitslastklassen mit jeweils eigenem Schott und eigener Zeitüberschreitung,
+ * damit langsame Schreibvorgänge nicht alle Verbindungen für Lesezugriffe belegen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum Arbeitslast {
+
+    /** Lesende Abfragen; dürfen bei Bedarf an eine Replik abgesichert werden */
+    LESEN,
+
+    /** Schreibende Anweisungen und Prozeduraufrufe wie {@code increase_salaries_for_department} */
+    SCHREIBEN
+}
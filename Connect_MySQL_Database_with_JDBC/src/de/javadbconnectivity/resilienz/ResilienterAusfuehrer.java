@@ -0,0 +1,443 @@
+package de.javadbconnectivity.resilienz;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pipeline.ErgebnisLeser;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Führt Abfragen und Prozeduraufrufe mit Schutzmechanismen gegen eine hängende
+ * oder gestörte Datenbank aus.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - jede Anweisung über {@link java.sql.Statement#setQueryTimeout(int)} begrenzt
+ * - pro {@link Arbeitslast} ein Schott (Semaphore) vor dem Pool der Primärdatenbank
+ *   vorsieht, damit z.B. langsame Gehaltserhöhungen nicht alle Verbindungen für
+ *   Lesezugriffe blockieren
+ * - mit einem {@link Schutzschalter} sofort scheitert, solange die Datenbank gestört ist
+ * - Lesezugriffe zusätzlich an eine Replik stellt ("Hedged Read"), wenn die
+ *   Primärdatenbank länger als das beobachtete p99 braucht
+ *
+ * Fehler werden nicht ausgegeben und verschluckt, sondern als passende
+ * {@link SQLException} weitergereicht: {@link SQLTimeoutException} bei
+ * Zeitüberschreitung, {@link SQLTransientConnectionException} bei offenem
+ * Schutzschalter und {@link SQLTransientException} bei vollem Schott oder wenn
+ * der Pool keine freie Verbindung hat. Ein erschöpfter Pool ist ein lokaler
+ * Engpass und wird dem Schutzschalter weder als Fehler noch als Erfolg gemeldet.
+ * Jede Entscheidung wird unter {@code resilienz.*} in den {@link Metriken} gezählt.
+ *
+ * Die Schotten zusammen dürfen nicht größer als der Primärpool sein, sonst
+ * warten auch geschützte Schreibzugriffe auf Verbindungen. Ein Platz im Schott
+ * wird erst frei, wenn die Verbindung zurückgegeben ist: Der Verlierer eines
+ * abgesicherten Lesezugriffs wird nicht abgebrochen (das erfordert bei
+ * Connector/J eine zusätzliche Verbindung für {@code KILL QUERY}), sondern läuft
+ * bis zum Ende oder bis zu seiner Zeitüberschreitung weiter und belegt so lange
+ * seinen Platz.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ResilienterAusfuehrer implements AutoCloseable {
+
+    /**
+     * Grenzwerte des Ausführers.
+     *
+     * @param leseTimeoutS Zeitüberschreitung für Lesezugriffe in Sekunden
+     * @param schreibTimeoutS Zeitüberschreitung für Schreibzugriffe in Sekunden
+     * @param leseSchott gleichzeitig erlaubte Lesezugriffe
+     * @param schreibSchott gleichzeitig erlaubte Schreibzugriffe
+     * @param schottWartezeitMs maximale Wartezeit auf einen Platz im Schott
+     * @param fehlerSchwelle Fehler in Folge bis zum Öffnen des Schutzschalters
+     * @param offenDauerMs Dauer bis zum Probeaufruf eines offenen Schutzschalters
+     * @param hedgePerzentil das Perzentil der Primärlatenz, ab dem die Replik befragt wird
+     * @param hedgeMindestNs untere Grenze für diese Schwelle in Nanosekunden
+     * @param hedgeMindestAnzahl benötigte Messwerte, bevor abgesichert wird
+     */
+    public record Richtlinie(int leseTimeoutS, int schreibTimeoutS, int leseSchott, int schreibSchott,
+                             long schottWartezeitMs, int fehlerSchwelle, long offenDauerMs,
+                             double hedgePerzentil, long hedgeMindestNs, int hedgeMindestAnzahl) {
+
+        /**
+         * @return 5 s / 30 s Zeitüberschreitung, 6 / 2 Plätze für einen Pool mit 8
+         *         Verbindungen, Schalter nach 5 Fehlern für 10 s offen, Absicherung ab
+         *         p99 (mindestens 2 ms) nach 100 Messungen
+         */
+        public static Richtlinie standard() {
+            return new Richtlinie(5, 30, 6, 2, 100, 5, 10_000, 99.0, 2_000_000, 100);
+        }
+
+        int timeoutS(Arbeitslast last) {
+            return last == Arbeitslast.LESEN ? leseTimeoutS : schreibTimeoutS;
+        }
+    }
+
+    /** Eine Arbeit auf einer ausgeliehenen Verbindung mit vorgegebener Zeitüberschreitung */
+    @FunctionalInterface
+    private interface Arbeit<T> {
+        T ausfuehren(Connection verbindung, int timeoutS) throws SQLException;
+    }
+
+    private final VerbindungsPool primaer;
+    private final VerbindungsPool replik;
+    private final Richtlinie richtlinie;
+    private final Metriken metriken;
+    private final Schutzschalter schalter;
+    private final Map<Arbeitslast, Semaphore> schotten = new EnumMap<>(Arbeitslast.class);
+    private final LatenzHistogramm leseLatenz = new LatenzHistogramm();
+    private final ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param primaer der Pool der Primärdatenbank
+     * @param replik der Pool einer Lese-Replik oder null
+     * @param richtlinie die Grenzwerte
+     * @param metriken das Register für alle Entscheidungen
+     * @throws IllegalArgumentException wenn die Schotten zusammen mehr Plätze haben,
+     *                                  als der Primärpool Verbindungen hat
+     */
+    public ResilienterAusfuehrer(VerbindungsPool primaer, VerbindungsPool replik,
+                                 Richtlinie richtlinie, Metriken metriken) {
+        if (richtlinie.leseSchott() + richtlinie.schreibSchott() > primaer.getGroesse()) {
+            throw new IllegalArgumentException("Schotten mit " + richtlinie.leseSchott() + " + "
+                + richtlinie.schreibSchott() + " Plätzen überschreiten die Poolgröße " + primaer.getGroesse());
+        }
+        this.primaer = primaer;
+        this.replik = replik;
+        this.richtlinie = richtlinie;
+        this.metriken = metriken;
+        this.schalter = new Schutzschalter(richtlinie.fehlerSchwelle(), richtlinie.offenDauerMs(), metriken);
+        schotten.put(Arbeitslast.LESEN, new Semaphore(richtlinie.leseSchott()));
+        schotten.put(Arbeitslast.SCHREIBEN, new Semaphore(richtlinie.schreibSchott()));
+    }
+
+    /**
+     * Führt eine lesende Abfrage aus.
+     *
+     * @param <T> der Ergebnistyp
+     * @param sql die Abfrage mit Platzhaltern
+     * @param parameter die Werte für die Platzhalter
+     * @param leser wandelt das ResultSet in das Ergebnis um
+     * @return das Ergebnis
+     * @throws SQLException bei Fehler, Zeitüberschreitung, offenem Schalter oder vollem Schott
+     */
+    public <T> T abfragen(String sql, List<?> parameter, ErgebnisLeser<T> leser) throws SQLException {
+        Arbeit<T> arbeit = (verbindung, timeoutS) -> {
+            try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+                statement.setQueryTimeout(timeoutS);
+                binden(statement, parameter);
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    return leser.lesen(ergebnisSet);
+                }
+            }
+        };
+
+        if (!schalter.erlauben()) {
+            if (replik == null) {
+                throw kurzschluss();
+            }
+            metriken.zaehler("resilienz.replik.umgeleitet").increment();
+            return ausfuehren(replik, Arbeitslast.LESEN, arbeit);
+        }
+        if (replik == null || leseLatenz.getAnzahl() < richtlinie.hedgeMindestAnzahl()) {
+            return aufPrimaer(Arbeitslast.LESEN, arbeit);
+        }
+        return abgesichert(arbeit);
+    }
+
+    /**
+     * Führt eine schreibende Anweisung oder einen Prozeduraufruf ({@code {call ...}})
+     * auf der Primärdatenbank aus. Schreibzugriffe werden nie an die Replik gestellt.
+     *
+     * @param sql die Anweisung mit Platzhaltern
+     * @param parameter die Werte für die Platzhalter
+     * @return die Anzahl betroffener Zeilen
+     * @throws SQLException bei Fehler, Zeitüberschreitung, offenem Schalter oder vollem Schott
+     */
+    public int aktualisieren(String sql, List<?> parameter) throws SQLException {
+        if (!schalter.erlauben()) {
+            throw kurzschluss();
+        }
+        return aufPrimaer(Arbeitslast.SCHREIBEN, (verbindung, timeoutS) -> {
+            try (PreparedStatement statement = sql.startsWith("{")
+                    ? verbindung.prepareCall(sql)
+                    : verbindung.prepareStatement(sql)) {
+                statement.setQueryTimeout(timeoutS);
+                binden(statement, parameter);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * @return der Schutzschalter der Primärdatenbank
+     */
+    public Schutzschalter getSchalter() {
+        return schalter;
+    }
+
+    /**
+     * @return die beobachtete Latenz der Lesezugriffe auf der Primärdatenbank
+     */
+    public LatenzHistogramm getLeseLatenz() {
+        return leseLatenz;
+    }
+
+    /**
+     * Beendet den internen Executor; laufende Absicherungen werden abgebrochen.
+     */
+    @Override
+    public void close() {
+        ausfuehrer.shutdownNow();
+    }
+
+    /** Stellt die Abfrage an die Primärdatenbank und nach Ablauf der Schwelle zusätzlich an die Replik */
+    private <T> T abgesichert(Arbeit<T> arbeit) throws SQLException {
+        long schwelleNs = Math.max(richtlinie.hedgeMindestNs(), leseLatenz.perzentil(richtlinie.hedgePerzentil()));
+        metriken.messwert("resilienz.hedge.schwelleUs").set(schwelleNs / 1_000);
+
+        Rennen<T> rennen = new Rennen<>();
+        rennen.starten("primaer", () -> aufPrimaer(Arbeitslast.LESEN, arbeit));
+        try {
+            return rennen.ergebnis.get(schwelleNs, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            metriken.zaehler("resilienz.hedge.gestartet").increment();
+            rennen.starten("replik", () -> ausfuehren(replik, Arbeitslast.LESEN, arbeit));
+            return warten(rennen.ergebnis);
+        } catch (ExecutionException e) {
+            return warten(rennen.ergebnis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf Abfrage unterbrochen", e);
+        }
+    }
+
+    /**
+     * Führt die Arbeit im Schott der Arbeitslast auf der Primärdatenbank aus und
+     * meldet das Ergebnis an den Schutzschalter. Der Platz im Schott wird erst
+     * nach Rückgabe der Verbindung frei, auch wenn der Aufrufer als Verlierer
+     * eines Rennens längst weitergemacht hat.
+     */
+    private <T> T aufPrimaer(Arbeitslast last, Arbeit<T> arbeit) throws SQLException {
+        try {
+            betreten(last);
+        } catch (SQLException e) {
+            schalter.ohneErgebnis();
+            throw e;
+        }
+        try {
+            Connection verbindung;
+            try {
+                verbindung = ausleihen(primaer, last);
+            } catch (SQLException e) {
+                // Nur ein fehlgeschlagener Verbindungsaufbau zählt, ein erschöpfter Pool nicht
+                if (istStoerung(e)) {
+                    schalter.fehler();
+                } else {
+                    schalter.ohneErgebnis();
+                }
+                throw e;
+            }
+            long start = System.nanoTime();
+            try {
+                T ergebnis = ausfuehren(primaer, verbindung, last, arbeit);
+                schalter.erfolg();
+                if (last == Arbeitslast.LESEN) {
+                    leseLatenz.erfassen(System.nanoTime() - start);
+                }
+                return ergebnis;
+            } catch (SQLException e) {
+                if (e instanceof SQLTimeoutException) {
+                    metriken.zaehler("resilienz.timeout[" + last + "]").increment();
+                }
+                // Fehler wie Syntax- oder Schlüsselverletzungen zeigen eine antwortende Datenbank
+                if (istStoerung(e)) {
+                    schalter.fehler();
+                } else {
+                    schalter.erfolg();
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                schalter.erfolg();
+                throw e;
+            }
+        } finally {
+            verlassen(last);
+        }
+    }
+
+    private <T> T ausfuehren(VerbindungsPool pool, Arbeitslast last, Arbeit<T> arbeit) throws SQLException {
+        return ausfuehren(pool, ausleihen(pool, last), last, arbeit);
+    }
+
+    /**
+     * Leiht eine Verbindung aus. Die {@link SQLTimeoutException} des Pools wird
+     * zu einer {@link SQLTransientException}, damit das Warten auf eine freie
+     * Verbindung nicht mit einer Zeitüberschreitung der Datenbank verwechselt wird.
+     */
+    private Connection ausleihen(VerbindungsPool pool, Arbeitslast last) throws SQLException {
+        try {
+            return pool.ausleihen(richtlinie.timeoutS(last) * 1000L);
+        } catch (SQLTimeoutException e) {
+            metriken.zaehler("resilienz.pool.erschoepft[" + last + "]").increment();
+            throw new SQLTransientException(e.getMessage(), e);
+        }
+    }
+
+    /** Führt die Arbeit aus und gibt die Verbindung zurück, nach einer Störung wird sie verworfen */
+    private <T> T ausfuehren(VerbindungsPool pool, Connection verbindung, Arbeitslast last, Arbeit<T> arbeit)
+            throws SQLException {
+        int timeoutS = richtlinie.timeoutS(last);
+        try {
+            return arbeit.ausfuehren(verbindung, timeoutS);
+        } catch (SQLException e) {
+            // Nach Zeitüberschreitung oder Verbindungsfehler ist der Zustand unklar
+            if (istStoerung(e)) {
+                pool.verwerfen(verbindung);
+                verbindung = null;
+            }
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private void betreten(Arbeitslast last) throws SQLException {
+        boolean erhalten;
+        try {
+            erhalten = schotten.get(last).tryAcquire(richtlinie.schottWartezeitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf Schott unterbrochen", e);
+        }
+        if (!erhalten) {
+            metriken.zaehler("resilienz.schott.abgelehnt[" + last + "]").increment();
+            throw new SQLTransientException("Schott " + last + " ist voll");
+        }
+        metriken.zaehler("resilienz.schott.betreten[" + last + "]").increment();
+    }
+
+    private void verlassen(Arbeitslast last) {
+        schotten.get(last).release();
+    }
+
+    private SQLException kurzschluss() {
+        metriken.zaehler("resilienz.schalter.kurzgeschlossen").increment();
+        return new SQLTransientConnectionException("Schutzschalter offen, Datenbank gilt als gestört");
+    }
+
+    private <T> T warten(CompletableFuture<T> ergebnis) throws SQLException {
+        try {
+            return ergebnis.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf Abfrage unterbrochen", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlFehler) {
+                throw sqlFehler;
+            }
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    /** Zeitüberschreitungen und Verbindungsfehler (SQLState-Klasse 08) deuten auf eine gestörte Datenbank */
+    private static boolean istStoerung(SQLException e) {
+        return e instanceof SQLTimeoutException
+            || e instanceof SQLTransientConnectionException
+            || e instanceof SQLNonTransientConnectionException
+            || e instanceof SQLRecoverableException
+            || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+    }
+
+    private static void binden(PreparedStatement statement, List<?> parameter) throws SQLException {
+        for (int i = 0; i < parameter.size(); i++) {
+            statement.setObject(i + 1, parameter.get(i));
+        }
+    }
+
+    /** Der erste erfolgreiche Teilnehmer gewinnt; scheitern alle, gilt der letzte Fehler */
+    private final class Rennen<T> {
+
+        private final CompletableFuture<T> ergebnis = new CompletableFuture<>();
+        private final AtomicInteger laufend = new AtomicInteger();
+
+        void starten(String name, Callable<T> teilnehmer) {
+            laufend.incrementAndGet();
+            ausfuehrer.execute(() -> {
+                try {
+                    if (ergebnis.complete(teilnehmer.call())) {
+                        metriken.zaehler("resilienz.hedge.gewonnen[" + name + "]").increment();
+                    }
+                } catch (Exception e) {
+                    if (laufend.decrementAndGet() == 0) {
+                        ergebnis.completeExceptionally(e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Führt die Suche aus {@code Driver} und die Gehaltserhöhung geschützt aus.
+     * Aufruf optional mit der JDBC-URL einer Replik.
+     *
+     * @param args optional die URL der Replik
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard();
+        Metriken metriken = new Metriken();
+
+        try (VerbindungsPool primaer = new VerbindungsPool(konfiguration, 8);
+             VerbindungsPool replik = args.length > 0 ? new VerbindungsPool(konfiguration.mitUrl(args[0]), 8) : null;
+             ResilienterAusfuehrer ausfuehrer =
+                 new ResilienterAusfuehrer(primaer, replik, Richtlinie.standard(), metriken)) {
+
+            for (int i = 0; i < 500; i++) {
+                List<Mitarbeiter> treffer = ausfuehrer.abfragen(
+                    "SELECT * FROM employees WHERE salary > ? AND department = ?",
+                    List.of(new BigDecimal("80000"), "Legal"),
+                    ergebnisSet -> {
+                        List<Mitarbeiter> liste = new ArrayList<>();
+                        while (ergebnisSet.next()) {
+                            liste.add(Mitarbeiter.ausZeile(ergebnisSet));
+                        }
+                        return liste;
+                    });
+                if (i == 0) {
+                    System.out.println("Treffer: " + treffer.size());
+                }
+            }
+            int geaendert = ausfuehrer.aktualisieren("{call increase_salaries_for_department(?, ?)}",
+                List.of("Engineering", new BigDecimal("0.00")));
+            System.out.println("Gehaltserhöhung betraf " + geaendert + " Zeilen");
+            System.out.println("Lesen primär: " + ausfuehrer.getLeseLatenz().zusammenfassung());
+            System.out.println("Schutzschalter: " + ausfuehrer.getSchalter().getZustand());
+        }
+        metriken.ausgeben(System.out);
+    }
+}
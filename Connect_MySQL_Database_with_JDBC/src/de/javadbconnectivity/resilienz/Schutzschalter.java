@@ -0,0 +1,119 @@
+package de.javadbconnectivity.resilienz;
+
+import de.javadbconnectivity.metriken.Metriken;
+
+/**
+ * Ein Schutzschalter (Circuit Breaker) für die Datenbank.
+ *
+ * Nach {@code fehlerSchwelle} Fehlern in Folge öffnet der Schalter, und alle
+ * Aufrufe scheitern sofort, statt auf eine hängende Datenbank zu warten. Nach
+ * {@code offenDauerMs} wird genau ein Probeaufruf zugelassen (halb offen):
+ * gelingt er, schließt der Schalter, sonst öffnet er erneut.
+ *
+ * Veröffentlicht {@code resilienz.schalter.zustand} (Ordinalzahl von
+ * {@link Zustand}) und {@code resilienz.schalter.geoeffnet}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class Schutzschalter {
+
+    /** Zustände des Schalters */
+    public enum Zustand {
+        /** Normalbetrieb, alle Aufrufe erlaubt */
+        GESCHLOSSEN,
+        /** Datenbank gilt als gestört, Aufrufe scheitern sofort */
+        OFFEN,
+        /** Ein einzelner Probeaufruf ist unterwegs */
+        HALB_OFFEN
+    }
+
+    private final int fehlerSchwelle;
+    private final long offenDauerNs;
+    private final Metriken metriken;
+
+    private Zustand zustand = Zustand.GESCHLOSSEN;
+    private int fehlerInFolge;
+    private long geoeffnetUm;
+
+    /**
+     * @param fehlerSchwelle Anzahl Fehler in Folge bis zum Öffnen
+     * @param offenDauerMs Dauer bis zum ersten Probeaufruf in Millisekunden
+     * @param metriken das Register für Zustand und Zähler
+     */
+    public Schutzschalter(int fehlerSchwelle, long offenDauerMs, Metriken metriken) {
+        if (fehlerSchwelle < 1) {
+            throw new IllegalArgumentException("Fehlerschwelle muss mindestens 1 sein: " + fehlerSchwelle);
+        }
+        this.fehlerSchwelle = fehlerSchwelle;
+        this.offenDauerNs = offenDauerMs * 1_000_000;
+        this.metriken = metriken;
+    }
+
+    /**
+     * Prüft, ob ein Aufruf erfolgen darf. Ist die Wartezeit eines offenen
+     * Schalters abgelaufen, wird dieser Aufruf zum Probeaufruf.
+     *
+     * @return true, wenn der Aufruf erfolgen darf
+     */
+    public synchronized boolean erlauben() {
+        return switch (zustand) {
+            case GESCHLOSSEN -> true;
+            case HALB_OFFEN -> false;
+            case OFFEN -> {
+                if (System.nanoTime() - geoeffnetUm < offenDauerNs) {
+                    yield false;
+                }
+                wechseln(Zustand.HALB_OFFEN);
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Meldet einen erfolgreichen Aufruf.
+     */
+    public synchronized void erfolg() {
+        fehlerInFolge = 0;
+        if (zustand != Zustand.GESCHLOSSEN) {
+            wechseln(Zustand.GESCHLOSSEN);
+        }
+    }
+
+    /**
+     * Meldet einen Fehler, der auf eine gestörte Datenbank hinweist.
+     */
+    public synchronized void fehler() {
+        fehlerInFolge++;
+        if (zustand == Zustand.HALB_OFFEN
+                || (zustand == Zustand.GESCHLOSSEN && fehlerInFolge >= fehlerSchwelle)) {
+            geoeffnetUm = System.nanoTime();
+            metriken.zaehler("resilienz.schalter.geoeffnet").increment();
+            wechseln(Zustand.OFFEN);
+        }
+    }
+
+    /**
+     * Meldet einen erlaubten Aufruf, der die Datenbank gar nicht erreicht hat,
+     * z.B. weil Schott oder Pool voll waren. War es der Probeaufruf, bleibt der
+     * Schalter offen und der nächste Aufruf prüft erneut.
+     */
+    public synchronized void ohneErgebnis() {
+        if (zustand == Zustand.HALB_OFFEN) {
+            geoeffnetUm = System.nanoTime() - offenDauerNs;
+            wechseln(Zustand.OFFEN);
+        }
+    }
+
+    /**
+     * @return der aktuelle Zustand
+     */
+    public synchronized Zustand getZustand() {
+        return zustand;
+    }
+
+    private void wechseln(Zustand neu) {
+        zustand = neu;
+        metriken.messwert("resilienz.schalter.zustand").set(neu.ordinal());
+    }
+}
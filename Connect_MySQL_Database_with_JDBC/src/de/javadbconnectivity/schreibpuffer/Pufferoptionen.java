@@ -0,0 +1,45 @@
+package de.javadbconnectivity.schreibpuffer;
+
+import java.nio.file.Path;
+
+/**
+ * Einstellungen des {@link Schreibpuffer}s.
+ *
+ * @param maxAusstehend ab so vielen ausstehenden Mitarbeitern wird geleert;
+ *                      beim Doppelten warten die Schreiber
+ * @param maxVerzoegerungMs so lange wartet die älteste Änderung höchstens auf das Leeren
+ * @param journal die Journaldatei oder null ohne Journal
+ * @param journalErzwingen ob jede Journalzeile mit {@code force} auf den Datenträger
+ *                         geschrieben wird; ohne übersteht das Journal nur den Absturz
+ *                         des Prozesses, nicht den des Betriebssystems
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Pufferoptionen(int maxAusstehend, long maxVerzoegerungMs, Path journal, boolean journalErzwingen) {
+
+    /**
+     * Prüft die Werte.
+     */
+    public Pufferoptionen {
+        if (maxAusstehend < 1 || maxVerzoegerungMs < 1) {
+            throw new IllegalArgumentException("Größe und Verzögerung müssen mindestens 1 sein");
+        }
+    }
+
+    /**
+     * @return 1.000 Mitarbeiter oder 200 ms, ohne Journal
+     */
+    public static Pufferoptionen standard() {
+        return new Pufferoptionen(1_000, 200, null, false);
+    }
+
+    /**
+     * @param datei die Journaldatei
+     * @param erzwingen ob jede Zeile mit {@code force} geschrieben wird
+     * @return diese Einstellungen mit Journal
+     */
+    public Pufferoptionen mitJournal(Path datei, boolean erzwingen) {
+        return new Pufferoptionen(maxAusstehend, maxVerzoegerungMs, datei, erzwingen);
+    }
+}
@@ -0,0 +1,200 @@
+package de.javadbconnectivity.schreibpuffer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Nur anhängendes Journal der Änderungen, die der {@link Schreibpuffer} noch
+ * nicht bestätigt hat.
+ *
+ * Jede Änderung wird als Zeile {@code E|G <Tab> id <Tab> wert} an die aktive
+ * Datei angehängt, bevor der Puffer sie annimmt. Beim Herausnehmen eines
+ * Stapels wird die aktive Datei zum Segment {@code name.n}; nach dem Commit
+ * werden alle Segmente bis {@code n} gelöscht. Was nach einem Absturz an
+ * Segmenten und aktiver Datei übrig ist, ist also genau das Unbestätigte und
+ * wird beim nächsten Start in Reihenfolge wieder eingelesen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+final class Schreibjournal implements AutoCloseable {
+
+    /** Platzhalter für NULL wie in den Exportdateien von MySQL */
+    private static final String NULL = "\\N";
+
+    /**
+     * Eine wieder eingelesene Änderung.
+     *
+     * @param id der Mitarbeiter
+     * @param email true für die E-Mail, false für das Gehalt
+     * @param wert der neue Wert
+     */
+    record Zeile(int id, boolean email, Object wert) {
+    }
+
+    private final Path datei;
+    private final boolean erzwingen;
+    /** Noch nicht bestätigte Segmente in aufsteigender Nummer */
+    private final Deque<Integer> segmente = new ArrayDeque<>();
+    private FileChannel kanal;
+    private int letztesSegment;
+
+    Schreibjournal(Path datei, boolean erzwingen) {
+        this.datei = datei;
+        this.erzwingen = erzwingen;
+    }
+
+    /**
+     * Schließt eine übrig gebliebene aktive Datei als Segment ab, liest alle
+     * Segmente und öffnet eine neue aktive Datei.
+     *
+     * @return die unbestätigten Änderungen in ihrer ursprünglichen Reihenfolge
+     */
+    synchronized List<Zeile> wiederherstellen() throws IOException {
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        Files.createDirectories(verzeichnis);
+        TreeMap<Integer, Path> gefunden = new TreeMap<>();
+        String praefix = datei.getFileName() + ".";
+        try (Stream<Path> dateien = Files.list(verzeichnis)) {
+            for (Path kandidat : (Iterable<Path>) dateien::iterator) {
+                String name = kandidat.getFileName().toString();
+                if (name.startsWith(praefix) && name.substring(praefix.length()).matches("\\d{1,9}")) {
+                    gefunden.put(Integer.parseInt(name.substring(praefix.length())), kandidat);
+                }
+            }
+        }
+        letztesSegment = gefunden.isEmpty() ? 0 : gefunden.lastKey();
+        if (Files.exists(datei)) {
+            gefunden.put(++letztesSegment, Files.move(datei, segment(letztesSegment)));
+        }
+
+        List<Zeile> zeilen = new ArrayList<>();
+        for (var eintrag : gefunden.entrySet()) {
+            lesen(eintrag.getValue(), zeilen);
+            segmente.addLast(eintrag.getKey());
+        }
+        kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        return zeilen;
+    }
+
+    /**
+     * Hängt eine Änderung an die aktive Datei an.
+     */
+    synchronized void schreiben(int id, boolean email, Object wert) throws IOException {
+        String text = wert == null ? NULL
+            : email ? maskieren((String) wert) : ((BigDecimal) wert).toPlainString();
+        ByteBuffer puffer = ByteBuffer.wrap(
+            ((email ? "E" : "G") + '\t' + id + '\t' + text + '\n').getBytes(StandardCharsets.UTF_8));
+        while (puffer.hasRemaining()) {
+            kanal.write(puffer);
+        }
+        if (erzwingen) {
+            kanal.force(false);
+        }
+    }
+
+    /**
+     * Macht die aktive Datei zum nächsten Segment und beginnt eine neue.
+     *
+     * @return die Nummer des abgeschlossenen Segments, für {@link #bestaetigen(int)}
+     */
+    synchronized int abschliessen() throws IOException {
+        kanal.close();
+        int nummer = ++letztesSegment;
+        Files.move(datei, segment(nummer));
+        segmente.addLast(nummer);
+        kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        return nummer;
+    }
+
+    /**
+     * Löscht alle Segmente bis einschließlich {@code bis}; ihre Änderungen sind bestätigt.
+     */
+    synchronized void bestaetigen(int bis) throws IOException {
+        while (!segmente.isEmpty() && segmente.peekFirst() <= bis) {
+            Files.deleteIfExists(segment(segmente.peekFirst()));
+            segmente.removeFirst();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (kanal != null) {
+            kanal.close();
+        }
+    }
+
+    private Path segment(int nummer) {
+        return datei.resolveSibling(datei.getFileName() + "." + nummer);
+    }
+
+    /**
+     * Liest die Zeilen eines Segments. Eine unvollständige letzte Zeile stammt
+     * von einem Absturz mitten im Schreiben; ihre Änderung wurde nie angenommen.
+     */
+    private static void lesen(Path segment, List<Zeile> zeilen) throws IOException {
+        String inhalt = Files.readString(segment, StandardCharsets.UTF_8);
+        int ende = inhalt.lastIndexOf('\n');
+        if (ende < 0) {
+            return;
+        }
+        for (String zeile : inhalt.substring(0, ende).split("\n")) {
+            String[] teile = zeile.split("\t", 3);
+            if (teile.length != 3 || !(teile[0].equals("E") || teile[0].equals("G"))) {
+                throw new IOException("Ungültige Journalzeile in " + segment + ": " + zeile);
+            }
+            boolean email = teile[0].equals("E");
+            Object wert = teile[2].equals(NULL) ? null
+                : email ? demaskieren(teile[2]) : new BigDecimal(teile[2]);
+            zeilen.add(new Zeile(Integer.parseInt(teile[1]), email, wert));
+        }
+    }
+
+    private static String maskieren(String text) {
+        StringBuilder ergebnis = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char zeichen = text.charAt(i);
+            switch (zeichen) {
+                case '\\' -> ergebnis.append("\\\\");
+                case '\t' -> ergebnis.append("\\t");
+                case '\n' -> ergebnis.append("\\n");
+                case '\r' -> ergebnis.append("\\r");
+                default -> ergebnis.append(zeichen);
+            }
+        }
+        return ergebnis.toString();
+    }
+
+    private static String demaskieren(String text) {
+        StringBuilder ergebnis = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char zeichen = text.charAt(i);
+            if (zeichen == '\\' && i + 1 < text.length()) {
+                char naechstes = text.charAt(++i);
+                ergebnis.append(switch (naechstes) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> naechstes;
+                });
+            } else {
+                ergebnis.append(zeichen);
+            }
+        }
+        return ergebnis.toString();
+    }
+}
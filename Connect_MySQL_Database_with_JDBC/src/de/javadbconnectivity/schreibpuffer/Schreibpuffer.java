@@ -0,0 +1,655 @@
+package de.javadbconnectivity.schreibpuffer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Sammelt Änderungen an E-Mail und Gehalt je Mitarbeiter im Speicher und
+ * schreibt sie gebündelt in die Datenbank.
+ *
+ * Statt wie {@code JdbcUpdateDemo} jede Änderung als eigene Anweisung mit
+ * eigenem Commit zu senden, hält der Puffer je Mitarbeiter nur den neuesten
+ * Stand. Ein Hintergrund-Thread leert ihn, sobald {@code maxAusstehend}
+ * Mitarbeiter ausstehen oder die älteste Änderung {@code maxVerzoegerungMs}
+ * alt ist: ein Batch, eine Transaktion, Zeilen in Id-Reihenfolge gesperrt.
+ * Zehn Gehaltsänderungen an einem Mitarbeiter innerhalb dieser Zeit werden
+ * so zu einem UPDATE.
+ *
+ * Dauerhaftigkeit:
+ * - {@link #close()} und {@link #leeren()} schreiben alles Ausstehende
+ * - mit Journal (siehe {@link Pufferoptionen#journal()}) übersteht eine
+ *   angenommene Änderung auch einen Absturz; der nächste Puffer mit derselben
+ *   Datei liest sie wieder ein
+ * - ohne Journal gehen bei einem Absturz höchstens die Änderungen der letzten
+ *   {@code maxVerzoegerungMs} verloren
+ *
+ * Scheitert das Leeren, kommen die Änderungen zurück in den Puffer; neuere
+ * Werte desselben Mitarbeiters haben Vorrang. Der nächste Versuch folgt nach
+ * {@code maxVerzoegerungMs}. Ausgenommen sind Datenfehler wie eine doppelte
+ * E-Mail-Adresse oder ein zu großes Gehalt: Sie verschwinden durch Wiederholen
+ * nicht. Der Stapel wird dann halbiert und in Teilen geschrieben, bis die
+ * fehlerhaften Mitarbeiter einzeln feststehen; deren Änderungen werden
+ * verworfen und gezählt ({@code schreibpuffer.verworfen}), alle anderen
+ * geschrieben.
+ *
+ * Andere Leser sehen eine Änderung erst nach dem Leeren. Wie alle
+ * Schreibzugriffe an
+ * {@link de.javadbconnectivity.zusammenfassung.AbteilungsZusammenfassung}
+ * vorbei ändern Gehälter aus dem Puffer {@code department_summary} nicht.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Änderungen je Primärschlüssel zusammenfasst und als ein Batch schreibt
+ * - nach Größe oder Zeit leert, ohne den schreibenden Thread aufzuhalten
+ * - Schreiber bremst, wenn die Datenbank nicht nachkommt
+ * - die Verzögerung zwischen Annahme und Commit misst
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class Schreibpuffer implements AutoCloseable {
+
+    /** Setzt nur die Spalten, deren Merker gesetzt ist; ein SQL-Text für alle Kombinationen */
+    private static final String AKTUALISIEREN =
+        "UPDATE employees SET email = CASE WHEN ? THEN ? ELSE email END, "
+            + "salary = CASE WHEN ? THEN ? ELSE salary END WHERE id = ?";
+
+    /** Der ausstehende Stand eines Mitarbeiters. */
+    private static final class Ausstehend {
+        private long ersteNs;
+        private boolean emailGesetzt;
+        private String email;
+        private boolean gehaltGesetzt;
+        private BigDecimal gehalt;
+
+        Ausstehend(long ersteNs) {
+            this.ersteNs = ersteNs;
+        }
+
+        void setzen(boolean istEmail, Object wert) {
+            if (istEmail) {
+                emailGesetzt = true;
+                email = (String) wert;
+            } else {
+                gehaltGesetzt = true;
+                gehalt = (BigDecimal) wert;
+            }
+        }
+
+        /** Übernimmt aus einem älteren Stand nur, was dieser nicht selbst setzt. */
+        void aelterenUebernehmen(Ausstehend aelter) {
+            if (!emailGesetzt && aelter.emailGesetzt) {
+                setzen(true, aelter.email);
+            }
+            if (!gehaltGesetzt && aelter.gehaltGesetzt) {
+                setzen(false, aelter.gehalt);
+            }
+            ersteNs = Math.min(ersteNs, aelter.ersteNs);
+        }
+    }
+
+    private final VerbindungsPool pool;
+    private final Pufferoptionen optionen;
+    private final Metriken metriken;
+    private final Schreibjournal journal;
+    private final LatenzHistogramm verzoegerung = new LatenzHistogramm();
+    private final ReentrantLock sperre = new ReentrantLock();
+    /** Signalisiert dem Hintergrund-Thread neue Arbeit oder das Schließen */
+    private final Condition arbeit = sperre.newCondition();
+    /** Signalisiert wartenden Schreibern, dass der Puffer geleert wurde */
+    private final Condition platz = sperre.newCondition();
+    /** Es leert immer nur einer, sonst könnte ein älterer Stapel nach einem neueren bestätigen */
+    private final ReentrantLock leerenSperre = new ReentrantLock();
+    private final Thread leerer;
+    private Map<Integer, Ausstehend> ausstehend = new HashMap<>();
+    private long aeltesteNs;
+    private boolean geschlossen;
+
+    /**
+     * Erstellt den Puffer und startet den Hintergrund-Thread. Mit Journal
+     * werden übrig gebliebene Änderungen eingelesen und beim ersten Leeren
+     * geschrieben.
+     *
+     * @param pool der Verbindungspool
+     * @param optionen die Einstellungen
+     * @param metriken das Ziel für Zähler und Verzögerungen
+     * @throws IOException wenn das Journal nicht gelesen oder geöffnet werden kann
+     */
+    public Schreibpuffer(VerbindungsPool pool, Pufferoptionen optionen, Metriken metriken) throws IOException {
+        this.pool = pool;
+        this.optionen = optionen;
+        this.metriken = metriken;
+        if (optionen.journal() != null) {
+            journal = new Schreibjournal(optionen.journal(), optionen.journalErzwingen());
+            long jetzt = System.nanoTime();
+            List<Schreibjournal.Zeile> zeilen = journal.wiederherstellen();
+            sperre.lock();
+            try {
+                for (Schreibjournal.Zeile zeile : zeilen) {
+                    uebernehmen(zeile.id(), zeile.email(), zeile.wert(), jetzt);
+                }
+            } finally {
+                sperre.unlock();
+            }
+            metriken.zaehler("schreibpuffer.wiederhergestellt").add(zeilen.size());
+        } else {
+            journal = null;
+        }
+        this.leerer = new Thread(this::arbeiten, "schreibpuffer");
+        this.leerer.setDaemon(true);
+        this.leerer.start();
+    }
+
+    /**
+     * Merkt eine neue E-Mail-Adresse vor.
+     *
+     * @param id der Mitarbeiter
+     * @param email die neue Adresse (kann null sein)
+     * @throws SQLException wenn der Puffer geschlossen ist, das Journal nicht
+     *                      schreibbar ist oder das Warten auf Platz unterbrochen wird
+     */
+    public void emailSetzen(int id, String email) throws SQLException {
+        vormerken(id, true, email);
+    }
+
+    /**
+     * Merkt ein neues Gehalt vor.
+     *
+     * @param id der Mitarbeiter
+     * @param gehalt das neue Gehalt (kann null sein)
+     * @throws SQLException wenn der Puffer geschlossen ist, das Journal nicht
+     *                      schreibbar ist oder das Warten auf Platz unterbrochen wird
+     */
+    public void gehaltSetzen(int id, BigDecimal gehalt) throws SQLException {
+        vormerken(id, false, gehalt);
+    }
+
+    /**
+     * Schreibt alle bis jetzt angenommenen Änderungen und wartet auf den Commit.
+     *
+     * @return die Anzahl geschriebener Mitarbeiter ohne verworfene
+     * @throws SQLException wenn das Schreiben fehlschlägt; die ungeschriebenen
+     *                      Änderungen bleiben dann im Puffer
+     */
+    public int leeren() throws SQLException {
+        return leeren("aufruf");
+    }
+
+    /**
+     * @return die Anzahl der Mitarbeiter mit ausstehenden Änderungen
+     */
+    public int getAusstehend() {
+        sperre.lock();
+        try {
+            return ausstehend.size();
+        } finally {
+            sperre.unlock();
+        }
+    }
+
+    /**
+     * @return die Zeit von der ersten Änderung eines Mitarbeiters bis zum Commit
+     */
+    public LatenzHistogramm getVerzoegerung() {
+        return verzoegerung;
+    }
+
+    /**
+     * Nimmt keine Änderungen mehr an, wartet auf den Hintergrund-Thread und
+     * schreibt den Rest.
+     *
+     * @throws SQLException wenn das letzte Leeren fehlschlägt; mit Journal
+     *                      bleiben die Änderungen für den nächsten Start erhalten
+     */
+    @Override
+    public void close() throws SQLException {
+        sperre.lock();
+        try {
+            if (geschlossen) {
+                return;
+            }
+            geschlossen = true;
+            arbeit.signalAll();
+            platz.signalAll();
+        } finally {
+            sperre.unlock();
+        }
+        try {
+            leerer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            leeren("schliessen");
+        } finally {
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Fehler beim Schließen des Journals:");
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void vormerken(int id, boolean istEmail, Object wert) throws SQLException {
+        sperre.lock();
+        try {
+            // Bremsen, bis der Hintergrund-Thread aufgeholt hat; bekannte Mitarbeiter kosten keinen Platz
+            while (!geschlossen && ausstehend.size() >= 2 * optionen.maxAusstehend()
+                   && !ausstehend.containsKey(id)) {
+                metriken.zaehler("schreibpuffer.gebremst").increment();
+                platz.await();
+            }
+            if (geschlossen) {
+                throw new SQLException("Schreibpuffer ist geschlossen");
+            }
+            if (journal != null) {
+                journal.schreiben(id, istEmail, wert);
+            }
+            uebernehmen(id, istEmail, wert, System.nanoTime());
+            metriken.zaehler("schreibpuffer.aenderungen").increment();
+            if (ausstehend.size() >= optionen.maxAusstehend()) {
+                arbeit.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf Platz im Schreibpuffer unterbrochen", e);
+        } catch (IOException e) {
+            throw new SQLException("Änderung konnte nicht ins Journal geschrieben werden", e);
+        } finally {
+            sperre.unlock();
+        }
+    }
+
+    /** Nur unter {@link #sperre}. */
+    private void uebernehmen(int id, boolean istEmail, Object wert, long jetztNs) {
+        if (ausstehend.isEmpty()) {
+            aeltesteNs = jetztNs;
+            arbeit.signal();
+        }
+        Ausstehend eintrag = ausstehend.get(id);
+        if (eintrag == null) {
+            eintrag = new Ausstehend(jetztNs);
+            ausstehend.put(id, eintrag);
+        } else {
+            metriken.zaehler("schreibpuffer.zusammengefasst").increment();
+        }
+        eintrag.setzen(istEmail, wert);
+        metriken.messwert("schreibpuffer.ausstehend").set(ausstehend.size());
+    }
+
+    private int leeren(String grund) throws SQLException {
+        leerenSperre.lock();
+        try {
+            NavigableMap<Integer, Ausstehend> stapel;
+            int segment = 0;
+            sperre.lock();
+            try {
+                if (ausstehend.isEmpty()) {
+                    return 0;
+                }
+                if (journal != null) {
+                    segment = journal.abschliessen();
+                }
+                // Id-Reihenfolge: zwei Puffer auf denselben Zeilen sperren in derselben Reihenfolge
+                stapel = new TreeMap<>(ausstehend);
+                ausstehend = new HashMap<>();
+                metriken.messwert("schreibpuffer.ausstehend").set(0);
+                platz.signalAll();
+            } catch (IOException e) {
+                throw new SQLException("Journal konnte nicht abgeschlossen werden", e);
+            } finally {
+                sperre.unlock();
+            }
+
+            int ohneZeile;
+            NavigableMap<Integer, Ausstehend> offen = new TreeMap<>(stapel);
+            List<Integer> verworfen = new ArrayList<>();
+            try {
+                try {
+                    ohneZeile = schreiben(stapel);
+                    offen.clear();
+                } catch (SQLException e) {
+                    if (!istDatenfehler(e)) {
+                        throw e;
+                    }
+                    ohneZeile = eingrenzen(stapel, e, offen, verworfen);
+                }
+            } catch (SQLException e) {
+                zurueckstellen(offen);
+                metriken.zaehler("schreibpuffer.fehler").increment();
+                throw e;
+            }
+
+            stapel.keySet().removeAll(verworfen);
+            long jetzt = System.nanoTime();
+            for (Ausstehend eintrag : stapel.values()) {
+                verzoegerung.erfassen(jetzt - eintrag.ersteNs);
+            }
+            metriken.zaehler("schreibpuffer.leerungen[" + grund + "]").increment();
+            metriken.zaehler("schreibpuffer.geschrieben").add(stapel.size());
+            metriken.zaehler("schreibpuffer.ohneZeile").add(ohneZeile);
+            metriken.messwert("schreibpuffer.verzoegerungP99Us").set(verzoegerung.perzentil(99) / 1_000);
+            metriken.messwert("schreibpuffer.verzoegerungMaxUs").set(verzoegerung.getMaximum() / 1_000);
+
+            if (journal != null) {
+                try {
+                    journal.bestaetigen(segment);
+                } catch (IOException e) {
+                    // Bleibt das Segment liegen, schreibt der nächste Start bereits bestätigte Werte erneut
+                    throw new SQLException("Journal konnte nicht bereinigt werden", e);
+                }
+            }
+            return stapel.size();
+        } finally {
+            leerenSperre.unlock();
+        }
+    }
+
+    /**
+     * Schreibt einen Stapel in einer Transaktion.
+     *
+     * @return die Anzahl der Mitarbeiter, die es nicht mehr gibt
+     */
+    private int schreiben(Map<Integer, Ausstehend> stapel) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            int[] anzahlen;
+            try (PreparedStatement statement = verbindung.prepareStatement(AKTUALISIEREN)) {
+                for (Map.Entry<Integer, Ausstehend> eintrag : stapel.entrySet()) {
+                    Ausstehend werte = eintrag.getValue();
+                    statement.setBoolean(1, werte.emailGesetzt);
+                    statement.setString(2, werte.email);
+                    statement.setBoolean(3, werte.gehaltGesetzt);
+                    if (werte.gehalt == null) {
+                        statement.setNull(4, Types.DECIMAL);
+                    } else {
+                        statement.setBigDecimal(4, werte.gehalt);
+                    }
+                    statement.setInt(5, eintrag.getKey());
+                    statement.addBatch();
+                }
+                anzahlen = statement.executeBatch();
+            }
+            verbindung.commit();
+            int ohneZeile = 0;
+            for (int anzahl : anzahlen) {
+                if (anzahl == 0) {
+                    ohneZeile++;
+                }
+            }
+            return ohneZeile;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Schreibt einen an einem Datenfehler gescheiterten Stapel in zwei Hälften
+     * und halbiert gescheiterte Hälften weiter. Ein einzelner Mitarbeiter, der
+     * scheitert, ist die Ursache; seine Änderungen werden verworfen.
+     *
+     * @param teil der gescheiterte Stapel in Id-Reihenfolge
+     * @param fehler der Fehler, an dem er gescheitert ist
+     * @param offen die noch nicht geschriebenen oder verworfenen Änderungen; wird fortgeschrieben
+     * @param verworfen erhält die Ids der verworfenen Mitarbeiter
+     * @return die Anzahl der Mitarbeiter, die es nicht mehr gibt
+     * @throws SQLException bei einem Fehler, der kein Datenfehler ist
+     */
+    private int eingrenzen(NavigableMap<Integer, Ausstehend> teil, SQLException fehler,
+                           Map<Integer, Ausstehend> offen, List<Integer> verworfen) throws SQLException {
+        if (teil.size() == 1) {
+            int id = teil.firstKey();
+            offen.remove(id);
+            verworfen.add(id);
+            metriken.zaehler("schreibpuffer.verworfen").increment();
+            System.err.println("Änderung an Mitarbeiter " + id + " verworfen: " + fehler.getMessage());
+            return 0;
+        }
+        int mitte = new ArrayList<>(teil.keySet()).get(teil.size() / 2);
+        int ohneZeile = 0;
+        for (NavigableMap<Integer, Ausstehend> haelfte : List.of(teil.headMap(mitte, false),
+                                                                 teil.tailMap(mitte, true))) {
+            try {
+                ohneZeile += schreiben(haelfte);
+                offen.keySet().removeAll(haelfte.keySet());
+            } catch (SQLException e) {
+                if (!istDatenfehler(e)) {
+                    throw e;
+                }
+                ohneZeile += eingrenzen(haelfte, e, offen, verworfen);
+            }
+        }
+        return ohneZeile;
+    }
+
+    /**
+     * Datenfehler (SQLState-Klassen 22 und 23) liegen an den Werten einer
+     * Zeile, etwa einer doppelten E-Mail-Adresse oder einem zu großen Gehalt.
+     */
+    private static boolean istDatenfehler(SQLException e) {
+        // Treiber melden die Ursache eines gescheiterten Batches als Folge- oder Auslöserfehler
+        List<SQLException> kandidaten = new ArrayList<>();
+        for (SQLException fehler = e; fehler != null; fehler = fehler.getNextException()) {
+            kandidaten.add(fehler);
+            if (fehler.getCause() instanceof SQLException ursache) {
+                kandidaten.add(ursache);
+            }
+        }
+        for (SQLException fehler : kandidaten) {
+            String zustand = fehler.getSQLState();
+            if (fehler instanceof SQLDataException || fehler instanceof SQLIntegrityConstraintViolationException
+                    || zustand != null && (zustand.startsWith("22") || zustand.startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Legt einen gescheiterten Stapel zurück; inzwischen angenommene Werte haben Vorrang.
+     */
+    private void zurueckstellen(Map<Integer, Ausstehend> stapel) {
+        sperre.lock();
+        try {
+            long aelteste = ausstehend.isEmpty() ? Long.MAX_VALUE : aeltesteNs;
+            for (Map.Entry<Integer, Ausstehend> eintrag : stapel.entrySet()) {
+                Ausstehend neuer = ausstehend.get(eintrag.getKey());
+                if (neuer == null) {
+                    ausstehend.put(eintrag.getKey(), eintrag.getValue());
+                } else {
+                    neuer.aelterenUebernehmen(eintrag.getValue());
+                }
+                aelteste = Math.min(aelteste, eintrag.getValue().ersteNs);
+            }
+            aeltesteNs = aelteste;
+            metriken.messwert("schreibpuffer.ausstehend").set(ausstehend.size());
+        } finally {
+            sperre.unlock();
+        }
+    }
+
+    /** Der Hintergrund-Thread: wartet auf Größe oder Zeit und leert. */
+    private void arbeiten() {
+        long verzoegerungNs = TimeUnit.MILLISECONDS.toNanos(optionen.maxVerzoegerungMs());
+        while (true) {
+            String grund;
+            sperre.lock();
+            try {
+                while (true) {
+                    if (geschlossen) {
+                        return;
+                    }
+                    if (ausstehend.size() >= optionen.maxAusstehend()) {
+                        grund = "groesse";
+                        break;
+                    }
+                    if (ausstehend.isEmpty()) {
+                        arbeit.await();
+                        continue;
+                    }
+                    long warten = aeltesteNs + verzoegerungNs - System.nanoTime();
+                    if (warten <= 0) {
+                        grund = "zeit";
+                        break;
+                    }
+                    arbeit.awaitNanos(warten);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                sperre.unlock();
+            }
+
+            try {
+                leeren(grund);
+            } catch (SQLException e) {
+                System.err.println("Fehler beim Leeren des Schreibpuffers:");
+                e.printStackTrace();
+                if (!pausieren(verzoegerungNs)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wartet nach einem Fehler, bevor erneut geleert wird.
+     *
+     * @return false, wenn der Puffer inzwischen geschlossen wurde
+     */
+    private boolean pausieren(long dauerNs) {
+        sperre.lock();
+        try {
+            long rest = dauerNs;
+            while (!geschlossen && rest > 0) {
+                rest = arbeit.awaitNanos(rest);
+            }
+            return !geschlossen;
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            sperre.unlock();
+        }
+    }
+
+    /**
+     * Ändert Gehälter einiger Mitarbeiter viele Male von mehreren virtuellen
+     * Threads aus und stellt am Ende die ursprünglichen Werte wieder her.
+     * Vergleicht Änderungen mit geschriebenen Zeilen und zeigt die Verzögerung.
+     *
+     * Aufruf: {@code Schreibpuffer [mitarbeiter=50] [aenderungen=20000] [threads=8]
+     * [maxAusstehend=1000] [maxVerzoegerungMs=200] [journal=schreibpuffer.journal]}
+     *
+     * @param args {@code mitarbeiter=}, {@code aenderungen=}, {@code threads=},
+     *             {@code maxAusstehend=}, {@code maxVerzoegerungMs=} und {@code journal=}
+     * @throws Exception bei Datenbank- oder Dateifehlern
+     */
+    public static void main(String[] args) throws Exception {
+        int mitarbeiter = 50;
+        int aenderungen = 20_000;
+        int threads = 8;
+        Pufferoptionen standard = Pufferoptionen.standard();
+        int maxAusstehend = standard.maxAusstehend();
+        long maxVerzoegerungMs = standard.maxVerzoegerungMs();
+        Path journal = null;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "mitarbeiter" -> mitarbeiter = Integer.parseInt(teile[1]);
+                case "aenderungen" -> aenderungen = Integer.parseInt(teile[1]);
+                case "threads" -> threads = Integer.parseInt(teile[1]);
+                case "maxAusstehend" -> maxAusstehend = Integer.parseInt(teile[1]);
+                case "maxVerzoegerungMs" -> maxVerzoegerungMs = Long.parseLong(teile[1]);
+                case "journal" -> journal = Path.of(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+        Pufferoptionen optionen = new Pufferoptionen(maxAusstehend, maxVerzoegerungMs, null, false);
+        if (journal != null) {
+            optionen = optionen.mitJournal(journal, false);
+        }
+
+        Metriken metriken = new Metriken();
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 2)) {
+            Map<Integer, BigDecimal> urspruenglich = new TreeMap<>();
+            Connection verbindung = pool.ausleihen();
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT id, salary FROM employees WHERE salary IS NOT NULL ORDER BY id LIMIT ?")) {
+                statement.setInt(1, mitarbeiter);
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    while (ergebnisSet.next()) {
+                        urspruenglich.put(ergebnisSet.getInt(1), ergebnisSet.getBigDecimal(2));
+                    }
+                }
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+            if (urspruenglich.isEmpty()) {
+                System.out.println("Keine Mitarbeiter mit Gehalt gefunden.");
+                return;
+            }
+            List<Integer> ids = new ArrayList<>(urspruenglich.keySet());
+
+            long start = System.nanoTime();
+            try (Schreibpuffer puffer = new Schreibpuffer(pool, optionen, metriken)) {
+                int jeThread = aenderungen / threads;
+                try (ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int t = 0; t < threads; t++) {
+                        SplittableRandom zufall = new SplittableRandom(t);
+                        ausfuehrer.submit(() -> {
+                            for (int i = 0; i < jeThread; i++) {
+                                int id = ids.get(zufall.nextInt(ids.size()));
+                                BigDecimal zuschlag = BigDecimal.valueOf(zufall.nextInt(100));
+                                puffer.gehaltSetzen(id, urspruenglich.get(id).add(zuschlag));
+                            }
+                            return null;
+                        });
+                    }
+                }
+                // Der letzte Stand je Mitarbeiter gewinnt: die Gehälter bleiben unverändert
+                for (Map.Entry<Integer, BigDecimal> eintrag : urspruenglich.entrySet()) {
+                    puffer.gehaltSetzen(eintrag.getKey(), eintrag.getValue());
+                }
+            }
+            long dauerMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.printf("%d Änderungen an %d Mitarbeitern in %d ms%n",
+                metriken.zaehler("schreibpuffer.aenderungen").sum(), ids.size(), dauerMs);
+            metriken.ausgeben(System.out);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.javadbconnectivity.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Konsistentes Hashing: jeder Shard belegt mehrere virtuelle Punkte auf einem
+ * 64-Bit-Ring, ein Schlüssel gehört zum nächsten Punkt im Uhrzeigersinn.
+ *
+ * Kommt ein Shard hinzu, wechseln nur die Schlüssel den Shard, die auf seine
+ * neuen Punkte fallen (etwa 1/n aller Schlüssel); bei einfachem
+ * {@code hash % n} würden fast alle Schlüssel umziehen.
+ *
+ * Instanzen sind unveränderlich.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class HashRing {
+
+    /** Anzahl virtueller Punkte pro Shard; mehr Punkte verteilen gleichmäßiger */
+    public static final int VIRTUELLE_PUNKTE = 128;
+
+    private final NavigableMap<Long, Shard> punkte = new TreeMap<>();
+
+    /**
+     * @param shards die beteiligten Shards (mindestens einer)
+     */
+    public HashRing(Collection<Shard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Mindestens ein Shard erforderlich");
+        }
+        for (Shard shard : shards) {
+            for (int i = 0; i < VIRTUELLE_PUNKTE; i++) {
+                punkte.put(hash(shard.name() + "/" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * @param schluessel der Schlüsselwert (null wird wie "" behandelt)
+     * @return der zuständige Shard
+     */
+    public Shard shardFuer(String schluessel) {
+        Map.Entry<Long, Shard> eintrag = punkte.ceilingEntry(hash(schluessel == null ? "" : schluessel));
+        return (eintrag != null ? eintrag : punkte.firstEntry()).getValue();
+    }
+
+    /**
+     * 64-Bit-FNV-1a über die UTF-8-Bytes mit anschließender Durchmischung,
+     * damit auch ähnliche Schlüssel wie "1", "2", "3" gleichmäßig streuen.
+     */
+    static long hash(String wert) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : wert.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
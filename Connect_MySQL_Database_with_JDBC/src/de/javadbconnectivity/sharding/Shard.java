@@ -0,0 +1,21 @@
+package de.javadbconnectivity.sharding;
+
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Eine einzelne Datenbank innerhalb eines {@link ShardRouter}.
+ *
+ * @param name der eindeutige Name des Shards
+ * @param nummer die fortlaufende Nummer ab 0; bestimmt den Id-Bereich des Shards
+ * @param pool der Verbindungspool zu dieser Datenbank
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Shard(String name, int nummer, VerbindungsPool pool) {
+
+    @Override
+    public String toString() {
+        return name + "#" + nummer;
+    }
+}
@@ -0,0 +1,24 @@
+package de.javadbconnectivity.sharding;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Eine Arbeit, die auf einer ausgeliehenen Verbindung eines Shards läuft.
+ *
+ * @param <T> der Ergebnistyp
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ShardAufgabe<T> {
+
+    /**
+     * @param shard der Shard, zu dem die Verbindung gehört
+     * @param verbindung die ausgeliehene Verbindung (nicht schließen)
+     * @return das Ergebnis für diesen Shard
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    T ausfuehren(Shard shard, Connection verbindung) throws SQLException;
+}
@@ -0,0 +1,497 @@
+package de.javadbconnectivity.sharding;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.javadbconnectivity.bericht.BerichtsFormat;
+import de.javadbconnectivity.bericht.BerichtsSchreiber;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Verteilt Mitarbeiter nach einem {@link ShardSchluessel} auf mehrere Datenbanken
+ * mit identischem Schema ({@code sql/table-setup.sql}).
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Operationen per konsistentem Hashing ({@link HashRing}) genau einem Shard zuordnet
+ * - shardübergreifende Abfragen parallel auf virtuellen Threads ausführt
+ * - die pro Shard sortierten Teilergebnisse zu einer Gesamtliste zusammenführt
+ * - global eindeutige Ids über {@code auto_increment_increment/-offset} vergibt
+ *
+ * Jeder Shard erhält über die Sitzungsvariablen einen eigenen Id-Bereich
+ * (Id ≡ Nummer + 1 mod {@link #MAX_SHARDS}) für neue Zeilen. Zeilen, die schon
+ * vorher in den Datenbanken lagen, etwa die Beispieldaten aus
+ * {@code sql/table-setup.sql} auf jedem Shard, können dieselbe Id tragen.
+ * Zusammengeführte Listen unterscheiden Zeilen deshalb nach Shard und Id, und
+ * {@link ShardUmverteilung} verschiebt nichts, solange auf einem Ziel ein
+ * anderer Mitarbeiter mit derselben Id liegt.
+ *
+ * Vom Hinzufügen eines Shards bis zum Abschluss von {@link ShardUmverteilung}
+ * kann eine Zeile noch bei einem früheren Eigentümer, schon beim neuen oder
+ * während des Kopierens auf beiden liegen. Gezielte Abfragen fragen dann alle
+ * Eigentümer seit der letzten abgeschlossenen Umverteilung, und eine Zeile, die
+ * mit gleicher Id und gleichem Inhalt auf mehreren Shards liegt, gilt als
+ * Kopie und wird nur einmal übernommen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ShardRouter implements AutoCloseable {
+
+    /** Höchstzahl an Shards; zugleich die Schrittweite der Ids */
+    public static final int MAX_SHARDS = 64;
+
+    /** Sortierung zusammengeführter Listen, wie {@code ORDER BY last_name} in den Demos */
+    public static final Comparator<Mitarbeiter> REIHENFOLGE = Comparator
+        .comparing(Mitarbeiter::nachname, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+        .thenComparing(Mitarbeiter::vorname, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+        .thenComparingInt(Mitarbeiter::id);
+
+    private static final String EINFUEGEN_MIT_ID =
+        "INSERT INTO employees (" + Mitarbeiter.SPALTEN + ") VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String EINFUEGEN_OHNE_ID =
+        "INSERT INTO employees (last_name, first_name, email, department, salary) VALUES (?, ?, ?, ?, ?)";
+
+    private final ShardSchluessel schluessel;
+    private final int poolGroesseProShard;
+    private final ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile List<Shard> shards = List.of();
+    private volatile HashRing ring;
+    /** Frühere Ringe, zu denen Zeilen noch passen können, ältester zuerst; leer ohne ausstehende Umverteilung */
+    private volatile List<HashRing> offeneRinge = List.of();
+
+    /**
+     * @param schluessel das Verteilungsmerkmal
+     * @param poolGroesseProShard die Poolgröße jedes Shards
+     */
+    public ShardRouter(ShardSchluessel schluessel, int poolGroesseProShard) {
+        this.schluessel = schluessel;
+        this.poolGroesseProShard = poolGroesseProShard;
+    }
+
+    /**
+     * Fügt einen Shard hinzu. Bereits vorhandene Zeilen, die nun zum neuen Shard
+     * gehören, werden erst durch {@link ShardUmverteilung} verschoben; bis dahin
+     * fragen gezielte Abfragen auch die bisherigen Eigentümer.
+     *
+     * @param name der eindeutige Name des Shards
+     * @param konfiguration die Verbindungsdaten der Datenbank
+     * @return der neue Shard
+     */
+    public synchronized Shard shardHinzufuegen(String name, DatenbankKonfiguration konfiguration) {
+        if (shards.size() == MAX_SHARDS) {
+            throw new IllegalStateException("Höchstens " + MAX_SHARDS + " Shards möglich");
+        }
+        for (Shard vorhanden : shards) {
+            if (vorhanden.name().equals(name)) {
+                throw new IllegalArgumentException("Shard existiert bereits: " + name);
+            }
+        }
+        int nummer = shards.size();
+        DatenbankKonfiguration mitIdBereich = konfiguration.mitUrlParametern(
+            "sessionVariables=auto_increment_increment=" + MAX_SHARDS
+                + ",auto_increment_offset=" + (nummer + 1));
+        Shard shard = new Shard(name, nummer, new VerbindungsPool(mitIdBereich, poolGroesseProShard));
+
+        List<Shard> neu = new ArrayList<>(shards);
+        neu.add(shard);
+        if (ring != null) {
+            List<HashRing> offen = new ArrayList<>(offeneRinge);
+            offen.add(ring);
+            offeneRinge = List.copyOf(offen);
+        }
+        ring = new HashRing(neu);
+        shards = List.copyOf(neu);
+        return shard;
+    }
+
+    /**
+     * @return alle Shards in der Reihenfolge ihres Hinzufügens
+     */
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * @return das Verteilungsmerkmal
+     */
+    public ShardSchluessel getSchluessel() {
+        return schluessel;
+    }
+
+    /**
+     * @param schluesselWert der Wert des Verteilungsmerkmals
+     * @return der zuständige Shard
+     */
+    public Shard shardFuer(String schluesselWert) {
+        HashRing aktuell = ring;
+        if (aktuell == null) {
+            throw new IllegalStateException("Kein Shard konfiguriert");
+        }
+        return aktuell.shardFuer(schluesselWert);
+    }
+
+    /**
+     * @param mitarbeiter der Mitarbeiter
+     * @return der für ihn zuständige Shard
+     */
+    public Shard shardFuer(Mitarbeiter mitarbeiter) {
+        return shardFuer(schluessel.wert(mitarbeiter));
+    }
+
+    /**
+     * Fügt einen Mitarbeiter auf seinem Shard ein. Bei {@link ShardSchluessel#ID}
+     * muss die Id gesetzt sein, sonst vergibt der Shard sie aus seinem Id-Bereich.
+     *
+     * @param mitarbeiter der neue Mitarbeiter
+     * @return die Id des eingefügten Mitarbeiters
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int einfuegen(Mitarbeiter mitarbeiter) throws SQLException {
+        boolean mitId = mitarbeiter.id() > 0;
+        if (!mitId && schluessel == ShardSchluessel.ID) {
+            throw new IllegalArgumentException("Verteilung nach Id erfordert eine gesetzte Id: " + mitarbeiter);
+        }
+        return aufShard(shardFuer(mitarbeiter), (shard, verbindung) -> {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    mitId ? EINFUEGEN_MIT_ID : EINFUEGEN_OHNE_ID, Statement.RETURN_GENERATED_KEYS)) {
+                int index = 1;
+                if (mitId) {
+                    statement.setInt(index++, mitarbeiter.id());
+                }
+                statement.setString(index++, mitarbeiter.nachname());
+                statement.setString(index++, mitarbeiter.vorname());
+                statement.setString(index++, mitarbeiter.email());
+                statement.setString(index++, mitarbeiter.abteilung());
+                statement.setBigDecimal(index, mitarbeiter.gehalt());
+                statement.executeUpdate();
+                if (mitId) {
+                    return mitarbeiter.id();
+                }
+                try (ResultSet erzeugt = statement.getGeneratedKeys()) {
+                    if (!erzeugt.next()) {
+                        throw new SQLException("Keine Id erzeugt auf Shard " + shard);
+                    }
+                    return erzeugt.getInt(1);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param id die Id des Mitarbeiters
+     * @return der Mitarbeiter, falls vorhanden
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public Optional<Mitarbeiter> nachId(int id) throws SQLException {
+        ShardAufgabe<List<Mitarbeiter>> suche = (shard, verbindung) -> {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT " + Mitarbeiter.SPALTEN + " FROM employees WHERE id = ?")) {
+                statement.setInt(1, id);
+                return lesen(statement);
+            }
+        };
+        List<Mitarbeiter> treffer = gezielt(ShardSchluessel.ID, Integer.toString(id))
+            ? aufEigentuemern(Integer.toString(id), suche)
+            : ueberShards(aufAllenShards(suche));
+        return treffer.stream().findFirst();
+    }
+
+    /**
+     * Liefert die Mitarbeiter einer Abteilung über {@code get_employees_for_department},
+     * nach Namen sortiert.
+     *
+     * @param abteilung der Abteilungsname
+     * @return die Mitarbeiter der Abteilung
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<Mitarbeiter> fuerAbteilung(String abteilung) throws SQLException {
+        ShardAufgabe<List<Mitarbeiter>> aufruf = (shard, verbindung) -> {
+            try (CallableStatement statement = verbindung.prepareCall("{call get_employees_for_department(?)}")) {
+                statement.setString(1, abteilung);
+                return lesen(statement);
+            }
+        };
+        return gezielt(ShardSchluessel.ABTEILUNG, abteilung)
+            ? aufEigentuemern(abteilung, aufruf)
+            : ueberShards(aufAllenShards(aufruf));
+    }
+
+    /**
+     * Zählt die Mitarbeiter einer Abteilung über {@code get_count_for_department};
+     * bei Verteilung nach Id werden die Teilsummen aller Shards addiert. Steht
+     * eine Umverteilung aus, könnten Teilsummen kopierte Zeilen enthalten; dann
+     * wird über {@link #fuerAbteilung} gezählt.
+     *
+     * @param abteilung der Abteilungsname
+     * @return die Anzahl der Mitarbeiter
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int anzahlFuerAbteilung(String abteilung) throws SQLException {
+        ShardAufgabe<Integer> aufruf = (shard, verbindung) -> {
+            try (CallableStatement statement = verbindung.prepareCall("{call get_count_for_department(?, ?)}")) {
+                statement.setString(1, abteilung);
+                statement.registerOutParameter(2, Types.INTEGER);
+                statement.execute();
+                return statement.getInt(2);
+            }
+        };
+        if (!offeneRinge.isEmpty()) {
+            return fuerAbteilung(abteilung).size();
+        }
+        if (gezielt(ShardSchluessel.ABTEILUNG, abteilung)) {
+            return aufShard(shardFuer(abteilung), aufruf);
+        }
+        int summe = 0;
+        for (int anzahl : aufAllenShards(aufruf)) {
+            summe += anzahl;
+        }
+        return summe;
+    }
+
+    /**
+     * Liest alle Mitarbeiter aller Shards parallel, wie {@code JdbcTest} für eine
+     * einzelne Datenbank, und führt sie sortiert zusammen.
+     *
+     * @return alle Mitarbeiter in {@link #REIHENFOLGE}
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<Mitarbeiter> alle() throws SQLException {
+        return ueberShards(aufAllenShards((shard, verbindung) -> {
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT " + Mitarbeiter.SPALTEN + " FROM employees")) {
+                return lesen(statement);
+            }
+        }));
+    }
+
+    /**
+     * Führt eine Aufgabe auf einer Verbindung des Shards aus.
+     *
+     * @param <T> der Ergebnistyp
+     * @param shard der Ziel-Shard
+     * @param aufgabe die Aufgabe
+     * @return das Ergebnis der Aufgabe
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public <T> T aufShard(Shard shard, ShardAufgabe<T> aufgabe) throws SQLException {
+        Connection verbindung = shard.pool().ausleihen();
+        try {
+            return aufgabe.ausfuehren(shard, verbindung);
+        } finally {
+            shard.pool().zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Führt eine Aufgabe parallel auf allen Shards aus. Schlägt ein Shard fehl,
+     * werden die übrigen abgebrochen und der Fehler mit dem Shardnamen geworfen.
+     *
+     * @param <T> der Ergebnistyp
+     * @param aufgabe die Aufgabe
+     * @return die Ergebnisse in der Reihenfolge von {@link #getShards()}
+     * @throws SQLException wenn ein Shard fehlschlägt
+     */
+    public <T> List<T> aufAllenShards(ShardAufgabe<T> aufgabe) throws SQLException {
+        List<Shard> ziele = shards;
+        List<Future<T>> laufend = new ArrayList<>(ziele.size());
+        for (Shard shard : ziele) {
+            laufend.add(ausfuehrer.submit(() -> aufShard(shard, aufgabe)));
+        }
+
+        List<T> ergebnisse = new ArrayList<>(ziele.size());
+        try {
+            for (int i = 0; i < laufend.size(); i++) {
+                try {
+                    ergebnisse.add(laufend.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new SQLException("Shard " + ziele.get(i) + " fehlgeschlagen: "
+                        + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf Shards unterbrochen", e);
+        } finally {
+            for (Future<T> f : laufend) {
+                f.cancel(true);
+            }
+        }
+        return ergebnisse;
+    }
+
+    /**
+     * Führt pro Shard sortierte Listen per k-Wege-Mischen zusammen. Jede
+     * Teilliste stammt von einem anderen Shard; Zeilen verschiedener Shards
+     * bleiben auch bei gleicher Id getrennt.
+     *
+     * @param teillisten die Teilergebnisse, jeweils in {@link #REIHENFOLGE}
+     * @return die Gesamtliste in {@link #REIHENFOLGE}
+     */
+    public static List<Mitarbeiter> zusammenfuehren(List<List<Mitarbeiter>> teillisten) {
+        return zusammenfuehren(teillisten, false);
+    }
+
+    /**
+     * @param kopienEntfernen ob gleiche Zeilen (gleiche Id, gleicher Inhalt)
+     *                        verschiedener Shards nur einmal übernommen werden
+     */
+    private static List<Mitarbeiter> zusammenfuehren(List<List<Mitarbeiter>> teillisten, boolean kopienEntfernen) {
+        int gesamt = 0;
+        PriorityQueue<int[]> koepfe = new PriorityQueue<>(Math.max(1, teillisten.size()),
+            (a, b) -> REIHENFOLGE.compare(teillisten.get(a[0]).get(a[1]), teillisten.get(b[0]).get(b[1])));
+        for (int i = 0; i < teillisten.size(); i++) {
+            gesamt += teillisten.get(i).size();
+            if (!teillisten.get(i).isEmpty()) {
+                koepfe.add(new int[] {i, 0});
+            }
+        }
+
+        List<Mitarbeiter> ergebnis = new ArrayList<>(gesamt);
+        Set<Mitarbeiter> gesehen = kopienEntfernen ? new HashSet<>() : null;
+        int[] kopf;
+        while ((kopf = koepfe.poll()) != null) {
+            List<Mitarbeiter> liste = teillisten.get(kopf[0]);
+            Mitarbeiter mitarbeiter = liste.get(kopf[1]);
+            if (gesehen == null || gesehen.add(mitarbeiter)) {
+                ergebnis.add(mitarbeiter);
+            }
+            if (++kopf[1] < liste.size()) {
+                koepfe.add(kopf);
+            }
+        }
+        return ergebnis;
+    }
+
+    /**
+     * Schließt die Pools aller Shards.
+     */
+    @Override
+    public void close() {
+        ausfuehrer.shutdownNow();
+        for (Shard shard : shards) {
+            shard.pool().close();
+        }
+    }
+
+    /**
+     * Nach einer vollständigen Umverteilung liegen alle Zeilen beim Eigentümer
+     * laut {@code verteilt}; ältere Ringe werden nicht mehr gefragt.
+     */
+    synchronized void umverteilungAbschliessen(HashRing verteilt) {
+        if (ring == verteilt) {
+            offeneRinge = List.of();
+            return;
+        }
+        // Kam während der Umverteilung ein weiterer Shard hinzu, bleibt verteilt als Vorgänger offen
+        List<HashRing> offen = offeneRinge;
+        int index = offen.indexOf(verteilt);
+        if (index > 0) {
+            offeneRinge = List.copyOf(offen.subList(index, offen.size()));
+        }
+    }
+
+    HashRing getRing() {
+        return ring;
+    }
+
+    /** Gezielt nur, wenn nach diesem Merkmal verteilt wird */
+    private boolean gezielt(ShardSchluessel merkmal, String wert) {
+        return schluessel == merkmal && wert != null;
+    }
+
+    /** Führt Ergebnisse aller Shards zusammen; Kopien gibt es nur während einer Umverteilung */
+    private List<Mitarbeiter> ueberShards(List<List<Mitarbeiter>> teillisten) {
+        return zusammenfuehren(teillisten, !offeneRinge.isEmpty());
+    }
+
+    /**
+     * Führt eine gezielte Abfrage beim Eigentümer aus und, solange eine
+     * Umverteilung aussteht, auch bei allen früheren Eigentümern.
+     */
+    private List<Mitarbeiter> aufEigentuemern(String schluesselWert, ShardAufgabe<List<Mitarbeiter>> aufgabe)
+            throws SQLException {
+        List<HashRing> offen = offeneRinge;
+        Shard eigentuemer = shardFuer(schluesselWert);
+        List<Shard> ziele = new ArrayList<>(offen.size() + 1);
+        for (HashRing vorher : offen) {
+            Shard bisher = vorher.shardFuer(schluesselWert);
+            if (!bisher.equals(eigentuemer) && !ziele.contains(bisher)) {
+                ziele.add(bisher);
+            }
+        }
+        if (ziele.isEmpty()) {
+            return aufShard(eigentuemer, aufgabe);
+        }
+        // Ältere Eigentümer zuerst lesen: die Umverteilung löscht dort erst nach dem Commit auf dem Ziel
+        ziele.add(eigentuemer);
+        List<List<Mitarbeiter>> teillisten = new ArrayList<>(ziele.size());
+        for (Shard ziel : ziele) {
+            teillisten.add(aufShard(ziel, aufgabe));
+        }
+        return zusammenfuehren(teillisten, true);
+    }
+
+    /** Liest alle Zeilen und sortiert sie bereits auf dem Shard-Thread */
+    private static List<Mitarbeiter> lesen(PreparedStatement statement) throws SQLException {
+        List<Mitarbeiter> liste = new ArrayList<>();
+        try (ResultSet ergebnisSet = statement.executeQuery()) {
+            while (ergebnisSet.next()) {
+                liste.add(Mitarbeiter.ausZeile(ergebnisSet));
+            }
+        }
+        liste.sort(REIHENFOLGE);
+        return liste;
+    }
+
+    /**
+     * Zeigt alle Mitarbeiter und die Anzahl pro Abteilung über alle Shards.
+     * Aufruf: {@code ShardRouter [ABTEILUNG|ID] url1 url2 ...}
+     *
+     * @param args das Verteilungsmerkmal und die JDBC-URLs der Shards
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        ShardSchluessel schluessel = args.length > 0
+            ? ShardSchluessel.valueOf(args[0].toUpperCase()) : ShardSchluessel.ABTEILUNG;
+        DatenbankKonfiguration basis = DatenbankKonfiguration.standard();
+
+        try (ShardRouter router = new ShardRouter(schluessel, 2)) {
+            if (args.length < 2) {
+                router.shardHinzufuegen("shard0", basis);
+            }
+            for (int i = 1; i < args.length; i++) {
+                router.shardHinzufuegen("shard" + (i - 1), basis.mitUrl(args[i]));
+            }
+
+            System.out.println("Shards: " + router.getShards() + ", Verteilung nach " + schluessel);
+            try (BerichtsSchreiber schreiber = BerichtsSchreiber.stdout(BerichtsFormat.LISTE,
+                    "last_name", "first_name", "department", "salary")) {
+                for (Mitarbeiter m : router.alle()) {
+                    schreiber.text(m.nachname()).text(m.vorname()).text(m.abteilung())
+                        .betrag(m.gehalt() == null ? 0 : m.gehalt().doubleValue()).zeileBeenden();
+                }
+            }
+            for (String abteilung : List.of("HR", "Engineering", "Legal")) {
+                System.out.println(abteilung + ": " + router.anzahlFuerAbteilung(abteilung) + " Mitarbeiter");
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.javadbconnectivity.sharding;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+
+/**
+ * Legt fest, nach welchem Merkmal Mitarbeiter auf Shards verteilt werden.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public enum ShardSchluessel {
+
+    /**
+     * Alle Mitarbeiter einer Abteilung liegen auf demselben Shard. Abfragen und
+     * Prozeduraufrufe pro Abteilung treffen genau einen Shard, Suchen nach Id
+     * müssen alle Shards befragen.
+     */
+    ABTEILUNG,
+
+    /**
+     * Mitarbeiter werden nach dem Hash ihrer Id verteilt. Die Last ist gleichmäßiger,
+     * dafür müssen Abfragen pro Abteilung alle Shards befragen. Beim Einfügen muss
+     * die Id bereits feststehen.
+     */
+    ID;
+
+    /**
+     * @param mitarbeiter der Mitarbeiter
+     * @return der Wert, nach dem der Mitarbeiter verteilt wird
+     */
+    public String wert(Mitarbeiter mitarbeiter) {
+        return switch (this) {
+            case ABTEILUNG -> mitarbeiter.abteilung();
+            case ID -> Integer.toString(mitarbeiter.id());
+        };
+    }
+}
@@ -0,0 +1,255 @@
+package de.javadbconnectivity.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
+/**
+ * Verschiebt Zeilen auf den laut {@link HashRing} zuständigen Shard,
+ * nachdem mit {@link ShardRouter#shardHinzufuegen} ein Shard hinzugekommen ist.
+ *
+ * Bevor eine Zeile bewegt wird, prüft die Umverteilung alle Ziele: Liegt dort
+ * schon ein anderer Mitarbeiter mit derselben Id, oder wollen zwei Quellen
+ * verschiedene Mitarbeiter mit derselben Id auf dasselbe Ziel legen, bricht sie
+ * ohne Änderung ab. Eine gleiche Zeile mit gleicher Id gilt als Kopie.
+ *
+ * Pro Stapel wird zuerst auf dem Ziel eingefügt und bestätigt, danach auf der
+ * Quelle gelöscht. Das Einfügen überschreibt nichts; vor dem Commit wird
+ * nachgelesen, ob jede Id auf dem Ziel nun genau diesen Mitarbeiter enthält,
+ * sonst wird der Stapel zurückgerollt. Bricht der Vorgang zwischen Ziel und
+ * Quelle ab, liegt eine Zeile kurzzeitig doppelt vor; ein erneuter Lauf
+ * erkennt die Kopie und entfernt sie von der Quelle. Schreibzugriffe auf
+ * betroffene Schlüssel sollten während der Umverteilung ruhen. Lesezugriffe
+ * fragt der Router bis zum erfolgreichen Abschluss bei allen bisherigen
+ * Eigentümern an und übernimmt jede Kopie nur einmal.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ShardUmverteilung {
+
+    /** Standardgröße eines Stapels */
+    public static final int STANDARD_STAPEL = 500;
+
+    private static final String UEBERNEHMEN =
+        "INSERT INTO employees (" + Mitarbeiter.SPALTEN + ") VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE id = id";
+    /** Höchstzahl gemeldeter Kollisionen in der Fehlermeldung */
+    private static final int GEMELDETE_KOLLISIONEN = 10;
+
+    private ShardUmverteilung() {
+    }
+
+    /**
+     * Verschiebt alle Zeilen, die nicht auf ihrem zuständigen Shard liegen.
+     *
+     * @param router der Router mit der neuen Shard-Liste
+     * @param stapelGroesse die Anzahl Zeilen pro Einfüge-/Löschstapel
+     * @return die Anzahl verschobener Zeilen pro Richtung ("quelle -> ziel")
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static Map<String, Integer> umverteilen(ShardRouter router, int stapelGroesse)
+            throws SQLException {
+        Map<String, Integer> verschoben = new LinkedHashMap<>();
+        HashRing verteilt = router.getRing();
+        Map<Shard, Map<Shard, List<Mitarbeiter>>> plan = new LinkedHashMap<>();
+        for (Shard quelle : router.getShards()) {
+            plan.put(quelle, router.aufShard(quelle, (shard, verbindung) ->
+                falschPlatziert(router, verteilt, shard, verbindung)));
+        }
+        kollisionenPruefen(router, plan, stapelGroesse);
+
+        for (Map.Entry<Shard, Map<Shard, List<Mitarbeiter>>> umzuege : plan.entrySet()) {
+            Shard quelle = umzuege.getKey();
+            for (Map.Entry<Shard, List<Mitarbeiter>> eintrag : umzuege.getValue().entrySet()) {
+                List<Mitarbeiter> zeilen = eintrag.getValue();
+                for (int von = 0; von < zeilen.size(); von += stapelGroesse) {
+                    List<Mitarbeiter> stapel = zeilen.subList(von, Math.min(zeilen.size(), von + stapelGroesse));
+                    router.aufShard(eintrag.getKey(), (ziel, verbindung) -> uebernehmen(ziel, verbindung, stapel));
+                    router.aufShard(quelle, (shard, verbindung) -> loeschen(verbindung, stapel));
+                }
+                verschoben.merge(quelle.name() + " -> " + eintrag.getKey().name(), zeilen.size(), Integer::sum);
+            }
+        }
+        // Erst jetzt liegt jede Zeile nur noch beim Eigentümer laut Ring
+        router.umverteilungAbschliessen(verteilt);
+        return verschoben;
+    }
+
+    private static Map<Shard, List<Mitarbeiter>> falschPlatziert(ShardRouter router, HashRing verteilt,
+                                                                 Shard quelle, Connection verbindung)
+            throws SQLException {
+        Map<Shard, List<Mitarbeiter>> umzuege = new LinkedHashMap<>();
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "SELECT " + Mitarbeiter.SPALTEN + " FROM employees ORDER BY id");
+             ResultSet ergebnisSet = statement.executeQuery()) {
+            while (ergebnisSet.next()) {
+                Mitarbeiter mitarbeiter = Mitarbeiter.ausZeile(ergebnisSet);
+                Shard ziel = verteilt.shardFuer(router.getSchluessel().wert(mitarbeiter));
+                if (!ziel.equals(quelle)) {
+                    umzuege.computeIfAbsent(ziel, s -> new ArrayList<>()).add(mitarbeiter);
+                }
+            }
+        }
+        return umzuege;
+    }
+
+    /**
+     * Bricht ab, wenn ein Ziel dieselbe Id für einen anderen Mitarbeiter schon
+     * enthält oder von zwei Quellen mit verschiedenen Mitarbeitern bekäme.
+     */
+    private static void kollisionenPruefen(ShardRouter router, Map<Shard, Map<Shard, List<Mitarbeiter>>> plan,
+                                           int stapelGroesse) throws SQLException {
+        Map<Shard, Map<Integer, Mitarbeiter>> eingehend = new LinkedHashMap<>();
+        Map<Mitarbeiter, Shard> herkunft = new HashMap<>();
+        List<String> kollisionen = new ArrayList<>();
+        for (Map.Entry<Shard, Map<Shard, List<Mitarbeiter>>> umzuege : plan.entrySet()) {
+            for (Map.Entry<Shard, List<Mitarbeiter>> eintrag : umzuege.getValue().entrySet()) {
+                Map<Integer, Mitarbeiter> ziel = eingehend.computeIfAbsent(eintrag.getKey(), s -> new HashMap<>());
+                for (Mitarbeiter m : eintrag.getValue()) {
+                    herkunft.putIfAbsent(m, umzuege.getKey());
+                    Mitarbeiter frueher = ziel.putIfAbsent(m.id(), m);
+                    if (frueher != null && !frueher.equals(m)) {
+                        kollisionen.add("Id " + m.id() + " von " + herkunft.get(frueher) + " und "
+                            + umzuege.getKey() + " nach " + eintrag.getKey());
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<Shard, Map<Integer, Mitarbeiter>> eintrag : eingehend.entrySet()) {
+            Map<Integer, Mitarbeiter> zeilen = eintrag.getValue();
+            List<Integer> ids = new ArrayList<>(zeilen.keySet());
+            for (int von = 0; von < ids.size(); von += stapelGroesse) {
+                List<Integer> teil = ids.subList(von, Math.min(ids.size(), von + stapelGroesse));
+                Map<Integer, Mitarbeiter> vorhanden =
+                    router.aufShard(eintrag.getKey(), (ziel, verbindung) -> nachIds(verbindung, teil));
+                for (Mitarbeiter m : vorhanden.values()) {
+                    if (!m.equals(zeilen.get(m.id()))) {
+                        kollisionen.add("Id " + m.id() + " auf " + eintrag.getKey() + " schon vergeben");
+                    }
+                }
+            }
+        }
+
+        if (!kollisionen.isEmpty()) {
+            throw new SQLIntegrityConstraintViolationException("Umverteilung abgebrochen, keine Zeile verschoben; "
+                + kollisionen.size() + " Id-Kollisionen: "
+                + String.join(", ", kollisionen.subList(0, Math.min(GEMELDETE_KOLLISIONEN, kollisionen.size())))
+                + (kollisionen.size() > GEMELDETE_KOLLISIONEN ? ", ..." : ""));
+        }
+    }
+
+    private static Void uebernehmen(Shard ziel, Connection verbindung, List<Mitarbeiter> stapel)
+            throws SQLException {
+        verbindung.setAutoCommit(false);
+        try (PreparedStatement statement = verbindung.prepareStatement(UEBERNEHMEN)) {
+            for (Mitarbeiter m : stapel) {
+                statement.setInt(1, m.id());
+                statement.setString(2, m.nachname());
+                statement.setString(3, m.vorname());
+                statement.setString(4, m.email());
+                statement.setString(5, m.abteilung());
+                statement.setBigDecimal(6, m.gehalt());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            List<Integer> ids = new ArrayList<>(stapel.size());
+            for (Mitarbeiter m : stapel) {
+                ids.add(m.id());
+            }
+            // Seit der Prüfung könnte die Id auf dem Ziel vergeben worden sein
+            Map<Integer, Mitarbeiter> vorhanden = nachIds(verbindung, ids);
+            for (Mitarbeiter m : stapel) {
+                if (!m.equals(vorhanden.get(m.id()))) {
+                    throw new SQLIntegrityConstraintViolationException(
+                        "Id " + m.id() + " auf " + ziel + " gehört einem anderen Mitarbeiter");
+                }
+            }
+            verbindung.commit();
+        } catch (SQLException | RuntimeException e) {
+            // setAutoCommit(true) im finally würde die bereits eingefügten Zeilen bestätigen
+            verbindung.rollback();
+            throw e;
+        } finally {
+            verbindung.setAutoCommit(true);
+        }
+        return null;
+    }
+
+    private static Map<Integer, Mitarbeiter> nachIds(Connection verbindung, List<Integer> ids) throws SQLException {
+        StringJoiner platzhalter = new StringJoiner(", ",
+            "SELECT " + Mitarbeiter.SPALTEN + " FROM employees WHERE id IN (", ")");
+        for (int i = 0; i < ids.size(); i++) {
+            platzhalter.add("?");
+        }
+        Map<Integer, Mitarbeiter> gefunden = new HashMap<>();
+        try (PreparedStatement statement = verbindung.prepareStatement(platzhalter.toString())) {
+            for (int i = 0; i < ids.size(); i++) {
+                statement.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                while (ergebnisSet.next()) {
+                    Mitarbeiter mitarbeiter = Mitarbeiter.ausZeile(ergebnisSet);
+                    gefunden.put(mitarbeiter.id(), mitarbeiter);
+                }
+            }
+        }
+        return gefunden;
+    }
+
+    private static Void loeschen(Connection verbindung, List<Mitarbeiter> stapel) throws SQLException {
+        StringJoiner platzhalter = new StringJoiner(", ", "DELETE FROM employees WHERE id IN (", ")");
+        for (int i = 0; i < stapel.size(); i++) {
+            platzhalter.add("?");
+        }
+        try (PreparedStatement statement = verbindung.prepareStatement(platzhalter.toString())) {
+            for (int i = 0; i < stapel.size(); i++) {
+                statement.setInt(i + 1, stapel.get(i).id());
+            }
+            statement.executeUpdate();
+        }
+        return null;
+    }
+
+    /**
+     * Fügt Shards hinzu und verteilt die vorhandenen Zeilen um.
+     * Aufruf: {@code ShardUmverteilung ABTEILUNG|ID alteUrl1,alteUrl2 neueUrl1 ...}
+     *
+     * @param args das Verteilungsmerkmal, die bisherigen und die neuen Shard-URLs
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Aufruf: ShardUmverteilung ABTEILUNG|ID alteUrl1,alteUrl2,... neueUrl ...");
+            return;
+        }
+        DatenbankKonfiguration basis = DatenbankKonfiguration.standard();
+
+        try (ShardRouter router = new ShardRouter(ShardSchluessel.valueOf(args[0].toUpperCase()), 2)) {
+            int nummer = 0;
+            for (String url : args[1].split(",")) {
+                router.shardHinzufuegen("shard" + nummer++, basis.mitUrl(url));
+            }
+            for (int i = 2; i < args.length; i++) {
+                router.shardHinzufuegen("shard" + nummer++, basis.mitUrl(args[i]));
+            }
+
+            long start = System.nanoTime();
+            Map<String, Integer> verschoben = umverteilen(router, STANDARD_STAPEL);
+            verschoben.forEach((richtung, anzahl) -> System.out.println(richtung + ": " + anzahl + " Zeilen"));
+            System.out.printf("Umverteilung abgeschlossen in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
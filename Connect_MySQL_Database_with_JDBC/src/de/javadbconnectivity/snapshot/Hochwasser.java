@@ -0,0 +1,30 @@
+package de.javadbconnectivity.snapshot;
+
+/**
+ * Bis wohin ein Schnappschuss den Stand der Tabelle {@code employees} enthält.
+ *
+ * @param maxId die größte enthaltene Id
+ * @param geaendertBisMs der späteste enthaltene Wert von {@code updated_at}
+ *                       in Millisekunden seit 1970 (0 = unbekannt)
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Hochwasser(int maxId, long geaendertBisMs) {
+
+    /**
+     * @return der Stand einer leeren Tabelle; das Nachholen lädt dann alles
+     */
+    public static Hochwasser leer() {
+        return new Hochwasser(0, 0);
+    }
+
+    /**
+     * @param id eine gelesene Id
+     * @param geaendertMs ihr {@code updated_at}-Wert oder 0
+     * @return das um diese Zeile erweiterte Hochwasser
+     */
+    public Hochwasser mit(int id, long geaendertMs) {
+        return new Hochwasser(Math.max(maxId, id), Math.max(geaendertBisMs, geaendertMs));
+    }
+}
@@ -0,0 +1,253 @@
+package de.javadbconnectivity.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Lokale Lesekopie der Tabelle {@code employees}, die beim Start aus einem
+ * {@link Schnappschuss} geladen und danach inkrementell aus der Datenbank
+ * nachgeführt wird.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - den Start beschleunigt, indem der letzte Stand per Memory-Mapping geöffnet wird
+ * - nur Zeilen oberhalb des {@link Hochwasser}s nachlädt
+ * - gelöschte Zeilen über einen reinen Id-Abgleich erkennt
+ * - den aktuellen Stand wieder als Schnappschuss speichert
+ *
+ * Änderungen bestehender Zeilen werden nur mit der Spalte {@code updated_at}
+ * erkannt (siehe {@code sql/updated-at-column.sql}); ohne sie werden nur neue
+ * und gelöschte Zeilen nachgeholt. Nachgeladene Zeilen liegen in einer
+ * Überlagerung über dem unveränderten Schnappschuss.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class MitarbeiterSpiegel {
+
+    /** Spalte mit dem Änderungszeitpunkt */
+    public static final String ZEITSTEMPEL_SPALTE = "updated_at";
+
+    /**
+     * Sicherheitsabstand beim Nachholen: Transaktionen, die vor dem letzten
+     * Nachholen begonnen, aber erst danach bestätigt wurden, tragen einen
+     * älteren Zeitstempel als das Hochwasser.
+     */
+    private static final long NACHLAUF_MS = 5_000;
+
+    private final VerbindungsPool pool;
+    private final Schnappschuss basis;
+    private final Map<Integer, Mitarbeiter> geaendert = new ConcurrentHashMap<>();
+    private final Set<Integer> geloescht = ConcurrentHashMap.newKeySet();
+    private volatile Hochwasser hochwasser;
+    private Boolean zeitstempelVorhanden;
+
+    private MitarbeiterSpiegel(VerbindungsPool pool, Schnappschuss basis) {
+        this.pool = pool;
+        this.basis = basis;
+        this.hochwasser = basis == null ? Hochwasser.leer() : basis.getHochwasser();
+    }
+
+    /**
+     * Öffnet den Schnappschuss, falls vorhanden und gültig, und holt danach
+     * alle Änderungen aus der Datenbank nach. Ohne Schnappschuss wird die
+     * Tabelle vollständig geladen.
+     *
+     * @param datei die Zeigerdatei des Schnappschusses
+     * @param pool der Verbindungspool
+     * @return der aktuelle Spiegel
+     * @throws SQLException wenn das Nachholen fehlschlägt
+     */
+    public static MitarbeiterSpiegel laden(Path datei, VerbindungsPool pool) throws SQLException {
+        MitarbeiterSpiegel spiegel = new MitarbeiterSpiegel(pool, oeffnenFallsGueltig(datei));
+        spiegel.nachholen();
+        return spiegel;
+    }
+
+    /**
+     * Lädt neue und geänderte Zeilen oberhalb des Hochwassers und entfernt
+     * gelöschte Zeilen.
+     *
+     * @return die Anzahl nachgeladener Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public synchronized int nachholen() throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            if (zeitstempelVorhanden == null) {
+                zeitstempelVorhanden = spalteVorhanden(verbindung.getMetaData());
+            }
+            Hochwasser stand = hochwasser;
+            int geladen = 0;
+            String sql = zeitstempelVorhanden
+                ? "SELECT " + Mitarbeiter.SPALTEN + ", " + ZEITSTEMPEL_SPALTE
+                    + " FROM employees WHERE id > ? OR " + ZEITSTEMPEL_SPALTE + " >= ?"
+                : "SELECT " + Mitarbeiter.SPALTEN + " FROM employees WHERE id > ?";
+            try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+                statement.setInt(1, stand.maxId());
+                if (zeitstempelVorhanden) {
+                    statement.setTimestamp(2, new Timestamp(
+                        Math.max(0, stand.geaendertBisMs() - NACHLAUF_MS)));
+                }
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    while (ergebnisSet.next()) {
+                        Mitarbeiter m = Mitarbeiter.ausZeile(ergebnisSet);
+                        long geaendertMs = zeitstempelVorhanden
+                            ? ergebnisSet.getTimestamp(ZEITSTEMPEL_SPALTE).getTime() : 0;
+                        geaendert.put(m.id(), m);
+                        geloescht.remove(m.id());
+                        stand = stand.mit(m.id(), geaendertMs);
+                        geladen++;
+                    }
+                }
+            }
+            loeschungenAbgleichen(verbindung);
+            hochwasser = stand;
+            return geladen;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * @param id die Id
+     * @return der Mitarbeiter oder null
+     */
+    public Mitarbeiter nachId(int id) {
+        if (geloescht.contains(id)) {
+            return null;
+        }
+        Mitarbeiter m = geaendert.get(id);
+        return m != null || basis == null ? m : basis.nachId(id);
+    }
+
+    /**
+     * Dekodiert alle Mitarbeiter; bei großen Schnappschüssen entsprechend teuer.
+     *
+     * @return alle Mitarbeiter, nach Id sortiert
+     */
+    public List<Mitarbeiter> alle() {
+        Map<Integer, Mitarbeiter> alle = new TreeMap<>();
+        if (basis != null) {
+            for (int i = 0; i < basis.getAnzahl(); i++) {
+                alle.put(basis.id(i), basis.get(i));
+            }
+        }
+        alle.putAll(geaendert);
+        alle.keySet().removeAll(geloescht);
+        return new ArrayList<>(alle.values());
+    }
+
+    /**
+     * @return der aktuelle Stand
+     */
+    public Hochwasser getHochwasser() {
+        return hochwasser;
+    }
+
+    /**
+     * @return die Anzahl seit dem Schnappschuss nachgeladener Zeilen
+     */
+    public int getNachgeladen() {
+        return geaendert.size();
+    }
+
+    /**
+     * Speichert den aktuellen Stand als neuen Schnappschuss. Der geladene
+     * Schnappschuss bleibt bis zum nächsten Start in Gebrauch; da eine neue
+     * Generation geschrieben wird, darf {@code datei} dieselbe Datei sein, aus
+     * der geladen wurde.
+     *
+     * @param datei die Zeigerdatei des Schnappschusses
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public synchronized void speichern(Path datei) throws IOException {
+        Schnappschuss.schreiben(datei, alle(), hochwasser);
+    }
+
+    private void loeschungenAbgleichen(Connection verbindung) throws SQLException {
+        Set<Integer> vorhanden = new HashSet<>();
+        try (Statement statement = verbindung.createStatement();
+             ResultSet ergebnisSet = statement.executeQuery("SELECT id FROM employees")) {
+            while (ergebnisSet.next()) {
+                vorhanden.add(ergebnisSet.getInt(1));
+            }
+        }
+        if (basis != null) {
+            for (int i = 0; i < basis.getAnzahl(); i++) {
+                if (!vorhanden.contains(basis.id(i))) {
+                    geloescht.add(basis.id(i));
+                }
+            }
+        }
+        geaendert.keySet().retainAll(vorhanden);
+    }
+
+    private static Schnappschuss oeffnenFallsGueltig(Path datei) {
+        if (!Files.exists(datei)) {
+            return null;
+        }
+        try {
+            return Schnappschuss.oeffnen(datei);
+        } catch (IOException e) {
+            System.err.println("Schnappschuss wird ignoriert: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean spalteVorhanden(DatabaseMetaData metaDaten) throws SQLException {
+        try (ResultSet spalten = metaDaten.getColumns(null, null, "employees", ZEITSTEMPEL_SPALTE)) {
+            return spalten.next();
+        }
+    }
+
+    /**
+     * Lädt den Spiegel, misst Lade- und Nachholzeit und speichert den neuen Stand.
+     *
+     * @param args optional {@code datei=}, Vorgabe {@code employees.snapshot}
+     * @throws SQLException bei Datenbankfehlern
+     * @throws IOException wenn der Schnappschuss nicht gespeichert werden kann
+     */
+    public static void main(String[] args) throws SQLException, IOException {
+        Path datei = Path.of(args.length > 0 && args[0].startsWith("datei=")
+            ? args[0].substring("datei=".length()) : "employees.snapshot");
+
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 1)) {
+            long start = System.nanoTime();
+            Schnappschuss basis = oeffnenFallsGueltig(datei);
+            long geoeffnetNs = System.nanoTime() - start;
+
+            MitarbeiterSpiegel spiegel = new MitarbeiterSpiegel(pool, basis);
+            long nachholStart = System.nanoTime();
+            int geladen = spiegel.nachholen();
+            long nachholNs = System.nanoTime() - nachholStart;
+
+            System.out.printf("Schnappschuss: %s (%.2f ms)%n",
+                basis == null ? "keiner" : basis.getAnzahl() + " Mitarbeiter, " + basis.getHochwasser(),
+                geoeffnetNs / 1e6);
+            System.out.printf("Nachgeholt: %d Zeilen (%.2f ms), Stand %s%n",
+                geladen, nachholNs / 1e6, spiegel.getHochwasser());
+
+            spiegel.speichern(datei);
+            System.out.println("Gespeichert: " + datei.toAbsolutePath());
+        }
+    }
+}
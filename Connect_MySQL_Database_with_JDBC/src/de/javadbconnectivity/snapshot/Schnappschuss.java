@@ -0,0 +1,368 @@
+package de.javadbconnectivity.snapshot;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+
+/**
+ * Ein unveränderlicher, binärer Schnappschuss der Tabelle {@code employees},
+ * der per {@link FileChannel#map} geöffnet wird.
+ *
+ * Beim Öffnen wird nur der Kopf gelesen und über seine eigene Prüfsumme
+ * geprüft; einzelne Mitarbeiter werden erst beim Zugriff aus der gemappten
+ * Datei dekodiert. Das Betriebssystem lädt die Seiten bei Bedarf, sodass auch
+ * große Schnappschüsse in Millisekunden bereitstehen. Die Prüfsumme über Index
+ * und Daten würde jede Seite lesen; sie wird deshalb nur auf Anforderung mit
+ * {@link #pruefen()} nachgerechnet.
+ *
+ * Die angegebene Datei ist nur ein Zeiger: sie enthält den Namen der aktuellen
+ * Generation ({@code employees.snapshot.1}, {@code employees.snapshot.2}, ...),
+ * die die eigentlichen Daten trägt. Ein neuer Schnappschuss wird als neue
+ * Generation geschrieben und dann der Zeiger umgestellt, sodass eine noch
+ * gemappte Generation nie ersetzt werden muss – unter Windows schlägt das fehl.
+ *
+ * Aufbau einer Generation (Big Endian):
+ * - Kopf mit {@link #MAGIE}, {@link #FORMAT_VERSION}, Anzahl, {@link Hochwasser},
+ *   Erstellungszeit, CRC32 über Index und Daten und CRC32 über den Kopf selbst
+ * - Index: pro Mitarbeiter Id und Position, nach Id sortiert
+ * - Daten: Id, vier Zeichenketten (Länge + UTF-8, -1 für null) und das Gehalt
+ *   (Nachkommastellen, -1 für null, und unskalierter Wert)
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class Schnappschuss {
+
+    /** Kennung am Dateianfang: "EMPS" */
+    public static final int MAGIE = 0x454D5053;
+    /** Aktuelle Formatversion; andere Versionen werden abgelehnt */
+    public static final short FORMAT_VERSION = 2;
+
+    private static final int KOPF_BYTES = 48;
+    /** Der Kopf bis ausschließlich seiner eigenen Prüfsumme */
+    private static final int GEPRUEFTER_KOPF_BYTES = 40;
+    private static final int INDEX_EINTRAG_BYTES = 8;
+    /** Eine Zeigerdatei enthält nur einen Dateinamen */
+    private static final int MAX_ZEIGER_BYTES = 255;
+
+    private final ByteBuffer daten;
+    private final int anzahl;
+    private final Hochwasser hochwasser;
+    private final long erstelltMs;
+    private final long datenPruefsumme;
+
+    private Schnappschuss(ByteBuffer daten, int anzahl, Hochwasser hochwasser, long erstelltMs,
+                          long datenPruefsumme) {
+        this.daten = daten;
+        this.anzahl = anzahl;
+        this.hochwasser = hochwasser;
+        this.erstelltMs = erstelltMs;
+        this.datenPruefsumme = datenPruefsumme;
+    }
+
+    /**
+     * Öffnet einen Schnappschuss und prüft Kennung, Version, Kopfprüfsumme und
+     * Mindestgröße. Index und Daten prüft erst {@link #pruefen()}.
+     *
+     * @param datei die Zeigerdatei des Schnappschusses
+     * @return der geöffnete Schnappschuss
+     * @throws IOException wenn die Datei fehlt, beschädigt ist oder eine andere Version hat
+     */
+    public static Schnappschuss oeffnen(Path datei) throws IOException {
+        Path generation = aktuelleGeneration(datei);
+        MappedByteBuffer puffer;
+        try (FileChannel kanal = FileChannel.open(generation, StandardOpenOption.READ)) {
+            // Die Abbildung bleibt auch nach dem Schließen des Kanals gültig
+            puffer = kanal.map(FileChannel.MapMode.READ_ONLY, 0, kanal.size());
+        }
+        if (puffer.capacity() < KOPF_BYTES || puffer.getInt(0) != MAGIE) {
+            throw new IOException("Keine Schnappschussdatei: " + generation);
+        }
+        short version = puffer.getShort(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Schnappschuss hat Version " + version + ", erwartet " + FORMAT_VERSION);
+        }
+        int anzahl = puffer.getInt(8);
+        Hochwasser hochwasser = new Hochwasser(puffer.getInt(12), puffer.getLong(16));
+        long erstelltMs = puffer.getLong(24);
+        long datenPruefsumme = puffer.getLong(32);
+
+        CRC32 crc = new CRC32();
+        crc.update(puffer.slice(0, GEPRUEFTER_KOPF_BYTES));
+        if (crc.getValue() != puffer.getLong(GEPRUEFTER_KOPF_BYTES) || anzahl < 0
+                || puffer.capacity() < KOPF_BYTES + (long) anzahl * INDEX_EINTRAG_BYTES) {
+            throw new IOException("Schnappschuss ist beschädigt: " + generation);
+        }
+        return new Schnappschuss(puffer.asReadOnlyBuffer(), anzahl, hochwasser, erstelltMs, datenPruefsumme);
+    }
+
+    /**
+     * Rechnet die Prüfsumme über Index und Daten nach. Liest dazu die ganze
+     * Datei und dauert entsprechend; gedacht für Hintergrundprüfungen oder
+     * nach dem Kopieren einer Datei.
+     *
+     * @throws IOException wenn Index oder Daten beschädigt sind
+     */
+    public void pruefen() throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(daten.slice(KOPF_BYTES, daten.capacity() - KOPF_BYTES));
+        if (crc.getValue() != datenPruefsumme) {
+            throw new IOException("Schnappschuss ist beschädigt: Prüfsumme über Index und Daten stimmt nicht");
+        }
+    }
+
+    /**
+     * Schreibt einen Schnappschuss als neue Generation, bringt sie mit
+     * {@link FileChannel#force} auf die Platte und stellt erst dann die
+     * Zeigerdatei per atomarem Umbenennen um. Leser sehen so nie eine halb
+     * geschriebene Datei, und eine bereits geöffnete Generation bleibt
+     * unverändert. Ältere Generationen werden anschließend gelöscht, soweit das
+     * Betriebssystem es zulässt; noch gemappte Dateien räumt ein späterer Aufruf ab.
+     *
+     * @param datei die Zeigerdatei
+     * @param mitarbeiter die zu speichernden Mitarbeiter
+     * @param hochwasser der Stand, den diese Mitarbeiter abbilden
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public static void schreiben(Path datei, Collection<Mitarbeiter> mitarbeiter, Hochwasser hochwasser)
+            throws IOException {
+        List<Mitarbeiter> sortiert = new ArrayList<>(mitarbeiter);
+        sortiert.sort(Comparator.comparingInt(Mitarbeiter::id));
+
+        List<byte[]> saetze = new ArrayList<>(sortiert.size());
+        long datenBytes = 0;
+        for (Mitarbeiter m : sortiert) {
+            byte[] satz = kodieren(m);
+            saetze.add(satz);
+            datenBytes += satz.length;
+        }
+        long groesse = KOPF_BYTES + (long) sortiert.size() * INDEX_EINTRAG_BYTES + datenBytes;
+        if (groesse > Integer.MAX_VALUE) {
+            throw new IOException("Schnappschuss wäre größer als 2 GiB: " + groesse + " Bytes");
+        }
+
+        ByteBuffer puffer = ByteBuffer.allocate((int) groesse);
+        puffer.putInt(MAGIE).putShort(FORMAT_VERSION).putShort((short) 0)
+            .putInt(sortiert.size()).putInt(hochwasser.maxId()).putLong(hochwasser.geaendertBisMs())
+            .putLong(System.currentTimeMillis()).putLong(0).putLong(0);
+        int position = KOPF_BYTES + sortiert.size() * INDEX_EINTRAG_BYTES;
+        for (int i = 0; i < sortiert.size(); i++) {
+            puffer.putInt(sortiert.get(i).id()).putInt(position);
+            position += saetze.get(i).length;
+        }
+        for (byte[] satz : saetze) {
+            puffer.put(satz);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(puffer.array(), KOPF_BYTES, puffer.capacity() - KOPF_BYTES);
+        puffer.putLong(32, crc.getValue());
+        crc.reset();
+        crc.update(puffer.array(), 0, GEPRUEFTER_KOPF_BYTES);
+        puffer.putLong(GEPRUEFTER_KOPF_BYTES, crc.getValue());
+
+        List<Path> aeltere = generationen(datei);
+        long generation = aeltere.isEmpty() ? 1 : generationsNummer(datei, aeltere.get(aeltere.size() - 1)) + 1;
+        Path neu = datei.resolveSibling(datei.getFileName() + "." + generation);
+        sicherSchreiben(neu, puffer.array(), StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+
+        Path temporaer = datei.resolveSibling(datei.getFileName() + ".tmp");
+        sicherSchreiben(temporaer, neu.getFileName().toString().getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.move(temporaer, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path alt : aeltere) {
+            try {
+                Files.deleteIfExists(alt);
+            } catch (IOException e) {
+                // Unter Windows noch gemappt; der nächste Aufruf versucht es erneut
+            }
+        }
+    }
+
+    /**
+     * @return die Anzahl der Mitarbeiter
+     */
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * @return der Stand der Tabelle beim Schreiben
+     */
+    public Hochwasser getHochwasser() {
+        return hochwasser;
+    }
+
+    /**
+     * @return der Erstellungszeitpunkt in Millisekunden seit 1970
+     */
+    public long getErstelltMs() {
+        return erstelltMs;
+    }
+
+    /**
+     * @param index die Position im Schnappschuss, 0 bis {@code getAnzahl() - 1}
+     * @return die Id an dieser Position, ohne den Datensatz zu dekodieren
+     */
+    public int id(int index) {
+        return daten.getInt(KOPF_BYTES + index * INDEX_EINTRAG_BYTES);
+    }
+
+    /**
+     * @param index die Position im Schnappschuss, 0 bis {@code getAnzahl() - 1}
+     * @return der Mitarbeiter an dieser Position
+     * @throws IllegalStateException wenn der Indexeintrag aus der Datei zeigt oder der
+     *                               Datensatz abgeschnitten ist; ohne {@link #pruefen()}
+     *                               fällt Beschädigung erst hier auf
+     */
+    public Mitarbeiter get(int index) {
+        return dekodieren(daten.getInt(KOPF_BYTES + index * INDEX_EINTRAG_BYTES + 4));
+    }
+
+    /**
+     * Sucht per binärer Suche im Index.
+     *
+     * @param id die gesuchte Id
+     * @return der Mitarbeiter oder null
+     */
+    public Mitarbeiter nachId(int id) {
+        int unten = 0;
+        int oben = anzahl - 1;
+        while (unten <= oben) {
+            int mitte = (unten + oben) >>> 1;
+            int kandidat = id(mitte);
+            if (kandidat < id) {
+                unten = mitte + 1;
+            } else if (kandidat > id) {
+                oben = mitte - 1;
+            } else {
+                return get(mitte);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] kodieren(Mitarbeiter m) {
+        byte[][] texte = {
+            bytes(m.nachname()), bytes(m.vorname()), bytes(m.email()), bytes(m.abteilung())
+        };
+        byte[] unskaliert = m.gehalt() == null ? new byte[0] : m.gehalt().unscaledValue().toByteArray();
+        int laenge = 4 + 1 + 1 + unskaliert.length;
+        for (byte[] text : texte) {
+            laenge += 2 + (text == null ? 0 : text.length);
+        }
+        ByteBuffer satz = ByteBuffer.allocate(laenge).putInt(m.id());
+        for (byte[] text : texte) {
+            if (text == null) {
+                satz.putShort((short) -1);
+            } else {
+                satz.putShort((short) text.length).put(text);
+            }
+        }
+        satz.put((byte) (m.gehalt() == null ? -1 : m.gehalt().scale()))
+            .put((byte) unskaliert.length).put(unskaliert);
+        return satz.array();
+    }
+
+    private Mitarbeiter dekodieren(int position) {
+        if (position < KOPF_BYTES + anzahl * INDEX_EINTRAG_BYTES || position >= daten.capacity()) {
+            throw new IllegalStateException("Schnappschuss ist beschädigt: Datensatz an Position " + position);
+        }
+        try {
+            ByteBuffer satz = daten.duplicate().position(position);
+            int id = satz.getInt();
+            String nachname = text(satz);
+            String vorname = text(satz);
+            String email = text(satz);
+            String abteilung = text(satz);
+            byte skala = satz.get();
+            byte[] unskaliert = new byte[satz.get()];
+            satz.get(unskaliert);
+            BigDecimal gehalt = skala < 0 ? null : new BigDecimal(new BigInteger(unskaliert), skala);
+            return new Mitarbeiter(id, nachname, vorname, email, abteilung, gehalt);
+        } catch (BufferUnderflowException | NegativeArraySizeException | NumberFormatException e) {
+            // Abgeschnittener Datensatz, negative Länge oder leerer Gehaltswert
+            throw new IllegalStateException("Schnappschuss ist beschädigt: Datensatz an Position " + position, e);
+        }
+    }
+
+    /** Liest die Zeigerdatei und liefert den Pfad der aktuellen Generation. */
+    private static Path aktuelleGeneration(Path datei) throws IOException {
+        if (Files.size(datei) > MAX_ZEIGER_BYTES) {
+            throw new IOException("Keine Schnappschussdatei: " + datei);
+        }
+        Path generation = datei.resolveSibling(Files.readString(datei, StandardCharsets.UTF_8).strip());
+        if (generationsNummer(datei, generation) < 0) {
+            throw new IOException("Keine Schnappschussdatei: " + datei);
+        }
+        return generation;
+    }
+
+    /** Alle vorhandenen Generationen neben der Zeigerdatei, aufsteigend. */
+    private static List<Path> generationen(Path datei) throws IOException {
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        List<Path> generationen = new ArrayList<>();
+        try (DirectoryStream<Path> eintraege = Files.newDirectoryStream(verzeichnis, datei.getFileName() + ".*")) {
+            for (Path eintrag : eintraege) {
+                if (generationsNummer(datei, eintrag) >= 0) {
+                    generationen.add(eintrag);
+                }
+            }
+        }
+        generationen.sort(Comparator.comparingLong(generation -> generationsNummer(datei, generation)));
+        return generationen;
+    }
+
+    /** Die Nummer einer Generation oder -1, wenn der Name zu keiner Generation von {@code datei} passt. */
+    private static long generationsNummer(Path datei, Path generation) {
+        String praefix = datei.getFileName() + ".";
+        String name = generation.getFileName().toString();
+        if (!name.startsWith(praefix) || name.length() == praefix.length() || name.length() > praefix.length() + 18
+                || !name.substring(praefix.length()).chars().allMatch(zeichen -> zeichen >= '0' && zeichen <= '9')) {
+            return -1;
+        }
+        return Long.parseLong(name.substring(praefix.length()));
+    }
+
+    private static void sicherSchreiben(Path datei, byte[] inhalt, StandardOpenOption... optionen)
+            throws IOException {
+        try (FileChannel kanal = FileChannel.open(datei, optionen)) {
+            ByteBuffer puffer = ByteBuffer.wrap(inhalt);
+            while (puffer.hasRemaining()) {
+                kanal.write(puffer);
+            }
+            kanal.force(true);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer satz) {
+        short laenge = satz.getShort();
+        if (laenge < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[laenge];
+        satz.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,269 @@
+package de.javadbconnectivity.testdaten;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Schreibt einen synthetischen Mitarbeiterbestand parallel in die Datenbank
+ * oder in CSV-Dateien.
+ *
+ * Jeder Block des {@link MitarbeiterGenerator}s ist ein Arbeitspaket: er wird
+ * erzeugt und sofort geschrieben, sodass nie mehr als ein Block je Thread im
+ * Speicher liegt. In der Datenbank wird er in Batches zu {@code stapel} Zeilen
+ * eingefügt und nach jedem Batch bestätigt; mit
+ * {@code rewriteBatchedStatements=true} wird daraus ein mehrzeiliges INSERT.
+ * Als CSV entsteht je Block eine Datei {@code employees-000000.csv}, die sich mit
+ * {@code LOAD DATA LOCAL INFILE ... CHARACTER SET utf8mb4 FIELDS TERMINATED BY ','
+ * OPTIONALLY ENCLOSED BY '"' IGNORE 1 LINES} laden lässt.
+ *
+ * Aufruf: {@code DatenErzeugung [ziel=datenbank|csv] [verzeichnis=daten] [threads=4] [stapel=1000]
+ * [anzahl=1000000] [saat=42] [abteilungen=12] [schiefe=1.1] [gehaltMedian=60000]
+ * [gehaltStreuung=0.35] [block=50000] [startId=...]}
+ *
+ * Ohne {@code startId} beginnen die Ids in der Datenbank nach der höchsten
+ * vorhandenen Id; in CSV-Dateien bei 1.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class DatenErzeugung {
+
+    /** Standard-Batchgröße beim Einfügen */
+    public static final int STANDARD_STAPEL = 1000;
+
+    private static final String EINFUEGEN =
+        "INSERT INTO employees (" + Mitarbeiter.SPALTEN + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final MitarbeiterGenerator generator;
+    private final int threads;
+    private final Metriken metriken;
+
+    /**
+     * @param generator der Generator
+     * @param threads die Anzahl paralleler Arbeitspakete
+     * @param metriken nimmt {@code testdaten.zeilen} und {@code testdaten.bloecke} auf
+     */
+    public DatenErzeugung(MitarbeiterGenerator generator, int threads, Metriken metriken) {
+        this.generator = generator;
+        this.threads = threads;
+        this.metriken = metriken;
+    }
+
+    /**
+     * Fügt alle Zeilen in die Tabelle {@code employees} ein.
+     *
+     * @param pool der Verbindungspool, idealerweise mit {@code rewriteBatchedStatements=true}
+     *             und mindestens {@code threads} Verbindungen
+     * @param stapel die Zeilen je Batch und Transaktion
+     * @return die Anzahl eingefügter Zeilen
+     * @throws SQLException wenn ein Block nicht eingefügt werden kann
+     */
+    public long inDatenbank(VerbindungsPool pool, int stapel) throws SQLException {
+        try {
+            return parallel(block -> {
+                List<Mitarbeiter> zeilen = generator.block(block);
+                Connection verbindung = pool.ausleihen();
+                try {
+                    verbindung.setAutoCommit(false);
+                    try (PreparedStatement statement = verbindung.prepareStatement(EINFUEGEN)) {
+                        for (int i = 0; i < zeilen.size(); i++) {
+                            Mitarbeiter m = zeilen.get(i);
+                            statement.setInt(1, m.id());
+                            statement.setString(2, m.nachname());
+                            statement.setString(3, m.vorname());
+                            statement.setString(4, m.email());
+                            statement.setString(5, m.abteilung());
+                            statement.setBigDecimal(6, m.gehalt());
+                            statement.addBatch();
+                            if ((i + 1) % stapel == 0 || i == zeilen.size() - 1) {
+                                statement.executeBatch();
+                                verbindung.commit();
+                            }
+                        }
+                    }
+                    return zeilen.size();
+                } catch (SQLException e) {
+                    verbindung.rollback();
+                    throw e;
+                } finally {
+                    pool.zurueckgeben(verbindung);
+                }
+            });
+        } catch (IOException e) {
+            throw new SQLException("Unerwarteter Ein-/Ausgabefehler", e);
+        }
+    }
+
+    /**
+     * Schreibt alle Zeilen als CSV-Dateien, eine je Block. Jede Datei wird erst
+     * unter einem temporären Namen geschrieben und dann umbenannt, sodass ein
+     * abgebrochener Lauf keine halben Dateien hinterlässt.
+     *
+     * @param verzeichnis das Zielverzeichnis
+     * @return die Anzahl geschriebener Zeilen
+     * @throws IOException wenn eine Datei nicht geschrieben werden kann
+     */
+    public long inCsv(Path verzeichnis) throws IOException {
+        Files.createDirectories(verzeichnis);
+        try {
+            return parallel(block -> {
+                List<Mitarbeiter> zeilen = generator.block(block);
+                Path datei = verzeichnis.resolve(String.format("employees-%06d.csv", block));
+                Path temporaer = verzeichnis.resolve(datei.getFileName() + ".tmp");
+                try (BufferedWriter schreiber = Files.newBufferedWriter(temporaer, StandardCharsets.UTF_8)) {
+                    schreiber.write(Mitarbeiter.SPALTEN.replace(" ", ""));
+                    schreiber.newLine();
+                    StringBuilder zeile = new StringBuilder(128);
+                    for (Mitarbeiter m : zeilen) {
+                        zeile.setLength(0);
+                        zeile.append(m.id()).append(',');
+                        feld(zeile, m.nachname()).append(',');
+                        feld(zeile, m.vorname()).append(',');
+                        feld(zeile, m.email()).append(',');
+                        feld(zeile, m.abteilung()).append(',');
+                        zeile.append(m.gehalt().toPlainString());
+                        schreiber.append(zeile);
+                        schreiber.newLine();
+                    }
+                }
+                Files.move(temporaer, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return zeilen.size();
+            });
+        } catch (SQLException e) {
+            throw new IOException("Unerwarteter Datenbankfehler", e);
+        }
+    }
+
+    /** Ein Arbeitspaket, das beim Schreiben beide Fehlerarten werfen darf */
+    private interface Blockschreiber {
+        int schreiben(long block) throws SQLException, IOException;
+    }
+
+    private long parallel(Blockschreiber schreiber) throws SQLException, IOException {
+        LongAdder zeilen = metriken.zaehler("testdaten.zeilen");
+        LongAdder bloecke = metriken.zaehler("testdaten.bloecke");
+        ExecutorService ausfuehrer = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> laeufe = new ArrayList<>();
+            for (long block = 0; block < generator.getProfil().getAnzahlBloecke(); block++) {
+                final long nummer = block;
+                laeufe.add(ausfuehrer.submit(() -> {
+                    int geschrieben = schreiber.schreiben(nummer);
+                    zeilen.add(geschrieben);
+                    bloecke.increment();
+                    return geschrieben;
+                }));
+            }
+            long summe = 0;
+            for (Future<Integer> lauf : laeufe) {
+                summe += lauf.get();
+            }
+            return summe;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Unterbrochen", e);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case SQLException ursache -> throw ursache;
+                case IOException ursache -> throw ursache;
+                case RuntimeException ursache -> throw ursache;
+                default -> throw new IllegalStateException(e.getCause());
+            }
+        } finally {
+            // Nach einem Fehler die übrigen Blöcke nicht mehr anfangen
+            ausfuehrer.shutdownNow();
+        }
+    }
+
+    private static StringBuilder feld(StringBuilder zeile, String wert) {
+        if (wert.indexOf(',') < 0 && wert.indexOf('"') < 0) {
+            return zeile.append(wert);
+        }
+        return zeile.append('"').append(wert.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * @param args siehe Klassenbeschreibung
+     * @throws Exception bei Datenbank- oder Dateifehlern
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> uebrige = new ArrayList<>();
+        Datenprofil profil = Datenprofil.ausArgumenten(args, uebrige);
+        boolean startIdGesetzt = false;
+        String ziel = "datenbank";
+        Path verzeichnis = Path.of("daten");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int stapel = STANDARD_STAPEL;
+        for (String argument : args) {
+            startIdGesetzt |= argument.startsWith("startId=");
+        }
+        for (String argument : uebrige) {
+            String[] teile = argument.split("=", 2);
+            switch (teile[0]) {
+                case "ziel" -> ziel = teile[1];
+                case "verzeichnis" -> verzeichnis = Path.of(teile[1]);
+                case "threads" -> threads = Integer.parseInt(teile[1]);
+                case "stapel" -> stapel = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        Metriken metriken = new Metriken();
+        long start = System.nanoTime();
+        long geschrieben;
+        switch (ziel) {
+            case "csv" -> geschrieben =
+                new DatenErzeugung(new MitarbeiterGenerator(profil), threads, metriken).inCsv(verzeichnis);
+            case "datenbank" -> {
+                DatenbankKonfiguration konfiguration =
+                    DatenbankKonfiguration.standard().mitUrlParametern("rewriteBatchedStatements=true");
+                try (VerbindungsPool pool = new VerbindungsPool(konfiguration, threads)) {
+                    if (!startIdGesetzt) {
+                        profil = profil.mitStartId(hoechsteId(pool) + 1);
+                    }
+                    geschrieben = new DatenErzeugung(new MitarbeiterGenerator(profil), threads, metriken)
+                        .inDatenbank(pool, stapel);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unbekanntes Ziel: " + ziel);
+        }
+        double sekunden = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d Zeilen (Ids %d bis %d) nach %s in %.1f s, %.0f Zeilen/s mit %d Threads%n",
+            geschrieben, profil.startId(), profil.startId() + geschrieben - 1, ziel, sekunden,
+            geschrieben / sekunden, threads);
+        metriken.ausgeben(System.out);
+    }
+
+    private static long hoechsteId(VerbindungsPool pool) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (Statement statement = verbindung.createStatement();
+             ResultSet ergebnisSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM employees")) {
+            ergebnisSet.next();
+            return ergebnisSet.getLong(1);
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+}
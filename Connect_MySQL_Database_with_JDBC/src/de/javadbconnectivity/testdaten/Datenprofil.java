@@ -0,0 +1,103 @@
+package de.javadbconnectivity.testdaten;
+
+import java.util.List;
+
+/**
+ * Beschreibt einen synthetischen Mitarbeiterbestand.
+ *
+ * Gleiche Profile erzeugen unabhängig von der Anzahl der Threads dieselben
+ * Zeilen, weil jeder Block von {@link #blockGroesse()} Zeilen seine eigene,
+ * aus Saat und Blocknummer abgeleitete Zufallsquelle hat.
+ *
+ * @param saat der Startwert der Zufallsquellen
+ * @param anzahl die Anzahl zu erzeugender Zeilen
+ * @param startId die Id der ersten Zeile
+ * @param abteilungen die Anzahl verschiedener Abteilungen
+ * @param schiefe der Zipf-Exponent der Abteilungsgrößen; 0 ergibt gleich große Abteilungen
+ * @param gehaltMedian das mittlere Gehalt einer Abteilung mit Faktor 1
+ * @param gehaltStreuung die Standardabweichung des logarithmierten Gehalts
+ * @param blockGroesse die Zeilen je Block, also je Arbeitspaket und CSV-Datei
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Datenprofil(long saat, long anzahl, long startId, int abteilungen, double schiefe,
+                          double gehaltMedian, double gehaltStreuung, int blockGroesse) {
+
+    /**
+     * Prüft die Werte.
+     */
+    public Datenprofil {
+        if (anzahl < 0 || startId < 1 || abteilungen < 1 || schiefe < 0 || gehaltMedian <= 0
+                || gehaltStreuung < 0 || blockGroesse < 1) {
+            throw new IllegalArgumentException("Ungültiges Datenprofil");
+        }
+        // Die Spalte id ist INT
+        if (startId + anzahl - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ids über " + Integer.MAX_VALUE + " passen nicht in employees.id");
+        }
+    }
+
+    /**
+     * @return eine Million Zeilen in 12 Abteilungen mit deutlicher Schiefe
+     */
+    public static Datenprofil standard() {
+        return new Datenprofil(42, 1_000_000, 1, 12, 1.1, 60_000, 0.35, 50_000);
+    }
+
+    /**
+     * Liest ein Profil aus Argumenten der Form {@code schluessel=wert}; fehlende
+     * Werte kommen aus {@link #standard()}. Unbekannte Schlüssel werden
+     * zurückgegeben, damit der Aufrufer eigene Argumente auswerten kann.
+     *
+     * @param args die Argumente
+     * @param uebrige nimmt die nicht erkannten Argumente auf
+     * @return das Profil
+     */
+    public static Datenprofil ausArgumenten(String[] args, List<String> uebrige) {
+        Datenprofil vorgabe = standard();
+        long saat = vorgabe.saat;
+        long anzahl = vorgabe.anzahl;
+        long startId = vorgabe.startId;
+        int abteilungen = vorgabe.abteilungen;
+        double schiefe = vorgabe.schiefe;
+        double gehaltMedian = vorgabe.gehaltMedian;
+        double gehaltStreuung = vorgabe.gehaltStreuung;
+        int blockGroesse = vorgabe.blockGroesse;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "saat" -> saat = Long.parseLong(teile[1]);
+                case "anzahl" -> anzahl = Long.parseLong(teile[1]);
+                case "startId" -> startId = Long.parseLong(teile[1]);
+                case "abteilungen" -> abteilungen = Integer.parseInt(teile[1]);
+                case "schiefe" -> schiefe = Double.parseDouble(teile[1]);
+                case "gehaltMedian" -> gehaltMedian = Double.parseDouble(teile[1]);
+                case "gehaltStreuung" -> gehaltStreuung = Double.parseDouble(teile[1]);
+                case "block" -> blockGroesse = Integer.parseInt(teile[1]);
+                default -> uebrige.add(argument);
+            }
+        }
+        return new Datenprofil(saat, anzahl, startId, abteilungen, schiefe, gehaltMedian, gehaltStreuung,
+            blockGroesse);
+    }
+
+    /**
+     * @param andereStartId die neue Start-Id
+     * @return eine Kopie mit anderer Start-Id
+     */
+    public Datenprofil mitStartId(long andereStartId) {
+        return new Datenprofil(saat, anzahl, andereStartId, abteilungen, schiefe, gehaltMedian, gehaltStreuung,
+            blockGroesse);
+    }
+
+    /**
+     * @return die Anzahl der Blöcke
+     */
+    public long getAnzahlBloecke() {
+        return (anzahl + blockGroesse - 1) / blockGroesse;
+    }
+}
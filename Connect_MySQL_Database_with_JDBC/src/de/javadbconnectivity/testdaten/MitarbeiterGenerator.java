@@ -0,0 +1,125 @@
+package de.javadbconnectivity.testdaten;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+
+/**
+ * Erzeugt deterministische, realistisch verteilte Mitarbeiter nach einem
+ * {@link Datenprofil}.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Abteilungsgrößen nach einer Zipf-Verteilung schief verteilt
+ * - Gehälter log-normal um einen abteilungsabhängigen Median streut
+ * - Blöcke unabhängig voneinander und damit parallel, aber reproduzierbar erzeugt
+ *
+ * Die E-Mail-Adresse enthält die Id und ist damit eindeutig, passend zu
+ * {@code sql/email-unique-index.sql}. Instanzen sind unveränderlich und
+ * können von mehreren Threads gleichzeitig verwendet werden.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class MitarbeiterGenerator {
+
+    /** Die ersten drei entsprechen den Abteilungen aus {@code sql/table-setup.sql} */
+    private static final String[] ABTEILUNGEN = {
+        "Engineering", "HR", "Legal", "Sales", "Marketing", "Finance", "Support", "Operations",
+        "Research", "Purchasing", "Logistics", "Quality", "Security", "Facilities", "Training", "Design"
+    };
+    /** Gehaltsfaktor je Abteilung, zyklisch für weitere Abteilungen */
+    private static final double[] GEHALTSFAKTOREN = {
+        1.30, 0.90, 1.50, 1.05, 0.95, 1.20, 0.75, 0.85, 1.40, 0.90, 0.80, 0.95, 1.10, 0.70, 0.85, 1.15
+    };
+    private static final String[] VORNAMEN = {
+        "John", "Mary", "Susan", "David", "Lisa", "Paul", "Carl", "Bill", "Anna", "Peter", "Julia", "Thomas",
+        "Laura", "Michael", "Sarah", "Daniel", "Emma", "Lukas", "Sophie", "Jan", "Nina", "Felix", "Lea", "Max",
+        "Hannah", "Jonas", "Mia", "Leon", "Clara", "Elias", "Ida", "Noah"
+    };
+    private static final String[] NACHNAMEN = {
+        "Doe", "Public", "Queue", "Williams", "Johnson", "Smith", "Adams", "Brown", "Thomas", "Davis", "Fowler",
+        "Waters", "Miller", "Wilson", "Moore", "Taylor", "Anderson", "Jackson", "White", "Harris", "Martin",
+        "Garcia", "Clark", "Lewis", "Walker", "Hall", "Young", "King", "Wright", "Scott", "Green", "Baker",
+        "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann"
+    };
+    private static final double GEHALT_MIN = 20_000;
+    private static final double GEHALT_MAX = 99_999_999.99;
+    /** Das Goldene-Schnitt-Inkrement von {@link SplittableRandom} zum Spreizen der Blocknummern */
+    private static final long SPREIZUNG = 0x9E3779B97F4A7C15L;
+
+    private final Datenprofil profil;
+    private final String[] abteilungen;
+    private final double[] kumulierteGewichte;
+
+    /**
+     * @param profil das Datenprofil
+     */
+    public MitarbeiterGenerator(Datenprofil profil) {
+        this.profil = profil;
+        this.abteilungen = new String[profil.abteilungen()];
+        this.kumulierteGewichte = new double[profil.abteilungen()];
+        double summe = 0;
+        for (int k = 0; k < abteilungen.length; k++) {
+            abteilungen[k] = k < ABTEILUNGEN.length ? ABTEILUNGEN[k] : "Department " + (k + 1);
+            summe += 1 / Math.pow(k + 1, profil.schiefe());
+            kumulierteGewichte[k] = summe;
+        }
+        for (int k = 0; k < kumulierteGewichte.length; k++) {
+            kumulierteGewichte[k] /= summe;
+        }
+    }
+
+    /**
+     * @return das Datenprofil
+     */
+    public Datenprofil getProfil() {
+        return profil;
+    }
+
+    /**
+     * @return die Abteilungsnamen, die größte zuerst
+     */
+    public List<String> getAbteilungen() {
+        return List.of(abteilungen);
+    }
+
+    /**
+     * Erzeugt einen Block; gleiche Blocknummern liefern immer dieselben Zeilen.
+     *
+     * @param block die Blocknummer ab 0
+     * @return die Mitarbeiter des Blocks, aufsteigend nach Id
+     */
+    public List<Mitarbeiter> block(long block) {
+        long erster = block * profil.blockGroesse();
+        int anzahl = (int) Math.max(0, Math.min(profil.blockGroesse(), profil.anzahl() - erster));
+        SplittableRandom zufall = new SplittableRandom(profil.saat() + (block + 1) * SPREIZUNG);
+        List<Mitarbeiter> zeilen = new ArrayList<>(anzahl);
+        for (int i = 0; i < anzahl; i++) {
+            zeilen.add(zeile((int) (profil.startId() + erster + i), zufall));
+        }
+        return zeilen;
+    }
+
+    private Mitarbeiter zeile(int id, SplittableRandom zufall) {
+        String vorname = VORNAMEN[zufall.nextInt(VORNAMEN.length)];
+        String nachname = NACHNAMEN[zufall.nextInt(NACHNAMEN.length)];
+        int abteilung = abteilung(zufall.nextDouble());
+        double median = profil.gehaltMedian() * GEHALTSFAKTOREN[abteilung % GEHALTSFAKTOREN.length];
+        double gehalt = median * Math.exp(profil.gehaltStreuung() * zufall.nextGaussian());
+        String email = (vorname + "." + nachname + "." + id + "@example.com").toLowerCase(Locale.ROOT);
+        return new Mitarbeiter(id, nachname, vorname, email, abteilungen[abteilung],
+            BigDecimal.valueOf(Math.min(GEHALT_MAX, Math.max(GEHALT_MIN, gehalt))).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private int abteilung(double wert) {
+        int index = Arrays.binarySearch(kumulierteGewichte, wert);
+        // Rundungsfehler können den letzten kumulierten Wert knapp unter 1 lassen
+        return Math.min(index < 0 ? -index - 1 : index, kumulierteGewichte.length - 1);
+    }
+}
@@ -0,0 +1,285 @@
+package de.javadbconnectivity.testdatenbank;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.javadbconnectivity.aufrufe.Aufruf;
+import de.javadbconnectivity.aufrufe.AufrufErgebnis;
+import de.javadbconnectivity.aufrufe.ParallelerAufrufer;
+import de.javadbconnectivity.aufrufe.ProzedurParameter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Startet eine eingebettete In-Memory-Datenbank (H2 im MySQL-Modus) mit dem
+ * Schema und den Daten aus {@code sql/table-setup.sql}, damit Benchmarks und
+ * Versuche ohne MySQL-Server unter {@code localhost:3306} laufen.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - ein MySQL-Skript mit {@code DELIMITER}-Blöcken auf eine andere Datenbank überträgt
+ * - gespeicherte Prozeduren durch Java-Methoden ({@link Prozeduren}) ersetzt
+ * - die Bibliotheksklassen über die Systemeigenschaften {@code db.*} umlenkt
+ *
+ * Der H2-Treiber ({@code com.h2database:h2}) wird nur zur Laufzeit benötigt und
+ * muss auf dem Klassenpfad liegen. H2 ruft {@link Prozeduren} per Reflexion aus
+ * dem unbenannten Modul auf; läuft das Projekt als Modul, muss dieses Paket
+ * deshalb geöffnet sein ({@code opens} in {@code module-info.java}). {@link Selbstpruefung}
+ * prüft alle vier Prozeduren und alle Demo-Klassen gegen die Daten des Standard-Skripts.
+ * Die Bibliotheksklassen und die Demo-Klassen lesen ihre Verbindungsdaten über
+ * {@link DatenbankKonfiguration#standard()} und laufen nach
+ * {@link #alsStandardSetzen()} unverändert gegen die eingebettete Datenbank;
+ * die Konstanten der Demo-Klassen sind nur noch Standardwerte. Die Skripte mit Triggern
+ * und MySQL-Statusvariablen ({@code SHOW STATUS}, {@code Bytes_sent}) sind
+ * nicht übertragbar; Messungen gegen H2 sagen zudem nichts über
+ * Netzwerklatenz und Server-Sperrverhalten von MySQL aus.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class EingebetteteDatenbank implements AutoCloseable {
+
+    /** Das Standard-Skript relativ zum Projektverzeichnis */
+    public static final Path STANDARD_SKRIPT = Path.of("sql", "table-setup.sql");
+
+    private static final String URL_VORLAGE =
+        "jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+    private static final AtomicInteger NUMMER = new AtomicInteger();
+
+    /** Prozedurname und Java-Methode in {@link Prozeduren} */
+    private static final Map<String, String> PROZEDUREN = Map.of(
+        "get_count_for_department", "anzahlFuerAbteilung",
+        "get_employees_for_department", "mitarbeiterFuerAbteilung",
+        "greet_the_department", "abteilungBegruessen",
+        "increase_salaries_for_department", "gehaelterErhoehen");
+
+    private final DatenbankKonfiguration konfiguration;
+    /** Hält die Datenbank offen und wird zum Herunterfahren verwendet */
+    private final Connection verwaltung;
+    private final List<String[]> vorherigeEigenschaften = new ArrayList<>();
+
+    private EingebetteteDatenbank(DatenbankKonfiguration konfiguration, Connection verwaltung) {
+        this.konfiguration = konfiguration;
+        this.verwaltung = verwaltung;
+    }
+
+    /**
+     * Startet eine neue, leere Datenbank mit {@link #STANDARD_SKRIPT}.
+     *
+     * @return die gestartete Datenbank
+     * @throws SQLException wenn H2 fehlt oder das Skript scheitert
+     * @throws IOException wenn das Skript nicht lesbar ist
+     */
+    public static EingebetteteDatenbank starten() throws SQLException, IOException {
+        return starten(STANDARD_SKRIPT);
+    }
+
+    /**
+     * Startet eine neue Datenbank mit eigenem Namen, sodass parallel laufende
+     * Versuche sich nicht gegenseitig beeinflussen.
+     *
+     * @param skript das MySQL-Skript mit Schema und Daten
+     * @return die gestartete Datenbank
+     * @throws SQLException wenn H2 fehlt oder das Skript scheitert
+     * @throws IOException wenn das Skript nicht lesbar ist
+     */
+    public static EingebetteteDatenbank starten(Path skript) throws SQLException, IOException {
+        String text = Files.readString(skript);
+        DatenbankKonfiguration konfiguration = new DatenbankKonfiguration(
+            String.format(URL_VORLAGE, "demo" + NUMMER.incrementAndGet()),
+            DatenbankKonfiguration.STANDARD_BENUTZER, DatenbankKonfiguration.STANDARD_PASSWORT);
+
+        Connection verwaltung;
+        try {
+            verwaltung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
+        } catch (SQLException e) {
+            // Nur ein fehlender Treiber ist ein Klassenpfadproblem, andere Fehler bleiben unverändert
+            if ("08001".equals(e.getSQLState()) && e.getMessage() != null
+                    && e.getMessage().startsWith("No suitable driver")) {
+                throw new SQLException("H2 nicht gefunden; com.h2database:h2 muss auf dem Klassenpfad liegen",
+                    e.getSQLState(), e);
+            }
+            throw e;
+        }
+        try (Statement statement = verwaltung.createStatement()) {
+            ausfuehren(statement, text);
+            for (Map.Entry<String, String> prozedur : PROZEDUREN.entrySet()) {
+                statement.execute("CREATE ALIAS " + prozedur.getKey() + " FOR '"
+                    + Prozeduren.class.getName() + "." + prozedur.getValue() + "'");
+            }
+        } catch (SQLException e) {
+            verwaltung.close();
+            throw e;
+        }
+        return new EingebetteteDatenbank(konfiguration, verwaltung);
+    }
+
+    /**
+     * Führt ein weiteres Skript aus, z.B. {@code sql/job-checkpoints.sql} oder
+     * {@code sql/name-index.sql}. Trigger und {@code ON UPDATE}-Klauseln
+     * versteht H2 nur teilweise.
+     *
+     * @param skript das MySQL-Skript
+     * @return diese Datenbank
+     * @throws SQLException wenn eine Anweisung scheitert
+     * @throws IOException wenn das Skript nicht lesbar ist
+     */
+    public EingebetteteDatenbank skriptAusfuehren(Path skript) throws SQLException, IOException {
+        String text = Files.readString(skript);
+        try (Statement statement = verwaltung.createStatement()) {
+            ausfuehren(statement, text);
+        }
+        return this;
+    }
+
+    private static void ausfuehren(Statement statement, String skript) throws SQLException {
+        for (String anweisung : SqlSkript.zerlegen(skript)) {
+            String uebertragen = uebertragen(anweisung);
+            if (uebertragen != null) {
+                statement.execute(uebertragen);
+            }
+        }
+    }
+
+    /**
+     * Überträgt eine MySQL-Anweisung in den MySQL-Modus von H2.
+     *
+     * @return die Anweisung oder null, wenn sie entfällt
+     */
+    static String uebertragen(String anweisung) {
+        String klein = anweisung.toLowerCase(Locale.ROOT);
+        // Die In-Memory-Datenbank ist selbst das Schema
+        if (klein.startsWith("create database") || klein.startsWith("use ")) {
+            return null;
+        }
+        // Prozeduren werden durch Aliase auf Prozeduren ersetzt
+        if (klein.matches("(?s)(drop|create)\\b.*\\bprocedure\\b.*")) {
+            return null;
+        }
+        // Tabellenoptionen wie ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=latin1
+        return anweisung.replaceFirst("(?is)\\)\\s*ENGINE\\s*=[^)]*$", ")");
+    }
+
+    /**
+     * @return die Verbindungsdaten der eingebetteten Datenbank
+     */
+    public DatenbankKonfiguration getKonfiguration() {
+        return konfiguration;
+    }
+
+    /**
+     * Setzt {@code db.url}, {@code db.user} und {@code db.password}, sodass
+     * {@link DatenbankKonfiguration#standard()} auf diese Datenbank zeigt.
+     * {@link #close()} stellt die vorherigen Werte wieder her.
+     *
+     * @return diese Datenbank
+     */
+    public EingebetteteDatenbank alsStandardSetzen() {
+        eigenschaftSetzen("db.url", konfiguration.url());
+        eigenschaftSetzen("db.user", konfiguration.benutzer());
+        eigenschaftSetzen("db.password", konfiguration.passwort());
+        return this;
+    }
+
+    private void eigenschaftSetzen(String name, String wert) {
+        vorherigeEigenschaften.add(new String[] {name, System.getProperty(name)});
+        System.setProperty(name, wert);
+    }
+
+    /**
+     * Fährt die Datenbank herunter und verwirft alle Daten.
+     *
+     * @throws SQLException wenn das Herunterfahren scheitert
+     */
+    @Override
+    public void close() throws SQLException {
+        for (String[] eigenschaft : vorherigeEigenschaften) {
+            if (eigenschaft[1] == null) {
+                System.clearProperty(eigenschaft[0]);
+            } else {
+                System.setProperty(eigenschaft[0], eigenschaft[1]);
+            }
+        }
+        vorherigeEigenschaften.clear();
+        try (Statement statement = verwaltung.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } finally {
+            verwaltung.close();
+        }
+    }
+
+    /**
+     * Startet die eingebettete Datenbank, ruft alle vier Prozeduren auf und
+     * führt auf Wunsch anschließend die {@code main}-Methode einer anderen
+     * Klasse gegen sie aus.
+     *
+     * Aufruf: {@code EingebetteteDatenbank [klasse=de.javadbconnectivity.reaktiv.MitarbeiterStrom] [argumente=a,b]}
+     *
+     * @param args {@code klasse=} und {@code argumente=} (durch Kommas getrennt)
+     * @throws Exception bei Datenbankfehlern oder Fehlern der aufgerufenen Klasse
+     */
+    public static void main(String[] args) throws Exception {
+        String klasse = null;
+        String[] argumente = new String[0];
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "klasse" -> klasse = teile[1];
+                case "argumente" -> argumente = teile[1].isEmpty() ? new String[0] : teile[1].split(",");
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        long start = System.nanoTime();
+        try (EingebetteteDatenbank datenbank = starten().alsStandardSetzen()) {
+            System.out.printf("%s gestartet in %.1f ms%n%n", datenbank.getKonfiguration(),
+                (System.nanoTime() - start) / 1e6);
+
+            try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 4)) {
+                List<AufrufErgebnis> ergebnisse = new ParallelerAufrufer(pool).ausfuehren(List.of(
+                    Aufruf.von("get_count_for_department",
+                        ProzedurParameter.ein("Engineering"), ProzedurParameter.aus(Types.INTEGER)),
+                    Aufruf.von("get_employees_for_department", ProzedurParameter.ein("Legal")),
+                    Aufruf.von("greet_the_department", ProzedurParameter.einAus("HR", Types.VARCHAR)),
+                    Aufruf.von("increase_salaries_for_department",
+                        ProzedurParameter.ein("HR"), ProzedurParameter.ein(100))));
+                for (AufrufErgebnis ergebnis : ergebnisse) {
+                    System.out.printf("%-34s %s%n", ergebnis.aufruf().prozedur(),
+                        !ergebnis.erfolgreich() ? "Fehler: " + ergebnis.fehler().getMessage()
+                            : !ergebnis.ausgaben().isEmpty() ? ergebnis.ausgaben().values()
+                            : ergebnis.ergebnisse().isEmpty() ? "ok"
+                            : ergebnis.ergebnisse().get(0).getAnzahlZeilen() + " Zeilen");
+                }
+            }
+
+            if (klasse != null) {
+                System.out.printf("%n--- %s ---%n", klasse);
+                Method main = Class.forName(klasse).getMethod("main", String[].class);
+                try {
+                    main.invoke(null, (Object) argumente);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof Exception ursache) {
+                        throw ursache;
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.javadbconnectivity.testdatenbank;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Java-Gegenstücke der vier gespeicherten Prozeduren aus {@code sql/table-setup.sql}.
+ *
+ * Die eingebettete Datenbank kennt keine MySQL-Prozeduren; stattdessen werden
+ * diese Methoden per {@code CREATE ALIAS} unter den Prozedurnamen registriert,
+ * sodass {@code {call get_count_for_department(?, ?)}} unverändert funktioniert.
+ *
+ * OUT- und INOUT-Parameter gibt es dort nicht. Der {@link CallableStatement}
+ * von H2 liest einen registrierten Ausgabeparameter {@code n} aus Spalte
+ * {@code n} der ersten Ergebniszeile. Methoden mit Ausgabeparametern liefern
+ * deshalb eine Zeile, deren Spalten den Parameterpositionen entsprechen; ein nur
+ * registrierter Ausgabeparameter kommt als {@code null} an.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class Prozeduren {
+
+    private Prozeduren() {
+    }
+
+    /**
+     * Entspricht {@code get_count_for_department(IN the_department, OUT the_count)}.
+     *
+     * @param verbindung die Verbindung des Aufrufers
+     * @param abteilung die Abteilung
+     * @param anzahl Platzhalter für den OUT-Parameter
+     * @return eine Zeile mit Abteilung und Anzahl
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static ResultSet anzahlFuerAbteilung(Connection verbindung, String abteilung, Integer anzahl)
+            throws SQLException {
+        PreparedStatement statement = verbindung.prepareStatement(
+            "SELECT CAST(? AS VARCHAR(64)) AS the_department, CAST(COUNT(*) AS INT) AS the_count"
+                + " FROM employees WHERE department = ?");
+        statement.setString(1, abteilung);
+        statement.setString(2, abteilung);
+        return statement.executeQuery();
+    }
+
+    /**
+     * Entspricht {@code get_employees_for_department(IN the_department)}.
+     *
+     * @param verbindung die Verbindung des Aufrufers
+     * @param abteilung die Abteilung
+     * @return alle Mitarbeiter der Abteilung
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static ResultSet mitarbeiterFuerAbteilung(Connection verbindung, String abteilung)
+            throws SQLException {
+        PreparedStatement statement = verbindung.prepareStatement(
+            "SELECT * FROM employees WHERE department = ?");
+        statement.setString(1, abteilung);
+        return statement.executeQuery();
+    }
+
+    /**
+     * Entspricht {@code greet_the_department(INOUT department)}.
+     *
+     * @param verbindung die Verbindung des Aufrufers
+     * @param abteilung die Abteilung
+     * @return eine Zeile mit dem Gruß als neuem Wert des INOUT-Parameters
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static ResultSet abteilungBegruessen(Connection verbindung, String abteilung)
+            throws SQLException {
+        PreparedStatement statement = verbindung.prepareStatement(
+            "SELECT CAST(CONCAT('Hello to the awesome ', ?, ' team!') AS VARCHAR(64)) AS department");
+        statement.setString(1, abteilung);
+        return statement.executeQuery();
+    }
+
+    /**
+     * Entspricht {@code increase_salaries_for_department(IN the_department, IN increase_amount)}.
+     *
+     * @param verbindung die Verbindung des Aufrufers
+     * @param abteilung die Abteilung
+     * @param erhoehung der Erhöhungsbetrag
+     * @return die Anzahl geänderter Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static int gehaelterErhoehen(Connection verbindung, String abteilung, BigDecimal erhoehung)
+            throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "UPDATE employees SET salary = salary + ? WHERE department = ?")) {
+            statement.setBigDecimal(1, erhoehung);
+            statement.setString(2, abteilung);
+            return statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package de.javadbconnectivity.testdatenbank;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+
+import de.javadbconnectivity.aufrufe.Aufruf;
+import de.javadbconnectivity.aufrufe.AufrufErgebnis;
+import de.javadbconnectivity.aufrufe.ParallelerAufrufer;
+import de.javadbconnectivity.aufrufe.ProzedurParameter;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Prüft, ob die {@link EingebetteteDatenbank} die vier gespeicherten
+ * Prozeduren aus {@code sql/table-setup.sql} so beantwortet wie MySQL, und
+ * führt alle Demo-Klassen aus {@code de.javadbconnectivity} und
+ * {@code de.jdbcStoredProzedures} gegen sie aus.
+ *
+ * Jede Prozedur wird zweimal aufgerufen: direkt über einen
+ * {@link CallableStatement} wie in den Demos unter {@code jdbcStoredProzedures}
+ * und über den {@link ParallelerAufrufer}, der OUT-Parameter vor den
+ * Ergebnismengen liest. Jede Demo-Klasse läuft auf einer frischen Datenbank,
+ * weil einige Zeilen einfügen, ändern oder löschen; ihre Ausgabe muss die
+ * erwarteten Zeilen in Reihenfolge enthalten, und {@code System.err} muss leer
+ * bleiben, da die Demos Ausnahmen nur ausgeben. Erwartet werden die Daten des
+ * Standard-Skripts.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - die eingebettete Datenbank ohne MySQL-Server in Sekunden prüft
+ * - OUT-, INOUT- und Ergebnismengen-Prozeduren gegen bekannte Werte abgleicht
+ * - {@code main}-Methoden mit umgelenkter Standardausgabe als Integrationsprüfung nutzt
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class Selbstpruefung {
+
+    /**
+     * Eine Demo-Klasse und ihre erwartete Ausgabe.
+     *
+     * @param klasse der voll qualifizierte Klassenname
+     * @param erwartet Texte, die in dieser Reihenfolge in der Ausgabe stehen müssen
+     * @param verboten Texte, die nicht in der Ausgabe stehen dürfen
+     */
+    private record Demo(String klasse, List<String> erwartet, List<String> verboten) {
+    }
+
+    /** Beträge werden nur bis zum Dezimaltrenner verglichen, der von der Locale abhängt */
+    private static final List<Demo> DEMOS = List.of(
+        new Demo("de.javadbconnectivity.JdbcTest",
+            List.of("Datenbankverbindung erfolgreich!", "Nachname, Vorname", "Doe, John"), List.of()),
+        new Demo("de.javadbconnectivity.JdbcDemo",
+            List.of("Datenbankverbindung erfolgreich hergestellt!", "Nachname, Vorname", "Waters, David"), List.of()),
+        new Demo("de.javadbconnectivity.Driver",
+            List.of("Legal-Abteilung mit Gehalt > 80000:", "Queue, Susan, 130000",
+                "Abteilung = HR", "Doe, John, 55000"),
+            List.of("Thomas, Susan")),
+        new Demo("de.javadbconnectivity.JdbcInsertDemo",
+            List.of("Anzahl eingefügter Datensätze: 1", "Wright, Eric"), List.of()),
+        new Demo("de.javadbconnectivity.JdbcUpdateDemo",
+            List.of("Mitarbeiter: John Doe, E-Mail: john.doe@foo.com", "Anzahl aktualisierter Datensätze: 1",
+                "Mitarbeiter: John Doe, E-Mail: john.doe@gmx.com"), List.of()),
+        new Demo("de.javadbconnectivity.JdbcDeleteDemo",
+            List.of("Mitarbeiter gefunden: John Doe, john.doe@foo.com", "Anzahl gelöschter Datensätze: 1",
+                "Mitarbeiter NICHT GEFUNDEN: John Doe"), List.of()),
+        new Demo("de.jdbcStoredProzedures.Driver",
+            List.of("Legal-Abteilung mit Gehalt > 80000:", "Queue, Susan, 130000",
+                "HR-Abteilung mit Gehalt > 25000:", "Doe, John, 55000"),
+            List.of("Thomas, Susan")),
+        new Demo("de.jdbcStoredProzedures.GetCountForDepartment",
+            List.of("Mitarbeiteranzahl in der Abteilung Engineering: 4"), List.of()),
+        new Demo("de.jdbcStoredProzedures.GetEmployeesForDepartment",
+            List.of("Aufruf der gespeicherten Prozedur beendet.", "Public, Mary, Engineering, 75000"),
+            List.of(", HR, ", ", Legal, ")),
+        new Demo("de.jdbcStoredProzedures.GreetTheDepartment",
+            List.of("Gruß-Ergebnis: Hello to the awesome Engineering team!"), List.of()),
+        new Demo("de.jdbcStoredProzedures.IncreaseSalariesForDepartment",
+            List.of("GEHÄLTER VOR DER ERHÖHUNG", "Public, Mary, Engineering, 75000",
+                "GEHÄLTER NACH DER ERHÖHUNG", "Public, Mary, Engineering, 85000"), List.of()));
+
+    private Selbstpruefung() {
+    }
+
+    /**
+     * Prüft alle vier Prozeduren und alle Demo-Klassen.
+     *
+     * @return die Anzahl bestandener Prüfungen
+     * @throws SQLException wenn ein Aufruf scheitert
+     * @throws IllegalStateException wenn ein Ergebnis nicht dem erwarteten entspricht
+     * @throws IOException wenn das Skript nicht lesbar ist
+     */
+    public static int pruefen() throws SQLException, IOException {
+        return prozedurenPruefen() + demosPruefen();
+    }
+
+    /**
+     * Startet eine neue eingebettete Datenbank und prüft alle vier Prozeduren.
+     *
+     * @return die Anzahl bestandener Prüfungen
+     * @throws SQLException wenn ein Aufruf scheitert
+     * @throws IllegalStateException wenn ein Ergebnis nicht dem erwarteten entspricht
+     * @throws IOException wenn das Skript nicht lesbar ist
+     */
+    public static int prozedurenPruefen() throws SQLException, IOException {
+        int bestanden = 0;
+        try (EingebetteteDatenbank datenbank = EingebetteteDatenbank.starten();
+             VerbindungsPool pool = new VerbindungsPool(datenbank.getKonfiguration(), 2)) {
+            Connection verbindung = pool.ausleihen();
+            try {
+                try (CallableStatement statement = verbindung.prepareCall("{call get_count_for_department(?, ?)}")) {
+                    statement.setString(1, "Engineering");
+                    statement.registerOutParameter(2, Types.INTEGER);
+                    statement.execute();
+                    bestanden += erwarten("get_count_for_department", 4, statement.getInt(2));
+                }
+                try (CallableStatement statement = verbindung.prepareCall("{call get_employees_for_department(?)}")) {
+                    statement.setString(1, "Legal");
+                    int zeilen = 0;
+                    try (ResultSet ergebnisSet = statement.executeQuery()) {
+                        while (ergebnisSet.next()) {
+                            erwarten("get_employees_for_department", "Legal", ergebnisSet.getString("department"));
+                            zeilen++;
+                        }
+                    }
+                    bestanden += erwarten("get_employees_for_department", 4, zeilen);
+                }
+                try (CallableStatement statement = verbindung.prepareCall("{call greet_the_department(?)}")) {
+                    statement.registerOutParameter(1, Types.VARCHAR);
+                    statement.setString(1, "HR");
+                    statement.execute();
+                    bestanden += erwarten("greet_the_department", "Hello to the awesome HR team!",
+                        statement.getString(1));
+                }
+                BigDecimal vorher = gehaltssumme(verbindung, "HR");
+                try (CallableStatement statement =
+                         verbindung.prepareCall("{call increase_salaries_for_department(?, ?)}")) {
+                    statement.setString(1, "HR");
+                    statement.setBigDecimal(2, new BigDecimal("100.00"));
+                    statement.execute();
+                }
+                bestanden += erwarten("increase_salaries_for_department", vorher.add(new BigDecimal("400.00")),
+                    gehaltssumme(verbindung, "HR"));
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+
+            List<AufrufErgebnis> ergebnisse = new ParallelerAufrufer(pool).ausfuehren(List.of(
+                Aufruf.von("get_count_for_department",
+                    ProzedurParameter.ein("Legal"), ProzedurParameter.aus(Types.INTEGER)),
+                Aufruf.von("get_employees_for_department", ProzedurParameter.ein("HR")),
+                Aufruf.von("greet_the_department", ProzedurParameter.einAus("Legal", Types.VARCHAR)),
+                Aufruf.von("increase_salaries_for_department",
+                    ProzedurParameter.ein("Engineering"), ProzedurParameter.ein(0))));
+            for (AufrufErgebnis ergebnis : ergebnisse) {
+                if (!ergebnis.erfolgreich()) {
+                    throw new SQLException(ergebnis.aufruf().prozedur() + " über ParallelerAufrufer fehlgeschlagen",
+                        ergebnis.fehler());
+                }
+            }
+            bestanden += erwarten("get_count_for_department (parallel)", 4,
+                ((Number) ergebnisse.get(0).ausgabe(2)).intValue());
+            bestanden += erwarten("get_employees_for_department (parallel)", 4,
+                ergebnisse.get(1).ergebnisse().get(0).getAnzahlZeilen());
+            bestanden += erwarten("greet_the_department (parallel)", "Hello to the awesome Legal team!",
+                ergebnisse.get(2).ausgabe(1));
+            bestanden += erwarten("increase_salaries_for_department (parallel)", true, ergebnisse.get(3).erfolgreich());
+        }
+        return bestanden;
+    }
+
+    /**
+     * Führt jede Demo-Klasse auf einer eigenen, frischen Datenbank aus, die
+     * über {@link EingebetteteDatenbank#alsStandardSetzen()} an die Stelle ihrer
+     * fest eingetragenen URL tritt.
+     *
+     * @return die Anzahl bestandener Prüfungen
+     * @throws SQLException wenn eine Datenbank nicht startet
+     * @throws IllegalStateException wenn eine Ausgabe nicht der erwarteten entspricht
+     * @throws IOException wenn das Skript nicht lesbar ist
+     */
+    public static int demosPruefen() throws SQLException, IOException {
+        int bestanden = 0;
+        for (Demo demo : DEMOS) {
+            String ausgabe;
+            try (EingebetteteDatenbank datenbank = EingebetteteDatenbank.starten()) {
+                datenbank.alsStandardSetzen();
+                ausgabe = mitschneiden(demo.klasse());
+            }
+            int position = 0;
+            for (String text : demo.erwartet()) {
+                int gefunden = ausgabe.indexOf(text, position);
+                if (gefunden < 0) {
+                    throw new IllegalStateException("Prüfung " + demo.klasse() + " fehlgeschlagen: erwartet \""
+                        + text + "\" nach Position " + position + " in:\n" + ausgabe);
+                }
+                position = gefunden + text.length();
+            }
+            for (String text : demo.verboten()) {
+                if (ausgabe.contains(text)) {
+                    throw new IllegalStateException("Prüfung " + demo.klasse() + " fehlgeschlagen: unerwartet \""
+                        + text + "\" in:\n" + ausgabe);
+                }
+            }
+            bestanden++;
+        }
+        return bestanden;
+    }
+
+    /**
+     * Ruft {@code main} einer Klasse auf und liefert, was sie auf {@code System.out} schreibt.
+     *
+     * @throws IllegalStateException wenn die Klasse auf {@code System.err} schreibt oder eine Ausnahme wirft
+     */
+    private static String mitschneiden(String klasse) {
+        PrintStream ausgabe = System.out;
+        PrintStream fehler = System.err;
+        ByteArrayOutputStream aus = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(aus, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        try {
+            Class.forName(klasse).getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Prüfung " + klasse + " fehlgeschlagen", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Prüfung " + klasse + " nicht ausführbar", e);
+        } finally {
+            System.out.flush();
+            System.setOut(ausgabe);
+            System.setErr(fehler);
+        }
+        if (err.size() > 0) {
+            throw new IllegalStateException("Prüfung " + klasse + " fehlgeschlagen, Fehlerausgabe:\n"
+                + err.toString(StandardCharsets.UTF_8));
+        }
+        return aus.toString(StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal gehaltssumme(Connection verbindung, String abteilung) throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "SELECT SUM(salary) FROM employees WHERE department = ?")) {
+            statement.setString(1, abteilung);
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                ergebnisSet.next();
+                return ergebnisSet.getBigDecimal(1);
+            }
+        }
+    }
+
+    private static int erwarten(String pruefung, Object erwartet, Object tatsaechlich) {
+        boolean gleich = erwartet instanceof BigDecimal betrag && tatsaechlich instanceof BigDecimal ist
+            ? betrag.compareTo(ist) == 0
+            : Objects.equals(erwartet, tatsaechlich);
+        if (!gleich) {
+            throw new IllegalStateException(
+                "Prüfung " + pruefung + " fehlgeschlagen: erwartet " + erwartet + ", war " + tatsaechlich);
+        }
+        return 1;
+    }
+
+    /**
+     * Führt alle Prüfungen aus und beendet den Prozess bei einem Fehler mit
+     * Status 1, damit sich die Klasse als Integrationsprüfung in Skripten eignet.
+     * Benötigt {@code com.h2database:h2} auf dem Klassenpfad.
+     *
+     * @param args Kommandozeilenargumente (werden nicht verwendet)
+     */
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        try {
+            int bestanden = pruefen();
+            System.out.printf("%d Prüfungen bestanden in %.1f ms%n", bestanden, (System.nanoTime() - start) / 1e6);
+        } catch (Exception e) {
+            System.err.println("Selbstprüfung der eingebetteten Datenbank fehlgeschlagen:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.javadbconnectivity.testdatenbank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zerlegt ein MySQL-Skript wie {@code sql/table-setup.sql} in einzelne Anweisungen.
+ *
+ * Beachtet wird die Client-Anweisung {@code DELIMITER}, mit der die
+ * Prozedurdefinitionen ihr eigenes Endezeichen setzen, sowie Zeilenkommentare
+ * mit {@code --}. Ein Endezeichen innerhalb eines Zeichenkettenliterals wird
+ * nicht erkannt; die Skripte im Ordner {@code sql} enthalten keines.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class SqlSkript {
+
+    private static final String DELIMITER = "delimiter ";
+
+    private SqlSkript() {
+    }
+
+    /**
+     * @param skript der Skripttext
+     * @return die Anweisungen ohne Endezeichen, in Skriptreihenfolge
+     */
+    public static List<String> zerlegen(String skript) {
+        List<String> anweisungen = new ArrayList<>();
+        String endezeichen = ";";
+        StringBuilder aktuell = new StringBuilder();
+        for (String zeile : skript.split("\\R")) {
+            String getrimmt = zeile.trim();
+            if (getrimmt.startsWith("--") || (aktuell.isEmpty() && getrimmt.isEmpty())) {
+                continue;
+            }
+            if (aktuell.isEmpty() && getrimmt.regionMatches(true, 0, DELIMITER, 0, DELIMITER.length())) {
+                endezeichen = getrimmt.substring(DELIMITER.length()).trim();
+                continue;
+            }
+            if (getrimmt.endsWith(endezeichen)) {
+                aktuell.append(getrimmt, 0, getrimmt.length() - endezeichen.length());
+                String anweisung = aktuell.toString().trim();
+                if (!anweisung.isEmpty()) {
+                    anweisungen.add(anweisung);
+                }
+                aktuell.setLength(0);
+            } else {
+                aktuell.append(zeile).append('\n');
+            }
+        }
+        String rest = aktuell.toString().trim();
+        if (!rest.isEmpty()) {
+            anweisungen.add(rest);
+        }
+        return anweisungen;
+    }
+}
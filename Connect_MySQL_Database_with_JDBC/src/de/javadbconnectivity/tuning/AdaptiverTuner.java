@@ -0,0 +1,313 @@
+package de.javadbconnectivity.tuning;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
+/**
+ * Wählt Fetch- und Batch-Größen pro {@link SqlFingerabdruck} anhand beobachteter
+ * Zeilenanzahlen, Zeilenbreiten und Laufzeiten.
+ *
+ * Ziel ist ein Budget pro Roundtrip: höchstens {@link Budget#bytesProAbruf()} Bytes
+ * und ungefähr {@link Budget#latenzProAbrufNs()} Nanosekunden. Kleine Ergebnisse
+ * bekommen eine Fetch-Größe, mit der sie in einem Roundtrip übertragen werden.
+ * Die gewählten Werte und ihre Wirkung (Nanosekunden pro Zeile, geschätzte
+ * Roundtrips) werden als {@link Metriken} veröffentlicht.
+ *
+ * Hinweis: Connector/J beachtet {@link java.sql.Statement#setFetchSize(int)} nur
+ * mit {@code useCursorFetch=true} in der JDBC-URL; ohne diese Option wird das
+ * Ergebnis vollständig übertragen und nur die Batch-Größe wirkt sich aus.
+ * Für Batches empfiehlt sich zusätzlich {@code rewriteBatchedStatements=true}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class AdaptiverTuner {
+
+    /** Glättungsfaktor für die gleitenden Mittelwerte */
+    private static final double ALPHA = 0.3;
+    /** Obergrenze für die geschätzte Breite einer einzelnen Spalte */
+    private static final int MAX_SPALTENBREITE = 4096;
+
+    /**
+     * Speicher- und Latenzbudget pro Roundtrip.
+     *
+     * @param bytesProAbruf maximale Bytes pro Fetch bzw. Batch
+     * @param latenzProAbrufNs angestrebte Dauer pro Fetch bzw. Batch in Nanosekunden
+     * @param minGroesse kleinste zulässige Fetch-/Batch-Größe
+     * @param maxGroesse größte zulässige Fetch-/Batch-Größe
+     * @param startGroesse Größe, solange noch keine Beobachtung vorliegt
+     */
+    public record Budget(long bytesProAbruf, long latenzProAbrufNs,
+                         int minGroesse, int maxGroesse, int startGroesse) {
+
+        /**
+         * @return 1 MiB und 50 ms pro Roundtrip, Größen zwischen 10 und 10.000
+         */
+        public static Budget standard() {
+            return new Budget(1024 * 1024, 50_000_000L, 10, 10_000, 100);
+        }
+    }
+
+    private final Budget budget;
+    private final Metriken metriken;
+    private final Map<SqlFingerabdruck, Profil> profile = new ConcurrentHashMap<>();
+
+    /**
+     * @param budget das einzuhaltende Budget
+     * @param metriken das Register für die veröffentlichten Werte
+     */
+    public AdaptiverTuner(Budget budget, Metriken metriken) {
+        this.budget = budget;
+        this.metriken = metriken;
+    }
+
+    /**
+     * @param fingerabdruck der Fingerabdruck der Abfrage
+     * @return die aktuell gewählte Fetch-Größe
+     */
+    public int fetchGroesse(SqlFingerabdruck fingerabdruck) {
+        return profil(fingerabdruck).fetchGroesse;
+    }
+
+    /**
+     * @param fingerabdruck der Fingerabdruck der Anweisung
+     * @return die aktuell gewählte Batch-Größe
+     */
+    public int batchGroesse(SqlFingerabdruck fingerabdruck) {
+        return profil(fingerabdruck).batchGroesse;
+    }
+
+    /**
+     * Meldet eine beobachtete Abfrage und passt die Fetch-Größe an.
+     *
+     * @param fingerabdruck der Fingerabdruck der Abfrage
+     * @param zeilen die Anzahl gelesener Zeilen
+     * @param zeilenBreite die geschätzte Breite einer Zeile in Bytes
+     * @param dauerNs die Dauer von Ausführung und Lesen in Nanosekunden
+     */
+    public void abfrageBeobachten(SqlFingerabdruck fingerabdruck, long zeilen, int zeilenBreite, long dauerNs) {
+        Profil profil = profil(fingerabdruck);
+        long rundreisen;
+        int fetchGroesse;
+        synchronized (profil) {
+            rundreisen = Math.max(1, (zeilen + profil.fetchGroesse - 1) / profil.fetchGroesse);
+            profil.zeilen = glaetten(profil.zeilen, zeilen);
+            profil.zeilenBreite = glaetten(profil.zeilenBreite, zeilenBreite);
+            if (zeilen > 0) {
+                profil.nsProZeileLesen = glaetten(profil.nsProZeileLesen, (double) dauerNs / zeilen);
+            }
+            profil.fetchGroesse = begrenzen(Math.min(
+                Math.min(ausBudget(profil.zeilenBreite), ausLatenz(profil.nsProZeileLesen)),
+                Math.max(budget.minGroesse(), (long) Math.ceil(profil.zeilen * 1.25))));
+            fetchGroesse = profil.fetchGroesse;
+        }
+
+        String zusatz = "[" + fingerabdruck.getVorlage() + "]";
+        metriken.zaehler("tuner.abfragen" + zusatz).increment();
+        metriken.zaehler("tuner.zeilen" + zusatz).add(zeilen);
+        metriken.zaehler("tuner.rundreisen" + zusatz).add(rundreisen);
+        metriken.messwert("tuner.fetchGroesse" + zusatz).set(fetchGroesse);
+        metriken.messwert("tuner.zeilenBreite" + zusatz).set(zeilenBreite);
+        metriken.messwert("tuner.nsProZeile.lesen" + zusatz).set(zeilen == 0 ? 0 : dauerNs / zeilen);
+    }
+
+    /**
+     * Meldet einen beobachteten Batch und passt die Batch-Größe an.
+     *
+     * @param fingerabdruck der Fingerabdruck der Anweisung
+     * @param zeilen die Anzahl der Zeilen im Batch
+     * @param zeilenBreite die geschätzte Breite einer Zeile in Bytes
+     * @param dauerNs die Dauer von {@code executeBatch} in Nanosekunden
+     */
+    public void batchBeobachten(SqlFingerabdruck fingerabdruck, int zeilen, int zeilenBreite, long dauerNs) {
+        if (zeilen == 0) {
+            return;
+        }
+        Profil profil = profil(fingerabdruck);
+        int batchGroesse;
+        synchronized (profil) {
+            profil.zeilenBreite = glaetten(profil.zeilenBreite, zeilenBreite);
+            profil.nsProZeileSchreiben = glaetten(profil.nsProZeileSchreiben, (double) dauerNs / zeilen);
+            profil.batchGroesse = begrenzen(Math.min(
+                ausBudget(profil.zeilenBreite), ausLatenz(profil.nsProZeileSchreiben)));
+            batchGroesse = profil.batchGroesse;
+        }
+
+        String zusatz = "[" + fingerabdruck.getVorlage() + "]";
+        metriken.zaehler("tuner.batches" + zusatz).increment();
+        metriken.zaehler("tuner.batchZeilen" + zusatz).add(zeilen);
+        metriken.messwert("tuner.batchGroesse" + zusatz).set(batchGroesse);
+        metriken.messwert("tuner.nsProZeile.schreiben" + zusatz).set(dauerNs / zeilen);
+    }
+
+    /**
+     * Führt eine Abfrage mit der gewählten Fetch-Größe aus, übergibt jede Zeile
+     * an den Verarbeiter und meldet die Beobachtung.
+     *
+     * @param verbindung die zu verwendende Verbindung
+     * @param sql die SQL-Abfrage mit Platzhaltern
+     * @param parameter die Parameterwerte
+     * @param verarbeiter wird für jede Zeile aufgerufen
+     * @return die Anzahl gelesener Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public long abfragen(Connection verbindung, String sql, List<?> parameter, ZeilenVerarbeiter verarbeiter)
+            throws SQLException {
+        SqlFingerabdruck fingerabdruck = SqlFingerabdruck.von(sql);
+        long zeilen = 0;
+        long dauerNs;
+        int zeilenBreite;
+
+        try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+            statement.setFetchSize(fetchGroesse(fingerabdruck));
+            for (int i = 0; i < parameter.size(); i++) {
+                statement.setObject(i + 1, parameter.get(i));
+            }
+
+            // Nur die Zeit in executeQuery() und next() zählt, nicht die Verarbeitung
+            long start = System.nanoTime();
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                zeilenBreite = zeilenBreite(ergebnisSet.getMetaData());
+                dauerNs = System.nanoTime() - start;
+
+                while (true) {
+                    long vorNext = System.nanoTime();
+                    boolean weitere = ergebnisSet.next();
+                    dauerNs += System.nanoTime() - vorNext;
+                    if (!weitere) {
+                        break;
+                    }
+                    verarbeiter.verarbeiten(ergebnisSet);
+                    zeilen++;
+                }
+            }
+        }
+
+        abfrageBeobachten(fingerabdruck, zeilen, zeilenBreite, dauerNs);
+        return zeilen;
+    }
+
+    /**
+     * Führt eine Anweisung für viele Parameterzeilen in Batches der jeweils
+     * gewählten Größe aus.
+     *
+     * @param verbindung die zu verwendende Verbindung
+     * @param sql die SQL-Anweisung mit Platzhaltern, z.B. ein INSERT
+     * @param zeilen die Parameterwerte pro Zeile
+     * @return die Summe der betroffenen Zeilen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public long stapelweiseAusfuehren(Connection verbindung, String sql, List<Object[]> zeilen)
+            throws SQLException {
+        SqlFingerabdruck fingerabdruck = SqlFingerabdruck.von(sql);
+        long betroffen = 0;
+
+        try (PreparedStatement statement = verbindung.prepareStatement(sql)) {
+            int position = 0;
+            while (position < zeilen.size()) {
+                int ende = Math.min(zeilen.size(), position + batchGroesse(fingerabdruck));
+                int zeilenBreite = 0;
+
+                for (int i = position; i < ende; i++) {
+                    Object[] werte = zeilen.get(i);
+                    for (int j = 0; j < werte.length; j++) {
+                        statement.setObject(j + 1, werte[j]);
+                    }
+                    statement.addBatch();
+                    zeilenBreite = Math.max(zeilenBreite, zeilenBreite(werte));
+                }
+
+                long start = System.nanoTime();
+                for (int anzahl : statement.executeBatch()) {
+                    // SUCCESS_NO_INFO (-2) zählt als eine Zeile
+                    betroffen += anzahl >= 0 ? anzahl : 1;
+                }
+                batchBeobachten(fingerabdruck, ende - position, zeilenBreite, System.nanoTime() - start);
+                position = ende;
+            }
+        }
+        return betroffen;
+    }
+
+    private Profil profil(SqlFingerabdruck fingerabdruck) {
+        return profile.computeIfAbsent(fingerabdruck, f -> new Profil(budget.startGroesse()));
+    }
+
+    private long ausBudget(double zeilenBreite) {
+        return zeilenBreite <= 0 ? budget.maxGroesse() : (long) (budget.bytesProAbruf() / zeilenBreite);
+    }
+
+    private long ausLatenz(double nsProZeile) {
+        return nsProZeile <= 0 ? budget.maxGroesse() : (long) (budget.latenzProAbrufNs() / nsProZeile);
+    }
+
+    private int begrenzen(long groesse) {
+        return (int) Math.max(budget.minGroesse(), Math.min(budget.maxGroesse(), groesse));
+    }
+
+    private static double glaetten(double alt, double neu) {
+        return alt == 0 ? neu : alt + ALPHA * (neu - alt);
+    }
+
+    private static int zeilenBreite(ResultSetMetaData metaDaten) throws SQLException {
+        int breite = 0;
+        for (int i = 1; i <= metaDaten.getColumnCount(); i++) {
+            breite += Math.min(MAX_SPALTENBREITE, Math.max(1, metaDaten.getColumnDisplaySize(i)));
+        }
+        return breite;
+    }
+
+    private static int zeilenBreite(Object[] werte) {
+        int breite = 0;
+        for (Object wert : werte) {
+            breite += wert instanceof CharSequence text ? text.length() : 8;
+        }
+        return breite;
+    }
+
+    /** Beobachtungen und gewählte Größen für einen Fingerabdruck. */
+    private static final class Profil {
+        double zeilen;
+        double zeilenBreite;
+        double nsProZeileLesen;
+        double nsProZeileSchreiben;
+        volatile int fetchGroesse;
+        volatile int batchGroesse;
+
+        Profil(int startGroesse) {
+            this.fetchGroesse = startGroesse;
+            this.batchGroesse = startGroesse;
+        }
+    }
+
+    /**
+     * Demonstriert den Tuner mit der Mitarbeiterliste aus {@code JdbcTest}.
+     *
+     * @param args Kommandozeilenargumente (werden nicht verwendet)
+     * @throws Exception wenn ein Fehler auftritt
+     */
+    public static void main(String[] args) throws Exception {
+        DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard();
+        Metriken metriken = new Metriken();
+        AdaptiverTuner tuner = new AdaptiverTuner(Budget.standard(), metriken);
+
+        try (Connection verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort())) {
+            for (int i = 0; i < 5; i++) {
+                tuner.abfragen(verbindung, "SELECT * FROM employees", List.of(), ergebnisSet -> { });
+            }
+        }
+        metriken.ausgeben(System.out);
+    }
+}
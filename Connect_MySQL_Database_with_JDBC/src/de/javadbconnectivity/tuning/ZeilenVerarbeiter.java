@@ -0,0 +1,23 @@
+package de.javadbconnectivity.tuning;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Verarbeitet eine einzelne Zeile eines ResultSets, wie der Rumpf der
+ * {@code while (ergebnisSet.next())}-Schleifen in den Demo-Klassen.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ZeilenVerarbeiter {
+
+    /**
+     * Verarbeitet die aktuelle Zeile. {@code next()} darf nicht aufgerufen werden.
+     *
+     * @param ergebnisSet das ResultSet, positioniert auf der aktuellen Zeile
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    void verarbeiten(ResultSet ergebnisSet) throws SQLException;
+}
@@ -0,0 +1,22 @@
+package de.javadbconnectivity.ueberwachung;
+
+import java.util.List;
+
+/**
+ * Beschreibt eine beobachtete Ausführung einer Anweisung.
+ *
+ * @param sql die ausgeführte SQL-Anweisung
+ * @param parameter die gebundenen Parameter in Platzhalter-Reihenfolge
+ *                  (leer bei einfachen Statements)
+ * @param aufruf true bei einem {@link java.sql.CallableStatement}
+ * @param startMs Startzeitpunkt in Millisekunden seit der Epoche
+ * @param dauerNs die Dauer der Ausführung in Nanosekunden
+ * @param thread der Name des ausführenden Threads
+ * @param fehler der aufgetretene Fehler oder null
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Ausfuehrung(String sql, List<Object> parameter, boolean aufruf, long startMs,
+                          long dauerNs, String thread, Throwable fehler) {
+}
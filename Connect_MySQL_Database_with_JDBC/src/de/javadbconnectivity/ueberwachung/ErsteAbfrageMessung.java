@@ -0,0 +1,85 @@
+package de.javadbconnectivity.ueberwachung;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.javadbconnectivity.metriken.Metriken;
+
+/**
+ * Misst die Zeit vom Prozessstart bis zum Ende der ersten Anweisung
+ * ("Time to first query") sowie die Dauer dieser ersten Anweisung.
+ *
+ * Nur die erste Ausführung zählt; alle weiteren Benachrichtigungen kosten
+ * lediglich einen Blick auf ein {@link AtomicBoolean}. Die Werte werden als
+ * {@code start.zeitBisErsteAbfrageMs} und {@code start.ersteAbfrageUs}
+ * veröffentlicht.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class ErsteAbfrageMessung implements StatementBeobachter {
+
+    private final Metriken metriken;
+    private final long prozessStartMs;
+    private final AtomicBoolean erfasst = new AtomicBoolean();
+    private volatile String sql;
+
+    /**
+     * @param metriken das Register für die gemessenen Werte
+     */
+    public ErsteAbfrageMessung(Metriken metriken) {
+        this.metriken = metriken;
+        this.prozessStartMs = prozessStartMs();
+    }
+
+    @Override
+    public void ausgefuehrt(Ausfuehrung ausfuehrung) {
+        if (erfasst.get() || !erfasst.compareAndSet(false, true)) {
+            return;
+        }
+        long endeMs = ausfuehrung.startMs() + ausfuehrung.dauerNs() / 1_000_000;
+        sql = ausfuehrung.sql();
+        metriken.messwert("start.zeitBisErsteAbfrageMs").set(endeMs - prozessStartMs);
+        metriken.messwert("start.ersteAbfrageUs").set(ausfuehrung.dauerNs() / 1_000);
+    }
+
+    /**
+     * @return true, sobald die erste Anweisung ausgeführt wurde
+     */
+    public boolean isErfasst() {
+        return erfasst.get();
+    }
+
+    /**
+     * @return die erste ausgeführte Anweisung oder null
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return die Millisekunden vom Prozessstart bis zum Ende der ersten Anweisung
+     */
+    public long getZeitBisErsteAbfrageMs() {
+        return metriken.messwert("start.zeitBisErsteAbfrageMs").get();
+    }
+
+    /**
+     * @return die Dauer der ersten Anweisung in Mikrosekunden
+     */
+    public long getErsteAbfrageUs() {
+        return metriken.messwert("start.ersteAbfrageUs").get();
+    }
+
+    /**
+     * Liefert den Startzeitpunkt des laufenden Prozesses. Ist er nicht ermittelbar,
+     * wird der Zeitpunkt des ersten Aufrufs verwendet.
+     *
+     * @return der Prozessstart in Millisekunden seit der Epoche
+     */
+    public static long prozessStartMs() {
+        return ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElseGet(System::currentTimeMillis);
+    }
+}
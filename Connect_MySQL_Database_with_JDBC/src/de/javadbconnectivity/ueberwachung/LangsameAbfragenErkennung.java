@@ -0,0 +1,294 @@
+package de.javadbconnectivity.ueberwachung;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.javadbconnectivity.cache.SqlFingerabdruck;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Erkennt Anweisungen, die länger als eine Schwelle dauern, und protokolliert sie
+ * mit Parametern und Ausführungsplan.
+ *
+ * Als {@link StatementBeobachter} sieht die Erkennung jede Anweisung einer
+ * {@link UeberwachteVerbindung}, auch die {@code {call ...}}-Aufrufe aus
+ * {@code de.jdbcStoredProzedures}. Für langsame SELECT-, INSERT-, UPDATE-,
+ * DELETE- und REPLACE-Anweisungen wird auf einer eigenen Nebenverbindung
+ * {@code EXPLAIN FORMAT=JSON} mit denselben Parametern ausgeführt; die
+ * Anweisung selbst wird dabei nicht erneut ausgeführt. Prozeduraufrufe werden
+ * ohne Plan protokolliert, da MySQL sie nicht erklären kann.
+ *
+ * Für den Dauerbetrieb gilt:
+ * - Auf dem ausführenden Thread findet nur ein Schwellenvergleich statt
+ * - Ein {@link TokenEimer} begrenzt die Anzahl protokollierter Einträge pro Minute
+ * - EXPLAIN und Schreiben laufen auf einem Hintergrund-Thread mit begrenzter
+ *   Warteschlange; überzählige Einträge werden verworfen und gezählt
+ * - Das Protokoll rotiert über {@link RotierendesProtokoll}
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class LangsameAbfragenErkennung implements StatementBeobachter, AutoCloseable {
+
+    /** Maximale Anzahl wartender Einträge */
+    private static final int WARTESCHLANGE = 256;
+    /** Zeitlimit für EXPLAIN in Sekunden */
+    private static final int EXPLAIN_ZEITLIMIT = 5;
+    /** Fingerabdruck für Ausführungen ohne SQL, etwa {@code Statement.executeBatch()} */
+    private static final String STAPEL = "<batch>";
+
+    private final DatenbankKonfiguration konfiguration;
+    private final RotierendesProtokoll protokoll;
+    private final long schwelleNs;
+    private final TokenEimer eimer;
+    private final BlockingQueue<Ausfuehrung> warteschlange = new ArrayBlockingQueue<>(WARTESCHLANGE);
+    private final AtomicLong unterdrueckt = new AtomicLong();
+    private final AtomicLong erkannt = new AtomicLong();
+    private final Thread arbeiter;
+    private volatile boolean beendet;
+    private Connection nebenVerbindung;
+
+    /**
+     * Startet die Erkennung.
+     *
+     * @param konfiguration die Verbindungsdaten für die EXPLAIN-Nebenverbindung
+     * @param protokoll das Zielprotokoll (JSON Lines)
+     * @param schwelleMs die Schwelle in Millisekunden
+     * @param maxProMinute die maximale Anzahl protokollierter Einträge pro Minute
+     */
+    public LangsameAbfragenErkennung(DatenbankKonfiguration konfiguration, RotierendesProtokoll protokoll,
+                                     long schwelleMs, int maxProMinute) {
+        this.konfiguration = konfiguration;
+        this.protokoll = protokoll;
+        this.schwelleNs = TimeUnit.MILLISECONDS.toNanos(schwelleMs);
+        this.eimer = new TokenEimer(maxProMinute / 60.0, maxProMinute);
+        this.arbeiter = new Thread(this::arbeiten, "langsame-abfragen");
+        this.arbeiter.setDaemon(true);
+        this.arbeiter.start();
+    }
+
+    @Override
+    public void ausgefuehrt(Ausfuehrung ausfuehrung) {
+        if (ausfuehrung.dauerNs() < schwelleNs) {
+            return;
+        }
+        erkannt.incrementAndGet();
+        if (!eimer.versuchen() || !warteschlange.offer(ausfuehrung)) {
+            unterdrueckt.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return die Anzahl erkannter langsamer Anweisungen
+     */
+    public long getErkannt() {
+        return erkannt.get();
+    }
+
+    /**
+     * @return die Anzahl nicht protokollierter langsamer Anweisungen
+     */
+    public long getUnterdrueckt() {
+        return unterdrueckt.get();
+    }
+
+    /**
+     * Arbeitet die Warteschlange ab und schließt die Nebenverbindung.
+     * Das Protokoll selbst wird nicht geschlossen.
+     */
+    @Override
+    public void close() {
+        beendet = true;
+        try {
+            arbeiter.join(TimeUnit.SECONDS.toMillis(EXPLAIN_ZEITLIMIT * 2L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        nebenVerbindungSchliessen();
+    }
+
+    private void arbeiten() {
+        long gemeldetUnterdrueckt = 0;
+        try {
+            while (!beendet || !warteschlange.isEmpty()) {
+                Ausfuehrung ausfuehrung = warteschlange.poll(100, TimeUnit.MILLISECONDS);
+                if (ausfuehrung == null) {
+                    continue;
+                }
+                long aktuellUnterdrueckt = unterdrueckt.get();
+                try {
+                    String eintrag = eintragErstellen(ausfuehrung, aktuellUnterdrueckt - gemeldetUnterdrueckt);
+                    gemeldetUnterdrueckt = aktuellUnterdrueckt;
+                    protokoll.schreiben(eintrag);
+                } catch (IOException e) {
+                    System.err.println("Fehler beim Schreiben des Protokolls für langsame Abfragen:");
+                    e.printStackTrace();
+                } catch (RuntimeException e) {
+                    // Ein fehlerhafter Eintrag darf die Erkennung nicht für den Rest des Prozesses beenden
+                    System.err.println("Fehler beim Erstellen eines Eintrags für langsame Abfragen:");
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String eintragErstellen(Ausfuehrung ausfuehrung, long seitLetztemUnterdrueckt) {
+        SqlFingerabdruck fingerabdruck = ausfuehrung.sql() == null ? null : SqlFingerabdruck.von(ausfuehrung.sql());
+        StringBuilder json = new StringBuilder(512).append('{');
+        json.append("\"zeit\":").append(RotierendesProtokoll.json(Instant.ofEpochMilli(ausfuehrung.startMs()).toString()));
+        json.append(",\"dauerMs\":").append(ausfuehrung.dauerNs() / 1_000_000.0);
+        json.append(",\"schwelleMs\":").append(schwelleNs / 1_000_000.0);
+        json.append(",\"thread\":").append(RotierendesProtokoll.json(ausfuehrung.thread()));
+        json.append(",\"aufruf\":").append(ausfuehrung.aufruf());
+        json.append(",\"sql\":").append(RotierendesProtokoll.json(ausfuehrung.sql()));
+        json.append(",\"fingerabdruck\":").append(RotierendesProtokoll.json(
+            fingerabdruck == null ? STAPEL : fingerabdruck.getVorlage()));
+        json.append(",\"parameter\":");
+        parameterAnhaengen(json, ausfuehrung.parameter());
+        json.append(",\"fehler\":").append(RotierendesProtokoll.json(
+            ausfuehrung.fehler() == null ? null : ausfuehrung.fehler().toString()));
+        json.append(",\"unterdrueckt\":").append(seitLetztemUnterdrueckt);
+
+        if (fingerabdruck == null || ausfuehrung.aufruf() || !erklaerbar(fingerabdruck)) {
+            json.append(",\"plan\":null");
+        } else {
+            try {
+                json.append(",\"plan\":").append(erklaeren(ausfuehrung));
+            } catch (SQLException e) {
+                json.append(",\"plan\":null,\"planFehler\":").append(RotierendesProtokoll.json(e.getMessage()));
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Führt EXPLAIN FORMAT=JSON mit denselben Parametern auf der Nebenverbindung aus.
+     */
+    private String erklaeren(Ausfuehrung ausfuehrung) throws SQLException {
+        Connection verbindung = nebenVerbindung();
+        try (PreparedStatement statement = verbindung.prepareStatement("EXPLAIN FORMAT=JSON " + ausfuehrung.sql())) {
+            statement.setQueryTimeout(EXPLAIN_ZEITLIMIT);
+            List<Object> parameter = ausfuehrung.parameter();
+            for (int i = 0; i < parameter.size(); i++) {
+                statement.setObject(i + 1, parameter.get(i));
+            }
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                return ergebnisSet.next() ? ergebnisSet.getString(1) : "null";
+            }
+        } catch (SQLException e) {
+            nebenVerbindungPruefen();
+            throw e;
+        }
+    }
+
+    private Connection nebenVerbindung() throws SQLException {
+        if (nebenVerbindung == null || nebenVerbindung.isClosed()) {
+            nebenVerbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
+        }
+        return nebenVerbindung;
+    }
+
+    private void nebenVerbindungPruefen() {
+        try {
+            if (nebenVerbindung != null && !nebenVerbindung.isValid(2)) {
+                nebenVerbindungSchliessen();
+            }
+        } catch (SQLException e) {
+            nebenVerbindungSchliessen();
+        }
+    }
+
+    private void nebenVerbindungSchliessen() {
+        if (nebenVerbindung == null) {
+            return;
+        }
+        try {
+            nebenVerbindung.close();
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Schließen der EXPLAIN-Verbindung:");
+            e.printStackTrace();
+        }
+        nebenVerbindung = null;
+    }
+
+    private static boolean erklaerbar(SqlFingerabdruck fingerabdruck) {
+        String vorlage = fingerabdruck.getVorlage();
+        return vorlage.startsWith("select") || vorlage.startsWith("with") || vorlage.startsWith("insert")
+            || vorlage.startsWith("update") || vorlage.startsWith("delete") || vorlage.startsWith("replace");
+    }
+
+    private static void parameterAnhaengen(StringBuilder json, List<Object> parameter) {
+        json.append('[');
+        for (int i = 0; i < parameter.size(); i++) {
+            Object wert = parameter.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            if (wert == null || wert instanceof Number || wert instanceof Boolean) {
+                json.append(wert);
+            } else if (wert instanceof byte[] || wert instanceof InputStream || wert instanceof Reader) {
+                json.append("\"<binär>\"");
+            } else {
+                json.append(RotierendesProtokoll.json(wert.toString()));
+            }
+        }
+        json.append(']');
+    }
+
+    /**
+     * Demonstriert die Erkennung mit Schwelle 0 ms: alle Anweisungen, auch die
+     * Prozeduraufrufe, landen in {@code langsame-abfragen.log}.
+     *
+     * @param args Kommandozeilenargumente (werden nicht verwendet)
+     * @throws Exception wenn ein Fehler auftritt
+     */
+    public static void main(String[] args) throws Exception {
+        DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard();
+
+        try (RotierendesProtokoll protokoll =
+                 new RotierendesProtokoll(Path.of("langsame-abfragen.log"), 10 * 1024 * 1024, 5);
+             LangsameAbfragenErkennung erkennung = new LangsameAbfragenErkennung(konfiguration, protokoll, 0, 600);
+             VerbindungsPool pool = new VerbindungsPool(konfiguration, 1, List.of(erkennung))) {
+
+            Connection verbindung = pool.ausleihen();
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                     "SELECT * FROM employees WHERE salary > ? AND department = ?");
+                 CallableStatement aufruf = verbindung.prepareCall("{call get_count_for_department(?, ?)}")) {
+                statement.setDouble(1, 80000);
+                statement.setString(2, "Legal");
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    while (ergebnisSet.next()) {
+                        System.out.println(ergebnisSet.getString("last_name"));
+                    }
+                }
+
+                aufruf.setString(1, "Engineering");
+                aufruf.registerOutParameter(2, Types.INTEGER);
+                aufruf.execute();
+                System.out.println("Anzahl Engineering: " + aufruf.getInt(2));
+            } finally {
+                pool.zurueckgeben(verbindung);
+            }
+        }
+        System.out.println("\nEinträge in langsame-abfragen.log geschrieben.");
+    }
+}
@@ -0,0 +1,643 @@
+package de.javadbconnectivity.ueberwachung;
+
+import java.io.PrintStream;
+import java.lang.StackWalker.StackFrame;
+import java.lang.ref.Cleaner;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.metriken.Metriken;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Verfolgt, wo Verbindungen, Statements und ResultSets geöffnet wurden, wie
+ * lange sie gehalten werden und ob sie je geschlossen werden.
+ *
+ * Die JDBC-Objekte werden wie in {@link UeberwachteVerbindung} über
+ * {@link Proxy} umhüllt. Jede geöffnete Ressource erhält einen Eintrag mit
+ * Thread, Startzeit und – je nach {@link Verfolgungsoptionen#stichprobe()} –
+ * der Aufrufstelle. Beim Schließen fließt die Haltedauer in ein
+ * {@link LatenzHistogramm} je {@link Ressource}.
+ *
+ * Gemeldet werden:
+ * - Ressourcen, die länger als die Schwelle offen sind (einmal je Ressource,
+ *   geprüft von einem Hintergrund-Thread, nicht auf dem Arbeits-Thread)
+ * - Ressourcen, die ungeschlossen unerreichbar werden; ein {@link Cleaner}
+ *   bemerkt das, sobald der Garbage Collector den Proxy einsammelt
+ * - Statements, die bei der Rückgabe einer Poolverbindung noch offen sind
+ *
+ * Eine nie zurückgegebene Poolverbindung bleibt über den Pool erreichbar und
+ * wird daher nur über die Schwelle erkannt. Schließt ein Statement seine
+ * ResultSets oder eine Verbindung ihre Statements, gilt das nicht als Leck.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class RessourcenVerfolgung implements AutoCloseable {
+
+    /** Die verfolgten Arten von Ressourcen. */
+    public enum Ressource {
+        /** eine Verbindung, im Pool je Ausleihe */
+        VERBINDUNG,
+        /** ein Statement, PreparedStatement oder CallableStatement */
+        STATEMENT,
+        /** ein ResultSet */
+        ERGEBNIS;
+
+        String zusatz() {
+            return "[" + name().toLowerCase(Locale.ROOT) + "]";
+        }
+    }
+
+    /**
+     * Eine auffällige Ressource.
+     *
+     * @param ressource die Art
+     * @param grund {@code lange gehalten}, {@code nicht geschlossen} oder {@code offen bei Rückgabe}
+     * @param sql das SQL des Statements oder null
+     * @param thread der öffnende Thread
+     * @param dauerMs die bisherige Haltedauer
+     * @param herkunft die Aufrufstelle beim Öffnen; leer, wenn nicht aufgezeichnet
+     */
+    public record Befund(Ressource ressource, String grund, String sql, String thread, long dauerMs,
+                         List<StackTraceElement> herkunft) {
+
+        /**
+         * @param ausgabe das Ziel
+         */
+        public void ausgeben(PrintStream ausgabe) {
+            ausgabe.printf("%s %s nach %d ms (Thread %s)%s%n", ressource, grund, dauerMs, thread,
+                sql == null ? "" : ": " + sql);
+            for (StackTraceElement element : herkunft) {
+                ausgabe.println("\tat " + element);
+            }
+        }
+    }
+
+    private static final Cleaner REINIGER = Cleaner.create();
+    /** Maximale Tiefe der aufgezeichneten Aufrufstelle */
+    private static final int TIEFE = 16;
+    /** Anzahl der aufbewahrten Befunde */
+    private static final int MAX_BEFUNDE = 100;
+
+    private final Verfolgungsoptionen optionen;
+    private final Metriken metriken;
+    private final long schwelleNs;
+    private final Map<Long, Eintrag> offen = new ConcurrentHashMap<>();
+    private final Map<Ressource, LatenzHistogramm> haltezeiten = new EnumMap<>(Ressource.class);
+    private final AtomicLong nummern = new AtomicLong();
+    private final Deque<Befund> befunde = new ArrayDeque<>();
+    private final ScheduledExecutorService pruefer;
+
+    /**
+     * Startet die Verfolgung samt Hintergrundprüfung.
+     *
+     * @param optionen die Einstellungen
+     * @param metriken nimmt die Zähler {@code verfolgung.*} auf
+     */
+    public RessourcenVerfolgung(Verfolgungsoptionen optionen, Metriken metriken) {
+        this.optionen = optionen;
+        this.metriken = metriken;
+        this.schwelleNs = TimeUnit.MILLISECONDS.toNanos(optionen.schwelleMs());
+        for (Ressource ressource : Ressource.values()) {
+            haltezeiten.put(ressource, new LatenzHistogramm());
+        }
+        this.pruefer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ressourcen-verfolgung");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervallMs = Math.max(50, optionen.schwelleMs() / 4);
+        pruefer.scheduleWithFixedDelay(this::pruefen, intervallMs, intervallMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Umhüllt eine Verbindung. Bei {@code gepoolt} beginnt die Haltedauer erst mit
+     * {@link #ausgeliehen(Connection)}, sonst sofort, und endet mit {@code close()}.
+     *
+     * @param verbindung die Verbindung
+     * @param gepoolt ob die Verbindung von einem Pool verwaltet wird
+     * @return die verfolgte Verbindung
+     */
+    public Connection umhuellen(Connection verbindung, boolean gepoolt) {
+        VerbindungsHandler handler = new VerbindungsHandler(verbindung);
+        Connection huelle = (Connection) proxy(Connection.class, handler);
+        handler.huelle = huelle;
+        if (!gepoolt) {
+            handler.ausleihe = beginnen(Ressource.VERBINDUNG, null, huelle);
+        }
+        return huelle;
+    }
+
+    /**
+     * Beginnt die Haltedauer einer ausgeliehenen Poolverbindung.
+     *
+     * @param verbindung eine mit {@link #umhuellen(Connection, boolean)} erzeugte Verbindung
+     */
+    public void ausgeliehen(Connection verbindung) {
+        if (handler(verbindung) instanceof VerbindungsHandler handler) {
+            handler.ausleihe = beginnen(Ressource.VERBINDUNG, null, verbindung);
+        }
+    }
+
+    /**
+     * Beendet die Haltedauer einer Poolverbindung und meldet noch offene Statements.
+     *
+     * @param verbindung eine mit {@link #umhuellen(Connection, boolean)} erzeugte Verbindung
+     */
+    public void zurueckgegeben(Connection verbindung) {
+        if (!(handler(verbindung) instanceof VerbindungsHandler handler)) {
+            return;
+        }
+        for (Eintrag eintrag : handler.statements) {
+            if (!eintrag.beiRueckgabeGemeldet && offen.containsKey(eintrag.nummer)) {
+                eintrag.beiRueckgabeGemeldet = true;
+                metriken.zaehler("verfolgung.offenBeiRueckgabe").increment();
+                melden(eintrag.befund("offen bei Rückgabe"));
+            }
+        }
+        Eintrag ausleihe = handler.ausleihe;
+        handler.ausleihe = null;
+        beenden(ausleihe);
+    }
+
+    /**
+     * @param ressource die Art
+     * @return die Haltedauern geschlossener Ressourcen dieser Art
+     */
+    public LatenzHistogramm haltezeiten(Ressource ressource) {
+        return haltezeiten.get(ressource);
+    }
+
+    /**
+     * @return die Anzahl aktuell offener Ressourcen
+     */
+    public int getAnzahlOffen() {
+        return offen.size();
+    }
+
+    /**
+     * @return alle Ressourcen, die länger als die Schwelle offen sind, die älteste zuerst
+     */
+    public List<Befund> langeGehalten() {
+        long jetzt = System.nanoTime();
+        List<Befund> ergebnis = new ArrayList<>();
+        offen.values().stream()
+            .filter(eintrag -> jetzt - eintrag.startNs > schwelleNs)
+            .sorted(Comparator.comparingLong(eintrag -> eintrag.startNs))
+            .forEach(eintrag -> ergebnis.add(eintrag.befund("lange gehalten")));
+        return ergebnis;
+    }
+
+    /**
+     * @return die zuletzt gemeldeten Befunde, höchstens {@value #MAX_BEFUNDE}
+     */
+    public List<Befund> getBefunde() {
+        synchronized (befunde) {
+            return List.copyOf(befunde);
+        }
+    }
+
+    /**
+     * Gibt Haltedauern, offene Ressourcen und die gemeldeten Befunde aus.
+     *
+     * @param ausgabe das Ziel
+     */
+    public void bericht(PrintStream ausgabe) {
+        for (Ressource ressource : Ressource.values()) {
+            ausgabe.printf("%-10s %s%n", ressource, haltezeiten.get(ressource).zusammenfassung());
+        }
+        ausgabe.printf("offen: %d, davon über %d ms: %d%n",
+            offen.size(), optionen.schwelleMs(), langeGehalten().size());
+        for (Befund befund : getBefunde()) {
+            befund.ausgeben(ausgabe);
+        }
+    }
+
+    /**
+     * Beendet die Hintergrundprüfung; bereits umhüllte Objekte bleiben benutzbar.
+     */
+    @Override
+    public void close() {
+        pruefer.shutdownNow();
+    }
+
+    private Eintrag beginnen(Ressource ressource, String sql, Object huelle) {
+        return beginnen(ressource, sql, huelle, null);
+    }
+
+    /**
+     * @param geschwister die Menge, in die der Eintrag aufgenommen und aus der er
+     *                    beim Beenden wieder entfernt wird, oder null
+     */
+    private Eintrag beginnen(Ressource ressource, String sql, Object huelle, Set<Eintrag> geschwister) {
+        long nummer = nummern.incrementAndGet();
+        StackTraceElement[] herkunft = nummer % optionen.stichprobe() == 0 ? herkunft() : null;
+        Eintrag eintrag = new Eintrag(nummer, ressource, sql, UeberwachteVerbindung.threadName(),
+            System.nanoTime(), herkunft, geschwister);
+        offen.put(nummer, eintrag);
+        if (geschwister != null) {
+            geschwister.add(eintrag);
+        }
+        // Die Aktion darf die Hülle nicht referenzieren, sonst wird sie nie eingesammelt
+        eintrag.reinigung = REINIGER.register(huelle, eintrag);
+        metriken.zaehler("verfolgung.geoeffnet" + ressource.zusatz()).increment();
+        return eintrag;
+    }
+
+    private void beenden(Eintrag eintrag) {
+        if (eintrag == null) {
+            return;
+        }
+        // Ein Statement schließt seine ResultSets, eine Verbindung ihre Statements
+        for (Eintrag kind : eintrag.kinder) {
+            beenden(kind);
+        }
+        if (offen.remove(eintrag.nummer) != null) {
+            haltezeiten.get(eintrag.ressource).erfassen(System.nanoTime() - eintrag.startNs);
+        }
+        if (eintrag.geschwister != null) {
+            eintrag.geschwister.remove(eintrag);
+        }
+        eintrag.reinigung.clean();
+    }
+
+    /**
+     * Die erste Aufrufstelle außerhalb dieser Klasse, der Proxies und des Pools.
+     */
+    private static StackTraceElement[] herkunft() {
+        return StackWalker.getInstance().walk(rahmen -> rahmen
+            .dropWhile(RessourcenVerfolgung::intern)
+            .limit(TIEFE)
+            .map(StackFrame::toStackTraceElement)
+            .toArray(StackTraceElement[]::new));
+    }
+
+    private static boolean intern(StackFrame rahmen) {
+        String klasse = rahmen.getClassName();
+        return klasse.startsWith(RessourcenVerfolgung.class.getName())
+            || klasse.startsWith(UeberwachteVerbindung.class.getName())
+            || klasse.equals(VerbindungsPool.class.getName())
+            || klasse.startsWith("jdk.proxy") || klasse.startsWith("java.lang.reflect.")
+            || klasse.startsWith("jdk.internal.reflect.");
+    }
+
+    private void pruefen() {
+        long jetzt = System.nanoTime();
+        for (Eintrag eintrag : offen.values()) {
+            if (!eintrag.gemeldet && jetzt - eintrag.startNs > schwelleNs) {
+                eintrag.gemeldet = true;
+                metriken.zaehler("verfolgung.langeGehalten" + eintrag.ressource.zusatz()).increment();
+                melden(eintrag.befund("lange gehalten"));
+            }
+        }
+        for (Ressource ressource : Ressource.values()) {
+            metriken.messwert("verfolgung.haltezeitP99Us" + ressource.zusatz())
+                .set(haltezeiten.get(ressource).perzentil(99) / 1_000);
+        }
+    }
+
+    private void melden(Befund befund) {
+        synchronized (befunde) {
+            if (befunde.size() == MAX_BEFUNDE) {
+                befunde.removeFirst();
+            }
+            befunde.addLast(befund);
+        }
+        befund.ausgeben(System.err);
+    }
+
+    private static InvocationHandler handler(Connection verbindung) {
+        return verbindung != null && Proxy.isProxyClass(verbindung.getClass())
+            ? Proxy.getInvocationHandler(verbindung) : null;
+    }
+
+    private static Object proxy(Class<?> schnittstelle, InvocationHandler handler) {
+        return Proxy.newProxyInstance(
+            RessourcenVerfolgung.class.getClassLoader(), new Class<?>[] {schnittstelle}, handler);
+    }
+
+    private static Object weiterreichen(Object ziel, Method methode, Object[] argumente) throws Throwable {
+        try {
+            return methode.invoke(ziel, argumente);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * equals und hashCode über die Identität der Hülle, wie in {@link UeberwachteVerbindung}.
+     */
+    private static Object objektMethode(Object huelle, Method methode, Object[] argumente) {
+        if (methode.getName().equals("equals") && methode.getParameterCount() == 1) {
+            return huelle == argumente[0];
+        }
+        if (methode.getName().equals("hashCode") && methode.getParameterCount() == 0) {
+            return System.identityHashCode(huelle);
+        }
+        return null;
+    }
+
+    /**
+     * Eine offene Ressource; zugleich die Aktion des {@link Cleaner}s. Einträge
+     * verweisen nur auf Einträge, nie auf Hüllen, damit der Cleaner ungeschlossene
+     * Hüllen bemerken kann.
+     */
+    private final class Eintrag implements Runnable {
+        private final long nummer;
+        private final Ressource ressource;
+        private final String sql;
+        private final String thread;
+        private final long startNs;
+        private final StackTraceElement[] herkunft;
+        private final Set<Eintrag> geschwister;
+        private final Set<Eintrag> kinder = ConcurrentHashMap.newKeySet();
+        private volatile boolean gemeldet;
+        private volatile boolean beiRueckgabeGemeldet;
+        private Cleaner.Cleanable reinigung;
+
+        Eintrag(long nummer, Ressource ressource, String sql, String thread, long startNs,
+                StackTraceElement[] herkunft, Set<Eintrag> geschwister) {
+            this.nummer = nummer;
+            this.ressource = ressource;
+            this.sql = sql;
+            this.thread = thread;
+            this.startNs = startNs;
+            this.herkunft = herkunft;
+            this.geschwister = geschwister;
+        }
+
+        /** Läuft, wenn die Hülle unerreichbar wurde oder nach {@link #beenden(Eintrag)}. */
+        @Override
+        public void run() {
+            if (geschwister != null) {
+                geschwister.remove(this);
+            }
+            if (offen.remove(nummer) != null) {
+                metriken.zaehler("verfolgung.nichtGeschlossen" + ressource.zusatz()).increment();
+                melden(befund("nicht geschlossen"));
+            }
+        }
+
+        Befund befund(String grund) {
+            return new Befund(ressource, grund, sql, thread,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs),
+                herkunft == null ? List.of() : List.of(herkunft));
+        }
+    }
+
+    /** Handler für die Verbindung: verfolgt alle erzeugten Statements. */
+    private final class VerbindungsHandler implements InvocationHandler {
+        private final Connection ziel;
+        /** Die offenen Statements; als Einträge, damit sie unerreichbar werden können */
+        private final Set<Eintrag> statements = ConcurrentHashMap.newKeySet();
+        private Connection huelle;
+        private volatile Eintrag ausleihe;
+
+        VerbindungsHandler(Connection ziel) {
+            this.ziel = ziel;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            Object objekt = objektMethode(proxy, methode, argumente);
+            if (objekt != null) {
+                return objekt;
+            }
+            switch (methode.getName()) {
+                case "close" -> {
+                    try {
+                        return weiterreichen(ziel, methode, argumente);
+                    } finally {
+                        // Die Verbindung schließt ihre Statements selbst
+                        for (Eintrag statement : statements) {
+                            beenden(statement);
+                        }
+                        Eintrag eintrag = ausleihe;
+                        ausleihe = null;
+                        beenden(eintrag);
+                    }
+                }
+                case "createStatement", "prepareStatement", "prepareCall" -> {
+                    Statement ergebnis = (Statement) weiterreichen(ziel, methode, argumente);
+                    String sql = argumente != null && argumente.length > 0 ? (String) argumente[0] : null;
+                    StatementHandler handler = new StatementHandler(ergebnis, this);
+                    Statement statement = (Statement) proxy(methode.getReturnType(), handler);
+                    handler.huelle = statement;
+                    handler.eintrag = beginnen(Ressource.STATEMENT, sql, statement, statements);
+                    return statement;
+                }
+                default -> {
+                    return weiterreichen(ziel, methode, argumente);
+                }
+            }
+        }
+    }
+
+    /** Handler für Statements: verfolgt die gelieferten ResultSets. */
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement ziel;
+        private final VerbindungsHandler verbindung;
+        private final Set<ErgebnisHandler> ergebnisse = ConcurrentHashMap.newKeySet();
+        private Statement huelle;
+        private Eintrag eintrag;
+        /** Das aktuelle ResultSet; ein neues schließt es laut JDBC implizit */
+        private ErgebnisHandler aktuell;
+
+        StatementHandler(Statement ziel, VerbindungsHandler verbindung) {
+            this.ziel = ziel;
+            this.verbindung = verbindung;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            Object objekt = objektMethode(proxy, methode, argumente);
+            if (objekt != null) {
+                return objekt;
+            }
+            String name = methode.getName();
+            if (name.equals("getConnection")) {
+                return verbindung.huelle;
+            }
+            if (name.equals("close")) {
+                try {
+                    return weiterreichen(ziel, methode, argumente);
+                } finally {
+                    beendet();
+                }
+            }
+            Object ergebnis = weiterreichen(ziel, methode, argumente);
+            if (name.equals("getMoreResults")
+                    && (argumente == null || (Integer) argumente[0] != Statement.KEEP_CURRENT_RESULT)) {
+                aktuellBeenden();
+            }
+            if (ergebnis instanceof ResultSet ergebnisSet && optionen.ergebnisseVerfolgen()) {
+                return ergebnis(ergebnisSet, !name.equals("getGeneratedKeys"));
+            }
+            return ergebnis;
+        }
+
+        private synchronized ResultSet ergebnis(ResultSet ergebnisSet, boolean istAktuell) {
+            // getResultSet() liefert wiederholt dasselbe Objekt
+            for (ErgebnisHandler vorhanden : ergebnisse) {
+                if (vorhanden.ziel == ergebnisSet) {
+                    return vorhanden.huelle;
+                }
+            }
+            if (istAktuell) {
+                aktuellBeenden();
+            }
+            ErgebnisHandler handler = new ErgebnisHandler(ergebnisSet, this);
+            ResultSet huelleSet = (ResultSet) proxy(ResultSet.class, handler);
+            handler.huelle = huelleSet;
+            handler.eintrag = beginnen(Ressource.ERGEBNIS, null, huelleSet, eintrag.kinder);
+            ergebnisse.add(handler);
+            if (istAktuell) {
+                aktuell = handler;
+            }
+            return huelleSet;
+        }
+
+        private synchronized void aktuellBeenden() {
+            if (aktuell != null) {
+                aktuell.beendet();
+                aktuell = null;
+            }
+        }
+
+        void beendet() {
+            ergebnisse.clear();
+            beenden(eintrag);
+        }
+    }
+
+    /** Handler für ResultSets: misst die Haltedauer bis zum Schließen. */
+    private final class ErgebnisHandler implements InvocationHandler {
+        private final ResultSet ziel;
+        private final StatementHandler statement;
+        private ResultSet huelle;
+        private Eintrag eintrag;
+
+        ErgebnisHandler(ResultSet ziel, StatementHandler statement) {
+            this.ziel = ziel;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            Object objekt = objektMethode(proxy, methode, argumente);
+            if (objekt != null) {
+                return objekt;
+            }
+            switch (methode.getName()) {
+                case "getStatement" -> {
+                    return statement.huelle;
+                }
+                case "close" -> {
+                    try {
+                        return weiterreichen(ziel, methode, argumente);
+                    } finally {
+                        beendet();
+                    }
+                }
+                default -> {
+                    return weiterreichen(ziel, methode, argumente);
+                }
+            }
+        }
+
+        void beendet() {
+            statement.ergebnisse.remove(this);
+            beenden(eintrag);
+        }
+    }
+
+    /**
+     * Zeigt alle drei Befundarten an einem Pool mit Verfolgung.
+     *
+     * Aufruf: {@code RessourcenVerfolgung [schwelleMs=500]}
+     *
+     * @param args {@code schwelleMs=}
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        long schwelleMs = 500;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "schwelleMs" -> schwelleMs = Long.parseLong(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        Metriken metriken = new Metriken();
+        try (RessourcenVerfolgung verfolgung =
+                 new RessourcenVerfolgung(new Verfolgungsoptionen(schwelleMs, 1, true), metriken);
+             VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 2, List.of(),
+                 verfolgung)) {
+
+            // Korrekt: try-with-resources schließt in umgekehrter Reihenfolge
+            for (int i = 0; i < 100; i++) {
+                Connection verbindung = pool.ausleihen();
+                try (PreparedStatement statement = verbindung.prepareStatement(
+                         "SELECT COUNT(*) FROM employees WHERE department = ?")) {
+                    statement.setString(1, "HR");
+                    try (ResultSet ergebnisSet = statement.executeQuery()) {
+                        ergebnisSet.next();
+                    }
+                } finally {
+                    pool.zurueckgeben(verbindung);
+                }
+            }
+
+            // Statement vergessen: bei der Rückgabe noch offen, später unerreichbar
+            Connection verbindung = pool.ausleihen();
+            verbindung.createStatement().executeQuery("SELECT id FROM employees").next();
+            pool.zurueckgeben(verbindung);
+
+            // Verbindung zu lange gehalten
+            verbindung = pool.ausleihen();
+            Thread.sleep(schwelleMs * 2);
+            pool.zurueckgeben(verbindung);
+
+            // Verbindung ohne Pool nie geschlossen
+            DatenbankKonfiguration konfiguration = pool.getKonfiguration();
+            verfolgung.umhuellen(DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort()), false);
+
+            System.gc();
+            Thread.sleep(200);
+
+            System.out.println();
+            verfolgung.bericht(System.out);
+            metriken.ausgeben(System.out);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package de.javadbconnectivity.ueberwachung;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Schreibt Zeilen in eine Protokolldatei und rotiert sie bei Erreichen einer
+ * Maximalgröße.
+ *
+ * Bei der Rotation wird {@code name.log} zu {@code name.log.1}, eine vorhandene
+ * {@code name.log.1} zu {@code name.log.2} usw.; die älteste Datei über
+ * {@code anzahlDateien} wird gelöscht.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class RotierendesProtokoll implements AutoCloseable {
+
+    private final Path datei;
+    private final long maxBytes;
+    private final int anzahlDateien;
+    private BufferedWriter schreiber;
+    private long geschrieben;
+
+    /**
+     * @param datei die aktuelle Protokolldatei
+     * @param maxBytes die Größe, ab der rotiert wird
+     * @param anzahlDateien die Anzahl aufbewahrter älterer Dateien
+     * @throws IOException wenn die Datei nicht geöffnet werden kann
+     */
+    public RotierendesProtokoll(Path datei, long maxBytes, int anzahlDateien) throws IOException {
+        this.datei = datei;
+        this.maxBytes = maxBytes;
+        this.anzahlDateien = anzahlDateien;
+        oeffnen();
+    }
+
+    /**
+     * Schreibt eine Zeile und leert den Puffer, damit das Protokoll auch bei
+     * einem Absturz vollständig ist.
+     *
+     * @param zeile die Zeile ohne Zeilenumbruch
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public synchronized void schreiben(String zeile) throws IOException {
+        if (geschrieben > 0 && geschrieben + zeile.length() + 1 > maxBytes) {
+            rotieren();
+        }
+        schreiber.write(zeile);
+        schreiber.newLine();
+        schreiber.flush();
+        geschrieben += zeile.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        schreiber.close();
+    }
+
+    /**
+     * Maskiert eine Zeichenkette als JSON-String einschließlich Anführungszeichen.
+     *
+     * @param text der Text (kann null sein)
+     * @return der JSON-String oder {@code null}
+     */
+    public static String json(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder ergebnis = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char zeichen = text.charAt(i);
+            switch (zeichen) {
+                case '"' -> ergebnis.append("\\\"");
+                case '\\' -> ergebnis.append("\\\\");
+                case '\n' -> ergebnis.append("\\n");
+                case '\r' -> ergebnis.append("\\r");
+                case '\t' -> ergebnis.append("\\t");
+                default -> {
+                    if (zeichen < 0x20) {
+                        ergebnis.append(String.format("\\u%04x", (int) zeichen));
+                    } else {
+                        ergebnis.append(zeichen);
+                    }
+                }
+            }
+        }
+        return ergebnis.append('"').toString();
+    }
+
+    private void oeffnen() throws IOException {
+        Path verzeichnis = datei.toAbsolutePath().getParent();
+        if (verzeichnis != null) {
+            Files.createDirectories(verzeichnis);
+        }
+        schreiber = Files.newBufferedWriter(datei, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        geschrieben = Files.size(datei);
+    }
+
+    private void rotieren() throws IOException {
+        schreiber.close();
+        Files.deleteIfExists(nummeriert(anzahlDateien));
+        for (int i = anzahlDateien - 1; i >= 1; i--) {
+            Path quelle = nummeriert(i);
+            if (Files.exists(quelle)) {
+                Files.move(quelle, nummeriert(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (anzahlDateien > 0) {
+            Files.move(datei, nummeriert(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(datei);
+        }
+        oeffnen();
+    }
+
+    private Path nummeriert(int nummer) {
+        return datei.resolveSibling(datei.getFileName() + "." + nummer);
+    }
+}
@@ -0,0 +1,30 @@
+package de.javadbconnectivity.ueberwachung;
+
+/**
+ * Wird nach jeder Ausführung einer Anweisung über eine
+ * {@link UeberwachteVerbindung} benachrichtigt.
+ *
+ * Die Benachrichtigung erfolgt synchron auf dem ausführenden Thread;
+ * Implementierungen müssen daher schnell zurückkehren und aufwendige Arbeit
+ * auslagern.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface StatementBeobachter {
+
+    /**
+     * @param ausfuehrung die abgeschlossene Ausführung
+     */
+    void ausgefuehrt(Ausfuehrung ausfuehrung);
+
+    /**
+     * Meldet eine bestätigte Transaktion, in der seit dem letzten Bestätigen
+     * oder Zurückrollen Anweisungen ausgeführt wurden: ein {@code commit()} oder
+     * das Einschalten von Auto-Commit. Erst ab hier sehen andere Verbindungen
+     * die Änderungen. Standardmäßig ohne Wirkung.
+     */
+    default void bestaetigt() {
+    }
+}
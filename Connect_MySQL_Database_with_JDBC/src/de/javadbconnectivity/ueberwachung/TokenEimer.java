@@ -0,0 +1,74 @@
+package de.javadbconnectivity.ueberwachung;
+
+/**
+ * Ratenbegrenzung nach dem Token-Bucket-Verfahren.
+ *
+ * Der Eimer fasst höchstens {@code kapazitaet} Token und wird kontinuierlich mit
+ * {@code tokenProSekunde} aufgefüllt. Jede Aktion verbraucht ein Token; ist der
+ * Eimer leer, wird sie abgelehnt bzw. muss warten.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class TokenEimer {
+
+    private final double kapazitaet;
+    private final double tokenProNs;
+    private double token;
+    private long letzteAuffuellung;
+
+    /**
+     * @param tokenProSekunde die Auffüllrate
+     * @param kapazitaet die maximale Anzahl angesparter Token (Burst)
+     */
+    public TokenEimer(double tokenProSekunde, double kapazitaet) {
+        if (tokenProSekunde <= 0 || kapazitaet < 1) {
+            throw new IllegalArgumentException(
+                "Ungültige Rate oder Kapazität: " + tokenProSekunde + ", " + kapazitaet);
+        }
+        this.kapazitaet = kapazitaet;
+        this.tokenProNs = tokenProSekunde / 1e9;
+        this.token = kapazitaet;
+        this.letzteAuffuellung = System.nanoTime();
+    }
+
+    /**
+     * Entnimmt ein Token, falls vorhanden.
+     *
+     * @return true, wenn die Aktion erlaubt ist
+     */
+    public synchronized boolean versuchen() {
+        auffuellen();
+        if (token >= 1) {
+            token -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Wartet, bis ein Token verfügbar ist, und entnimmt es.
+     *
+     * @throws InterruptedException wenn der Thread beim Warten unterbrochen wird
+     */
+    public void erwerben() throws InterruptedException {
+        while (true) {
+            long warteNs;
+            synchronized (this) {
+                auffuellen();
+                if (token >= 1) {
+                    token -= 1;
+                    return;
+                }
+                warteNs = (long) Math.ceil((1 - token) / tokenProNs);
+            }
+            Thread.sleep(Math.max(1, warteNs / 1_000_000));
+        }
+    }
+
+    private void auffuellen() {
+        long jetzt = System.nanoTime();
+        token = Math.min(kapazitaet, token + (jetzt - letzteAuffuellung) * tokenProNs);
+        letzteAuffuellung = jetzt;
+    }
+}
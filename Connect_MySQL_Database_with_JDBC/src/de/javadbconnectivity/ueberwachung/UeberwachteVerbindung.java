@@ -0,0 +1,236 @@
+package de.javadbconnectivity.ueberwachung;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Umhüllt eine {@link Connection}, sodass jede Ausführung eines
+ * {@link Statement}, {@link PreparedStatement} oder {@link CallableStatement}
+ * mit SQL, gebundenen Parametern und Dauer an {@link StatementBeobachter}
+ * gemeldet wird. Bestätigte Transaktionen werden über
+ * {@link StatementBeobachter#bestaetigt()} gemeldet.
+ *
+ * Die Hülle wird über {@link Proxy} erzeugt und ist für den Aufrufer nicht von
+ * der ursprünglichen Verbindung zu unterscheiden. Alle übrigen Methoden werden
+ * unverändert weitergereicht.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public final class UeberwachteVerbindung {
+
+    /** Methoden, deren Dauer gemessen und gemeldet wird */
+    private static final Set<String> AUSFUEHRUNGEN = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private UeberwachteVerbindung() {
+    }
+
+    /**
+     * Umhüllt eine Verbindung. Ohne Beobachter wird die Verbindung unverändert
+     * zurückgegeben.
+     *
+     * @param verbindung die zu umhüllende Verbindung
+     * @param beobachter die zu benachrichtigenden Beobachter
+     * @return die überwachte Verbindung
+     */
+    public static Connection umhuellen(Connection verbindung, List<StatementBeobachter> beobachter) {
+        if (beobachter.isEmpty()) {
+            return verbindung;
+        }
+        VerbindungsHandler handler = new VerbindungsHandler(verbindung, List.copyOf(beobachter));
+        Connection huelle = proxy(Connection.class, handler);
+        handler.huelle = huelle;
+        return huelle;
+    }
+
+    private static <T> T proxy(Class<T> schnittstelle, InvocationHandler handler) {
+        return schnittstelle.cast(Proxy.newProxyInstance(
+            UeberwachteVerbindung.class.getClassLoader(), new Class<?>[] {schnittstelle}, handler));
+    }
+
+    /**
+     * Ruft die Methode am Ziel auf und reicht Ausnahmen unverpackt weiter.
+     */
+    private static Object weiterreichen(Object ziel, Method methode, Object[] argumente) throws Throwable {
+        try {
+            return methode.invoke(ziel, argumente);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Behandelt equals/hashCode über die Identität der Hülle, damit die Hülle
+     * in Mengen und Maps zuverlässig wiedergefunden wird.
+     */
+    private static Object objektMethode(Object huelle, Method methode, Object[] argumente) {
+        return switch (methode.getName()) {
+            case "equals" -> huelle == argumente[0];
+            case "hashCode" -> System.identityHashCode(huelle);
+            default -> null;
+        };
+    }
+
+    /**
+     * Virtuelle Threads haben standardmäßig keinen Namen, daher wird die ID verwendet.
+     */
+    static String threadName() {
+        Thread thread = Thread.currentThread();
+        String name = thread.getName();
+        return name.isEmpty() ? (thread.isVirtual() ? "virtuell-" : "thread-") + thread.threadId() : name;
+    }
+
+    private static boolean istObjektMethode(Method methode) {
+        String name = methode.getName();
+        return name.equals("equals") && methode.getParameterCount() == 1
+            || name.equals("hashCode") && methode.getParameterCount() == 0;
+    }
+
+    /** Handler für die Verbindung: umhüllt alle erzeugten Statements. */
+    private static final class VerbindungsHandler implements InvocationHandler {
+        private final Connection ziel;
+        private final List<StatementBeobachter> beobachter;
+        private Connection huelle;
+        /** Seit dem letzten Bestätigen oder Zurückrollen wurde etwas ausgeführt */
+        private volatile boolean offen;
+
+        VerbindungsHandler(Connection ziel, List<StatementBeobachter> beobachter) {
+            this.ziel = ziel;
+            this.beobachter = beobachter;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            if (istObjektMethode(methode)) {
+                return objektMethode(proxy, methode, argumente);
+            }
+            boolean warAutoCommit = methode.getName().equals("setAutoCommit") && ziel.getAutoCommit();
+            Object ergebnis = weiterreichen(ziel, methode, argumente);
+
+            switch (methode.getName()) {
+                case "commit" -> transaktionBeendet(true);
+                case "rollback" -> {
+                    // rollback(Savepoint) beendet die Transaktion nicht
+                    if (argumente == null) {
+                        transaktionBeendet(false);
+                    }
+                }
+                case "setAutoCommit" -> {
+                    // Der Wechsel auf Auto-Commit bestätigt die laufende Transaktion
+                    if (warAutoCommit != (Boolean) argumente[0]) {
+                        transaktionBeendet(!warAutoCommit);
+                    }
+                }
+                default -> {
+                }
+            }
+
+            return switch (methode.getName()) {
+                case "createStatement" -> proxy(Statement.class,
+                    new StatementHandler((Statement) ergebnis, null, false, this));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                    new StatementHandler((Statement) ergebnis, (String) argumente[0], false, this));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                    new StatementHandler((Statement) ergebnis, (String) argumente[0], true, this));
+                default -> ergebnis;
+            };
+        }
+
+        void melden(Ausfuehrung ausfuehrung) {
+            offen = true;
+            for (StatementBeobachter einzelner : beobachter) {
+                try {
+                    einzelner.ausgefuehrt(ausfuehrung);
+                } catch (RuntimeException e) {
+                    // Ein fehlerhafter Beobachter darf die Anwendung nicht stören
+                    System.err.println("Fehler im StatementBeobachter:");
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void transaktionBeendet(boolean bestaetigt) {
+            if (!offen) {
+                return;
+            }
+            offen = false;
+            if (!bestaetigt) {
+                return;
+            }
+            for (StatementBeobachter einzelner : beobachter) {
+                try {
+                    einzelner.bestaetigt();
+                } catch (RuntimeException e) {
+                    System.err.println("Fehler im StatementBeobachter:");
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /** Handler für Statements: merkt sich Parameter und misst Ausführungen. */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement ziel;
+        private final String sql;
+        private final boolean aufruf;
+        private final VerbindungsHandler verbindung;
+        private final Map<Integer, Object> parameter = new TreeMap<>();
+
+        StatementHandler(Statement ziel, String sql, boolean aufruf, VerbindungsHandler verbindung) {
+            this.ziel = ziel;
+            this.sql = sql;
+            this.aufruf = aufruf;
+            this.verbindung = verbindung;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method methode, Object[] argumente) throws Throwable {
+            if (istObjektMethode(methode)) {
+                return objektMethode(proxy, methode, argumente);
+            }
+            String name = methode.getName();
+
+            if (name.equals("getConnection")) {
+                return verbindung.huelle;
+            }
+            if (name.equals("clearParameters")) {
+                parameter.clear();
+            } else if (name.startsWith("set") && argumente != null && argumente.length >= 2
+                       && argumente[0] instanceof Integer index) {
+                // setString(1, ...), setNull(2, Types.X) usw.
+                parameter.put(index, name.equals("setNull") ? null : argumente[1]);
+            }
+
+            if (!AUSFUEHRUNGEN.contains(name)) {
+                return weiterreichen(ziel, methode, argumente);
+            }
+
+            String ausgefuehrtesSql = argumente != null && argumente.length > 0 && argumente[0] instanceof String text
+                ? text : sql;
+            long startMs = System.currentTimeMillis();
+            long start = System.nanoTime();
+            Throwable fehler = null;
+            try {
+                return weiterreichen(ziel, methode, argumente);
+            } catch (Throwable t) {
+                fehler = t;
+                throw t;
+            } finally {
+                verbindung.melden(new Ausfuehrung(ausgefuehrtesSql, new ArrayList<>(parameter.values()), aufruf,
+                    startMs, System.nanoTime() - start, threadName(), fehler));
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.javadbconnectivity.ueberwachung;
+
+/**
+ * Einstellungen der {@link RessourcenVerfolgung}.
+ *
+ * @param schwelleMs ab dieser Haltedauer wird eine offene Ressource gemeldet
+ * @param stichprobe die Herkunft wird für jede {@code stichprobe}-te Ressource
+ *                   aufgezeichnet; 1 zeichnet sie immer auf
+ * @param ergebnisseVerfolgen ob auch ResultSets umhüllt und verfolgt werden
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Verfolgungsoptionen(long schwelleMs, int stichprobe, boolean ergebnisseVerfolgen) {
+
+    /**
+     * Prüft die Werte.
+     */
+    public Verfolgungsoptionen {
+        if (schwelleMs < 1 || stichprobe < 1) {
+            throw new IllegalArgumentException("Schwelle und Stichprobe müssen mindestens 1 sein");
+        }
+    }
+
+    /**
+     * @return alles verfolgen, Herkunft immer aufzeichnen; für Entwicklung und Lasttests
+     */
+    public static Verfolgungsoptionen standard() {
+        return new Verfolgungsoptionen(2_000, 1, true);
+    }
+
+    /**
+     * Für den Dauerbetrieb: ResultSets werden nicht umhüllt, weil jeder Zugriff
+     * auf eine Spalte sonst durch den Proxy läuft, und die Herkunft wird nur
+     * für jede 64. Ressource aufgezeichnet.
+     *
+     * @return Einstellungen mit geringem Mehraufwand
+     */
+    public static Verfolgungsoptionen produktion() {
+        return new Verfolgungsoptionen(10_000, 64, false);
+    }
+}
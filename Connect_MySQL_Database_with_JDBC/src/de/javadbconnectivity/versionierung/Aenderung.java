@@ -0,0 +1,45 @@
+package de.javadbconnectivity.versionierung;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import de.javadbconnectivity.projektion.Spalte;
+
+/**
+ * Eine beabsichtigte Änderung einer Zeile, die nur gilt, solange die Zeile
+ * noch die gelesene Version hat.
+ *
+ * @param id die Id der Zeile
+ * @param version die beim Lesen gesehene Version
+ * @param werte die neuen Werte je Spalte
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Aenderung(int id, int version, Map<Spalte, Object> werte) {
+
+    /**
+     * Übernimmt die Werte in Spaltenreihenfolge, sodass gleiche Spaltenmengen
+     * denselben SQL-Text ergeben.
+     */
+    public Aenderung {
+        if (werte.isEmpty()) {
+            throw new IllegalArgumentException("Änderung ohne Werte für Id " + id);
+        }
+        if (werte.containsKey(Spalte.ID)) {
+            throw new IllegalArgumentException("Die Id kann nicht geändert werden");
+        }
+        werte = Collections.unmodifiableMap(new EnumMap<>(werte));
+    }
+
+    /**
+     * @param stand der gelesene Stand
+     * @param spalte die zu ändernde Spalte
+     * @param wert der neue Wert
+     * @return die Änderung einer Spalte auf Basis des gelesenen Stands
+     */
+    public static Aenderung von(MitarbeiterStand stand, Spalte spalte, Object wert) {
+        return new Aenderung(stand.mitarbeiter().id(), stand.version(), Map.of(spalte, wert));
+    }
+}
@@ -0,0 +1,22 @@
+package de.javadbconnectivity.versionierung;
+
+/**
+ * Eine Änderung, die nicht angewendet wurde, weil die Zeile inzwischen
+ * von einem anderen Schreiber geändert oder gelöscht wurde.
+ *
+ * @param id die Id der Zeile
+ * @param erwarteteVersion die Version, auf der die Änderung beruhte
+ * @param aktuelleVersion die aktuelle Version oder null, wenn die Zeile gelöscht wurde
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Konflikt(int id, int erwarteteVersion, Integer aktuelleVersion) {
+
+    /**
+     * @return true, wenn die Zeile nicht mehr existiert
+     */
+    public boolean geloescht() {
+        return aktuelleVersion == null;
+    }
+}
@@ -0,0 +1,30 @@
+package de.javadbconnectivity.versionierung;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+
+/**
+ * Ein gelesener Mitarbeiter zusammen mit der Version seiner Zeile.
+ *
+ * @param mitarbeiter der Mitarbeiter
+ * @param version der Wert der Spalte {@code version} beim Lesen
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record MitarbeiterStand(Mitarbeiter mitarbeiter, int version) {
+
+    /** Alle Spalten, passend zu {@link #ausZeile(ResultSet)} */
+    public static final String SPALTEN = Mitarbeiter.SPALTEN + ", version";
+
+    /**
+     * @param ergebnisSet das ResultSet, positioniert auf einer Zeile mit {@link #SPALTEN}
+     * @return der gelesene Stand
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static MitarbeiterStand ausZeile(ResultSet ergebnisSet) throws SQLException {
+        return new MitarbeiterStand(Mitarbeiter.ausZeile(ergebnisSet), ergebnisSet.getInt("version"));
+    }
+}
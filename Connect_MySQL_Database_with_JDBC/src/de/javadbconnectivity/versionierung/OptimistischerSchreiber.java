@@ -0,0 +1,189 @@
+package de.javadbconnectivity.versionierung;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import de.javadbconnectivity.pool.VerbindungsPool;
+import de.javadbconnectivity.projektion.Spalte;
+
+/**
+ * Ändert Mitarbeiter mit optimistischer Nebenläufigkeitskontrolle über die
+ * Spalte {@code version} (siehe {@code sql/version-column.sql}).
+ *
+ * Statt die Zeile mit {@code SELECT ... FOR UPDATE} bis zum Schreiben zu sperren,
+ * wird ohne Sperre gelesen und beim Schreiben geprüft, ob die Version noch
+ * stimmt: {@code UPDATE ... SET ..., version = version + 1 WHERE id = ? AND version = ?}.
+ * Trifft die Anweisung keine Zeile, hat ein anderer Schreiber gewonnen.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - viele Änderungen gleicher Spaltenmenge als einen JDBC-Batch sendet
+ * - Konflikte gesammelt meldet, mit der aktuellen Version aus einer einzigen Abfrage
+ * - Lese-Ändern-Schreiben-Zyklen bei Konflikten automatisch wiederholt
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class OptimistischerSchreiber {
+
+    /**
+     * Ergebnis von {@link #aktualisieren(Collection)}.
+     *
+     * @param aktualisiert die Anzahl angewendeter Änderungen
+     * @param konflikte die nicht angewendeten Änderungen
+     */
+    public record Ergebnis(int aktualisiert, List<Konflikt> konflikte) {
+    }
+
+    private final VerbindungsPool pool;
+
+    /**
+     * @param pool der Verbindungspool, idealerweise mit {@code rewriteBatchedStatements=true}
+     */
+    public OptimistischerSchreiber(VerbindungsPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param id die Id
+     * @return der Mitarbeiter mit Version oder null
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public MitarbeiterStand lesen(int id) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "SELECT " + MitarbeiterStand.SPALTEN + " FROM employees WHERE id = ?")) {
+            statement.setInt(1, id);
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                return ergebnisSet.next() ? MitarbeiterStand.ausZeile(ergebnisSet) : null;
+            }
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Wendet alle Änderungen an, deren Version noch stimmt, und bestätigt sie
+     * gemeinsam. Änderungen mit veralteter Version werden übersprungen und
+     * als {@link Konflikt} gemeldet.
+     *
+     * @param aenderungen die Änderungen
+     * @return Anzahl der angewendeten Änderungen und die Konflikte
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public Ergebnis aktualisieren(Collection<Aenderung> aenderungen) throws SQLException {
+        // Gleiche Spaltenmengen teilen sich eine Anweisung und damit einen Batch
+        Map<Set<Spalte>, List<Aenderung>> gruppen = new LinkedHashMap<>();
+        for (Aenderung aenderung : aenderungen) {
+            gruppen.computeIfAbsent(aenderung.werte().keySet(), s -> new ArrayList<>()).add(aenderung);
+        }
+
+        List<Aenderung> verloren = new ArrayList<>();
+        int aktualisiert = 0;
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            for (Map.Entry<Set<Spalte>, List<Aenderung>> gruppe : gruppen.entrySet()) {
+                try (PreparedStatement statement = verbindung.prepareStatement(anweisung(gruppe.getKey()))) {
+                    for (Aenderung aenderung : gruppe.getValue()) {
+                        int index = 1;
+                        for (Object wert : aenderung.werte().values()) {
+                            statement.setObject(index++, wert);
+                        }
+                        statement.setInt(index++, aenderung.id());
+                        statement.setInt(index, aenderung.version());
+                        statement.addBatch();
+                    }
+                    int[] zaehler = statement.executeBatch();
+                    for (int i = 0; i < zaehler.length; i++) {
+                        // SUCCESS_NO_INFO kommt nur vor, wenn der Treiber Zeilenzahlen nicht kennt
+                        if (zaehler[i] == 0) {
+                            verloren.add(gruppe.getValue().get(i));
+                        } else {
+                            aktualisiert++;
+                        }
+                    }
+                }
+            }
+            verbindung.commit();
+            return new Ergebnis(aktualisiert, konflikteMelden(verbindung, verloren));
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Liest, ändert und schreibt einen Mitarbeiter; bei einem Konflikt wird mit
+     * dem neuen Stand erneut versucht.
+     *
+     * @param id die Id
+     * @param aenderung berechnet die neuen Werte aus dem gelesenen Stand
+     * @param maxVersuche die Höchstzahl an Versuchen
+     * @return die Anzahl benötigter Versuche
+     * @throws SQLException wenn die Zeile fehlt, alle Versuche scheitern oder ein
+     *                      Datenbankzugriffsfehler auftritt
+     */
+    public int aendern(int id, Function<MitarbeiterStand, Map<Spalte, Object>> aenderung, int maxVersuche)
+            throws SQLException {
+        for (int versuch = 1; versuch <= maxVersuche; versuch++) {
+            MitarbeiterStand stand = lesen(id);
+            if (stand == null) {
+                throw new SQLException("Mitarbeiter " + id + " existiert nicht");
+            }
+            Ergebnis ergebnis = aktualisieren(List.of(new Aenderung(id, stand.version(), aenderung.apply(stand))));
+            if (ergebnis.konflikte().isEmpty()) {
+                return versuch;
+            }
+        }
+        throw new SQLException("Mitarbeiter " + id + " nach " + maxVersuche + " Versuchen nicht geändert",
+            "40001");
+    }
+
+    private static String anweisung(Set<Spalte> spalten) {
+        StringBuilder sql = new StringBuilder("UPDATE employees SET ");
+        for (Spalte spalte : spalten) {
+            sql.append(spalte.getName()).append(" = ?, ");
+        }
+        return sql.append("version = version + 1 WHERE id = ? AND version = ?").toString();
+    }
+
+    /**
+     * Ermittelt die aktuellen Versionen aller verlorenen Änderungen in einer Abfrage.
+     */
+    private static List<Konflikt> konflikteMelden(Connection verbindung, List<Aenderung> verloren)
+            throws SQLException {
+        if (verloren.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("SELECT id, version FROM employees WHERE id IN (");
+        for (int i = 0; i < verloren.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(verloren.get(i).id());
+        }
+        Map<Integer, Integer> versionen = new HashMap<>();
+        try (Statement statement = verbindung.createStatement();
+             ResultSet ergebnisSet = statement.executeQuery(sql.append(')').toString())) {
+            while (ergebnisSet.next()) {
+                versionen.put(ergebnisSet.getInt(1), ergebnisSet.getInt(2));
+            }
+        }
+        verbindung.commit();
+        List<Konflikt> konflikte = new ArrayList<>(verloren.size());
+        for (Aenderung aenderung : verloren) {
+            konflikte.add(new Konflikt(aenderung.id(), aenderung.version(), versionen.get(aenderung.id())));
+        }
+        return konflikte;
+    }
+}
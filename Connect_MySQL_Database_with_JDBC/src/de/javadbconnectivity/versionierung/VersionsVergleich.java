@@ -0,0 +1,192 @@
+package de.javadbconnectivity.versionierung;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.javadbconnectivity.metriken.LatenzHistogramm;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+import de.javadbconnectivity.projektion.Spalte;
+
+/**
+ * Vergleicht pessimistisches Sperren ({@code SELECT ... FOR UPDATE}) mit dem
+ * {@link OptimistischerSchreiber} bei nebenläufigen Gehaltsänderungen.
+ *
+ * Jeder Thread liest wiederholt das Gehalt einer zufälligen Zeile aus einer
+ * kleinen Menge, wartet eine Denkzeit (Anwendungslogik zwischen Lesen und
+ * Schreiben) und schreibt das erhöhte Gehalt zurück. Pessimistisch hält die
+ * Transaktion die Zeilensperre während der Denkzeit, sodass andere Threads auf
+ * derselben Zeile warten; optimistisch gibt es keine Sperrwartezeit, dafür
+ * Wiederholungen bei Konflikten. Der Vorteil ist umso größer, je länger die
+ * Denkzeit und je mehr Zeilen sich die Threads teilen; schreiben alle Threads
+ * auf eine einzige Zeile, dominieren die Wiederholungen.
+ *
+ * Aufruf: {@code VersionsVergleich [threads=8] [zeilen=12] [operationen=200] [denkzeitMs=2]}
+ * Voraussetzung ist {@code sql/version-column.sql}.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class VersionsVergleich {
+
+    private static final int MAX_VERSUCHE = 100;
+
+    private VersionsVergleich() {
+    }
+
+    /**
+     * @param args {@code threads=}, {@code zeilen=}, {@code operationen=} und {@code denkzeitMs=}
+     * @throws Exception bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = 8;
+        int zeilen = 12;
+        int operationen = 200;
+        long denkzeitMs = 2;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "threads" -> threads = Integer.parseInt(teile[1]);
+                case "zeilen" -> zeilen = Integer.parseInt(teile[1]);
+                case "operationen" -> operationen = Integer.parseInt(teile[1]);
+                case "denkzeitMs" -> denkzeitMs = Long.parseLong(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        DatenbankKonfiguration konfiguration =
+            DatenbankKonfiguration.standard().mitUrlParametern("rewriteBatchedStatements=true");
+        try (VerbindungsPool pool = new VerbindungsPool(konfiguration, threads)) {
+            int[] ids = ids(pool, zeilen);
+            System.out.printf("%d Threads, %d Zeilen, %d Operationen je Thread, Denkzeit %d ms%n%n",
+                threads, ids.length, operationen, denkzeitMs);
+            System.out.printf("%-14s %10s %10s %10s %14s %14s%n",
+                "Verfahren", "ops/s", "p50 µs", "p99 µs", "Sperre ms", "Wiederholt");
+
+            for (boolean optimistisch : new boolean[] {false, true}) {
+                LatenzHistogramm latenz = new LatenzHistogramm();
+                LongAdder sperrWartezeitNs = new LongAdder();
+                LongAdder wiederholungen = new LongAdder();
+                OptimistischerSchreiber schreiber = new OptimistischerSchreiber(pool);
+                final long denkzeit = denkzeitMs;
+                final int anzahl = operationen;
+
+                long start = System.nanoTime();
+                try (ExecutorService ausfuehrer = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<Future<Void>> ergebnisse = new ArrayList<>();
+                    for (int t = 0; t < threads; t++) {
+                        ergebnisse.add(ausfuehrer.submit(() -> {
+                            for (int i = 0; i < anzahl; i++) {
+                                int id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                                long operationStart = System.nanoTime();
+                                if (optimistisch) {
+                                    wiederholungen.add(schreiber.aendern(id, stand -> {
+                                        denken(denkzeit);
+                                        return Map.of(Spalte.GEHALT, erhoeht(stand.mitarbeiter().gehalt()));
+                                    }, MAX_VERSUCHE) - 1);
+                                } else {
+                                    sperrWartezeitNs.add(pessimistisch(pool, id, denkzeit));
+                                }
+                                latenz.erfassen(System.nanoTime() - operationStart);
+                            }
+                            return null;
+                        }));
+                    }
+                    for (Future<Void> ergebnis : ergebnisse) {
+                        ergebnis.get();
+                    }
+                }
+                double sekunden = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("%-14s %10.0f %10.0f %10.0f %14.1f %14d%n",
+                    optimistisch ? "optimistisch" : "FOR UPDATE",
+                    latenz.getAnzahl() / sekunden,
+                    latenz.perzentil(50) / 1e3, latenz.perzentil(99) / 1e3,
+                    sperrWartezeitNs.sum() / 1e6, wiederholungen.sum());
+            }
+        }
+    }
+
+    /**
+     * Eine Operation mit Zeilensperre von Lesen bis Bestätigen.
+     *
+     * @return die Wartezeit auf die Sperre in Nanosekunden
+     */
+    private static long pessimistisch(VerbindungsPool pool, int id, long denkzeitMs) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            BigDecimal gehalt;
+            long start = System.nanoTime();
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "SELECT salary FROM employees WHERE id = ? FOR UPDATE")) {
+                statement.setInt(1, id);
+                try (ResultSet ergebnisSet = statement.executeQuery()) {
+                    ergebnisSet.next();
+                    gehalt = ergebnisSet.getBigDecimal(1);
+                }
+            }
+            long wartezeitNs = System.nanoTime() - start;
+            denken(denkzeitMs);
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "UPDATE employees SET salary = ? WHERE id = ?")) {
+                statement.setBigDecimal(1, erhoeht(gehalt));
+                statement.setInt(2, id);
+                statement.executeUpdate();
+            }
+            verbindung.commit();
+            return wartezeitNs;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private static int[] ids(VerbindungsPool pool, int zeilen) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "SELECT id FROM employees ORDER BY id LIMIT ?")) {
+            statement.setInt(1, zeilen);
+            List<Integer> ids = new ArrayList<>();
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                while (ergebnisSet.next()) {
+                    ids.add(ergebnisSet.getInt(1));
+                }
+            }
+            if (ids.isEmpty()) {
+                throw new SQLException("Die Tabelle employees ist leer");
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    private static BigDecimal erhoeht(BigDecimal gehalt) {
+        return (gehalt == null ? BigDecimal.ZERO : gehalt).add(BigDecimal.ONE);
+    }
+
+    private static void denken(long denkzeitMs) {
+        try {
+            Thread.sleep(denkzeitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
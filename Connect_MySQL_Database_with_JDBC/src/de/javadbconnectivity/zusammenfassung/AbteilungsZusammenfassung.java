@@ -0,0 +1,594 @@
+package de.javadbconnectivity.zusammenfassung;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import de.javadbconnectivity.mitarbeiter.Kollation;
+import de.javadbconnectivity.mitarbeiter.Mitarbeiter;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.pool.VerbindungsPool;
+
+/**
+ * Schreibt Mitarbeiter und hält dabei die Tabelle {@code department_summary}
+ * (siehe {@code sql/department-summary.sql}) inkrementell aktuell.
+ *
+ * Jede Änderung an {@code employees} wendet in derselben Transaktion eine
+ * Differenz auf die betroffenen Abteilungszeilen an. Anzahl und Gehaltssumme
+ * einer Abteilung sind dann ein Zugriff über den Primärschlüssel statt eines
+ * Durchlaufs durch {@code employees} wie in {@code get_count_for_department}.
+ *
+ * Diese Klasse zeigt, wie man:
+ * - Differenzen mit {@code INSERT ... ON DUPLICATE KEY UPDATE} aufaddiert
+ * - Abteilungszeilen immer in derselben Reihenfolge sperrt, damit zwei
+ *   Versetzungen in entgegengesetzte Richtungen nicht verklemmen
+ * - die Tabelle gegen eine Neuberechnung prüft und ohne Schreibpause neu aufbaut
+ *
+ * Alle Schreiber einer Abteilung serialisieren sich auf deren Zeile in
+ * {@code department_summary}, bis sie bestätigen; das ist der Preis für den
+ * Lesezugriff in konstanter Zeit. Änderungen an {@code employees} an dieser
+ * Klasse vorbei fehlen in der Tabelle, bis {@link #neuAufbauen()} läuft.
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public class AbteilungsZusammenfassung {
+
+    private static final String DIFFERENZ =
+        "INSERT INTO department_summary (" + Abteilungsstand.SPALTEN + ") VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE employee_count = employee_count + VALUES(employee_count), "
+            + "salary_count = salary_count + VALUES(salary_count), "
+            + "salary_total = salary_total + VALUES(salary_total)";
+    private static final String LEERE_ENTFERNEN =
+        "DELETE FROM department_summary WHERE department = ? AND employee_count = 0";
+    private static final String ERHOEHUNG =
+        "UPDATE department_summary SET salary_total = salary_total + ? * salary_count WHERE department = ?";
+    private static final String NEU_BERECHNEN =
+        "SELECT COALESCE(department, ''), COUNT(*), COUNT(salary), COALESCE(SUM(salary), 0) "
+            + "FROM employees GROUP BY COALESCE(department, '')";
+    private static final String ALTER_STAND =
+        "SELECT department, salary FROM employees WHERE id = ? FOR UPDATE";
+
+    /**
+     * Ordnung der Spalte {@code department} (latin1_swedish_ci, siehe {@link Kollation}).
+     * Namen, die MySQL als dieselbe Zeile behandelt, sind damit auch hier derselbe Schlüssel.
+     */
+    private static final Comparator<String> KOLLATION = Kollation.VERGLEICH;
+
+    /** Änderung einer Abteilungszeile. */
+    private record Differenz(int anzahl, int gehaltAnzahl, BigDecimal gehaltSumme) {
+
+        static Differenz von(int vorzeichen, BigDecimal gehalt) {
+            return gehalt == null ? new Differenz(vorzeichen, 0, BigDecimal.ZERO)
+                : new Differenz(vorzeichen, vorzeichen, vorzeichen < 0 ? gehalt.negate() : gehalt);
+        }
+
+        Differenz plus(Differenz andere) {
+            return new Differenz(anzahl + andere.anzahl, gehaltAnzahl + andere.gehaltAnzahl,
+                gehaltSumme.add(andere.gehaltSumme));
+        }
+
+        boolean istLeer() {
+            return anzahl == 0 && gehaltAnzahl == 0 && gehaltSumme.signum() == 0;
+        }
+    }
+
+    private final VerbindungsPool pool;
+
+    /**
+     * @param pool der Verbindungspool
+     */
+    public AbteilungsZusammenfassung(VerbindungsPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Fügt einen Mitarbeiter ein; die Id des Parameters wird ignoriert.
+     *
+     * @param mitarbeiter der neue Mitarbeiter
+     * @return die vergebene Id
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int einfuegen(Mitarbeiter mitarbeiter) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            int id;
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "INSERT INTO employees (last_name, first_name, email, department, salary) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                felderSetzen(statement, mitarbeiter);
+                statement.executeUpdate();
+                try (ResultSet schluessel = statement.getGeneratedKeys()) {
+                    schluessel.next();
+                    id = schluessel.getInt(1);
+                }
+            }
+            Map<String, Differenz> differenzen = new TreeMap<>(KOLLATION);
+            hinzufuegen(differenzen, mitarbeiter.abteilung(), Differenz.von(1, mitarbeiter.gehalt()));
+            anwenden(verbindung, differenzen);
+            verbindung.commit();
+            return id;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Ändert alle Spalten eines Mitarbeiters, auch Abteilung und Gehalt.
+     *
+     * @param mitarbeiter der geänderte Mitarbeiter
+     * @return false, wenn es die Id nicht gibt
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public boolean aktualisieren(Mitarbeiter mitarbeiter) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            Map<String, Differenz> differenzen = new TreeMap<>(KOLLATION);
+            if (!alterStand(verbindung, mitarbeiter.id(), differenzen)) {
+                verbindung.rollback();
+                return false;
+            }
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "UPDATE employees SET last_name = ?, first_name = ?, email = ?, department = ?, salary = ? "
+                        + "WHERE id = ?")) {
+                felderSetzen(statement, mitarbeiter);
+                statement.setInt(6, mitarbeiter.id());
+                statement.executeUpdate();
+            }
+            hinzufuegen(differenzen, mitarbeiter.abteilung(), Differenz.von(1, mitarbeiter.gehalt()));
+            anwenden(verbindung, differenzen);
+            verbindung.commit();
+            return true;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * @param id die Id
+     * @return false, wenn es die Id nicht gibt
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public boolean loeschen(int id) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            Map<String, Differenz> differenzen = new TreeMap<>(KOLLATION);
+            if (!alterStand(verbindung, id, differenzen)) {
+                verbindung.rollback();
+                return false;
+            }
+            try (PreparedStatement statement = verbindung.prepareStatement("DELETE FROM employees WHERE id = ?")) {
+                statement.setInt(1, id);
+                statement.executeUpdate();
+            }
+            anwenden(verbindung, differenzen);
+            verbindung.commit();
+            return true;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Erhöht alle Gehälter einer Abteilung, wie {@code increase_salaries_for_department}.
+     * Der Betrag wird wie dort auf zwei Nachkommastellen gerundet.
+     *
+     * @param abteilung die Abteilung, weder null noch leer
+     * @param betrag der Erhöhungsbetrag
+     * @return die Anzahl gefundener Mitarbeiter
+     * @throws IllegalArgumentException wenn die Abteilung null oder leer ist
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public int gehaelterErhoehen(String abteilung, BigDecimal betrag) throws SQLException {
+        betrag = erhoehungPruefen(abteilung, betrag);
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            int anzahl;
+            try (PreparedStatement statement = verbindung.prepareStatement(
+                    "UPDATE employees SET salary = salary + ? WHERE department = ?")) {
+                statement.setBigDecimal(1, betrag);
+                statement.setString(2, abteilung);
+                anzahl = statement.executeUpdate();
+            }
+            erhoehungAnwenden(verbindung, abteilung, betrag);
+            verbindung.commit();
+            return anzahl;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Ruft {@code increase_salaries_for_department} auf; die Prozedur läuft in der
+     * Transaktion des Aufrufers, sodass Erhöhung und Differenz gemeinsam bestätigt werden.
+     *
+     * @param abteilung die Abteilung, weder null noch leer
+     * @param betrag der Erhöhungsbetrag
+     * @throws IllegalArgumentException wenn die Abteilung null oder leer ist
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public void gehaelterErhoehenPerProzedur(String abteilung, BigDecimal betrag) throws SQLException {
+        betrag = erhoehungPruefen(abteilung, betrag);
+        Connection verbindung = pool.ausleihen();
+        try {
+            verbindung.setAutoCommit(false);
+            try (CallableStatement statement = verbindung.prepareCall(
+                    "{call increase_salaries_for_department(?, ?)}")) {
+                statement.setString(1, abteilung);
+                statement.setBigDecimal(2, betrag);
+                statement.execute();
+            }
+            erhoehungAnwenden(verbindung, abteilung, betrag);
+            verbindung.commit();
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * @param abteilung die Abteilung
+     * @return der Stand der Abteilung; eine unbekannte Abteilung hat Anzahl 0
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public Abteilungsstand lesen(String abteilung) throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (PreparedStatement statement = verbindung.prepareStatement(
+                "SELECT " + Abteilungsstand.SPALTEN + " FROM department_summary WHERE department = ?")) {
+            statement.setString(1, schluessel(abteilung));
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                return ergebnisSet.next() ? Abteilungsstand.ausZeile(ergebnisSet)
+                    : new Abteilungsstand(schluessel(abteilung), 0, 0, BigDecimal.ZERO);
+            }
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * @return alle Abteilungen, nach Namen sortiert
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<Abteilungsstand> alle() throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        try (Statement statement = verbindung.createStatement()) {
+            return new ArrayList<>(lesen(statement, false).values());
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Vergleicht die Tabelle mit einer Neuberechnung aus {@code employees}. Beide
+     * Abfragen lesen denselben Schnappschuss; laufende Transaktionen sind in beiden
+     * unsichtbar, sodass nur echte Abweichungen gemeldet werden.
+     *
+     * @return die Abweichungen; leer, wenn die Tabelle stimmt
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<Abweichung> pruefen() throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        int isolation = verbindung.getTransactionIsolation();
+        try (Statement statement = verbindung.createStatement()) {
+            verbindung.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            verbindung.setAutoCommit(false);
+            statement.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+            List<Abweichung> abweichungen = vergleichen(berechnen(statement), lesen(statement, false));
+            verbindung.commit();
+            return abweichungen;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            verbindung.setTransactionIsolation(isolation);
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Baut die Tabelle neu auf und korrigiert nur die abweichenden Zeilen.
+     *
+     * Zuerst werden alle vorhandenen Zeilen von {@code department_summary}
+     * gesperrt. Unter READ COMMITTED setzt InnoDB dabei keine Lückensperren;
+     * gesperrt sind nur die gelesenen Zeilen. Schreiber dieser Klasse, die
+     * {@code employees} schon geändert haben, warten danach auf die Zeile ihrer
+     * Abteilung; ihre unbestätigte Änderung ist in der anschließenden
+     * Neuberechnung unsichtbar und wird nach dem Neuaufbau von ihrer eigenen
+     * Differenz nachgetragen.
+     *
+     * Eine Abteilung ohne Zeile in der Tabelle ist nicht gesperrt. Legt ein
+     * Schreiber ihre Zeile gleichzeitig an, kann der Neuaufbau sie mit einem
+     * Stand ohne dessen Änderung überschreiben; der nächste Lauf korrigiert das.
+     * Entfernt wird vor dem Setzen, damit ein Name, den MySQL gleich behandelt,
+     * nicht erst gesetzt und dann gelöscht wird.
+     *
+     * @return die korrigierten Abweichungen
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public List<Abweichung> neuAufbauen() throws SQLException {
+        Connection verbindung = pool.ausleihen();
+        int isolation = verbindung.getTransactionIsolation();
+        try (Statement statement = verbindung.createStatement()) {
+            verbindung.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            verbindung.setAutoCommit(false);
+            Map<String, Abteilungsstand> gespeichert = lesen(statement, true);
+            List<Abweichung> abweichungen = vergleichen(berechnen(statement), gespeichert);
+
+            try (PreparedStatement setzen = verbindung.prepareStatement(
+                     "INSERT INTO department_summary (" + Abteilungsstand.SPALTEN + ") VALUES (?, ?, ?, ?) "
+                         + "ON DUPLICATE KEY UPDATE employee_count = VALUES(employee_count), "
+                         + "salary_count = VALUES(salary_count), salary_total = VALUES(salary_total)");
+                 PreparedStatement entfernen = verbindung.prepareStatement(
+                     "DELETE FROM department_summary WHERE department = ?")) {
+                for (Abweichung abweichung : abweichungen) {
+                    Abteilungsstand erwartet = abweichung.erwartet();
+                    if (erwartet == null) {
+                        entfernen.setString(1, abweichung.abteilung());
+                        entfernen.addBatch();
+                    } else {
+                        setzen.setString(1, erwartet.abteilung());
+                        setzen.setInt(2, erwartet.anzahl());
+                        setzen.setInt(3, erwartet.gehaltAnzahl());
+                        setzen.setBigDecimal(4, erwartet.gehaltSumme());
+                        setzen.addBatch();
+                    }
+                }
+                entfernen.executeBatch();
+                setzen.executeBatch();
+            }
+            verbindung.commit();
+            return abweichungen;
+        } catch (SQLException e) {
+            verbindung.rollback();
+            throw e;
+        } finally {
+            verbindung.setTransactionIsolation(isolation);
+            pool.zurueckgeben(verbindung);
+        }
+    }
+
+    /**
+     * Sperrt die Zeile und vermerkt ihren Abzug aus der alten Abteilung.
+     */
+    private static boolean alterStand(Connection verbindung, int id, Map<String, Differenz> differenzen)
+            throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(ALTER_STAND)) {
+            statement.setInt(1, id);
+            try (ResultSet ergebnisSet = statement.executeQuery()) {
+                if (!ergebnisSet.next()) {
+                    return false;
+                }
+                hinzufuegen(differenzen, ergebnisSet.getString(1), Differenz.von(-1, ergebnisSet.getBigDecimal(2)));
+                return true;
+            }
+        }
+    }
+
+    private static void hinzufuegen(Map<String, Differenz> differenzen, String abteilung, Differenz differenz) {
+        differenzen.merge(schluessel(abteilung), differenz, Differenz::plus);
+    }
+
+    /**
+     * Wendet die Differenzen in Namensreihenfolge an; die {@link TreeMap} mit
+     * {@link #KOLLATION} legt die Sperrreihenfolge fest.
+     */
+    private static void anwenden(Connection verbindung, Map<String, Differenz> differenzen) throws SQLException {
+        try (PreparedStatement differenz = verbindung.prepareStatement(DIFFERENZ);
+             PreparedStatement leere = verbindung.prepareStatement(LEERE_ENTFERNEN)) {
+            for (Map.Entry<String, Differenz> eintrag : differenzen.entrySet()) {
+                Differenz aenderung = eintrag.getValue();
+                if (aenderung.istLeer()) {
+                    continue;
+                }
+                differenz.setString(1, eintrag.getKey());
+                differenz.setInt(2, aenderung.anzahl());
+                differenz.setInt(3, aenderung.gehaltAnzahl());
+                differenz.setBigDecimal(4, aenderung.gehaltSumme());
+                differenz.executeUpdate();
+                if (aenderung.anzahl() < 0) {
+                    leere.setString(1, eintrag.getKey());
+                    leere.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static void erhoehungAnwenden(Connection verbindung, String abteilung, BigDecimal betrag)
+            throws SQLException {
+        try (PreparedStatement statement = verbindung.prepareStatement(ERHOEHUNG)) {
+            statement.setBigDecimal(1, betrag);
+            statement.setString(2, schluessel(abteilung));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Mitarbeiter ohne Abteilung und mit leerer Abteilung teilen sich die Zeile
+     * {@code ''}, {@code department = ?} trifft aber nie beide: mit null keinen,
+     * mit {@code ''} nur die leeren. Die Differenz {@code betrag * salary_count}
+     * wäre dann falsch, daher werden solche Erhöhungen abgelehnt. Der Betrag wird
+     * gerundet wie der Prozedurparameter {@code DECIMAL(10,2)} und die Spalte
+     * {@code salary}, damit Tabelle und Zusammenfassung dieselbe Erhöhung sehen.
+     */
+    private static BigDecimal erhoehungPruefen(String abteilung, BigDecimal betrag) {
+        if (abteilung == null || abteilung.isBlank()) {
+            throw new IllegalArgumentException("Gehaltserhöhung braucht eine Abteilung: " + abteilung);
+        }
+        return betrag.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void felderSetzen(PreparedStatement statement, Mitarbeiter mitarbeiter) throws SQLException {
+        statement.setString(1, mitarbeiter.nachname());
+        statement.setString(2, mitarbeiter.vorname());
+        statement.setString(3, mitarbeiter.email());
+        statement.setString(4, mitarbeiter.abteilung());
+        if (mitarbeiter.gehalt() == null) {
+            statement.setNull(5, Types.DECIMAL);
+        } else {
+            statement.setBigDecimal(5, mitarbeiter.gehalt());
+        }
+    }
+
+    private static String schluessel(String abteilung) {
+        return abteilung == null ? "" : abteilung;
+    }
+
+    private static Map<String, Abteilungsstand> berechnen(Statement statement) throws SQLException {
+        Map<String, Abteilungsstand> staende = new TreeMap<>(KOLLATION);
+        try (ResultSet ergebnisSet = statement.executeQuery(NEU_BERECHNEN)) {
+            while (ergebnisSet.next()) {
+                Abteilungsstand stand = Abteilungsstand.ausZeile(ergebnisSet);
+                staende.put(stand.abteilung(), stand);
+            }
+        }
+        return staende;
+    }
+
+    private static Map<String, Abteilungsstand> lesen(Statement statement, boolean sperren) throws SQLException {
+        Map<String, Abteilungsstand> staende = new TreeMap<>(KOLLATION);
+        try (ResultSet ergebnisSet = statement.executeQuery("SELECT " + Abteilungsstand.SPALTEN
+                + " FROM department_summary ORDER BY department" + (sperren ? " FOR UPDATE" : ""))) {
+            while (ergebnisSet.next()) {
+                Abteilungsstand stand = Abteilungsstand.ausZeile(ergebnisSet);
+                staende.put(stand.abteilung(), stand);
+            }
+        }
+        return staende;
+    }
+
+    /**
+     * Zeilen mit Anzahl 0 gelten als nicht vorhanden.
+     */
+    private static List<Abweichung> vergleichen(Map<String, Abteilungsstand> erwartet,
+                                                Map<String, Abteilungsstand> gespeichert) {
+        TreeSet<String> abteilungen = new TreeSet<>(KOLLATION);
+        abteilungen.addAll(erwartet.keySet());
+        abteilungen.addAll(gespeichert.keySet());
+        List<Abweichung> abweichungen = new ArrayList<>();
+        for (String abteilung : abteilungen) {
+            Abteilungsstand soll = erwartet.get(abteilung);
+            Abteilungsstand ist = gespeichert.get(abteilung);
+            if (soll == null && ist.anzahl() == 0) {
+                continue;
+            }
+            if (soll == null || ist == null || soll.anzahl() != ist.anzahl()
+                    || soll.gehaltAnzahl() != ist.gehaltAnzahl()
+                    || soll.gehaltSumme().compareTo(ist.gehaltSumme()) != 0) {
+                abweichungen.add(new Abweichung(abteilung, soll, ist));
+            }
+        }
+        return abweichungen;
+    }
+
+    /**
+     * Führt eine Prüfung, einen Neuaufbau oder eine Vorführung aus.
+     *
+     * Aufruf: {@code AbteilungsZusammenfassung [modus=vorfuehren|pruefen|aufbauen] [lesungen=1000]}
+     *
+     * @param args {@code modus=} und {@code lesungen=}
+     * @throws SQLException bei Datenbankfehlern
+     */
+    public static void main(String[] args) throws SQLException {
+        String modus = "vorfuehren";
+        int lesungen = 1000;
+        for (String argument : args) {
+            String[] teile = argument.split("=", 2);
+            if (teile.length != 2) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            switch (teile[0]) {
+                case "modus" -> modus = teile[1];
+                case "lesungen" -> lesungen = Integer.parseInt(teile[1]);
+                default -> throw new IllegalArgumentException("Unbekannter Schlüssel: " + teile[0]);
+            }
+        }
+
+        try (VerbindungsPool pool = new VerbindungsPool(DatenbankKonfiguration.standard(), 2)) {
+            AbteilungsZusammenfassung zusammenfassung = new AbteilungsZusammenfassung(pool);
+            switch (modus) {
+                case "pruefen" -> ausgeben(zusammenfassung.pruefen());
+                case "aufbauen" -> ausgeben(zusammenfassung.neuAufbauen());
+                case "vorfuehren" -> vorfuehren(pool, zusammenfassung, lesungen);
+                default -> throw new IllegalArgumentException("Unbekannter Modus: " + modus);
+            }
+        }
+    }
+
+    private static void vorfuehren(VerbindungsPool pool, AbteilungsZusammenfassung zusammenfassung, int lesungen)
+            throws SQLException {
+        int id = zusammenfassung.einfuegen(new Mitarbeiter(0, "Summe", "Sam", "sam.summe@foo.com", "Legal",
+            new BigDecimal("70000.00")));
+        zusammenfassung.aktualisieren(new Mitarbeiter(id, "Summe", "Sam", "sam.summe@foo.com", "HR",
+            new BigDecimal("72000.00")));
+        zusammenfassung.gehaelterErhoehen("HR", new BigDecimal("10.00"));
+        zusammenfassung.gehaelterErhoehenPerProzedur("HR", new BigDecimal("-10.00"));
+        zusammenfassung.loeschen(id);
+        for (Abteilungsstand stand : zusammenfassung.alle()) {
+            System.out.printf("%-14s %6d %16s  Ø %s%n", stand.abteilung(), stand.anzahl(), stand.gehaltSumme(),
+                stand.durchschnitt());
+        }
+        ausgeben(zusammenfassung.pruefen());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < lesungen; i++) {
+            zusammenfassung.lesen("Engineering");
+        }
+        double tabelleUs = (System.nanoTime() - start) / 1e3 / lesungen;
+        Connection verbindung = pool.ausleihen();
+        try (CallableStatement statement = verbindung.prepareCall("{call get_count_for_department(?, ?)}")) {
+            start = System.nanoTime();
+            for (int i = 0; i < lesungen; i++) {
+                statement.setString(1, "Engineering");
+                statement.registerOutParameter(2, Types.INTEGER);
+                statement.execute();
+                Objects.requireNonNull(statement.getObject(2));
+            }
+        } finally {
+            pool.zurueckgeben(verbindung);
+        }
+        double prozedurUs = (System.nanoTime() - start) / 1e3 / lesungen;
+        System.out.printf("%nAnzahl je Abfrage: department_summary %.1f µs, get_count_for_department %.1f µs%n",
+            tabelleUs, prozedurUs);
+    }
+
+    private static void ausgeben(List<Abweichung> abweichungen) {
+        if (abweichungen.isEmpty()) {
+            System.out.println("department_summary stimmt mit employees überein");
+        }
+        for (Abweichung abweichung : abweichungen) {
+            System.out.printf("Abweichung %-14s erwartet %s, gespeichert %s%n", abweichung.abteilung(),
+                abweichung.erwartet(), abweichung.gespeichert());
+        }
+    }
+}
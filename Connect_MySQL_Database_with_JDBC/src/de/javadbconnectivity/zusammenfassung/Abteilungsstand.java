@@ -0,0 +1,41 @@
+package de.javadbconnectivity.zusammenfassung;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Eine Zeile der Tabelle {@code department_summary}.
+ *
+ * @param abteilung die Abteilung; Mitarbeiter ohne Abteilung stehen unter {@code ""}
+ * @param anzahl die Anzahl der Mitarbeiter
+ * @param gehaltAnzahl die Anzahl der Mitarbeiter mit Gehalt (nicht NULL)
+ * @param gehaltSumme die Summe der Gehälter
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Abteilungsstand(String abteilung, int anzahl, int gehaltAnzahl, BigDecimal gehaltSumme) {
+
+    /** Die Spalten passend zu {@link #ausZeile(ResultSet)} */
+    public static final String SPALTEN = "department, employee_count, salary_count, salary_total";
+
+    /**
+     * @param ergebnisSet das ResultSet, positioniert auf einer Zeile mit den {@link #SPALTEN}
+     * @return der gelesene Stand
+     * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     */
+    public static Abteilungsstand ausZeile(ResultSet ergebnisSet) throws SQLException {
+        return new Abteilungsstand(ergebnisSet.getString(1), ergebnisSet.getInt(2), ergebnisSet.getInt(3),
+            ergebnisSet.getBigDecimal(4));
+    }
+
+    /**
+     * @return das Durchschnittsgehalt oder null ohne Gehälter
+     */
+    public BigDecimal durchschnitt() {
+        return gehaltAnzahl == 0 ? null
+            : gehaltSumme.divide(BigDecimal.valueOf(gehaltAnzahl), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,15 @@
+package de.javadbconnectivity.zusammenfassung;
+
+/**
+ * Ein Unterschied zwischen {@code department_summary} und dem aus
+ * {@code employees} berechneten Stand.
+ *
+ * @param abteilung die Abteilung
+ * @param erwartet der berechnete Stand oder null, wenn die Abteilung nicht mehr existiert
+ * @param gespeichert der gespeicherte Stand oder null, wenn die Zeile fehlt
+ *
+ * @author MoBoudni
+ * @version 2.0
+ */
+public record Abweichung(String abteilung, Abteilungsstand erwartet, Abteilungsstand gespeichert) {
+}
@@ -1,11 +1,18 @@
 package de.jdbcStoredProzedures;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import de.javadbconnectivity.bericht.BerichtsFormat;
+import de.javadbconnectivity.bericht.BerichtsSchreiber;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+
 /**
  * Demonstriert die Verwendung von JDBC PreparedStatement für Mitarbeiterabfragen
  * mit parametrisierten Queries für verbesserte Sicherheit und Performance.
@@ -41,12 +48,15 @@ public class Driver {
         ResultSet ergebnisSet = null;
         
         try {
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
             // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            verbindung = DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort());
             
             // Parametrisierte Abfrage für Mitarbeitersuche vorbereiten
             statement = verbindung.prepareStatement(
-                "SELECT * FROM employees WHERE salary > ? AND department = ?");
+                AbfrageBauer.fuer(Anzeigepfad.GEHALTSLISTE).wo("salary > ? AND department = ?").bauen());
             
             // Erste Abfrage ausführen: Legal-Abteilung mit Gehalt > 80000
             statement.setDouble(1, 80000);
@@ -74,18 +84,23 @@ public class Driver {
     
     /**
      * Zeigt Mitarbeiterinformationen aus dem ResultSet in formatierter Form an.
+     * Die Zeilen werden gepuffert über einen {@link BerichtsSchreiber} ausgegeben.
      * 
      * @param ergebnisSet das ResultSet mit Mitarbeiterdaten
      * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     * @throws IOException wenn die Ausgabe fehlschlägt
      */
-    private static void anzeigen(ResultSet ergebnisSet) throws SQLException {
-        while (ergebnisSet.next()) {
-            String nachname = ergebnisSet.getString("last_name");
-            String vorname = ergebnisSet.getString("first_name");
-            double gehalt = ergebnisSet.getDouble("salary");
-            String abteilung = ergebnisSet.getString("department");
-            
-            System.out.printf("%s, %s, %.2f, %s%n", nachname, vorname, gehalt, abteilung);
+    private static void anzeigen(ResultSet ergebnisSet) throws SQLException, IOException {
+        try (BerichtsSchreiber schreiber = BerichtsSchreiber.stdout(BerichtsFormat.LISTE,
+                "last_name", "first_name", "salary", "department")) {
+            while (ergebnisSet.next()) {
+                String nachname = ergebnisSet.getString("last_name");
+                String vorname = ergebnisSet.getString("first_name");
+                double gehalt = ergebnisSet.getDouble("salary");
+                String abteilung = ergebnisSet.getString("department");
+                
+                schreiber.text(nachname).text(vorname).betrag(gehalt).text(abteilung).zeileBeenden();
+            }
         }
     }
     
@@ -99,14 +114,20 @@ public class Driver {
     private static void ressourcenSchliessen(ResultSet ergebnisSet, PreparedStatement statement, 
                                            Connection verbindung) {
         try {
-            if (ergebnisSet != null) {
-                ergebnisSet.close();
-            }
-            if (statement != null) {
-                statement.close();
-            }
-            if (verbindung != null) {
-                verbindung.close();
+            try {
+                if (ergebnisSet != null) {
+                    ergebnisSet.close();
+                }
+            } finally {
+                try {
+                    if (statement != null) {
+                        statement.close();
+                    }
+                } finally {
+                    if (verbindung != null) {
+                        verbindung.close();
+                    }
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -7,6 +7,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 
+import de.javadbconnectivity.flugschreiber.Flugschreiber;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
 /**
  * Demonstriert den Aufruf einer gespeicherten Prozedur, die einen Zählwert 
  * über einen OUT-Parameter zurückgibt.
@@ -40,8 +43,11 @@ public class GetCountForDepartment {
         CallableStatement statement = null;
         
         try {
-            // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
+            // Datenbankverbindung herstellen; der Aufruf erscheint als JFR-Ereignis
+            verbindung = Flugschreiber.umhuellen(DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort()));
             
             String zielAbteilung = "Engineering";
             
@@ -81,11 +87,14 @@ public class GetCountForDepartment {
      */
     private static void ressourcenSchliessen(Connection verbindung, Statement statement) 
             throws SQLException {
-        if (statement != null) {
-            statement.close();
-        }
-        if (verbindung != null) {
-            verbindung.close();
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } finally {
+            if (verbindung != null) {
+                verbindung.close();
+            }
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package de.jdbcStoredProzedures;
 
+import java.io.IOException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -7,6 +8,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.bericht.BerichtsFormat;
+import de.javadbconnectivity.bericht.BerichtsSchreiber;
+import de.javadbconnectivity.flugschreiber.Flugschreiber;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
 /**
  * Demonstriert den Aufruf einer gespeicherten Prozedur, die ein ResultSet zurückgibt.
  * 
@@ -40,8 +46,11 @@ public class GetEmployeesForDepartment {
         ResultSet ergebnisSet = null;
         
         try {
-            // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
+            // Datenbankverbindung herstellen; der Aufruf erscheint als JFR-Ereignis
+            verbindung = Flugschreiber.umhuellen(DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort()));
             
             String zielAbteilung = "Engineering";
             
@@ -70,22 +79,27 @@ public class GetEmployeesForDepartment {
     
     /**
      * Zeigt Mitarbeiterinformationen aus dem ResultSet in formatierter Form an.
+     * Die Zeilen werden gepuffert über einen {@link BerichtsSchreiber} ausgegeben.
      * 
      * @param ergebnisSet das ResultSet mit Mitarbeiterdaten
      * @throws SQLException wenn ein Datenbankzugriffsfehler auftritt
+     * @throws IOException wenn die Ausgabe fehlschlägt
      */
-    private static void anzeigen(ResultSet ergebnisSet) throws SQLException {
+    private static void anzeigen(ResultSet ergebnisSet) throws SQLException, IOException {
         System.out.println("Mitarbeiterliste:");
         System.out.println("Nachname, Vorname, Abteilung, Gehalt");
         System.out.println("------------------------------------");
         
-        while (ergebnisSet.next()) {
-            String nachname = ergebnisSet.getString("last_name");
-            String vorname = ergebnisSet.getString("first_name");
-            double gehalt = ergebnisSet.getDouble("salary");
-            String abteilung = ergebnisSet.getString("department");
-            
-            System.out.printf("%s, %s, %s, %.2f%n", nachname, vorname, abteilung, gehalt);
+        try (BerichtsSchreiber schreiber = BerichtsSchreiber.stdout(BerichtsFormat.LISTE,
+                "last_name", "first_name", "department", "salary")) {
+            while (ergebnisSet.next()) {
+                String nachname = ergebnisSet.getString("last_name");
+                String vorname = ergebnisSet.getString("first_name");
+                double gehalt = ergebnisSet.getDouble("salary");
+                String abteilung = ergebnisSet.getString("department");
+                
+                schreiber.text(nachname).text(vorname).text(abteilung).betrag(gehalt).zeileBeenden();
+            }
         }
     }
     
@@ -99,14 +113,20 @@ public class GetEmployeesForDepartment {
      */
     private static void close(Connection verbindung, Statement statement,
                                            ResultSet ergebnisSet) throws SQLException {
-        if (ergebnisSet != null) {
-            ergebnisSet.close();
-        }
-        if (statement != null) {
-            statement.close();
-        }
-        if (verbindung != null) {
-            verbindung.close();
+        try {
+            if (ergebnisSet != null) {
+                ergebnisSet.close();
+            }
+        } finally {
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+            } finally {
+                if (verbindung != null) {
+                    verbindung.close();
+                }
+            }
         }
     }
     
@@ -7,6 +7,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 
+import de.javadbconnectivity.flugschreiber.Flugschreiber;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+
 /**
  * Demonstriert den Aufruf einer gespeicherten Prozedur mit einem INOUT-Parameter.
  * 
@@ -39,8 +42,11 @@ public class GreetTheDepartment {
         CallableStatement statement = null;
         
         try {
-            // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
+            // Datenbankverbindung herstellen; der Aufruf erscheint als JFR-Ereignis
+            verbindung = Flugschreiber.umhuellen(DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort()));
             
             String zielAbteilung = "Engineering";
             
@@ -77,11 +83,14 @@ public class GreetTheDepartment {
      */
     private static void close(Connection verbindung, Statement statement) 
             throws SQLException {
-        if (statement != null) {
-            statement.close();
-        }
-        if (verbindung != null) {
-            verbindung.close();
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } finally {
+            if (verbindung != null) {
+                verbindung.close();
+            }
         }
     }
 }
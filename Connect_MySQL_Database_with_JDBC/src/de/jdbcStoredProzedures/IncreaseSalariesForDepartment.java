@@ -8,6 +8,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.javadbconnectivity.bericht.BerichtsFormat;
+import de.javadbconnectivity.bericht.BerichtsSchreiber;
+import de.javadbconnectivity.flugschreiber.Flugschreiber;
+import de.javadbconnectivity.pool.DatenbankKonfiguration;
+import de.javadbconnectivity.projektion.AbfrageBauer;
+import de.javadbconnectivity.projektion.Anzeigepfad;
+import de.javadbconnectivity.projektion.Spalte;
+
 /**
  * Demonstriert den Aufruf einer gespeicherten Prozedur, die Daten modifiziert,
  * und zeigt einen Vorher/Nachher-Vergleich der betroffenen Datensätze.
@@ -42,8 +50,11 @@ public class IncreaseSalariesForDepartment {
         CallableStatement statement = null;
         
         try {
-            // Datenbankverbindung herstellen
-            verbindung = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            // -Ddb.url, -Ddb.user und -Ddb.password haben Vorrang, z.B. für EingebetteteDatenbank
+            DatenbankKonfiguration konfiguration = DatenbankKonfiguration.standard(DB_URL, DB_USER, DB_PASSWORD);
+            // Datenbankverbindung herstellen; der Aufruf erscheint als JFR-Ereignis
+            verbindung = Flugschreiber.umhuellen(DriverManager.getConnection(
+                konfiguration.url(), konfiguration.benutzer(), konfiguration.passwort()));
             
             String zielAbteilung = "Engineering";
             int gehaltsErhoehung = 10000;
@@ -91,7 +102,8 @@ public class IncreaseSalariesForDepartment {
         try {
             // Abfrage für Abteilungsmitarbeiter vorbereiten
             statement = verbindung.prepareStatement(
-                "SELECT * FROM employees WHERE department = ? ORDER BY last_name");
+                AbfrageBauer.fuer(Anzeigepfad.ABTEILUNGSLISTE).wo("department = ?")
+                    .sortiertNach(Spalte.NACHNAME).bauen());
             statement.setString(1, abteilungsName);
             
             // Abfrage ausführen und Ergebnisse verarbeiten
@@ -101,13 +113,17 @@ public class IncreaseSalariesForDepartment {
             System.out.println("Nachname, Vorname, Abteilung, Gehalt");
             System.out.println("----------------------------------");
             
-            while (ergebnisSet.next()) {
-                String nachname = ergebnisSet.getString("last_name");
-                String vorname = ergebnisSet.getString("first_name");
-                double gehalt = ergebnisSet.getDouble("salary");
-                String abteilung = ergebnisSet.getString("department");
-                
-                System.out.printf("%s, %s, %s, %.2f%n", nachname, vorname, abteilung, gehalt);
+            // Zeilen gepuffert ausgeben statt printf pro Zeile
+            try (BerichtsSchreiber schreiber = BerichtsSchreiber.stdout(BerichtsFormat.LISTE,
+                    "last_name", "first_name", "department", "salary")) {
+                while (ergebnisSet.next()) {
+                    String nachname = ergebnisSet.getString("last_name");
+                    String vorname = ergebnisSet.getString("first_name");
+                    double gehalt = ergebnisSet.getDouble("salary");
+                    String abteilung = ergebnisSet.getString("department");
+                    
+                    schreiber.text(nachname).text(vorname).text(abteilung).betrag(gehalt).zeileBeenden();
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -126,14 +142,20 @@ public class IncreaseSalariesForDepartment {
      */
     private static void ressourcenSchliessen(Connection verbindung, Statement statement,
                                            ResultSet ergebnisSet) throws SQLException {
-        if (ergebnisSet != null) {
-            ergebnisSet.close();
-        }
-        if (statement != null) {
-            statement.close();
-        }
-        if (verbindung != null) {
-            verbindung.close();
+        try {
+            if (ergebnisSet != null) {
+                ergebnisSet.close();
+            }
+        } finally {
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+            } finally {
+                if (verbindung != null) {
+                    verbindung.close();
+                }
+            }
         }
     }
     
@@ -6,4 +6,8 @@
  */
 module Connect_MySQL_Database_with_JDBC {
 	requires java.sql;
+	requires jdk.jfr;
+
+	// H2 ruft die Prozedur-Gegenstücke per Reflexion aus dem Klassenpfad auf
+	opens de.javadbconnectivity.testdatenbank;
 }
\ No newline at end of file